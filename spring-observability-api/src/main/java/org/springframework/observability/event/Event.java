@@ -16,6 +16,8 @@
 
 package org.springframework.observability.event;
 
+import org.springframework.observability.lang.Nullable;
+
 /**
  * An Event represents that something happened. You must always name your events and
  * should provide a meaningful description if you can.
@@ -55,4 +57,14 @@ public interface Event {
 	default void description(String description) {
 	}
 
+	/**
+	 * The registered descriptor of the event, listeners can use its
+	 * {@link EventDescriptor#getId() id} to look up per-event state.
+	 * @return the descriptor of the event or {@code null} if the event is not described
+	 */
+	@Nullable
+	default EventDescriptor getDescriptor() {
+		return null;
+	}
+
 }
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.event;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.observability.event.tag.Cardinality;
+import org.springframework.observability.lang.Nullable;
+
+/**
+ * Describes an {@link Event}: its name, description and the tag keys (with their
+ * cardinality) recordings of the event are allowed to have. Descriptors are registered
+ * once, in a static registry, and get a stable, dense integer id so that listeners can
+ * keep per-event state in arrays indexed by {@link #getId()} instead of maps keyed by
+ * event names.
+ *
+ * <p>
+ * Events declare their descriptor through {@link Event#getDescriptor()}, typically from
+ * an enum:
+ *
+ * <pre>
+ * enum MyEvents implements IntervalEvent {
+ *
+ *     FETCH(EventDescriptor.builder("fetch").description("Fetches a resource")
+ *             .lowCardinalityTagKeys("status").highCardinalityTagKeys("resource.id").register());
+ *
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author Jonatan Ivanov
+ * @since 1.0.0
+ */
+public final class EventDescriptor {
+
+	private static final Map<String, EventDescriptor> BY_NAME = new ConcurrentHashMap<>();
+
+	private static volatile EventDescriptor[] byId = new EventDescriptor[0];
+
+	private final int id;
+
+	private final String name;
+
+	private final String description;
+
+	private final Map<String, Cardinality> tagKeys;
+
+	private EventDescriptor(int id, String name, String description, Map<String, Cardinality> tagKeys) {
+		this.id = id;
+		this.name = name;
+		this.description = description;
+		this.tagKeys = tagKeys;
+	}
+
+	/**
+	 * Starts the definition of a new descriptor.
+	 * @param name low cardinality name of the event
+	 * @return builder
+	 */
+	public static Builder builder(String name) {
+		return new Builder(name);
+	}
+
+	/**
+	 * Returns the descriptor registered with the given id.
+	 * @param id id of the descriptor
+	 * @return the descriptor or {@code null} if no descriptor was registered with the id
+	 */
+	@Nullable
+	public static EventDescriptor byId(int id) {
+		EventDescriptor[] descriptors = byId;
+		return id >= 0 && id < descriptors.length ? descriptors[id] : null;
+	}
+
+	/**
+	 * Returns the descriptor registered with the given name.
+	 * @param name name of the descriptor
+	 * @return the descriptor or {@code null} if no descriptor was registered with the
+	 * name
+	 */
+	@Nullable
+	public static EventDescriptor byName(String name) {
+		return BY_NAME.get(name);
+	}
+
+	/**
+	 * The number of ids given out so far, ids are in the {@code [0, count)} range.
+	 * @return number of ids given out
+	 */
+	public static int registeredCount() {
+		return byId.length;
+	}
+
+	/**
+	 * Removes all registered descriptors, e.g. to isolate tests from each other. Ids are
+	 * never given out again, so descriptors kept in static fields don't share their id
+	 * with the descriptors registered afterwards.
+	 */
+	public static synchronized void clear() {
+		BY_NAME.clear();
+		byId = new EventDescriptor[byId.length];
+	}
+
+	private static synchronized EventDescriptor register(Builder builder) {
+		EventDescriptor existing = BY_NAME.get(builder.name);
+		if (existing != null) {
+			if (!existing.description.equals(builder.description) || !existing.tagKeys.equals(builder.tagKeys)) {
+				throw new IllegalArgumentException(
+						"An event descriptor with a different definition is already registered under the name ["
+								+ builder.name + "]");
+			}
+			return existing;
+		}
+		EventDescriptor[] descriptors = byId;
+		EventDescriptor descriptor = new EventDescriptor(descriptors.length, builder.name, builder.description,
+				Collections.unmodifiableMap(new LinkedHashMap<>(builder.tagKeys)));
+		EventDescriptor[] newDescriptors = Arrays.copyOf(descriptors, descriptors.length + 1);
+		newDescriptors[descriptor.id] = descriptor;
+		byId = newDescriptors;
+		BY_NAME.put(descriptor.name, descriptor);
+		return descriptor;
+	}
+
+	/**
+	 * Stable id of the descriptor, ids are assigned densely starting from zero in
+	 * registration order.
+	 * @return id of the descriptor
+	 */
+	public int getId() {
+		return this.id;
+	}
+
+	/**
+	 * Low cardinality name of the described event.
+	 * @return name of the event
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Description of the described event.
+	 * @return description of the event
+	 */
+	public String getDescription() {
+		return this.description;
+	}
+
+	/**
+	 * The tag keys recordings of the described event are allowed to have.
+	 * @return tag key to cardinality mapping in definition order
+	 */
+	public Map<String, Cardinality> getTagKeys() {
+		return this.tagKeys;
+	}
+
+	/**
+	 * Returns the cardinality of an allowed tag key.
+	 * @param tagKey tag key
+	 * @return cardinality of the key or {@code null} if the key is not allowed
+	 */
+	@Nullable
+	public Cardinality getCardinality(String tagKey) {
+		return this.tagKeys.get(tagKey);
+	}
+
+	@Override
+	public String toString() {
+		return "EventDescriptor{" + "id=" + this.id + ", name=" + this.name + ", tagKeys=" + this.tagKeys + '}';
+	}
+
+	/**
+	 * Builder for {@link EventDescriptor}.
+	 */
+	public static final class Builder {
+
+		private final String name;
+
+		private String description = "";
+
+		private final Map<String, Cardinality> tagKeys = new LinkedHashMap<>();
+
+		private Builder(String name) {
+			this.name = Objects.requireNonNull(name, "name can't be null");
+		}
+
+		/**
+		 * Sets the description.
+		 * @param description description of the event
+		 * @return this
+		 */
+		public Builder description(String description) {
+			this.description = Objects.requireNonNull(description, "description can't be null");
+			return this;
+		}
+
+		/**
+		 * Adds allowed low cardinality tag keys.
+		 * @param keys tag keys
+		 * @return this
+		 */
+		public Builder lowCardinalityTagKeys(String... keys) {
+			return tagKeys(Cardinality.LOW, keys);
+		}
+
+		/**
+		 * Adds allowed high cardinality tag keys.
+		 * @param keys tag keys
+		 * @return this
+		 */
+		public Builder highCardinalityTagKeys(String... keys) {
+			return tagKeys(Cardinality.HIGH, keys);
+		}
+
+		private Builder tagKeys(Cardinality cardinality, String... keys) {
+			for (String key : keys) {
+				this.tagKeys.put(Objects.requireNonNull(key, "key can't be null"), cardinality);
+			}
+			return this;
+		}
+
+		/**
+		 * Registers the descriptor. Registering the same definition under the same name
+		 * again returns the already registered descriptor.
+		 * @return registered descriptor
+		 * @throws IllegalArgumentException if a different definition is already
+		 * registered under the same name
+		 */
+		public EventDescriptor register() {
+			return EventDescriptor.register(this);
+		}
+
+	}
+
+}
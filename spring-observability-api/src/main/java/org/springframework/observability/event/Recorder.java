@@ -20,8 +20,10 @@ import java.util.List;
 
 import org.springframework.observability.event.instant.InstantEvent;
 import org.springframework.observability.event.instant.InstantRecording;
+import org.springframework.observability.event.interval.BatchRecording;
 import org.springframework.observability.event.interval.IntervalEvent;
 import org.springframework.observability.event.interval.IntervalRecording;
+import org.springframework.observability.lang.Nullable;
 
 /**
  * A Recorder is basically a factory that creates {@link Recording} instances for your
@@ -35,12 +37,31 @@ import org.springframework.observability.event.interval.IntervalRecording;
 public interface Recorder<T> {
 
 	/**
-	 * Creates a recording for an {@link IntervalEvent}.
+	 * Creates a recording for an {@link IntervalEvent}. The parent of the recording is
+	 * the {@link #getCurrentRecording() current recording}.
 	 * @param event an {@link IntervalEvent} to create a recording for
 	 * @return an {@link IntervalRecording} for the provided {@link IntervalEvent}
 	 */
 	IntervalRecording recordingFor(IntervalEvent event);
 
+	/**
+	 * Creates a recording for an {@link IntervalEvent} with an explicit parent, e.g. when
+	 * the recording is created on a different thread than its parent.
+	 * @param event an {@link IntervalEvent} to create a recording for
+	 * @param parent the parent of the recording or {@code null} if it has no parent
+	 * @return an {@link IntervalRecording} for the provided {@link IntervalEvent}
+	 */
+	IntervalRecording recordingFor(IntervalEvent event, @Nullable IntervalRecording parent);
+
+	/**
+	 * Creates a recording for a batch of items, represented by an {@link IntervalEvent}.
+	 * The parent of the recording is the {@link #getCurrentRecording() current
+	 * recording}.
+	 * @param event an {@link IntervalEvent} to create a recording for
+	 * @return a {@link BatchRecording} for the provided {@link IntervalEvent}
+	 */
+	BatchRecording batchRecordingFor(IntervalEvent event);
+
 	/**
 	 * Creates a recording for an {@link InstantEvent}.
 	 * @param event an {@link InstantEvent} to create a recording for
@@ -16,8 +16,11 @@
 
 package org.springframework.observability.event;
 
+import java.util.function.Supplier;
+
 import org.springframework.observability.event.instant.InstantRecording;
 import org.springframework.observability.event.interval.IntervalRecording;
+import org.springframework.observability.event.tag.Cardinality;
 import org.springframework.observability.event.tag.Tag;
 import org.springframework.observability.event.tag.Tags;
 
@@ -58,6 +61,18 @@ public interface Recording<E extends Event, R extends Recording<E, R>> {
 	 */
 	R highCardinalityName(String highCardinalityName);
 
+	/**
+	 * Sets the high cardinality name lazily, the supplier is called at most once and only
+	 * if a listener asks for the name. Implementations that can't defer the computation
+	 * call the supplier right away.
+	 * @param highCardinalityNameSupplier supplier of the new high-cardinality (detailed)
+	 * name of the recording
+	 * @return this
+	 */
+	default R highCardinalityName(Supplier<String> highCardinalityNameSupplier) {
+		return highCardinalityName(highCardinalityNameSupplier.get());
+	}
+
 	/**
 	 * The {@link Tag Tags} added to this recording.
 	 * @return the {@link Tag Tags}
@@ -81,6 +96,19 @@ public interface Recording<E extends Event, R extends Recording<E, R>> {
 		return tag(Tag.of(key, value));
 	}
 
+	/**
+	 * Adds a {@link Tag} to the recording whose value is computed only if a listener
+	 * reads it, e.g. {@link Cardinality#HIGH high cardinality} values are never computed
+	 * when only metrics listeners are registered.
+	 * @param key tag key
+	 * @param valueSupplier supplier of the tag value, called at most once
+	 * @param cardinality tag cardinality
+	 * @return this
+	 */
+	default R tag(String key, Supplier<String> valueSupplier, Cardinality cardinality) {
+		return tag(Tag.of(key, valueSupplier, cardinality));
+	}
+
 	/**
 	 * Adds the {@link Tag} to the recording with the given key and value pairs.
 	 * @param tags array of tags
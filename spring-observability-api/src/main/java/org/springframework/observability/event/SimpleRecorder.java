@@ -25,12 +25,16 @@ import org.springframework.observability.event.instant.InstantEvent;
 import org.springframework.observability.event.instant.InstantRecording;
 import org.springframework.observability.event.instant.NoOpInstantRecording;
 import org.springframework.observability.event.instant.SimpleInstantRecording;
+import org.springframework.observability.event.interval.BatchRecording;
 import org.springframework.observability.event.interval.IntervalEvent;
 import org.springframework.observability.event.interval.IntervalRecording;
+import org.springframework.observability.event.interval.NoOpBatchRecording;
 import org.springframework.observability.event.interval.NoOpIntervalRecording;
+import org.springframework.observability.event.interval.SimpleBatchRecording;
 import org.springframework.observability.event.interval.SimpleIntervalRecording;
 import org.springframework.observability.event.listener.RecordingListener;
 import org.springframework.observability.event.listener.composite.CompositeContext;
+import org.springframework.observability.lang.Nullable;
 import org.springframework.observability.time.Clock;
 
 /**
@@ -70,13 +74,27 @@ public class SimpleRecorder<T> implements Recorder<T> {
 
 	@Override
 	public IntervalRecording recordingFor(IntervalEvent event) {
+		return recordingFor(event, getCurrentRecording());
+	}
+
+	@Override
+	public IntervalRecording recordingFor(IntervalEvent event, @Nullable IntervalRecording parent) {
 		IntervalRecording recording = this.enabled
-				? new SimpleIntervalRecording(event, this.listener, this.clock, this::remove)
+				? new SimpleIntervalRecording(event, parent, this.listener, this.clock, this::remove)
 				: new NoOpIntervalRecording();
 		setCurrentRecording(recording);
 		return recording;
 	}
 
+	@Override
+	public BatchRecording batchRecordingFor(IntervalEvent event) {
+		BatchRecording recording = this.enabled
+				? new SimpleBatchRecording(event, getCurrentRecording(), this.listener, this.clock, this::remove)
+				: new NoOpBatchRecording();
+		setCurrentRecording(recording);
+		return recording;
+	}
+
 	@Override
 	public InstantRecording recordingFor(InstantEvent event) {
 		return this.enabled ? new SimpleInstantRecording(event, this.listener, this.clock) : new NoOpInstantRecording();
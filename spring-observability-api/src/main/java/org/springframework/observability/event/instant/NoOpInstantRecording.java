@@ -17,6 +17,7 @@
 package org.springframework.observability.event.instant;
 
 import java.util.Collections;
+import java.util.function.Supplier;
 
 import org.springframework.observability.event.tag.Tag;
 
@@ -50,6 +51,11 @@ public class NoOpInstantRecording implements InstantRecording {
 		return this;
 	}
 
+	@Override
+	public InstantRecording highCardinalityName(Supplier<String> highCardinalityNameSupplier) {
+		return this;
+	}
+
 	@Override
 	public Iterable<Tag> getTags() {
 		return TAGS;
@@ -19,6 +19,7 @@ package org.springframework.observability.event.instant;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.springframework.observability.event.listener.RecordingListener;
 import org.springframework.observability.event.tag.Tag;
@@ -42,6 +43,8 @@ public class SimpleInstantRecording implements InstantRecording {
 
 	private String highCardinalityName;
 
+	private Supplier<String> highCardinalityNameSupplier;
+
 	private long wallTime = 0;
 
 	/**
@@ -64,12 +67,23 @@ public class SimpleInstantRecording implements InstantRecording {
 
 	@Override
 	public String getHighCardinalityName() {
+		if (this.highCardinalityNameSupplier != null) {
+			this.highCardinalityName = this.highCardinalityNameSupplier.get();
+			this.highCardinalityNameSupplier = null;
+		}
 		return this.highCardinalityName;
 	}
 
 	@Override
 	public InstantRecording highCardinalityName(String highCardinalityName) {
 		this.highCardinalityName = highCardinalityName;
+		this.highCardinalityNameSupplier = null;
+		return this;
+	}
+
+	@Override
+	public InstantRecording highCardinalityName(Supplier<String> highCardinalityNameSupplier) {
+		this.highCardinalityNameSupplier = highCardinalityNameSupplier;
 		return this;
 	}
 
@@ -102,8 +116,9 @@ public class SimpleInstantRecording implements InstantRecording {
 
 	@Override
 	public String toString() {
-		return "{" + "event=" + this.event.getLowCardinalityName() + ", highCardinalityName=" + this.highCardinalityName
-				+ ", tags=" + this.tags + '}';
+		return "{" + "event=" + this.event.getLowCardinalityName() + ", highCardinalityName="
+				+ (this.highCardinalityNameSupplier != null ? "<lazy>" : this.highCardinalityName) + ", tags="
+				+ this.tags + '}';
 	}
 
 }
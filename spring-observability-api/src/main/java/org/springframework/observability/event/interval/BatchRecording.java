@@ -0,0 +1,50 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.event.interval;
+
+/**
+ * Represents the recording of a batch of items as one {@link IntervalEvent}. Processed
+ * items are only aggregated into a {@link BatchSummary}, listeners are not notified about
+ * them one by one but can read the summary when the batch recording stops (e.g. to record
+ * one span with summary tags instead of a span per item).
+ *
+ * @author Jonatan Ivanov
+ * @since 1.0.0
+ */
+public interface BatchRecording extends IntervalRecording {
+
+	/**
+	 * Records a successfully processed item.
+	 * @param durationNanos the time it took to process the item in nanoseconds
+	 * @return this
+	 */
+	BatchRecording recordItem(long durationNanos);
+
+	/**
+	 * Records an item that failed to be processed.
+	 * @param durationNanos the time it took to process the item in nanoseconds
+	 * @return this
+	 */
+	BatchRecording recordFailedItem(long durationNanos);
+
+	/**
+	 * The aggregated statistics of the items recorded so far.
+	 * @return the summary of the batch
+	 */
+	BatchSummary getSummary();
+
+}
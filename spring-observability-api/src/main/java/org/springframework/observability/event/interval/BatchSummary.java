@@ -0,0 +1,141 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.event.interval;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated statistics of the items processed in a {@link BatchRecording}: item count,
+ * error count, total and max item duration and a small, fixed latency histogram. Items
+ * can be recorded concurrently, the counters are striped.
+ *
+ * @author Jonatan Ivanov
+ * @since 1.0.0
+ */
+public class BatchSummary {
+
+	private static final long[] BUCKET_UPPER_BOUNDS = { Duration.ofMillis(1).toNanos(), Duration.ofMillis(5).toNanos(),
+			Duration.ofMillis(10).toNanos(), Duration.ofMillis(50).toNanos(), Duration.ofMillis(100).toNanos(),
+			Duration.ofMillis(500).toNanos(), Duration.ofSeconds(1).toNanos(), Duration.ofSeconds(5).toNanos(),
+			Duration.ofSeconds(10).toNanos(), Long.MAX_VALUE };
+
+	private final LongAdder count = new LongAdder();
+
+	private final LongAdder errorCount = new LongAdder();
+
+	private final LongAdder totalNanos = new LongAdder();
+
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+	private final LongAdder[] buckets = new LongAdder[BUCKET_UPPER_BOUNDS.length];
+
+	/**
+	 * Creates a new, empty summary.
+	 */
+	public BatchSummary() {
+		for (int i = 0; i < this.buckets.length; i++) {
+			this.buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records a processed item.
+	 * @param durationNanos the time it took to process the item in nanoseconds
+	 * @param failed whether processing the item failed
+	 */
+	public void record(long durationNanos, boolean failed) {
+		long duration = Math.max(0, durationNanos);
+		this.count.increment();
+		if (failed) {
+			this.errorCount.increment();
+		}
+		this.totalNanos.add(duration);
+		this.maxNanos.accumulate(duration);
+		this.buckets[bucketIndex(duration)].increment();
+	}
+
+	private static int bucketIndex(long durationNanos) {
+		int i = 0;
+		while (durationNanos > BUCKET_UPPER_BOUNDS[i]) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Number of recorded items.
+	 * @return item count
+	 */
+	public long getItemCount() {
+		return this.count.sum();
+	}
+
+	/**
+	 * Number of recorded items that failed.
+	 * @return error count
+	 */
+	public long getErrorCount() {
+		return this.errorCount.sum();
+	}
+
+	/**
+	 * The sum of the item durations.
+	 * @return total item duration
+	 */
+	public Duration getTotalDuration() {
+		return Duration.ofNanos(this.totalNanos.sum());
+	}
+
+	/**
+	 * The longest item duration.
+	 * @return max item duration
+	 */
+	public Duration getMaxDuration() {
+		return Duration.ofNanos(this.maxNanos.get());
+	}
+
+	/**
+	 * The inclusive upper bounds of the histogram buckets in nanoseconds, the last bucket
+	 * is unbounded ({@link Long#MAX_VALUE}).
+	 * @return bucket upper bounds in nanoseconds
+	 */
+	public static long[] getBucketUpperBounds() {
+		return BUCKET_UPPER_BOUNDS.clone();
+	}
+
+	/**
+	 * The number of items per histogram bucket (not cumulative), in the order of
+	 * {@link #getBucketUpperBounds()}.
+	 * @return item counts per bucket
+	 */
+	public long[] getBucketCounts() {
+		long[] counts = new long[this.buckets.length];
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = this.buckets[i].sum();
+		}
+		return counts;
+	}
+
+	@Override
+	public String toString() {
+		return "{" + "items=" + getItemCount() + ", errors=" + getErrorCount() + ", total="
+				+ getTotalDuration().toMillis() + "ms" + ", max=" + getMaxDuration().toMillis() + "ms" + '}';
+	}
+
+}
@@ -16,12 +16,15 @@
 
 package org.springframework.observability.event.interval;
 
+import org.springframework.observability.event.EventDescriptor;
 import org.springframework.observability.lang.NonNull;
 import org.springframework.observability.transport.http.HttpClientRequest;
 import org.springframework.observability.transport.http.HttpClientResponse;
 
 /**
- * An IntervalEvent that represents an HTTP client event.
+ * An IntervalEvent that represents an HTTP client event. Its {@link #getDescriptor()
+ * descriptor} is named {@code http.client.requests}, subclasses still name the event
+ * themselves, e.g. with {@code getDescriptor().getName()}.
  *
  * @author Jonatan Ivanov
  * @author Marcin Grzejszczak
@@ -29,6 +32,9 @@ import org.springframework.observability.transport.http.HttpClientResponse;
  */
 public abstract class IntervalHttpClientEvent implements IntervalHttpEvent<HttpClientRequest, HttpClientResponse> {
 
+	private static final EventDescriptor DESCRIPTOR = EventDescriptor.builder("http.client.requests")
+			.description("HTTP client request").lowCardinalityTagKeys("uri").register();
+
 	private final HttpClientRequest request;
 
 	private HttpClientResponse response;
@@ -41,6 +47,11 @@ public abstract class IntervalHttpClientEvent implements IntervalHttpEvent<HttpC
 		this.request = request;
 	}
 
+	@Override
+	public EventDescriptor getDescriptor() {
+		return DESCRIPTOR;
+	}
+
 	@NonNull
 	@Override
 	public HttpClientRequest getRequest() {
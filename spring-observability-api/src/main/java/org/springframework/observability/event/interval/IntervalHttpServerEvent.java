@@ -16,18 +16,24 @@
 
 package org.springframework.observability.event.interval;
 
+import org.springframework.observability.event.EventDescriptor;
 import org.springframework.observability.lang.NonNull;
 import org.springframework.observability.transport.http.HttpServerRequest;
 import org.springframework.observability.transport.http.HttpServerResponse;
 
 /**
- * An IntervalEvent that represents an HTTP server event.
+ * An IntervalEvent that represents an HTTP server event. Its {@link #getDescriptor()
+ * descriptor} is named {@code http.server.requests}, subclasses still name the event
+ * themselves, e.g. with {@code getDescriptor().getName()}.
  *
  * @author Marcin Grzejszczak
  * @since 1.0.0
  */
 public abstract class IntervalHttpServerEvent implements IntervalHttpEvent<HttpServerRequest, HttpServerResponse> {
 
+	private static final EventDescriptor DESCRIPTOR = EventDescriptor.builder("http.server.requests")
+			.description("HTTP server request").lowCardinalityTagKeys("uri").register();
+
 	private final HttpServerRequest request;
 
 	private HttpServerResponse response;
@@ -42,6 +48,11 @@ public abstract class IntervalHttpServerEvent implements IntervalHttpEvent<HttpS
 		this.request = request;
 	}
 
+	@Override
+	public EventDescriptor getDescriptor() {
+		return DESCRIPTOR;
+	}
+
 	@NonNull
 	@Override
 	public HttpServerRequest getRequest() {
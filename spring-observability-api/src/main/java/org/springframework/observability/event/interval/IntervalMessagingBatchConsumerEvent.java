@@ -0,0 +1,129 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.event.interval;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.observability.lang.NonNull;
+import org.springframework.observability.lang.Nullable;
+import org.springframework.observability.transport.messaging.ConsumerRequest;
+
+/**
+ * An IntervalEvent that represents processing a batch of messages received from a broker
+ * at once. Listeners should record the batch as a whole instead of recording every
+ * message of it. The {@link #getRequest() request} of the event stands for the whole
+ * batch, the messages are available with {@link #getRequests()}.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public abstract class IntervalMessagingBatchConsumerEvent implements IntervalMessagingEvent<ConsumerRequest> {
+
+	private final String channelName;
+
+	private final List<? extends ConsumerRequest> requests;
+
+	private final ConsumerRequest request;
+
+	/**
+	 * Creates a new {@link IntervalMessagingBatchConsumerEvent}.
+	 * @param channelName name of the channel the batch was received from
+	 * @param requests messages of the batch
+	 */
+	public IntervalMessagingBatchConsumerEvent(@Nullable String channelName, List<? extends ConsumerRequest> requests) {
+		this.channelName = channelName;
+		this.requests = requests;
+		this.request = new BatchRequest(channelName, requests);
+	}
+
+	/**
+	 * Returns a request standing for the whole batch. It has no headers, the headers of
+	 * the messages are available with {@link #getRequests()}.
+	 * @return batch request
+	 */
+	@NonNull
+	@Override
+	public ConsumerRequest getRequest() {
+		return this.request;
+	}
+
+	/**
+	 * Returns the name of the channel the batch was received from.
+	 * @return channel name or {@code null} if unknown
+	 */
+	@Nullable
+	public String getChannelName() {
+		return this.channelName;
+	}
+
+	/**
+	 * Returns the messages of the batch.
+	 * @return requests
+	 */
+	public List<? extends ConsumerRequest> getRequests() {
+		return this.requests;
+	}
+
+	/**
+	 * Returns the number of messages in the batch.
+	 * @return batch size
+	 */
+	public int getBatchSize() {
+		return this.requests.size();
+	}
+
+	private static final class BatchRequest implements ConsumerRequest {
+
+		private final String channelName;
+
+		private final List<? extends ConsumerRequest> requests;
+
+		private BatchRequest(@Nullable String channelName, List<? extends ConsumerRequest> requests) {
+			this.channelName = channelName;
+			this.requests = requests;
+		}
+
+		@Override
+		public String channelKind() {
+			return this.requests.isEmpty() ? null : this.requests.get(0).channelKind();
+		}
+
+		@Override
+		public String channelName() {
+			return this.channelName;
+		}
+
+		@Override
+		public String header(String name) {
+			return null;
+		}
+
+		@Override
+		public Collection<String> headerNames() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public Object unwrap() {
+			return this.requests;
+		}
+
+	}
+
+}
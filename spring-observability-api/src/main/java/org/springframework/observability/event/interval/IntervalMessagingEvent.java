@@ -0,0 +1,38 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.event.interval;
+
+import org.springframework.observability.lang.NonNull;
+import org.springframework.observability.transport.messaging.MessagingRequest;
+
+/**
+ * An IntervalEvent that represents sending or receiving a message.
+ *
+ * @param <REQ> request type
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public interface IntervalMessagingEvent<REQ extends MessagingRequest> extends IntervalEvent {
+
+	/**
+	 * Returns the message.
+	 * @return request
+	 */
+	@NonNull
+	REQ getRequest();
+
+}
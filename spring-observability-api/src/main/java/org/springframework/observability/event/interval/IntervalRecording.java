@@ -31,6 +31,16 @@ import org.springframework.observability.lang.Nullable;
  */
 public interface IntervalRecording extends Recording<IntervalEvent, IntervalRecording>, AutoCloseable {
 
+	/**
+	 * The recording this recording was created under, listeners can use it to link the
+	 * two (e.g. to create a child span) without looking up what is in scope.
+	 * @return the parent recording or {@code null} if this recording has no parent
+	 */
+	@Nullable
+	default IntervalRecording getParent() {
+		return null;
+	}
+
 	/**
 	 * The duration of the event.
 	 * @return the duration
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.event.interval;
+
+import org.springframework.observability.lang.NonNull;
+import org.springframework.observability.transport.rpc.RpcClientRequest;
+import org.springframework.observability.transport.rpc.RpcResponse;
+
+/**
+ * An IntervalEvent that represents an RPC client event.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public abstract class IntervalRpcClientEvent implements IntervalRpcEvent<RpcClientRequest> {
+
+	private final RpcClientRequest request;
+
+	private RpcResponse response;
+
+	/**
+	 * Creates a new {@link IntervalRpcClientEvent}.
+	 * @param request RPC client request
+	 */
+	public IntervalRpcClientEvent(RpcClientRequest request) {
+		this.request = request;
+	}
+
+	@NonNull
+	@Override
+	public RpcClientRequest getRequest() {
+		return this.request;
+	}
+
+	@Override
+	public RpcResponse getResponse() {
+		return this.response;
+	}
+
+	@Override
+	public IntervalRpcClientEvent setResponse(RpcResponse response) {
+		this.response = response;
+		return this;
+	}
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.event.interval;
+
+import org.springframework.observability.lang.NonNull;
+import org.springframework.observability.lang.Nullable;
+import org.springframework.observability.transport.rpc.RpcRequest;
+import org.springframework.observability.transport.rpc.RpcResponse;
+
+/**
+ * An IntervalEvent that represents an RPC call.
+ *
+ * @param <REQ> request type
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public interface IntervalRpcEvent<REQ extends RpcRequest> extends IntervalEvent {
+
+	/**
+	 * Returns the RPC request.
+	 * @return request
+	 */
+	@NonNull
+	REQ getRequest();
+
+	/**
+	 * Returns the RPC response.
+	 * @return response
+	 */
+	@Nullable
+	RpcResponse getResponse();
+
+	/**
+	 * Sets the given RPC response on the event. Might be {@code null} when an exception
+	 * occurred and there's no response.
+	 * @param response an RPC response
+	 * @return this
+	 */
+	IntervalRpcEvent<REQ> setResponse(RpcResponse response);
+
+}
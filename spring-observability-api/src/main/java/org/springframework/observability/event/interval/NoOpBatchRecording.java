@@ -0,0 +1,50 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.event.interval;
+
+/**
+ * No-op implementation of {@link BatchRecording} that does nothing. This is useful in
+ * case recording is turned off.
+ *
+ * @author Jonatan Ivanov
+ * @since 1.0.0
+ */
+public class NoOpBatchRecording extends NoOpIntervalRecording implements BatchRecording {
+
+	private static final BatchSummary SUMMARY = new BatchSummary();
+
+	@Override
+	public BatchRecording recordItem(long durationNanos) {
+		return this;
+	}
+
+	@Override
+	public BatchRecording recordFailedItem(long durationNanos) {
+		return this;
+	}
+
+	@Override
+	public BatchSummary getSummary() {
+		return SUMMARY;
+	}
+
+	@Override
+	public String toString() {
+		return "NoOpBatchRecording";
+	}
+
+}
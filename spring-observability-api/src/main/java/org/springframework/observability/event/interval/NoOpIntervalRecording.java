@@ -18,6 +18,7 @@ package org.springframework.observability.event.interval;
 
 import java.time.Duration;
 import java.util.Collections;
+import java.util.function.Supplier;
 
 import org.springframework.observability.event.instant.InstantEvent;
 import org.springframework.observability.event.listener.RecordingListener;
@@ -127,6 +128,11 @@ public class NoOpIntervalRecording implements IntervalRecording {
 		return this;
 	}
 
+	@Override
+	public IntervalRecording highCardinalityName(Supplier<String> highCardinalityNameSupplier) {
+		return this;
+	}
+
 	@Override
 	public void recordInstant(InstantEvent event) {
 	}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.event.interval;
+
+import org.springframework.observability.event.listener.RecordingListener;
+import org.springframework.observability.event.listener.composite.CompositeContext;
+import org.springframework.observability.lang.Nullable;
+import org.springframework.observability.time.Clock;
+
+/**
+ * A simple implementation of {@link BatchRecording}.
+ *
+ * @author Jonatan Ivanov
+ * @since 1.0.0
+ */
+public class SimpleBatchRecording extends SimpleIntervalRecording implements BatchRecording {
+
+	private final BatchSummary summary = new BatchSummary();
+
+	/**
+	 * Creates a new instance of {@link SimpleBatchRecording}.
+	 * @param event the event this recording belongs to
+	 * @param parent the parent of this recording or {@code null} if it has no parent
+	 * @param listener the listener that needs to be notified about the recordings
+	 * @param clock the clock to be used
+	 * @param closingCallback callback to be called upon closing of the recording
+	 */
+	public SimpleBatchRecording(IntervalEvent event, @Nullable IntervalRecording parent,
+			RecordingListener<CompositeContext> listener, Clock clock, Runnable closingCallback) {
+		super(event, parent, listener, clock, closingCallback);
+	}
+
+	/**
+	 * Creates a new instance of {@link SimpleBatchRecording}.
+	 * @param event the event this recording belongs to
+	 * @param listener the listener that needs to be notified about the recordings
+	 * @param clock the clock to be used
+	 */
+	public SimpleBatchRecording(IntervalEvent event, RecordingListener<CompositeContext> listener, Clock clock) {
+		this(event, null, listener, clock, () -> {
+		});
+	}
+
+	@Override
+	public BatchRecording recordItem(long durationNanos) {
+		this.summary.record(durationNanos, false);
+		return this;
+	}
+
+	@Override
+	public BatchRecording recordFailedItem(long durationNanos) {
+		this.summary.record(durationNanos, true);
+		return this;
+	}
+
+	@Override
+	public BatchSummary getSummary() {
+		return this.summary;
+	}
+
+	@Override
+	public String toString() {
+		String intervalRecording = super.toString();
+		return intervalRecording.substring(0, intervalRecording.length() - 1) + ", summary=" + this.summary + '}';
+	}
+
+}
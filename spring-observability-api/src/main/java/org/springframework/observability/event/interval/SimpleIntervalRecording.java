@@ -20,12 +20,14 @@ import java.time.Duration;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.springframework.observability.event.instant.InstantEvent;
 import org.springframework.observability.event.instant.SimpleInstantRecording;
 import org.springframework.observability.event.listener.RecordingListener;
 import org.springframework.observability.event.listener.composite.CompositeContext;
 import org.springframework.observability.event.tag.Tag;
+import org.springframework.observability.lang.Nullable;
 import org.springframework.observability.time.Clock;
 
 /**
@@ -38,6 +40,8 @@ public class SimpleIntervalRecording implements IntervalRecording {
 
 	private final IntervalEvent event;
 
+	private final IntervalRecording parent;
+
 	private final RecordingListener<CompositeContext> listener;
 
 	private final CompositeContext context;
@@ -50,6 +54,8 @@ public class SimpleIntervalRecording implements IntervalRecording {
 
 	private String highCardinalityName;
 
+	private Supplier<String> highCardinalityNameSupplier;
+
 	private Duration duration = Duration.ZERO;
 
 	private long started = 0;
@@ -69,7 +75,21 @@ public class SimpleIntervalRecording implements IntervalRecording {
 	 */
 	public SimpleIntervalRecording(IntervalEvent event, RecordingListener<CompositeContext> listener, Clock clock,
 			Runnable closingCallback) {
+		this(event, null, listener, clock, closingCallback);
+	}
+
+	/**
+	 * Creates a new instance of {@link SimpleIntervalRecording}.
+	 * @param event the event this recording belongs to
+	 * @param parent the parent of this recording or {@code null} if it has no parent
+	 * @param listener the listener that needs to be notified about the recordings
+	 * @param clock the clock to be used
+	 * @param closingCallback callback to be called upon closing of the recording
+	 */
+	public SimpleIntervalRecording(IntervalEvent event, @Nullable IntervalRecording parent,
+			RecordingListener<CompositeContext> listener, Clock clock, Runnable closingCallback) {
 		this.event = event;
+		this.parent = parent;
 		this.highCardinalityName = event.getLowCardinalityName();
 		this.listener = listener;
 		this.context = listener.createContext();
@@ -96,15 +116,31 @@ public class SimpleIntervalRecording implements IntervalRecording {
 
 	@Override
 	public String getHighCardinalityName() {
+		if (this.highCardinalityNameSupplier != null) {
+			this.highCardinalityName = this.highCardinalityNameSupplier.get();
+			this.highCardinalityNameSupplier = null;
+		}
 		return this.highCardinalityName;
 	}
 
 	@Override
 	public IntervalRecording highCardinalityName(String highCardinalityName) {
 		this.highCardinalityName = highCardinalityName;
+		this.highCardinalityNameSupplier = null;
 		return this;
 	}
 
+	@Override
+	public IntervalRecording highCardinalityName(Supplier<String> highCardinalityNameSupplier) {
+		this.highCardinalityNameSupplier = highCardinalityNameSupplier;
+		return this;
+	}
+
+	@Override
+	public IntervalRecording getParent() {
+		return this.parent;
+	}
+
 	@Override
 	public Duration getDuration() {
 		return this.duration;
@@ -190,9 +226,9 @@ public class SimpleIntervalRecording implements IntervalRecording {
 
 	@Override
 	public String toString() {
-		return "{" + "event=" + this.event.getLowCardinalityName() + ", highCardinalityName=" + this.highCardinalityName
-				+ ", duration=" + this.duration.toMillis() + "ms" + ", tags=" + this.tags + ", error=" + this.error
-				+ '}';
+		return "{" + "event=" + this.event.getLowCardinalityName() + ", highCardinalityName="
+				+ (this.highCardinalityNameSupplier != null ? "<lazy>" : this.highCardinalityName) + ", duration="
+				+ this.duration.toMillis() + "ms" + ", tags=" + this.tags + ", error=" + this.error + '}';
 	}
 
 	@Override
@@ -78,4 +78,19 @@ public interface RecordingListener<T> extends ContextFactory<T> {
 	 */
 	void recordInstant(InstantRecording instantRecording);
 
+	/**
+	 * Signals that an {@link InstantEvent} was recorded multiple times, e.g. by an
+	 * aggregating listener that collects instant events before handing them over. The
+	 * default implementation calls {@link #recordInstant(InstantRecording)} once per
+	 * occurrence, listeners that can consume a count directly should override it.
+	 * @param instantRecording the recording that belongs to the recorded
+	 * {@link InstantEvent}
+	 * @param count the number of times the event was recorded
+	 */
+	default void recordInstants(InstantRecording instantRecording, long count) {
+		for (long i = 0; i < count; i++) {
+			recordInstant(instantRecording);
+		}
+	}
+
 }
@@ -0,0 +1,435 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.event.listener.aggregation;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import org.springframework.observability.event.Recording;
+import org.springframework.observability.event.instant.InstantEvent;
+import org.springframework.observability.event.instant.InstantRecording;
+import org.springframework.observability.event.interval.IntervalRecording;
+import org.springframework.observability.event.listener.RecordingListener;
+import org.springframework.observability.event.listener.composite.CompositeContext;
+import org.springframework.observability.event.tag.Cardinality;
+import org.springframework.observability.event.tag.Tag;
+import org.springframework.observability.time.Clock;
+
+/**
+ * {@link RecordingListener} that aggregates {@link InstantEvent instant events} before
+ * handing them over to its delegate. Occurrences are counted in striped {@link LongAdder}
+ * cells keyed by the event and its low cardinality tags, and the counts are flushed to
+ * the delegate periodically through
+ * {@link RecordingListener#recordInstants(InstantRecording, long)}. Interval recordings
+ * are passed to the delegate as they are. Events without low cardinality tags are looked
+ * up by the event alone, and the cells of keys that were not recorded between two flushes
+ * are dropped.
+ *
+ * <p>
+ * High cardinality names and tags are not aggregated. Instant events that have to reach
+ * the delegate one by one, e.g. the ones recorded while the current span is sampled so
+ * that tracing listeners still add them to the span, are selected with
+ * {@link #setPassThrough(Predicate)}.
+ *
+ * <p>
+ * The contexts of the recordings are created by the delegate, typically a composite
+ * listener, so this listener wraps the composite and recordings are created with it,
+ * rather than being registered in a composite.
+ *
+ * @author Jonatan Ivanov
+ * @since 1.0.0
+ */
+public class InstantAggregatingRecordingListener implements RecordingListener<CompositeContext>, Closeable {
+
+	private static final String[] NO_TAGS = new String[0];
+
+	private final RecordingListener<CompositeContext> delegate;
+
+	private final Clock clock;
+
+	private volatile Predicate<InstantRecording> passThrough = instantRecording -> false;
+
+	private final Map<InstantEvent, Aggregate> untagged = new ConcurrentHashMap<>();
+
+	private final Map<AggregationKey, Aggregate> aggregates = new ConcurrentHashMap<>();
+
+	// dropped by the last flush, flushed once more to pick up racing increments
+	private List<Aggregate> evicted = Collections.emptyList();
+
+	private final ScheduledExecutorService ownedScheduler;
+
+	/**
+	 * Creates a new instance of {@link InstantAggregatingRecordingListener} that is
+	 * flushed only when {@link #flush()} is called.
+	 * @param delegate the listener that receives the aggregated instant events
+	 * @param clock the clock to be used
+	 */
+	public InstantAggregatingRecordingListener(RecordingListener<CompositeContext> delegate, Clock clock) {
+		this.delegate = delegate;
+		this.clock = clock;
+		this.ownedScheduler = null;
+	}
+
+	/**
+	 * Creates a new instance of {@link InstantAggregatingRecordingListener} that is
+	 * flushed on the given scheduler.
+	 * @param delegate the listener that receives the aggregated instant events
+	 * @param clock the clock to be used
+	 * @param scheduler the scheduler the periodic flush is submitted to
+	 * @param step the time between two flushes
+	 */
+	public InstantAggregatingRecordingListener(RecordingListener<CompositeContext> delegate, Clock clock,
+			ScheduledExecutorService scheduler, Duration step) {
+		this.delegate = delegate;
+		this.clock = clock;
+		this.ownedScheduler = null;
+		schedule(scheduler, step);
+	}
+
+	/**
+	 * Creates a new instance of {@link InstantAggregatingRecordingListener} that is
+	 * flushed by its own daemon thread, the thread is stopped by {@link #close()}.
+	 * @param delegate the listener that receives the aggregated instant events
+	 * @param clock the clock to be used
+	 * @param step the time between two flushes
+	 */
+	public InstantAggregatingRecordingListener(RecordingListener<CompositeContext> delegate, Clock clock,
+			Duration step) {
+		this.delegate = delegate;
+		this.clock = clock;
+		this.ownedScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "instant-event-aggregation");
+			thread.setDaemon(true);
+			return thread;
+		});
+		schedule(this.ownedScheduler, step);
+	}
+
+	/**
+	 * Sets which instant events are handed over to the delegate one by one instead of
+	 * being aggregated.
+	 * @param passThrough predicate matching the instant recordings not to aggregate
+	 */
+	public void setPassThrough(Predicate<InstantRecording> passThrough) {
+		this.passThrough = passThrough;
+	}
+
+	private void schedule(ScheduledExecutorService scheduler, Duration step) {
+		long stepMillis = step.toMillis();
+		scheduler.scheduleAtFixedRate(this::flush, stepMillis, stepMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public boolean isApplicable(Recording<?, ?> recording) {
+		return this.delegate.isApplicable(recording);
+	}
+
+	@Override
+	public void onCreate(IntervalRecording intervalRecording) {
+		this.delegate.onCreate(intervalRecording);
+	}
+
+	@Override
+	public void onStart(IntervalRecording intervalRecording) {
+		this.delegate.onStart(intervalRecording);
+	}
+
+	@Override
+	public void onStop(IntervalRecording intervalRecording) {
+		this.delegate.onStop(intervalRecording);
+	}
+
+	@Override
+	public void onError(IntervalRecording intervalRecording) {
+		this.delegate.onError(intervalRecording);
+	}
+
+	@Override
+	public void onRestore(IntervalRecording intervalRecording) {
+		this.delegate.onRestore(intervalRecording);
+	}
+
+	@Override
+	public void recordInstant(InstantRecording instantRecording) {
+		if (this.passThrough.test(instantRecording)) {
+			this.delegate.recordInstant(instantRecording);
+			return;
+		}
+		aggregate(instantRecording, 1);
+	}
+
+	@Override
+	public void recordInstants(InstantRecording instantRecording, long count) {
+		if (this.passThrough.test(instantRecording)) {
+			this.delegate.recordInstants(instantRecording, count);
+			return;
+		}
+		aggregate(instantRecording, count);
+	}
+
+	private void aggregate(InstantRecording instantRecording, long count) {
+		InstantEvent event = instantRecording.getEvent();
+		String[] tags = lowCardinalityTags(instantRecording);
+		Aggregate aggregate;
+		if (tags == NO_TAGS) {
+			aggregate = this.untagged.get(event);
+			if (aggregate == null) {
+				aggregate = this.untagged.computeIfAbsent(event, e -> new Aggregate(new AggregationKey(e, NO_TAGS)));
+			}
+		}
+		else {
+			AggregationKey key = new AggregationKey(event, tags);
+			aggregate = this.aggregates.get(key);
+			if (aggregate == null) {
+				aggregate = this.aggregates.computeIfAbsent(key, Aggregate::new);
+			}
+		}
+		aggregate.counter.add(count);
+	}
+
+	/**
+	 * Hands the instant events that were recorded since the last flush over to the
+	 * delegate.
+	 */
+	public synchronized void flush() {
+		long wallTime = this.clock.wallTime();
+		for (Aggregate aggregate : this.evicted) {
+			flush(aggregate, wallTime);
+		}
+		List<Aggregate> evicted = new ArrayList<>();
+		flush(this.untagged.values().iterator(), wallTime, evicted);
+		flush(this.aggregates.values().iterator(), wallTime, evicted);
+		this.evicted = evicted;
+	}
+
+	private void flush(Iterator<Aggregate> aggregates, long wallTime, List<Aggregate> evicted) {
+		while (aggregates.hasNext()) {
+			Aggregate aggregate = aggregates.next();
+			if (!flush(aggregate, wallTime)) {
+				// idle since the last flush, a later event creates a new cell
+				aggregates.remove();
+				evicted.add(aggregate);
+			}
+		}
+	}
+
+	/**
+	 * Hands the occurrences since the last flush over to the delegate.
+	 * @return {@code false} if there were none
+	 */
+	private boolean flush(Aggregate aggregate, long wallTime) {
+		// the adder is never reset so increments racing with the flush are not lost,
+		// they are picked up by the next one
+		long sum = aggregate.counter.sum();
+		long count = sum - aggregate.flushed;
+		if (count <= 0) {
+			return false;
+		}
+		aggregate.flushed = sum;
+		AggregatedInstantRecording recording = new AggregatedInstantRecording(aggregate, this.delegate, this.clock,
+				wallTime);
+		if (this.delegate.isApplicable(recording)) {
+			this.delegate.recordInstants(recording, count);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of cells the occurrences are counted in.
+	 * @return number of aggregated keys
+	 */
+	int getAggregateCount() {
+		return this.untagged.size() + this.aggregates.size();
+	}
+
+	/**
+	 * Flushes the remaining instant events and stops the flushing thread if this listener
+	 * created one.
+	 */
+	@Override
+	public void close() {
+		if (this.ownedScheduler != null) {
+			this.ownedScheduler.shutdown();
+		}
+		flush();
+	}
+
+	@Override
+	public CompositeContext createContext() {
+		return this.delegate.createContext();
+	}
+
+	private static String[] lowCardinalityTags(InstantRecording instantRecording) {
+		String[] tags = NO_TAGS;
+		int size = 0;
+		for (Tag tag : instantRecording.getTags()) {
+			if (tag.getCardinality() == Cardinality.LOW) {
+				if (size == tags.length) {
+					tags = Arrays.copyOf(tags, Math.max(4, size * 2));
+				}
+				tags[size++] = tag.getKey();
+				tags[size++] = tag.getValue();
+			}
+		}
+		return size == tags.length ? tags : Arrays.copyOf(tags, size);
+	}
+
+	private static final class AggregationKey {
+
+		private final InstantEvent event;
+
+		private final String[] tags;
+
+		private final int hashCode;
+
+		private AggregationKey(InstantEvent event, String[] tags) {
+			this.event = event;
+			this.tags = tags;
+			this.hashCode = 31 * event.hashCode() + Arrays.hashCode(tags);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			AggregationKey that = (AggregationKey) o;
+			return this.event.equals(that.event) && Arrays.equals(this.tags, that.tags);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+	}
+
+	private static final class Aggregate {
+
+		private final LongAdder counter = new LongAdder();
+
+		private final InstantEvent event;
+
+		private final List<Tag> tags;
+
+		private long flushed;
+
+		private Aggregate(AggregationKey key) {
+			this.event = key.event;
+			List<Tag> tags = new ArrayList<>(key.tags.length / 2);
+			for (int i = 0; i < key.tags.length; i += 2) {
+				tags.add(Tag.of(key.tags[i], key.tags[i + 1], Cardinality.LOW));
+			}
+			this.tags = Collections.unmodifiableList(tags);
+		}
+
+	}
+
+	/**
+	 * {@link InstantRecording} of the occurrences of an event with a given set of low
+	 * cardinality tags, handed over to the delegate on flush.
+	 */
+	private static final class AggregatedInstantRecording implements InstantRecording {
+
+		private final InstantEvent event;
+
+		private final List<Tag> tags;
+
+		private final RecordingListener<?> listener;
+
+		private final Clock clock;
+
+		private String highCardinalityName;
+
+		private long wallTime;
+
+		private AggregatedInstantRecording(Aggregate aggregate, RecordingListener<?> listener, Clock clock,
+				long wallTime) {
+			this.event = aggregate.event;
+			this.tags = new ArrayList<>(aggregate.tags);
+			this.listener = listener;
+			this.clock = clock;
+			this.highCardinalityName = aggregate.event.getLowCardinalityName();
+			this.wallTime = wallTime;
+		}
+
+		@Override
+		public InstantEvent getEvent() {
+			return this.event;
+		}
+
+		@Override
+		public String getHighCardinalityName() {
+			return this.highCardinalityName;
+		}
+
+		@Override
+		public InstantRecording highCardinalityName(String highCardinalityName) {
+			this.highCardinalityName = highCardinalityName;
+			return this;
+		}
+
+		@Override
+		public Iterable<Tag> getTags() {
+			return Collections.unmodifiableList(this.tags);
+		}
+
+		@Override
+		public InstantRecording tag(Tag tag) {
+			this.tags.add(tag);
+			return this;
+		}
+
+		@Override
+		public void recordInstant() {
+			recordInstant(this.clock.wallTime());
+		}
+
+		@Override
+		public void recordInstant(long wallTime) {
+			this.wallTime = wallTime;
+			this.listener.recordInstant(this);
+		}
+
+		@Override
+		public long getWallTime() {
+			return this.wallTime;
+		}
+
+		@Override
+		public String toString() {
+			return "{" + "event=" + this.event.getLowCardinalityName() + ", tags=" + this.tags + '}';
+		}
+
+	}
+
+}
@@ -89,6 +89,12 @@ public class AllMatchingCompositeRecordingListener implements CompositeRecording
 				.forEach(listener -> listener.recordInstant(instantRecording));
 	}
 
+	@Override
+	public void recordInstants(InstantRecording instantRecording, long count) {
+		this.listeners.stream().filter(listener -> listener.isApplicable(instantRecording))
+				.forEach(listener -> listener.recordInstants(instantRecording, count));
+	}
+
 	@Override
 	public CompositeContext createContext() {
 		return new CompositeContext(this.listeners);
@@ -86,6 +86,12 @@ public class FirstMatchingCompositeRecordingListener implements CompositeRecordi
 		getFirstApplicableListener(instantRecording).ifPresent(listener -> listener.recordInstant(instantRecording));
 	}
 
+	@Override
+	public void recordInstants(InstantRecording instantRecording, long count) {
+		getFirstApplicableListener(instantRecording)
+				.ifPresent(listener -> listener.recordInstants(instantRecording, count));
+	}
+
 	@Override
 	public CompositeContext createContext() {
 		return new CompositeContext(this.listeners);
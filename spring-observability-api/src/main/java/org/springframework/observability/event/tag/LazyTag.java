@@ -0,0 +1,98 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.event.tag;
+
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link Tag} implementation whose value is computed by a {@link Supplier} the first time
+ * it is asked for. The supplier is called at most once, if no listener reads the value
+ * (e.g. only metrics listeners are registered and the tag is {@link Cardinality#HIGH high
+ * cardinality}) it is never called.
+ *
+ * <p>
+ * Since the value is unknown until it is read, lazy tags don't override
+ * {@link Object#equals(Object) equals}: two lazy tags are only equal if they are the same
+ * instance, even if they have the same key.
+ *
+ * @author Jonatan Ivanov
+ * @since 1.0.0
+ */
+public class LazyTag implements Tag {
+
+	private final String key;
+
+	private final Cardinality cardinality;
+
+	private volatile Supplier<String> valueSupplier;
+
+	private volatile String value;
+
+	/**
+	 * @param key The key of the tag, it mustn't be null.
+	 * @param valueSupplier The supplier of the tag value, it mustn't be null and it
+	 * mustn't supply null.
+	 * @param cardinality The cardinality of the tag, it mustn't be null.
+	 */
+	public LazyTag(String key, Supplier<String> valueSupplier, Cardinality cardinality) {
+		this.key = requireNonNull(key, "key can't be null");
+		this.valueSupplier = requireNonNull(valueSupplier, "valueSupplier can't be null");
+		this.cardinality = requireNonNull(cardinality, "cardinality can't be null");
+	}
+
+	@Override
+	public String getKey() {
+		return this.key;
+	}
+
+	@Override
+	public String getValue() {
+		String value = this.value;
+		if (value == null) {
+			synchronized (this) {
+				value = this.value;
+				if (value == null) {
+					value = requireNonNull(this.valueSupplier.get(), "value can't be null");
+					this.value = value;
+					this.valueSupplier = null;
+				}
+			}
+		}
+		return value;
+	}
+
+	@Override
+	public Cardinality getCardinality() {
+		return this.cardinality;
+	}
+
+	/**
+	 * Tells whether the value was already computed.
+	 * @return {@code true} if the supplier was called
+	 */
+	public boolean isResolved() {
+		return this.value != null;
+	}
+
+	@Override
+	public String toString() {
+		return "tag{" + this.key + "=" + (isResolved() ? this.value : "<lazy>") + "}";
+	}
+
+}
@@ -16,6 +16,8 @@
 
 package org.springframework.observability.event.tag;
 
+import java.util.function.Supplier;
+
 import org.springframework.observability.event.Recording;
 
 /**
@@ -68,6 +70,18 @@ public interface Tag extends Comparable<Tag> {
 		return new ImmutableTag(key, value, cardinality);
 	}
 
+	/**
+	 * Builds a tag whose value is computed only when it is read.
+	 * @param key tag key
+	 * @param valueSupplier supplier of the tag value, called at most once
+	 * @param cardinality tag cardinality
+	 * @return tag
+	 * @see LazyTag
+	 */
+	static Tag of(String key, Supplier<String> valueSupplier, Cardinality cardinality) {
+		return new LazyTag(key, valueSupplier, cardinality);
+	}
+
 	@Override
 	default int compareTo(Tag o) {
 		return getKey().compareTo(o.getKey());
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.transport.http;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.observability.lang.Nullable;
+
+/**
+ * Values of a fixed set of headers of a request, e.g. the ones used for context
+ * propagation, read once so that consumers that look at several headers don't have to go
+ * to the request for each of them. Header names are case-insensitive.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public final class HeaderSnapshot {
+
+	private final Schema schema;
+
+	private final String[] values;
+
+	private HeaderSnapshot(Schema schema) {
+		this.schema = schema;
+		this.values = new String[schema.size()];
+	}
+
+	/**
+	 * Returns the schema of the snapshot.
+	 * @return schema
+	 */
+	public Schema getSchema() {
+		return this.schema;
+	}
+
+	/**
+	 * Returns the value of the given header.
+	 * @param name header name
+	 * @return value of the header or {@code null} if it was not set or it is not in the
+	 * schema
+	 */
+	@Nullable
+	public String get(String name) {
+		int index = this.schema.indexOf(name);
+		return index >= 0 ? this.values[index] : null;
+	}
+
+	/**
+	 * Sets the value of the given header, headers that are not in the schema and repeated
+	 * headers (only the first value is kept) are ignored. Meant to be called while
+	 * iterating over the headers of a request.
+	 * @param name header name
+	 * @param value header value
+	 * @return this
+	 */
+	public HeaderSnapshot put(String name, @Nullable String value) {
+		int index = this.schema.indexOf(name);
+		if (index >= 0 && this.values[index] == null) {
+			this.values[index] = value;
+		}
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("HeaderSnapshot{");
+		for (int i = 0; i < this.values.length; i++) {
+			if (this.values[i] != null) {
+				builder.append(this.schema.names[i]).append('=').append(this.values[i]).append(", ");
+			}
+		}
+		if (builder.charAt(builder.length() - 1) == ' ') {
+			builder.setLength(builder.length() - 2);
+		}
+		return builder.append('}').toString();
+	}
+
+	/**
+	 * The set of headers a {@link HeaderSnapshot} holds. Names are placed in an
+	 * open-addressed table hashed ignoring case, so that looking up a header doesn't
+	 * allocate. A schema is meant to be created once and shared.
+	 */
+	public static final class Schema {
+
+		private final String[] names;
+
+		private final List<String> nameList;
+
+		private final String[] table;
+
+		private final int[] indexes;
+
+		private final int mask;
+
+		private Schema(String[] names) {
+			this.names = names;
+			this.nameList = Collections.unmodifiableList(Arrays.asList(names));
+			int size = Integer.highestOneBit(Math.max(names.length, 1) * 4 - 1) << 1;
+			this.table = new String[size];
+			this.indexes = new int[size];
+			this.mask = size - 1;
+			for (int i = 0; i < names.length; i++) {
+				int slot = hash(names[i]) & this.mask;
+				while (this.table[slot] != null) {
+					slot = (slot + 1) & this.mask;
+				}
+				this.table[slot] = names[i];
+				this.indexes[slot] = i;
+			}
+		}
+
+		/**
+		 * Creates a schema of the given header names, duplicates (ignoring case) are
+		 * removed.
+		 * @param names header names
+		 * @return schema
+		 */
+		public static Schema of(Collection<String> names) {
+			List<String> unique = new ArrayList<>(names.size());
+			for (String name : names) {
+				if (unique.stream().noneMatch(name::equalsIgnoreCase)) {
+					unique.add(name);
+				}
+			}
+			return new Schema(unique.toArray(new String[0]));
+		}
+
+		/**
+		 * Creates a schema of the given header names, duplicates (ignoring case) are
+		 * removed.
+		 * @param names header names
+		 * @return schema
+		 */
+		public static Schema of(String... names) {
+			return of(Arrays.asList(names));
+		}
+
+		private static int hash(String name) {
+			int hash = 0;
+			for (int i = 0; i < name.length(); i++) {
+				char c = name.charAt(i);
+				if (c >= 'A' && c <= 'Z') {
+					c += 'a' - 'A';
+				}
+				else if (c > 127) {
+					c = Character.toLowerCase(Character.toUpperCase(c));
+				}
+				hash = 31 * hash + c;
+			}
+			return hash ^ (hash >>> 16);
+		}
+
+		/**
+		 * Returns the number of headers in the schema.
+		 * @return number of headers
+		 */
+		public int size() {
+			return this.names.length;
+		}
+
+		/**
+		 * Returns the header names in the order they were given.
+		 * @return header names
+		 */
+		public List<String> getNames() {
+			return this.nameList;
+		}
+
+		/**
+		 * Returns the position of the given header in the schema.
+		 * @param name header name
+		 * @return position of the header or {@code -1} if it's not in the schema
+		 */
+		public int indexOf(String name) {
+			int slot = hash(name) & this.mask;
+			String candidate;
+			while ((candidate = this.table[slot]) != null) {
+				if (candidate.equalsIgnoreCase(name)) {
+					return this.indexes[slot];
+				}
+				slot = (slot + 1) & this.mask;
+			}
+			return -1;
+		}
+
+		/**
+		 * Returns whether the given header is in the schema.
+		 * @param name header name
+		 * @return {@code true} if the header is in the schema
+		 */
+		public boolean contains(String name) {
+			return indexOf(name) >= 0;
+		}
+
+		/**
+		 * Creates an empty snapshot of this schema.
+		 * @return snapshot without values
+		 */
+		public HeaderSnapshot newSnapshot() {
+			return new HeaderSnapshot(this);
+		}
+
+	}
+
+}
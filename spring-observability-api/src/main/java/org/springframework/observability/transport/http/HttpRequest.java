@@ -65,6 +65,24 @@ public interface HttpRequest extends Request {
 	@Nullable
 	String header(String name);
 
+	/**
+	 * Reads the headers of the given schema at once. The default implementation iterates
+	 * over {@link #headerNames()} once and only calls {@link #header(String)} for the
+	 * headers that are present and in the schema. Implementations that can't list their
+	 * header names should override this method.
+	 * @param schema headers to read
+	 * @return snapshot of the headers
+	 */
+	default HeaderSnapshot headerSnapshot(HeaderSnapshot.Schema schema) {
+		HeaderSnapshot snapshot = schema.newSnapshot();
+		for (String name : headerNames()) {
+			if (schema.contains(name)) {
+				snapshot.put(name, header(name));
+			}
+		}
+		return snapshot;
+	}
+
 	/**
 	 * @return remote IP for the given connection.
 	 */
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.transport.http;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.observability.lang.Nullable;
+
+/**
+ * Turns raw HTTP paths into low cardinality templates when the instrumentation doesn't
+ * know the route: path segments that look like identifiers (numbers, UUIDs and
+ * hexadecimal strings of at least 8 characters) are replaced with {@code {id}} and the
+ * query string is removed, e.g. {@code /users/42/orders?page=2} becomes
+ * {@code /users/{id}/orders}.
+ *
+ * <p>
+ * Templates of recently seen paths are kept in a bounded cache so repeated paths cost a
+ * single lookup. The cache approximates an LRU with two generations: lookups hit the
+ * current generation first and promote entries found in the previous one, when the
+ * current generation is full it becomes the previous one and the old previous one is
+ * dropped.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public class PathTemplatizer {
+
+	/**
+	 * Replacement of the identifier segments.
+	 */
+	public static final String ID = "{id}";
+
+	private static final int MIN_HEX_LENGTH = 8;
+
+	private static final int UUID_LENGTH = 36;
+
+	private final int generationSize;
+
+	private volatile Map<String, String> current = new ConcurrentHashMap<>();
+
+	private volatile Map<String, String> previous = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new instance of {@link PathTemplatizer} caching up to 1000 paths.
+	 */
+	public PathTemplatizer() {
+		this(1000);
+	}
+
+	/**
+	 * Creates a new instance of {@link PathTemplatizer}.
+	 * @param maxSize maximum number of cached paths
+	 */
+	public PathTemplatizer(int maxSize) {
+		if (maxSize < 2) {
+			throw new IllegalArgumentException("maxSize must be at least 2 but was " + maxSize);
+		}
+		this.generationSize = maxSize / 2;
+	}
+
+	/**
+	 * Returns the template of the given path.
+	 * @param path raw HTTP path, can contain a query string
+	 * @return template of the path or {@code null} if the path was {@code null}
+	 */
+	@Nullable
+	public String templatize(@Nullable String path) {
+		if (path == null) {
+			return null;
+		}
+		String template = this.current.get(path);
+		if (template != null) {
+			return template;
+		}
+		template = this.previous.get(path);
+		if (template == null) {
+			template = doTemplatize(path);
+		}
+		cache(path, template);
+		return template;
+	}
+
+	private void cache(String path, String template) {
+		Map<String, String> current = this.current;
+		if (current.size() >= this.generationSize) {
+			synchronized (this) {
+				if (this.current == current) {
+					this.previous = current;
+					this.current = new ConcurrentHashMap<>();
+				}
+				current = this.current;
+			}
+		}
+		current.put(path, template);
+	}
+
+	int size() {
+		return this.current.size() + this.previous.size();
+	}
+
+	private static String doTemplatize(String path) {
+		int end = path.length();
+		for (int i = 0; i < end; i++) {
+			char c = path.charAt(i);
+			if (c == '?' || c == '#') {
+				end = i;
+				break;
+			}
+		}
+		StringBuilder template = null;
+		int segmentStart = 0;
+		for (int i = 0; i <= end; i++) {
+			if (i < end && path.charAt(i) != '/') {
+				continue;
+			}
+			if (isId(path, segmentStart, i)) {
+				if (template == null) {
+					template = new StringBuilder(end).append(path, 0, segmentStart);
+				}
+				template.append(ID);
+			}
+			else if (template != null) {
+				template.append(path, segmentStart, i);
+			}
+			if (i < end && template != null) {
+				template.append('/');
+			}
+			segmentStart = i + 1;
+		}
+		if (template != null) {
+			return template.toString();
+		}
+		return end == path.length() ? path : path.substring(0, end);
+	}
+
+	private static boolean isId(String path, int start, int end) {
+		int length = end - start;
+		if (length == 0) {
+			return false;
+		}
+		if (length == UUID_LENGTH && isUuid(path, start)) {
+			return true;
+		}
+		boolean numeric = true;
+		boolean hasDigit = false;
+		for (int i = start; i < end; i++) {
+			char c = path.charAt(i);
+			if (c >= '0' && c <= '9') {
+				hasDigit = true;
+			}
+			else if ((c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')) {
+				numeric = false;
+			}
+			else {
+				return false;
+			}
+		}
+		return numeric || (hasDigit && length >= MIN_HEX_LENGTH);
+	}
+
+	private static boolean isUuid(String path, int start) {
+		for (int i = 0; i < UUID_LENGTH; i++) {
+			char c = path.charAt(start + i);
+			if (i == 8 || i == 13 || i == 18 || i == 23) {
+				if (c != '-') {
+					return false;
+				}
+			}
+			else if (Character.digit(c, 16) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.transport.messaging;
+
+import org.springframework.observability.lang.Nullable;
+import org.springframework.observability.transport.http.Request;
+
+/**
+ * Abstract request type used for parsing and sampling of messaging producers and
+ * consumers. Represents a message sent to or received from a broker.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public interface MessagingRequest extends Request {
+
+	/**
+	 * Returns the operation, e.g. {@code send} or {@code receive}.
+	 * @return messaging operation
+	 */
+	String operation();
+
+	/**
+	 * Returns the type of the channel, e.g. {@code queue} or {@code topic}.
+	 * @return channel kind or {@code null} if unknown
+	 */
+	@Nullable
+	String channelKind();
+
+	/**
+	 * Returns the name of the channel, e.g. the name of the queue or the topic.
+	 * @return channel name or {@code null} if unknown
+	 */
+	@Nullable
+	String channelName();
+
+	/**
+	 * Returns the identifier of the message.
+	 * @return message id or {@code null} if unknown
+	 */
+	@Nullable
+	default String messageId() {
+		return null;
+	}
+
+	/**
+	 * @param name header name
+	 * @return message header or {@code null} if not set.
+	 */
+	@Nullable
+	String header(String name);
+
+}
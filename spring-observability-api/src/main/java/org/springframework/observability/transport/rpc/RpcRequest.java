@@ -0,0 +1,50 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.transport.rpc;
+
+import org.springframework.observability.lang.Nullable;
+import org.springframework.observability.transport.http.Request;
+
+/**
+ * Abstract request type used for parsing and sampling of RPC clients and servers.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public interface RpcRequest extends Request {
+
+	/**
+	 * Returns the name of the service, e.g. {@code helloworld.Greeter}.
+	 * @return RPC service
+	 */
+	String service();
+
+	/**
+	 * Returns the name of the method of the service, e.g. {@code SayHello}.
+	 * @return RPC method
+	 */
+	String method();
+
+	/**
+	 * Returns a binary metadata entry of the call, e.g. the propagated context.
+	 * @param key metadata key
+	 * @return metadata value or {@code null} if not set
+	 */
+	@Nullable
+	byte[] binaryMetadata(String key);
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.transport.rpc;
+
+import org.springframework.observability.lang.Nullable;
+import org.springframework.observability.transport.http.Response;
+
+/**
+ * Abstract response type used for parsing and sampling of RPC clients and servers.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public interface RpcResponse extends Response {
+
+	@Override
+	@Nullable
+	RpcRequest request();
+
+	/**
+	 * Returns the status code of a failed call, e.g. {@code UNAVAILABLE}.
+	 * @return error code or {@code null} if the call succeeded
+	 */
+	@Nullable
+	String errorCode();
+
+}
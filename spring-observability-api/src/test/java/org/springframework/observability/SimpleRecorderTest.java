@@ -67,6 +67,25 @@ class SimpleRecorderTest {
 		assertThat(recording.getEvent()).isSameAs(INSTANT_EVENT);
 	}
 
+	@Test
+	void shouldUseTheCurrentRecordingAsParent() {
+		IntervalRecording parent = recorder.recordingFor(INTERVAL_EVENT);
+		IntervalRecording child = recorder.recordingFor(INTERVAL_EVENT);
+
+		assertThat(parent.getParent()).isNull();
+		assertThat(child.getParent()).isSameAs(parent);
+	}
+
+	@Test
+	void shouldUseTheExplicitParent() {
+		IntervalRecording parent = recorder.recordingFor(INTERVAL_EVENT);
+		recorder.recordingFor(INTERVAL_EVENT);
+
+		IntervalRecording child = recorder.recordingFor(INTERVAL_EVENT, parent);
+
+		assertThat(child.getParent()).isSameAs(parent);
+	}
+
 	@Test
 	void shouldReturnNoOpIntervalRecordingIfDisabled() {
 		assertThat(recorder.isEnabled()).isTrue();
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.springframework.observability.event.tag.Cardinality.HIGH;
+import static org.springframework.observability.event.tag.Cardinality.LOW;
+
+/**
+ * @author Jonatan Ivanov
+ */
+class EventDescriptorTests {
+
+	@AfterEach
+	void clearDescriptors() {
+		EventDescriptor.clear();
+	}
+
+	@Test
+	void shouldRegisterDescriptorsWithDenseIds() {
+		EventDescriptor first = EventDescriptor.builder("descriptor-test-first").description("First")
+				.lowCardinalityTagKeys("status").highCardinalityTagKeys("user.id").register();
+		EventDescriptor second = EventDescriptor.builder("descriptor-test-second").register();
+
+		assertThat(second.getId()).isEqualTo(first.getId() + 1);
+		assertThat(EventDescriptor.registeredCount()).isGreaterThan(second.getId());
+		assertThat(EventDescriptor.byId(first.getId())).isSameAs(first);
+		assertThat(EventDescriptor.byName("descriptor-test-second")).isSameAs(second);
+		assertThat(EventDescriptor.byId(-1)).isNull();
+		assertThat(EventDescriptor.byId(EventDescriptor.registeredCount())).isNull();
+	}
+
+	@Test
+	void shouldDescribeTheEvent() {
+		EventDescriptor descriptor = EventDescriptor.builder("descriptor-test-described").description("Described")
+				.lowCardinalityTagKeys("status", "method").highCardinalityTagKeys("user.id").register();
+
+		assertThat(descriptor.getName()).isEqualTo("descriptor-test-described");
+		assertThat(descriptor.getDescription()).isEqualTo("Described");
+		assertThat(descriptor.getTagKeys()).containsExactly(entry("status", LOW), entry("method", LOW),
+				entry("user.id", HIGH));
+		assertThat(descriptor.getCardinality("user.id")).isSameAs(HIGH);
+		assertThat(descriptor.getCardinality("unknown")).isNull();
+	}
+
+	@Test
+	void shouldClearTheRegistryWithoutReusingIds() {
+		EventDescriptor cleared = EventDescriptor.builder("descriptor-test-cleared").register();
+
+		EventDescriptor.clear();
+
+		assertThat(EventDescriptor.byName("descriptor-test-cleared")).isNull();
+		assertThat(EventDescriptor.byId(cleared.getId())).isNull();
+		assertThat(EventDescriptor.builder("descriptor-test-cleared").register().getId())
+				.isGreaterThan(cleared.getId());
+	}
+
+	@Test
+	void shouldReturnTheRegisteredDescriptorForTheSameDefinition() {
+		EventDescriptor descriptor = EventDescriptor.builder("descriptor-test-same").lowCardinalityTagKeys("status")
+				.register();
+
+		assertThat(EventDescriptor.builder("descriptor-test-same").lowCardinalityTagKeys("status").register())
+				.isSameAs(descriptor);
+		assertThatThrownBy(
+				() -> EventDescriptor.builder("descriptor-test-same").highCardinalityTagKeys("status").register())
+						.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
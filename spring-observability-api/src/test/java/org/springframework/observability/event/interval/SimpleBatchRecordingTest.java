@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.event.interval;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.observability.event.listener.RecordingListener;
+import org.springframework.observability.event.listener.composite.CompositeContext;
+import org.springframework.observability.time.MockClock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.observability.test.TestIntervalEvent.INTERVAL_EVENT;
+
+/**
+ * @author Jonatan Ivanov
+ */
+class SimpleBatchRecordingTest {
+
+	private final MockClock clock = new MockClock();
+
+	private final RecordingListener<CompositeContext> listener = mock(RecordingListener.class);
+
+	@Test
+	void shouldSummarizeTheItemsWithoutNotifyingTheListener() {
+		BatchRecording recording = new SimpleBatchRecording(INTERVAL_EVENT, listener, clock);
+		recording.start();
+
+		recording.recordItem(Duration.ofMillis(1).toNanos()).recordItem(Duration.ofMillis(3).toNanos())
+				.recordFailedItem(Duration.ofSeconds(20).toNanos());
+
+		BatchSummary summary = recording.getSummary();
+		assertThat(summary.getItemCount()).isEqualTo(3);
+		assertThat(summary.getErrorCount()).isEqualTo(1);
+		assertThat(summary.getTotalDuration()).isEqualTo(Duration.ofSeconds(20).plusMillis(4));
+		assertThat(summary.getMaxDuration()).isEqualTo(Duration.ofSeconds(20));
+		assertThat(summary.getBucketCounts()).containsExactly(1, 1, 0, 0, 0, 0, 0, 0, 0, 1);
+		verify(listener, never()).onStop(any());
+	}
+
+	@Test
+	void listenerShouldReceiveTheSummaryOnStop() {
+		BatchRecording recording = new SimpleBatchRecording(INTERVAL_EVENT, listener, clock);
+		recording.start();
+		recording.recordItem(42);
+
+		recording.stop();
+
+		verify(listener).onStop(recording);
+		assertThat(recording.toString()).contains("summary={items=1, errors=0");
+	}
+
+	@Test
+	void noOpRecordingShouldNotSummarizeAnything() {
+		BatchRecording recording = new NoOpBatchRecording();
+
+		recording.recordItem(42).recordFailedItem(42);
+
+		assertThat(recording.getSummary().getItemCount()).isZero();
+	}
+
+}
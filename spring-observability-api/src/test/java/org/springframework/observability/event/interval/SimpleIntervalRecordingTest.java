@@ -19,6 +19,7 @@ package org.springframework.observability.event.interval;
 import java.io.IOException;
 import java.net.SocketTimeoutException;
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -61,6 +62,32 @@ class SimpleIntervalRecordingTest {
 		assertThat(recording.getHighCardinalityName()).isSameAs(highCardinalityName);
 	}
 
+	@Test
+	void shouldComputeTheLazyHighCardinalityNameAtMostOnce() {
+		AtomicInteger counter = new AtomicInteger();
+		IntervalRecording recording = new SimpleIntervalRecording(INTERVAL_EVENT, listener, clock)
+				.highCardinalityName(() -> INTERVAL_EVENT.getLowCardinalityName() + "-" + counter.incrementAndGet());
+		assertThat(counter).hasValue(0);
+
+		assertThat(recording.getHighCardinalityName()).isEqualTo(INTERVAL_EVENT.getLowCardinalityName() + "-1");
+		assertThat(recording.getHighCardinalityName()).isEqualTo(INTERVAL_EVENT.getLowCardinalityName() + "-1");
+		assertThat(counter).hasValue(1);
+
+		recording.highCardinalityName("eager");
+		assertThat(recording.getHighCardinalityName()).isEqualTo("eager");
+	}
+
+	@Test
+	void toStringShouldNotComputeLazyValues() {
+		AtomicInteger counter = new AtomicInteger();
+		IntervalRecording recording = new SimpleIntervalRecording(INTERVAL_EVENT, listener, clock)
+				.highCardinalityName(() -> "name-" + counter.incrementAndGet())
+				.tag(Tag.of("testKey", () -> "testValue-" + counter.incrementAndGet(), HIGH));
+
+		assertThat(recording.toString()).contains("highCardinalityName=<lazy>").contains("tag{testKey=<lazy>}");
+		assertThat(counter).hasValue(0);
+	}
+
 	@Test
 	void shouldHaveTagsWhenAdded() {
 		IntervalRecording recording = new SimpleIntervalRecording(INTERVAL_EVENT, listener, clock);
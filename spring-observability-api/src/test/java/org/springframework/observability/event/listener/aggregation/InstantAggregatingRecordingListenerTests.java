@@ -0,0 +1,218 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.event.listener.aggregation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.observability.event.Recorder;
+import org.springframework.observability.event.SimpleRecorder;
+import org.springframework.observability.event.instant.InstantRecording;
+import org.springframework.observability.event.interval.IntervalRecording;
+import org.springframework.observability.event.listener.RecordingListener;
+import org.springframework.observability.event.listener.composite.AllMatchingCompositeRecordingListener;
+import org.springframework.observability.event.tag.Cardinality;
+import org.springframework.observability.event.tag.Tag;
+import org.springframework.observability.test.TestRecordingListener;
+import org.springframework.observability.time.MockClock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.observability.test.TestInstantEvent.INSTANT_EVENT;
+import static org.springframework.observability.test.TestIntervalEvent.INTERVAL_EVENT;
+
+/**
+ * @author Jonatan Ivanov
+ */
+class InstantAggregatingRecordingListenerTests {
+
+	private final MockClock clock = new MockClock();
+
+	private final CountingRecordingListener counting = new CountingRecordingListener();
+
+	private final InstantAggregatingRecordingListener aggregating = new InstantAggregatingRecordingListener(
+			new AllMatchingCompositeRecordingListener(this.counting), this.clock);
+
+	private final Recorder<?> recorder = new SimpleRecorder<>(this.aggregating, this.clock, Collections.emptyList());
+
+	@Test
+	void shouldNotForwardInstantEventsBeforeFlush() {
+		this.recorder.recordingFor(INSTANT_EVENT).recordInstant();
+
+		assertThat(this.counting.counts).isEmpty();
+	}
+
+	@Test
+	void shouldForwardCountsPerEventAndLowCardinalityTags() {
+		for (int i = 0; i < 3; i++) {
+			this.recorder.recordingFor(INSTANT_EVENT).tag("status", "ok")
+					.tag(Tag.of("user", "user-" + i, Cardinality.HIGH)).recordInstant();
+		}
+		this.recorder.recordingFor(INSTANT_EVENT).tag("status", "failed").recordInstant();
+
+		this.aggregating.flush();
+
+		assertThat(this.counting.counts).hasSize(2);
+		assertThat(this.counting.countFor("status", "ok")).isEqualTo(3);
+		assertThat(this.counting.countFor("status", "failed")).isEqualTo(1);
+	}
+
+	@Test
+	void shouldOnlyForwardWhatWasRecordedSinceTheLastFlush() {
+		this.recorder.recordingFor(INSTANT_EVENT).recordInstant();
+		this.recorder.recordingFor(INSTANT_EVENT).recordInstant();
+		this.aggregating.flush();
+		this.aggregating.flush();
+		this.recorder.recordingFor(INSTANT_EVENT).recordInstant();
+		this.clock.addSeconds(10);
+		this.aggregating.flush();
+
+		assertThat(this.counting.counts).containsExactly(2L, 1L);
+		assertThat(this.counting.recordings.get(1).getWallTime()).isEqualTo(this.clock.wallTime());
+		assertThat(this.counting.recordings.get(1).getTags()).isEmpty();
+	}
+
+	@Test
+	void shouldDropTheKeysThatStayedIdleAcrossAFlush() {
+		this.recorder.recordingFor(INSTANT_EVENT).recordInstant();
+		this.recorder.recordingFor(INSTANT_EVENT).tag("status", "ok").recordInstant();
+		this.aggregating.flush();
+		assertThat(this.aggregating.getAggregateCount()).isEqualTo(2);
+
+		this.recorder.recordingFor(INSTANT_EVENT).tag("status", "ok").recordInstant();
+		this.aggregating.flush();
+		assertThat(this.aggregating.getAggregateCount()).isEqualTo(1);
+
+		this.aggregating.flush();
+		assertThat(this.aggregating.getAggregateCount()).isZero();
+		this.recorder.recordingFor(INSTANT_EVENT).recordInstant();
+		this.aggregating.flush();
+		assertThat(this.counting.counts).containsExactly(1L, 1L, 1L, 1L);
+		assertThat(this.counting.recordings.get(3).getTags()).isEmpty();
+	}
+
+	@Test
+	void shouldFlushOnClose() {
+		this.recorder.recordingFor(INSTANT_EVENT).recordInstant();
+
+		this.aggregating.close();
+
+		assertThat(this.counting.counts).containsExactly(1L);
+	}
+
+	@Test
+	void shouldForwardPassThroughEventsOneByOne() {
+		this.aggregating.setPassThrough(recording -> recording.getHighCardinalityName().equals("sampled"));
+
+		this.recorder.recordingFor(INSTANT_EVENT).highCardinalityName("sampled").recordInstant();
+		this.recorder.recordingFor(INSTANT_EVENT).recordInstant();
+
+		assertThat(this.counting.counts).containsExactly(1L);
+		assertThat(this.counting.recordings.get(0).getHighCardinalityName()).isEqualTo("sampled");
+		this.aggregating.flush();
+		assertThat(this.counting.counts).containsExactly(1L, 1L);
+	}
+
+	@Test
+	void shouldHandOverRecordingsThatCanBeModifiedAndRecordedAgain() {
+		this.recorder.recordingFor(INSTANT_EVENT).tag("status", "ok").recordInstant();
+		this.aggregating.flush();
+		InstantRecording flushed = this.counting.recordings.get(0);
+
+		flushed.highCardinalityName("renamed").tag("extra", "value").recordInstant();
+
+		assertThat(this.counting.counts).containsExactly(1L, 1L);
+		assertThat(this.counting.recordings.get(1).getHighCardinalityName()).isEqualTo("renamed");
+		assertThat(this.counting.countFor("extra", "value")).isEqualTo(1);
+		this.recorder.recordingFor(INSTANT_EVENT).tag("status", "ok").recordInstant();
+		this.aggregating.flush();
+		assertThat(this.counting.recordings.get(2).getTags()).hasSize(1);
+	}
+
+	@Test
+	void shouldPassIntervalRecordingsAndContextToTheDelegate() {
+		TestRecordingListener delegate = new TestRecordingListener(this.clock);
+		InstantAggregatingRecordingListener listener = new InstantAggregatingRecordingListener(
+				new AllMatchingCompositeRecordingListener(delegate), this.clock);
+		Recorder<?> recorder = new SimpleRecorder<>(listener, this.clock, Collections.emptyList());
+
+		IntervalRecording recording = recorder.recordingFor(INTERVAL_EVENT).start();
+		recording.stop();
+
+		assertThat(delegate.getOnStartRecording()).isSameAs(recording);
+		assertThat(delegate.getOnStopRecording()).isSameAs(recording);
+		assertThat(recording.getContext(delegate)).isSameAs(delegate.getContext());
+	}
+
+	static class CountingRecordingListener implements RecordingListener<Void> {
+
+		final List<InstantRecording> recordings = new ArrayList<>();
+
+		final List<Long> counts = new ArrayList<>();
+
+		@Override
+		public void onCreate(IntervalRecording intervalRecording) {
+		}
+
+		@Override
+		public void onStart(IntervalRecording intervalRecording) {
+		}
+
+		@Override
+		public void onStop(IntervalRecording intervalRecording) {
+		}
+
+		@Override
+		public void onError(IntervalRecording intervalRecording) {
+		}
+
+		@Override
+		public void onRestore(IntervalRecording intervalRecording) {
+		}
+
+		@Override
+		public void recordInstant(InstantRecording instantRecording) {
+			recordInstants(instantRecording, 1);
+		}
+
+		@Override
+		public void recordInstants(InstantRecording instantRecording, long count) {
+			this.recordings.add(instantRecording);
+			this.counts.add(count);
+		}
+
+		long countFor(String key, String value) {
+			for (int i = 0; i < this.recordings.size(); i++) {
+				for (Tag tag : this.recordings.get(i).getTags()) {
+					if (tag.getKey().equals(key) && tag.getValue().equals(value)) {
+						return this.counts.get(i);
+					}
+				}
+			}
+			return 0;
+		}
+
+		@Override
+		public Void createContext() {
+			return null;
+		}
+
+	}
+
+}
@@ -16,6 +16,9 @@
 
 package org.springframework.observability.event.tag;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -38,4 +41,28 @@ class TagTest {
 		assertThat(tag.getCardinality()).isSameAs(HIGH);
 	}
 
+	@Test
+	void shouldCreateALazyTagThatComputesItsValueAtMostOnce() {
+		AtomicInteger counter = new AtomicInteger();
+
+		Tag tag = Tag.of("testKey", () -> "testValue-" + counter.incrementAndGet(), HIGH);
+		assertThat(tag).isExactlyInstanceOf(LazyTag.class);
+		assertThat(tag.getKey()).isEqualTo("testKey");
+		assertThat(tag.getCardinality()).isSameAs(HIGH);
+		assertThat(counter).hasValue(0);
+
+		assertThat(tag.getValue()).isEqualTo("testValue-1");
+		assertThat(tag.getValue()).isEqualTo("testValue-1");
+		assertThat(counter).hasValue(1);
+	}
+
+	@Test
+	void shouldCompareLazyTagsByIdentity() {
+		Supplier<String> supplier = () -> "testValue";
+		Tag tag = Tag.of("testKey", supplier, HIGH);
+
+		assertThat(tag).isEqualTo(tag).isNotEqualTo(Tag.of("testKey", supplier, HIGH))
+				.isNotEqualTo(Tag.of("testKey", "testValue", HIGH));
+	}
+
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.transport.http;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Jonatan Ivanov
+ */
+class HeaderSnapshotTests {
+
+	private final HeaderSnapshot.Schema schema = HeaderSnapshot.Schema.of("traceparent", "tracestate", "b3",
+			"X-B3-TraceId", "B3");
+
+	@Test
+	void schemaShouldLookUpNamesIgnoringCase() {
+		assertThat(schema.size()).isEqualTo(4);
+		assertThat(schema.getNames()).containsExactly("traceparent", "tracestate", "b3", "X-B3-TraceId");
+		assertThat(schema.indexOf("TraceParent")).isEqualTo(0);
+		assertThat(schema.indexOf("x-b3-traceid")).isEqualTo(3);
+		assertThat(schema.indexOf("baggage")).isEqualTo(-1);
+		assertThat(schema.contains("B3")).isTrue();
+	}
+
+	@Test
+	void snapshotShouldKeepTheFirstValueOfHeadersInTheSchema() {
+		HeaderSnapshot snapshot = schema.newSnapshot().put("Traceparent", "first").put("traceparent", "second")
+				.put("baggage", "ignored");
+
+		assertThat(snapshot.get("TRACEPARENT")).isEqualTo("first");
+		assertThat(snapshot.get("tracestate")).isNull();
+		assertThat(snapshot.get("baggage")).isNull();
+		assertThat(snapshot).hasToString("HeaderSnapshot{traceparent=first}");
+	}
+
+	@Test
+	void defaultRequestSnapshotShouldOnlyReadThePresentHeadersOfTheSchema() {
+		Map<String, String> headers = new LinkedHashMap<>();
+		headers.put("Accept", "*/*");
+		headers.put("B3", "value");
+		headers.put("User-Agent", "test");
+		List<String> readHeaders = new ArrayList<>();
+		HttpRequest request = new HttpServerRequest() {
+			@Override
+			public String method() {
+				return "GET";
+			}
+
+			@Override
+			public String path() {
+				return "/";
+			}
+
+			@Override
+			public String url() {
+				return "/";
+			}
+
+			@Override
+			public String header(String name) {
+				readHeaders.add(name);
+				return headers.get(name);
+			}
+
+			@Override
+			public Collection<String> headerNames() {
+				return headers.keySet();
+			}
+
+			@Override
+			public Object unwrap() {
+				return this;
+			}
+		};
+
+		HeaderSnapshot snapshot = request.headerSnapshot(schema);
+
+		assertThat(snapshot.get("b3")).isEqualTo("value");
+		assertThat(snapshot.get("traceparent")).isNull();
+		assertThat(readHeaders).containsExactly("B3");
+	}
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.transport.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Jonatan Ivanov
+ */
+class PathTemplatizerTests {
+
+	private final PathTemplatizer templatizer = new PathTemplatizer();
+
+	@Test
+	void shouldReplaceIdentifierSegments() {
+		assertThat(templatizer.templatize("/users/42/orders")).isEqualTo("/users/{id}/orders");
+		assertThat(templatizer.templatize("/users/3f2504e0-4f89-11d3-9a0c-0305e82c3301")).isEqualTo("/users/{id}");
+		assertThat(templatizer.templatize("/commits/a1b2c3d4e5/files/")).isEqualTo("/commits/{id}/files/");
+		assertThat(templatizer.templatize("/1/2")).isEqualTo("/{id}/{id}");
+	}
+
+	@Test
+	void shouldKeepNonIdentifierSegments() {
+		String path = "/api/v1/facade/deadbeef/abc1";
+
+		assertThat(templatizer.templatize(path)).isSameAs(path);
+		assertThat(templatizer.templatize("/")).isEqualTo("/");
+		assertThat(templatizer.templatize("")).isEqualTo("");
+		assertThat(templatizer.templatize(null)).isNull();
+	}
+
+	@Test
+	void shouldRemoveQueryAndFragment() {
+		assertThat(templatizer.templatize("/users/42?page=2&size=10")).isEqualTo("/users/{id}");
+		assertThat(templatizer.templatize("/docs#section-42")).isEqualTo("/docs");
+	}
+
+	@Test
+	void shouldReturnCachedTemplates() {
+		String template = templatizer.templatize("/users/42");
+
+		assertThat(templatizer.templatize("/users/42")).isSameAs(template);
+	}
+
+	@Test
+	void shouldBoundTheCache() {
+		PathTemplatizer templatizer = new PathTemplatizer(10);
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(templatizer.templatize("/users/" + i)).isEqualTo("/users/{id}");
+		}
+
+		assertThat(templatizer.size()).isLessThanOrEqualTo(10);
+	}
+
+	@Test
+	void shouldNotAcceptTooSmallCaches() {
+		assertThatThrownBy(() -> new PathTemplatizer(1)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
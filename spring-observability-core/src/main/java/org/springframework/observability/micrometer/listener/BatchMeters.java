@@ -0,0 +1,114 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.micrometer.listener;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.TimeWindowMax;
+import io.micrometer.core.instrument.util.DoubleFormat;
+
+import org.springframework.observability.event.interval.BatchSummary;
+
+/**
+ * Meters of the batches of an event with a given set of low cardinality tags. The items
+ * of a batch are recorded in the aggregate form of its {@link BatchSummary}: the item
+ * count, total and max and the bucket counts are added to cumulative counters read by
+ * function meters, so recording a batch costs the same whatever its number of items.
+ *
+ * <p>
+ * The item latencies are published as a {@code <name>.item} function timer, a
+ * {@code <name>.item.max} time gauge and a {@code <name>.item.histogram} function counter
+ * per bucket, tagged with the cumulative upper bound of the bucket in seconds as
+ * {@code le}.
+ *
+ * @author Jonatan Ivanov
+ */
+final class BatchMeters {
+
+	private static final long[] BUCKET_UPPER_BOUNDS = BatchSummary.getBucketUpperBounds();
+
+	private final DistributionSummary items;
+
+	private final Counter failedItems;
+
+	private final LongAdder itemCount = new LongAdder();
+
+	private final LongAdder itemTotalNanos = new LongAdder();
+
+	private final TimeWindowMax itemMax;
+
+	private final LongAdder[] itemBuckets = new LongAdder[BUCKET_UPPER_BOUNDS.length];
+
+	BatchMeters(MeterRegistry registry, String name, List<Tag> tags) {
+		this.items = DistributionSummary.builder(name + ".items").description("Number of items processed in a batch")
+				.baseUnit("items").tags(tags).register(registry);
+		this.failedItems = Counter.builder(name + ".items.failed")
+				.description("Number of items that failed to be processed").tags(tags).register(registry);
+		this.itemMax = new TimeWindowMax(registry.config().clock(), DistributionStatisticConfig.DEFAULT);
+		FunctionTimer
+				.builder(name + ".item", this, meters -> meters.itemCount.sum(), meters -> meters.itemTotalNanos.sum(),
+						TimeUnit.NANOSECONDS)
+				.description("Time it took to process an item of a batch").tags(tags).register(registry);
+		TimeGauge
+				.builder(name + ".item.max", this, TimeUnit.NANOSECONDS,
+						meters -> meters.itemMax.poll(TimeUnit.NANOSECONDS))
+				.description("Longest time it took to process an item of a batch").tags(tags).register(registry);
+		for (int i = 0; i < this.itemBuckets.length; i++) {
+			int bucket = i;
+			this.itemBuckets[i] = new LongAdder();
+			FunctionCounter.builder(name + ".item.histogram", this, meters -> meters.cumulativeCount(bucket))
+					.description("Number of items of batches processed within the bucket").tags(tags)
+					.tag("le", upperBound(bucket)).register(registry);
+		}
+	}
+
+	void record(BatchSummary summary) {
+		this.items.record(summary.getItemCount());
+		this.failedItems.increment(summary.getErrorCount());
+		this.itemCount.add(summary.getItemCount());
+		this.itemTotalNanos.add(summary.getTotalDuration().toNanos());
+		this.itemMax.record(summary.getMaxDuration().toNanos(), TimeUnit.NANOSECONDS);
+		long[] counts = summary.getBucketCounts();
+		for (int i = 0; i < counts.length; i++) {
+			this.itemBuckets[i].add(counts[i]);
+		}
+	}
+
+	private double cumulativeCount(int bucket) {
+		long count = 0;
+		for (int i = 0; i <= bucket; i++) {
+			count += this.itemBuckets[i].sum();
+		}
+		return count;
+	}
+
+	private static String upperBound(int bucket) {
+		long bound = BUCKET_UPPER_BOUNDS[bucket];
+		return bound == Long.MAX_VALUE ? "+Inf" : DoubleFormat.wholeOrDecimal(bound / 1e9);
+	}
+
+}
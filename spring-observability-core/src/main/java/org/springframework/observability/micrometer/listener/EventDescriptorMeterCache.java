@@ -0,0 +1,125 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.micrometer.listener;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.observability.event.EventDescriptor;
+import org.springframework.observability.event.Recording;
+import org.springframework.observability.event.tag.Cardinality;
+import org.springframework.observability.event.tag.Tag;
+import org.springframework.observability.lang.Nullable;
+
+/**
+ * Caches the meters of events so the hot path doesn't need to build a meter id and look
+ * it up in the registry. The meters of described events are kept in an array indexed by
+ * the id of the {@link EventDescriptor}, events without a descriptor share one entry.
+ * Since the meter depends on the name of the event and on the values of its low
+ * cardinality tags too, each entry is a tree walked with the name, the low cardinality
+ * tag keys and values, the uri and the error of the recording, so no key is allocated per
+ * lookup.
+ *
+ * @param <M> meter type
+ * @author Jonatan Ivanov
+ */
+class EventDescriptorMeterCache<M> {
+
+	private final Node<M> undescribed = new Node<>();
+
+	private volatile Node<?>[] roots = new Node<?>[0];
+
+	M get(Recording<?, ?> recording, @Nullable String uri, @Nullable String error, Supplier<M> meterSupplier) {
+		EventDescriptor descriptor = recording.getEvent().getDescriptor();
+		Node<M> node = descriptor != null ? root(descriptor.getId()) : this.undescribed;
+		node = node.child(recording.getEvent().getLowCardinalityName());
+		for (Tag tag : recording.getTags()) {
+			if (tag.getCardinality() == Cardinality.LOW) {
+				node = node.child(tag.getKey()).child(tag.getValue());
+			}
+		}
+		return node.child(uri).child(error).meter(meterSupplier);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Node<M> root(int id) {
+		Node<?>[] roots = this.roots;
+		if (id < roots.length && roots[id] != null) {
+			return (Node<M>) roots[id];
+		}
+		return register(id);
+	}
+
+	@SuppressWarnings("unchecked")
+	private synchronized Node<M> register(int id) {
+		Node<?>[] roots = this.roots;
+		if (id < roots.length && roots[id] != null) {
+			return (Node<M>) roots[id];
+		}
+		Node<M> root = new Node<>();
+		Node<?>[] newRoots = Arrays.copyOf(roots,
+				Math.max(roots.length, Math.max(id + 1, EventDescriptor.registeredCount())));
+		newRoots[id] = root;
+		this.roots = newRoots;
+		return root;
+	}
+
+	/**
+	 * A step of the walk, the meter is set on the last one.
+	 */
+	private static final class Node<M> {
+
+		private final Map<String, Node<M>> children = new ConcurrentHashMap<>();
+
+		// child for a missing uri or error
+		private volatile Node<M> absent;
+
+		private volatile M meter;
+
+		Node<M> child(@Nullable String key) {
+			if (key == null) {
+				Node<M> absent = this.absent;
+				return absent != null ? absent : absent();
+			}
+			Node<M> child = this.children.get(key);
+			return child != null ? child : this.children.computeIfAbsent(key, k -> new Node<>());
+		}
+
+		private synchronized Node<M> absent() {
+			if (this.absent == null) {
+				this.absent = new Node<>();
+			}
+			return this.absent;
+		}
+
+		M meter(Supplier<M> meterSupplier) {
+			M meter = this.meter;
+			return meter != null ? meter : register(meterSupplier);
+		}
+
+		private synchronized M register(Supplier<M> meterSupplier) {
+			if (this.meter == null) {
+				this.meter = meterSupplier.get();
+			}
+			return this.meter;
+		}
+
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.micrometer.listener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.observability.event.Recording;
+import org.springframework.observability.event.instant.InstantRecording;
+import org.springframework.observability.event.interval.IntervalEvent;
+import org.springframework.observability.event.interval.IntervalMessagingBatchConsumerEvent;
+import org.springframework.observability.event.interval.IntervalMessagingEvent;
+import org.springframework.observability.event.interval.IntervalRecording;
+import org.springframework.observability.event.listener.RecordingListener;
+import org.springframework.observability.event.tag.Cardinality;
+import org.springframework.observability.transport.messaging.MessagingRequest;
+
+/**
+ * {@link RecordingListener} that uses Micrometer's API to record messaging events. Timers
+ * are tagged with the messaging operation and the channel, batches are recorded once with
+ * a {@code <name>.batch.size} distribution of their sizes.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public class MicrometerMessagingRecordingListener implements MetricsRecordingListener<Void> {
+
+	private final MeterRegistry registry;
+
+	/**
+	 * @param registry The registry to use to record events.
+	 */
+	public MicrometerMessagingRecordingListener(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	public boolean isApplicable(Recording<?, ?> recording) {
+		return recording.getEvent() instanceof IntervalMessagingEvent;
+	}
+
+	@Override
+	public void onStart(IntervalRecording intervalRecording) {
+	}
+
+	@Override
+	public void onStop(IntervalRecording intervalRecording) {
+		IntervalEvent event = intervalRecording.getEvent();
+		List<Tag> tags = toTags(intervalRecording);
+		MessagingRequest request = ((IntervalMessagingEvent<?>) event).getRequest();
+		tags.add(Tag.of("messaging.operation", request.operation()));
+		tags.add(Tag.of("messaging.channel", channel(request.channelName())));
+		if (event instanceof IntervalMessagingBatchConsumerEvent) {
+			IntervalMessagingBatchConsumerEvent batchEvent = (IntervalMessagingBatchConsumerEvent) event;
+			DistributionSummary.builder(event.getLowCardinalityName() + ".batch.size")
+					.description("Number of messages in a batch").baseUnit("messages").tags(tags)
+					.register(this.registry).record(batchEvent.getBatchSize());
+		}
+		Timer.builder(event.getLowCardinalityName()).description(event.getDescription()).tags(tags)
+				.tag("error", intervalRecording.getError() != null
+						? intervalRecording.getError().getClass().getSimpleName() : "none")
+				.register(this.registry).record(intervalRecording.getDuration());
+	}
+
+	private static String channel(String channelName) {
+		return channelName != null ? channelName : "unknown";
+	}
+
+	@Override
+	public void onError(IntervalRecording intervalRecording) {
+	}
+
+	@Override
+	public void recordInstant(InstantRecording instantRecording) {
+		Counter.builder(instantRecording.getEvent().getLowCardinalityName())
+				.description(instantRecording.getEvent().getDescription()).tags(toTags(instantRecording))
+				.register(this.registry).increment();
+	}
+
+	@Override
+	public Void createContext() {
+		return null;
+	}
+
+	private List<Tag> toTags(Recording<?, ?> recording) {
+		List<Tag> tags = new ArrayList<>();
+		for (org.springframework.observability.event.tag.Tag tag : recording.getTags()) {
+			if (tag.getCardinality() == Cardinality.LOW) {
+				tags.add(Tag.of(tag.getKey(), tag.getValue()));
+			}
+		}
+		return tags;
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.observability.micrometer.listener;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -27,9 +28,18 @@ import io.micrometer.core.instrument.Timer;
 
 import org.springframework.observability.event.Recording;
 import org.springframework.observability.event.instant.InstantRecording;
+import org.springframework.observability.event.interval.BatchRecording;
+import org.springframework.observability.event.interval.IntervalEvent;
+import org.springframework.observability.event.interval.IntervalHttpEvent;
 import org.springframework.observability.event.interval.IntervalRecording;
 import org.springframework.observability.event.listener.RecordingListener;
 import org.springframework.observability.event.tag.Cardinality;
+import org.springframework.observability.lang.Nullable;
+import org.springframework.observability.transport.http.HttpRequest;
+import org.springframework.observability.transport.http.HttpResponse;
+import org.springframework.observability.transport.http.PathTemplatizer;
+import org.springframework.observability.transport.http.Request;
+import org.springframework.observability.transport.http.Response;
 
 /**
  * {@link RecordingListener} that uses Micrometer's API to record events.
@@ -38,11 +48,31 @@ public class MicrometerRecordingListener implements MetricsRecordingListener<Voi
 
 	private final MeterRegistry registry;
 
+	@Nullable
+	private final PathTemplatizer pathTemplatizer;
+
+	// meters are cached to skip building their ids and looking them up in the registry
+	private final EventDescriptorMeterCache<Timer> timers = new EventDescriptorMeterCache<>();
+
+	private final EventDescriptorMeterCache<Counter> counters = new EventDescriptorMeterCache<>();
+
+	private final EventDescriptorMeterCache<BatchMeters> batchMeters = new EventDescriptorMeterCache<>();
+
 	/**
 	 * @param registry The registry to use to record events.
 	 */
 	public MicrometerRecordingListener(MeterRegistry registry) {
+		this(registry, null);
+	}
+
+	/**
+	 * @param registry The registry to use to record events.
+	 * @param pathTemplatizer templatizer to add a low cardinality {@code uri} tag to the
+	 * timers of HTTP events when there's no route, {@code null} to not add it
+	 */
+	public MicrometerRecordingListener(MeterRegistry registry, @Nullable PathTemplatizer pathTemplatizer) {
 		this.registry = registry;
+		this.pathTemplatizer = pathTemplatizer;
 	}
 
 	@Override
@@ -51,11 +81,51 @@ public class MicrometerRecordingListener implements MetricsRecordingListener<Voi
 
 	@Override
 	public void onStop(IntervalRecording intervalRecording) {
-		Timer.builder(intervalRecording.getEvent().getLowCardinalityName())
-				.description(intervalRecording.getEvent().getDescription()).tags(toTags(intervalRecording))
-				.tag("error", intervalRecording.getError() != null
-						? intervalRecording.getError().getClass().getSimpleName() : "none")
-				.register(registry).record(intervalRecording.getDuration());
+		String uri = uri(intervalRecording.getEvent());
+		Timer timer = this.timers.get(intervalRecording, uri, errorTag(intervalRecording),
+				() -> registerTimer(intervalRecording, uri));
+		timer.record(intervalRecording.getDuration());
+		if (intervalRecording instanceof BatchRecording) {
+			recordBatch((BatchRecording) intervalRecording);
+		}
+	}
+
+	private void recordBatch(BatchRecording batchRecording) {
+		BatchMeters meters = this.batchMeters.get(batchRecording, null, null, () -> new BatchMeters(this.registry,
+				batchRecording.getEvent().getLowCardinalityName(), toTags(batchRecording)));
+		meters.record(batchRecording.getSummary());
+	}
+
+	@Nullable
+	private String uri(IntervalEvent event) {
+		if (this.pathTemplatizer == null || !(event instanceof IntervalHttpEvent)) {
+			return null;
+		}
+		IntervalHttpEvent<?, ?> httpEvent = (IntervalHttpEvent<?, ?>) event;
+		Response response = httpEvent.getResponse();
+		if (response instanceof HttpResponse) {
+			String route = ((HttpResponse) response).route();
+			if (route != null && !route.isEmpty()) {
+				return route;
+			}
+		}
+		Request request = httpEvent.getRequest();
+		return request instanceof HttpRequest ? this.pathTemplatizer.templatize(((HttpRequest) request).path()) : null;
+	}
+
+	private Timer registerTimer(IntervalRecording intervalRecording, @Nullable String uri) {
+		List<Tag> tags = toTags(intervalRecording);
+		if (uri != null) {
+			tags.add(Tag.of("uri", uri));
+		}
+		return Timer.builder(intervalRecording.getEvent().getLowCardinalityName())
+				.description(intervalRecording.getEvent().getDescription()).tags(tags)
+				.tag("error", errorTag(intervalRecording)).register(this.registry);
+	}
+
+	private static String errorTag(IntervalRecording intervalRecording) {
+		Throwable error = intervalRecording.getError();
+		return error != null ? error.getClass().getSimpleName() : "none";
 	}
 
 	@Override
@@ -64,9 +134,19 @@ public class MicrometerRecordingListener implements MetricsRecordingListener<Voi
 
 	@Override
 	public void recordInstant(InstantRecording instantRecording) {
-		Counter.builder(instantRecording.getEvent().getLowCardinalityName())
+		recordInstants(instantRecording, 1);
+	}
+
+	@Override
+	public void recordInstants(InstantRecording instantRecording, long count) {
+		Counter counter = this.counters.get(instantRecording, null, null, () -> registerCounter(instantRecording));
+		counter.increment(count);
+	}
+
+	private Counter registerCounter(InstantRecording instantRecording) {
+		return Counter.builder(instantRecording.getEvent().getLowCardinalityName())
 				.description(instantRecording.getEvent().getDescription()).tags(toTags(instantRecording))
-				.register(registry).increment();
+				.register(this.registry);
 	}
 
 	@Override
@@ -77,7 +157,7 @@ public class MicrometerRecordingListener implements MetricsRecordingListener<Voi
 	private List<Tag> toTags(Recording<?, ?> recording) {
 		return StreamSupport.stream(recording.getTags().spliterator(), false)
 				.filter(tag -> tag.getCardinality() == Cardinality.LOW).map(tag -> Tag.of(tag.getKey(), tag.getValue()))
-				.collect(Collectors.toList());
+				.collect(Collectors.toCollection(ArrayList::new));
 	}
 
 }
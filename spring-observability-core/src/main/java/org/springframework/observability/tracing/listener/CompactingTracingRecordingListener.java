@@ -0,0 +1,344 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.listener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.observability.event.interval.IntervalRecording;
+import org.springframework.observability.event.listener.RecordingListener;
+import org.springframework.observability.event.tag.Cardinality;
+import org.springframework.observability.event.tag.Tag;
+import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.Tracer;
+
+/**
+ * {@link RecordingListener} that works like {@link DefaultTracingRecordingListener} but
+ * compacts repeated leaf recordings: the first recording of a low cardinality identity
+ * (event name and low cardinality tags) under a parent is reported as its own span when
+ * it stops, the following siblings with the same identity are folded into a single span
+ * that is reported when the parent stops. The compacted span carries the number of folded
+ * recordings ({@code compacted.folded}), their total, min and max duration and their
+ * number of errors. The first recording of the identity is not folded, so it is not
+ * counted: a span tagged {@code compacted.folded=3} stands for three recordings next to
+ * the span of the first one. A single folded recording is reported as a regular span.
+ * Recordings that take longer than the outlier threshold are still reported as their own
+ * span.
+ *
+ * <p>
+ * This is useful for N+1 patterns (e.g. hundreds of identical queries or cache lookups
+ * within one request) where a span per call would swamp the tracing system. A recording
+ * is only compacted while it has no children, if a child is created under it, it gets its
+ * own span.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public class CompactingTracingRecordingListener extends DefaultTracingRecordingListener {
+
+	private final long outlierThresholdNanos;
+
+	/**
+	 * Creates a new instance of {@link CompactingTracingRecordingListener}.
+	 * @param tracer the tracer to use to record events
+	 * @param outlierThreshold recordings that take at least this long are not compacted
+	 */
+	public CompactingTracingRecordingListener(Tracer tracer, Duration outlierThreshold) {
+		this(tracer, outlierThreshold, new TracingTagFilter());
+	}
+
+	/**
+	 * Creates a new instance of {@link CompactingTracingRecordingListener}.
+	 * @param tracer the tracer to use to record events
+	 * @param outlierThreshold recordings that take at least this long are not compacted
+	 * @param tracingTagFilter filter to copy the tags of the recordings to the spans with
+	 */
+	public CompactingTracingRecordingListener(Tracer tracer, Duration outlierThreshold,
+			TracingTagFilter tracingTagFilter) {
+		super(tracer, tracingTagFilter);
+		this.outlierThresholdNanos = outlierThreshold.toNanos();
+	}
+
+	@Override
+	public TracingContext createContext() {
+		return new CompactingContext();
+	}
+
+	@Override
+	public void onCreate(IntervalRecording intervalRecording) {
+		IntervalRecording parent = intervalRecording.getParent();
+		if (parent != null) {
+			promote(parent);
+		}
+		super.onCreate(intervalRecording);
+	}
+
+	@Override
+	public void onStart(IntervalRecording intervalRecording) {
+		CompactingContext parentContext = getParentContext(intervalRecording);
+		if (parentContext != null && parentContext.canHaveCompactedChildren()) {
+			// the span of the parent is already in the context, nothing to start
+			getCompactingContext(intervalRecording).compacted = true;
+			return;
+		}
+		super.onStart(intervalRecording);
+		getCompactingContext(intervalRecording).started = true;
+	}
+
+	@Override
+	public void onStop(IntervalRecording intervalRecording) {
+		CompactingContext context = getCompactingContext(intervalRecording);
+		boolean compacted;
+		synchronized (context) {
+			compacted = context.compacted;
+			context.stopped = true;
+		}
+		if (!compacted) {
+			reportCompactedChildren(context);
+			super.onStop(intervalRecording);
+			return;
+		}
+		cleanup(intervalRecording);
+		Span parentSpan = context.getSpan();
+		long durationNanos = intervalRecording.getDuration().toNanos();
+		CompactingContext parentContext = getParentContext(intervalRecording);
+		if (durationNanos >= this.outlierThresholdNanos || parentContext == null
+				|| !parentContext.fold(intervalRecording, getStartTimeInMicros(intervalRecording),
+						getStopTimeInMicros(intervalRecording))) {
+			reportSpan(parentSpan, intervalRecording);
+		}
+	}
+
+	@Override
+	public void onError(IntervalRecording intervalRecording) {
+		if (getCompactingContext(intervalRecording).compacted) {
+			// the error is read from the recording when it is stopped
+			return;
+		}
+		super.onError(intervalRecording);
+	}
+
+	/**
+	 * A compacted recording got a child: it's not a leaf, so it gets its own span.
+	 */
+	private void promote(IntervalRecording recording) {
+		CompactingContext context = (CompactingContext) recording.getContext(this);
+		if (context == null) {
+			return;
+		}
+		synchronized (context) {
+			if (!context.compacted || context.stopped) {
+				return;
+			}
+			Span parentSpan = context.getSpan();
+			Span span = parentSpan != null ? getTracer().nextSpan(parentSpan) : getTracer().nextSpan();
+			if (!span.isNoop()) {
+				span.name(recording.getHighCardinalityName());
+			}
+			span.start(getStartTimeInMicros(recording));
+			context.setSpanAndScope(span, () -> {
+			});
+			context.compacted = false;
+			context.started = true;
+		}
+	}
+
+	private void reportSpan(Span parentSpan, IntervalRecording recording) {
+		Span span = getTracer().spanBuilder().setParent(parentSpan.context()).name(recording.getHighCardinalityName())
+				.start(getStartTimeInMicros(recording));
+		getTracingTagFilter().tagSpan(span, recording.getTags());
+		if (recording.getError() != null) {
+			span.error(recording.getError());
+		}
+		span.end(getStopTimeInMicros(recording));
+	}
+
+	private void reportCompactedChildren(CompactingContext context) {
+		Map<String, CompactedSpan> compactedSpans;
+		synchronized (context) {
+			compactedSpans = context.compactedSpans;
+			context.compactedSpans = null;
+		}
+		if (compactedSpans == null) {
+			return;
+		}
+		Span parentSpan = context.getSpan();
+		for (CompactedSpan compactedSpan : compactedSpans.values()) {
+			synchronized (compactedSpan) {
+				if (compactedSpan.count == 0) {
+					continue;
+				}
+				if (compactedSpan.count == 1) {
+					reportSpan(parentSpan, compactedSpan);
+					continue;
+				}
+				Span span = getTracer().spanBuilder().setParent(parentSpan.context()).name(compactedSpan.name)
+						.start(compactedSpan.startMicros);
+				getTracingTagFilter().tagSpan(span, compactedSpan.tags);
+				span.tag("compacted.folded", String.valueOf(compactedSpan.count));
+				span.tag("compacted.duration.total", toMicrosString(compactedSpan.totalNanos));
+				span.tag("compacted.duration.min", toMicrosString(compactedSpan.minNanos));
+				span.tag("compacted.duration.max", toMicrosString(compactedSpan.maxNanos));
+				if (compactedSpan.errorCount > 0) {
+					span.tag("compacted.errors", String.valueOf(compactedSpan.errorCount));
+					span.error(compactedSpan.firstError);
+				}
+				span.end(compactedSpan.endMicros);
+			}
+		}
+	}
+
+	private void reportSpan(Span parentSpan, CompactedSpan single) {
+		Span span = getTracer().spanBuilder().setParent(parentSpan.context()).name(single.firstName)
+				.start(single.startMicros);
+		getTracingTagFilter().tagSpan(span, single.firstTags);
+		if (single.firstError != null) {
+			span.error(single.firstError);
+		}
+		span.end(single.endMicros);
+	}
+
+	private static String toMicrosString(long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos) + "us";
+	}
+
+	private CompactingContext getCompactingContext(IntervalRecording intervalRecording) {
+		return (CompactingContext) intervalRecording.getContext(this);
+	}
+
+	private CompactingContext getParentContext(IntervalRecording intervalRecording) {
+		IntervalRecording parent = intervalRecording.getParent();
+		return parent != null ? (CompactingContext) parent.getContext(this) : null;
+	}
+
+	static class CompactingContext extends TracingContext {
+
+		// the recording has no span of its own, it is going to be folded into its parent
+		private boolean compacted;
+
+		private boolean started;
+
+		private boolean stopped;
+
+		private Map<String, CompactedSpan> compactedSpans;
+
+		synchronized boolean canHaveCompactedChildren() {
+			return this.started && !this.stopped && getSpan() != null;
+		}
+
+		/**
+		 * Folds a stopped child recording into the compacted span of its identity.
+		 * @return {@code false} if this recording is already stopped or the child is the
+		 * first one of its identity
+		 */
+		boolean fold(IntervalRecording child, long startMicros, long stopMicros) {
+			CompactedSpan compactedSpan;
+			synchronized (this) {
+				if (this.stopped) {
+					return false;
+				}
+				if (this.compactedSpans == null) {
+					this.compactedSpans = new ConcurrentHashMap<>();
+				}
+				compactedSpan = this.compactedSpans.computeIfAbsent(identity(child), key -> new CompactedSpan(child));
+			}
+			return compactedSpan.add(child, startMicros, stopMicros);
+		}
+
+		private static String identity(IntervalRecording recording) {
+			StringBuilder identity = new StringBuilder(recording.getEvent().getLowCardinalityName());
+			for (Tag tag : recording.getTags()) {
+				if (tag.getCardinality() == Cardinality.LOW) {
+					identity.append(',').append(tag.getKey()).append('=').append(tag.getValue());
+				}
+			}
+			return identity.toString();
+		}
+
+	}
+
+	static class CompactedSpan {
+
+		private final String name;
+
+		private final List<Tag> tags = new ArrayList<>();
+
+		// the first recording of the identity got its own span
+		private boolean seen;
+
+		private String firstName;
+
+		private Iterable<Tag> firstTags;
+
+		private long count;
+
+		private long totalNanos;
+
+		private long minNanos = Long.MAX_VALUE;
+
+		private long maxNanos;
+
+		private long errorCount;
+
+		private Throwable firstError;
+
+		private long startMicros = Long.MAX_VALUE;
+
+		private long endMicros;
+
+		CompactedSpan(IntervalRecording recording) {
+			this.name = recording.getEvent().getLowCardinalityName();
+			for (Tag tag : recording.getTags()) {
+				if (tag.getCardinality() == Cardinality.LOW) {
+					this.tags.add(tag);
+				}
+			}
+		}
+
+		synchronized boolean add(IntervalRecording recording, long startMicros, long stopMicros) {
+			if (!this.seen) {
+				this.seen = true;
+				return false;
+			}
+			if (this.count == 0) {
+				// reported as a regular span unless another sibling repeats it
+				this.firstName = recording.getHighCardinalityName();
+				this.firstTags = recording.getTags();
+			}
+			long nanos = recording.getDuration().toNanos();
+			this.count++;
+			this.totalNanos += nanos;
+			this.minNanos = Math.min(this.minNanos, nanos);
+			this.maxNanos = Math.max(this.maxNanos, nanos);
+			if (recording.getError() != null) {
+				if (this.errorCount == 0) {
+					this.firstError = recording.getError();
+				}
+				this.errorCount++;
+			}
+			this.startMicros = Math.min(this.startMicros, startMicros);
+			this.endMicros = Math.max(this.endMicros, stopMicros);
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.listener;
+
+import java.util.function.Predicate;
+
+import org.springframework.observability.event.instant.InstantRecording;
+import org.springframework.observability.event.listener.aggregation.InstantAggregatingRecordingListener;
+import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.Tracer;
+
+/**
+ * Matches the instant recordings made while the current span is sampled. Set as the
+ * {@link InstantAggregatingRecordingListener#setPassThrough(Predicate) pass-through} of
+ * an {@link InstantAggregatingRecordingListener}, it hands the instant events of sampled
+ * requests over one by one, so that tracing listeners still add them to the spans.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public class CurrentSpanSampledPredicate implements Predicate<InstantRecording> {
+
+	private final Tracer tracer;
+
+	/**
+	 * Creates a new instance of {@link CurrentSpanSampledPredicate}.
+	 * @param tracer tracer to read the current span from
+	 */
+	public CurrentSpanSampledPredicate(Tracer tracer) {
+		this.tracer = tracer;
+	}
+
+	@Override
+	public boolean test(InstantRecording instantRecording) {
+		Span span = this.tracer.currentSpan();
+		return span != null && !span.isNoop() && Boolean.TRUE.equals(span.context().sampled());
+	}
+
+}
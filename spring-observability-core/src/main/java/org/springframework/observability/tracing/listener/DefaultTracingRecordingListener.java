@@ -19,6 +19,8 @@ package org.springframework.observability.tracing.listener;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.observability.event.instant.InstantRecording;
+import org.springframework.observability.event.interval.BatchRecording;
+import org.springframework.observability.event.interval.BatchSummary;
 import org.springframework.observability.event.interval.IntervalRecording;
 import org.springframework.observability.event.listener.RecordingListener;
 import org.springframework.observability.tracing.Span;
@@ -36,20 +38,30 @@ public class DefaultTracingRecordingListener implements TracingRecordingListener
 
 	private final TracingInstantRecorder tracingInstantRecorder;
 
-	private final TracingTagFilter tracingTagFilter = new TracingTagFilter();
+	private final TracingTagFilter tracingTagFilter;
 
 	/**
 	 * Creates a new instance of {@link DefaultTracingRecordingListener}.
 	 * @param tracer the tracer to use to record events
 	 */
 	public DefaultTracingRecordingListener(Tracer tracer) {
+		this(tracer, new TracingTagFilter());
+	}
+
+	/**
+	 * Creates a new instance of {@link DefaultTracingRecordingListener}.
+	 * @param tracer the tracer to use to record events
+	 * @param tracingTagFilter filter to copy the tags of the recordings to the spans with
+	 */
+	public DefaultTracingRecordingListener(Tracer tracer, TracingTagFilter tracingTagFilter) {
 		this.tracer = tracer;
 		this.tracingInstantRecorder = new TracingInstantRecorder(tracer);
+		this.tracingTagFilter = tracingTagFilter;
 	}
 
 	@Override
 	public void onCreate(IntervalRecording intervalRecording) {
-		Span span = getTracer().currentSpan();
+		Span span = getParentSpan(intervalRecording);
 		intervalRecording.getContext(this).setSpanAndScope(span, () -> {
 		});
 	}
@@ -58,18 +70,67 @@ public class DefaultTracingRecordingListener implements TracingRecordingListener
 	public void onStart(IntervalRecording intervalRecording) {
 		Span parentSpan = intervalRecording.getContext(this).getSpan();
 		Span childSpan = parentSpan != null ? getTracer().nextSpan(parentSpan) : getTracer().nextSpan();
-		childSpan.name(intervalRecording.getHighCardinalityName()).start(getStartTimeInMicros(intervalRecording));
+		String name = null;
+		if (!childSpan.isNoop()) {
+			// high cardinality names might be computed lazily, unsampled spans don't need
+			// them
+			name = intervalRecording.getHighCardinalityName();
+			childSpan.name(name);
+		}
+		childSpan.start(getStartTimeInMicros(intervalRecording));
 		setSpanAndScope(intervalRecording, childSpan);
+		intervalRecording.getContext(this).setSpanName(name);
 	}
 
 	@Override
 	public void onStop(IntervalRecording intervalRecording) {
-		Span span = intervalRecording.getContext(this).getSpan().name(intervalRecording.getHighCardinalityName());
-		this.tracingTagFilter.tagSpan(span, intervalRecording.getTags());
+		TracingContext context = intervalRecording.getContext(this);
+		Span span = context.getSpan();
+		if (!span.isNoop()) {
+			String name = intervalRecording.getHighCardinalityName();
+			// the name is only set again if it was changed after the span was started
+			if (name != context.getSpanName()) {
+				span.name(name);
+			}
+			this.tracingTagFilter.tagSpan(span, intervalRecording.getTags());
+			if (intervalRecording instanceof BatchRecording) {
+				tagBatchSummary(span, ((BatchRecording) intervalRecording).getSummary());
+			}
+		}
 		cleanup(intervalRecording);
 		span.end(getStopTimeInMicros(intervalRecording));
 	}
 
+	private void tagBatchSummary(Span span, BatchSummary summary) {
+		span.tag("batch.items", String.valueOf(summary.getItemCount()));
+		span.tag("batch.items.failed", String.valueOf(summary.getErrorCount()));
+		span.tag("batch.item.duration.total", toMicrosString(summary.getTotalDuration().toNanos()));
+		span.tag("batch.item.duration.max", toMicrosString(summary.getMaxDuration().toNanos()));
+		span.tag("batch.item.duration.histogram", histogram(summary));
+	}
+
+	private static String toMicrosString(long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos) + "us";
+	}
+
+	// non-empty buckets only, e.g. "le 1000us=3, le 5000us=1, le +Inf=1"
+	private static String histogram(BatchSummary summary) {
+		long[] upperBounds = BatchSummary.getBucketUpperBounds();
+		long[] counts = summary.getBucketCounts();
+		StringBuilder histogram = new StringBuilder();
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] == 0) {
+				continue;
+			}
+			if (histogram.length() > 0) {
+				histogram.append(", ");
+			}
+			histogram.append("le ").append(upperBounds[i] == Long.MAX_VALUE ? "+Inf" : toMicrosString(upperBounds[i]))
+					.append('=').append(counts[i]);
+		}
+		return histogram.toString();
+	}
+
 	@Override
 	public void onError(IntervalRecording intervalRecording) {
 		Span span = intervalRecording.getContext(this).getSpan();
@@ -81,6 +142,10 @@ public class DefaultTracingRecordingListener implements TracingRecordingListener
 		this.tracingInstantRecorder.record(instantRecording);
 	}
 
+	TracingTagFilter getTracingTagFilter() {
+		return this.tracingTagFilter;
+	}
+
 	long getStartTimeInMicros(IntervalRecording recording) {
 		return TimeUnit.NANOSECONDS.toMicros(recording.getStartWallTime());
 	}
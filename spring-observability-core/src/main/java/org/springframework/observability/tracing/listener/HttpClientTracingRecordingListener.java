@@ -41,7 +41,18 @@ public class HttpClientTracingRecordingListener extends
 	 * @param handler http client handler
 	 */
 	public HttpClientTracingRecordingListener(Tracer tracer, HttpClientHandler handler) {
-		super(tracer, handler::handleSend, handler::handleReceive);
+		this(tracer, handler, new TracingTagFilter());
+	}
+
+	/**
+	 * Creates a new instance of {@link HttpClientTracingRecordingListener}.
+	 * @param tracer tracer
+	 * @param handler http client handler
+	 * @param tracingTagFilter filter to copy the tags of the recordings to the spans with
+	 */
+	public HttpClientTracingRecordingListener(Tracer tracer, HttpClientHandler handler,
+			TracingTagFilter tracingTagFilter) {
+		super(tracer, handler::handleSend, handler::handleReceive, tracingTagFilter);
 	}
 
 	@Override
@@ -20,11 +20,13 @@ import org.springframework.observability.event.Recording;
 import org.springframework.observability.event.interval.IntervalEvent;
 import org.springframework.observability.event.interval.IntervalHttpServerEvent;
 import org.springframework.observability.event.listener.RecordingListener;
+import org.springframework.observability.lang.Nullable;
 import org.springframework.observability.tracing.Tracer;
 import org.springframework.observability.tracing.http.HttpServerHandler;
 import org.springframework.observability.transport.http.HttpResponse;
 import org.springframework.observability.transport.http.HttpServerRequest;
 import org.springframework.observability.transport.http.HttpServerResponse;
+import org.springframework.observability.transport.http.PathTemplatizer;
 
 /**
  * {@link RecordingListener} that uses the Tracing API to record events for HTTP server
@@ -36,13 +38,43 @@ import org.springframework.observability.transport.http.HttpServerResponse;
 public class HttpServerTracingRecordingListener extends
 		HttpTracingRecordingListener<HttpServerRequest, HttpServerResponse> implements TracingRecordingListener {
 
+	private final HttpSpanNames spanNames = new HttpSpanNames();
+
+	@Nullable
+	private final PathTemplatizer pathTemplatizer;
+
 	/**
 	 * Creates a new instance of {@link HttpServerTracingRecordingListener}.
 	 * @param tracer tracer
 	 * @param handler http server handler
 	 */
 	public HttpServerTracingRecordingListener(Tracer tracer, HttpServerHandler handler) {
-		super(tracer, handler::handleReceive, handler::handleSend);
+		this(tracer, handler, new TracingTagFilter());
+	}
+
+	/**
+	 * Creates a new instance of {@link HttpServerTracingRecordingListener}.
+	 * @param tracer tracer
+	 * @param handler http server handler
+	 * @param tracingTagFilter filter to copy the tags of the recordings to the spans with
+	 */
+	public HttpServerTracingRecordingListener(Tracer tracer, HttpServerHandler handler,
+			TracingTagFilter tracingTagFilter) {
+		this(tracer, handler, tracingTagFilter, null);
+	}
+
+	/**
+	 * Creates a new instance of {@link HttpServerTracingRecordingListener}.
+	 * @param tracer tracer
+	 * @param handler http server handler
+	 * @param tracingTagFilter filter to copy the tags of the recordings to the spans with
+	 * @param pathTemplatizer templatizer to name spans by the template of the request
+	 * path when there's no route, {@code null} to name them by the HTTP method
+	 */
+	public HttpServerTracingRecordingListener(Tracer tracer, HttpServerHandler handler,
+			TracingTagFilter tracingTagFilter, @Nullable PathTemplatizer pathTemplatizer) {
+		super(tracer, handler::handleReceive, handler::handleSend, tracingTagFilter);
+		this.pathTemplatizer = pathTemplatizer;
 	}
 
 	@Override
@@ -59,10 +91,19 @@ public class HttpServerTracingRecordingListener extends
 	@Override
 	String getSpanName(IntervalEvent event) {
 		IntervalHttpServerEvent serverEvent = (IntervalHttpServerEvent) event;
-		if (serverEvent.getResponse() != null) {
-			return spanNameFromRoute(serverEvent.getResponse());
+		HttpServerResponse response = serverEvent.getResponse();
+		String name = response != null ? spanNameFromRoute(response) : null;
+		if (name != null) {
+			return name;
+		}
+		HttpServerRequest request = serverEvent.getRequest();
+		if (this.pathTemplatizer != null && request.method() != null) {
+			String template = this.pathTemplatizer.templatize(request.path());
+			if (template != null) {
+				return this.spanNames.name(request.method(), template);
+			}
 		}
-		return serverEvent.getRequest().method();
+		return response != null ? null : request.method();
 	}
 
 	// taken from Brave
@@ -77,7 +118,7 @@ public class HttpServerTracingRecordingListener extends
 			return null; // don't undo a valid name elsewhere
 		}
 		if (!"".equals(route)) {
-			return method + " " + route;
+			return this.spanNames.name(method, route);
 		}
 		return catchAllName(method, statusCode);
 	}
@@ -92,9 +133,9 @@ public class HttpServerTracingRecordingListener extends
 		case 305:
 		case 306:
 		case 307:
-			return method + " redirected";
+			return this.spanNames.name(method, "redirected");
 		case 404:
-			return method + " not_found";
+			return this.spanNames.name(method, "not_found");
 		default:
 			return null;
 		}
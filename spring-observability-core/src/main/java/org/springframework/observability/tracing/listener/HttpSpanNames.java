@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.listener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches the span names of HTTP server spans by method and route, and the string
+ * representation of status codes, so that naming and tagging the spans of recurring
+ * requests doesn't allocate. The number of cached names is bounded, names of routes
+ * beyond the limit are computed for every request.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+class HttpSpanNames {
+
+	static final int DEFAULT_MAX_SIZE = 1024;
+
+	private static final String[] STATUS_CODES = new String[600];
+
+	static {
+		for (int i = 0; i < STATUS_CODES.length; i++) {
+			STATUS_CODES[i] = String.valueOf(i);
+		}
+	}
+
+	private final ConcurrentMap<String, ConcurrentMap<String, String>> namesByMethod = new ConcurrentHashMap<>();
+
+	private final AtomicInteger size = new AtomicInteger();
+
+	private final int maxSize;
+
+	HttpSpanNames() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	HttpSpanNames(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Returns the string representation of the status code.
+	 * @param statusCode HTTP status code
+	 * @return status code as string
+	 */
+	static String statusCode(int statusCode) {
+		if (statusCode >= 0 && statusCode < STATUS_CODES.length) {
+			return STATUS_CODES[statusCode];
+		}
+		return String.valueOf(statusCode);
+	}
+
+	/**
+	 * Returns the span name for the given method and route (or the catch-all suffix like
+	 * {@code not_found}).
+	 * @param method HTTP method
+	 * @param route HTTP route
+	 * @return span name
+	 */
+	String name(String method, String route) {
+		ConcurrentMap<String, String> names = this.namesByMethod.get(method);
+		if (names != null) {
+			String name = names.get(route);
+			if (name != null) {
+				return name;
+			}
+		}
+		String name = method + " " + route;
+		if (this.size.get() >= this.maxSize) {
+			// e.g. routes containing path variables, don't let them grow the cache
+			return name;
+		}
+		if (names == null) {
+			names = this.namesByMethod.computeIfAbsent(method, key -> new ConcurrentHashMap<>());
+		}
+		String previous = names.putIfAbsent(route, name);
+		if (previous != null) {
+			return previous;
+		}
+		this.size.incrementAndGet();
+		return name;
+	}
+
+	int size() {
+		return this.size.get();
+	}
+
+}
@@ -40,12 +40,14 @@ abstract class HttpTracingRecordingListener<REQ extends HttpRequest, RES extends
 
 	private final BiConsumer<RES, Span> stopConsumer;
 
-	private final TracingTagFilter tracingTagFilter = new TracingTagFilter();
+	private final TracingTagFilter tracingTagFilter;
 
 	private final TracingInstantRecorder tracingInstantRecorder;
 
-	HttpTracingRecordingListener(Tracer tracer, Function<REQ, Span> startFunction, BiConsumer<RES, Span> stopConsumer) {
+	HttpTracingRecordingListener(Tracer tracer, Function<REQ, Span> startFunction, BiConsumer<RES, Span> stopConsumer,
+			TracingTagFilter tracingTagFilter) {
 		this.tracer = tracer;
+		this.tracingTagFilter = tracingTagFilter;
 		this.currentTraceContext = tracer.currentTraceContext();
 		this.startFunction = startFunction;
 		this.stopConsumer = stopConsumer;
@@ -119,7 +121,7 @@ abstract class HttpTracingRecordingListener<REQ extends HttpRequest, RES extends
 		}
 		if (httpStatus < 100 || httpStatus > 399) {
 			// TODO: Move to a common place
-			span.tag("error", String.valueOf(httpStatus));
+			span.tag("error", HttpSpanNames.statusCode(httpStatus));
 		}
 	}
 
@@ -0,0 +1,497 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.listener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.observability.event.instant.InstantRecording;
+import org.springframework.observability.event.interval.IntervalEvent;
+import org.springframework.observability.event.interval.IntervalHttpClientEvent;
+import org.springframework.observability.event.interval.IntervalMessagingProducerEvent;
+import org.springframework.observability.event.interval.IntervalRecording;
+import org.springframework.observability.event.interval.IntervalRpcClientEvent;
+import org.springframework.observability.event.listener.RecordingListener;
+import org.springframework.observability.lang.Nullable;
+import org.springframework.observability.tracing.CurrentTraceContext;
+import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.Tracer;
+
+/**
+ * {@link RecordingListener} that only reports the spans of slow or failing requests. The
+ * recordings of a request tree (a root recording and its descendants) are buffered in
+ * memory and turned into spans with explicit timestamps (through {@link Span.Builder})
+ * only if the root recording takes at least as long as the latency threshold or has an
+ * error, otherwise the buffer is dropped.
+ *
+ * <p>
+ * The buffer only holds references to the recordings and their timestamps, names and tags
+ * are read when the spans are created. Instant events recorded on the thread of a
+ * buffered recording are buffered with it and dropped together with the request. The
+ * number of recordings and events buffered per request is bounded, the ones over the
+ * limit are not reported and their number is added to the root span as the
+ * {@code deferred.dropped} tag.
+ *
+ * <p>
+ * Since buffered recordings have no spans, nothing is put in scope for them. Before an
+ * HTTP client, RPC client or messaging producer recording is created, the request is
+ * materialized and the span of the closest ancestor is put in scope, so that the context
+ * propagated to the other process has a parent. In other cases where the context of a
+ * recording needs to be propagated, call {@link #materialize(IntervalRecording)} first:
+ * it turns the whole request tree into spans and reports the rest of the request as
+ * usual.
+ *
+ * <p>
+ * Scopes are only closed on the thread that opened them: stopping a recording (or
+ * signalling its error) closes the scopes its start and restores opened on the current
+ * thread, most recent first.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public class LatencyTriggeredTracingRecordingListener implements TracingRecordingListener {
+
+	private final Tracer tracer;
+
+	private final long latencyThresholdNanos;
+
+	private final int maxRecordingsPerRequest;
+
+	private final TracingTagFilter tracingTagFilter;
+
+	private final TracingInstantRecorder tracingInstantRecorder;
+
+	private final ThreadLocal<DeferredRecording> current = new ThreadLocal<>();
+
+	/**
+	 * Creates a new instance of {@link LatencyTriggeredTracingRecordingListener}.
+	 * @param tracer the tracer to use to record events
+	 * @param latencyThreshold requests that take at least this long are reported
+	 * @param maxRecordingsPerRequest the maximum number of recordings buffered per
+	 * request
+	 */
+	public LatencyTriggeredTracingRecordingListener(Tracer tracer, Duration latencyThreshold,
+			int maxRecordingsPerRequest) {
+		this(tracer, latencyThreshold, maxRecordingsPerRequest, new TracingTagFilter());
+	}
+
+	/**
+	 * Creates a new instance of {@link LatencyTriggeredTracingRecordingListener}.
+	 * @param tracer the tracer to use to record events
+	 * @param latencyThreshold requests that take at least this long are reported
+	 * @param maxRecordingsPerRequest the maximum number of recordings buffered per
+	 * request
+	 * @param tracingTagFilter filter to copy the tags of the recordings to the spans with
+	 */
+	public LatencyTriggeredTracingRecordingListener(Tracer tracer, Duration latencyThreshold,
+			int maxRecordingsPerRequest, TracingTagFilter tracingTagFilter) {
+		this.tracer = tracer;
+		this.latencyThresholdNanos = latencyThreshold.toNanos();
+		this.maxRecordingsPerRequest = maxRecordingsPerRequest;
+		this.tracingInstantRecorder = new TracingInstantRecorder(tracer);
+		this.tracingTagFilter = tracingTagFilter;
+	}
+
+	@Override
+	public TracingContext createContext() {
+		return new DeferredContext();
+	}
+
+	@Override
+	public void onCreate(IntervalRecording intervalRecording) {
+		DeferredContext context = getDeferredContext(intervalRecording);
+		IntervalRecording parent = intervalRecording.getParent();
+		DeferredContext parentContext = parent != null ? (DeferredContext) parent.getContext(this) : null;
+		if (parentContext != null && parentContext.request != null) {
+			context.request = parentContext.request;
+			context.parentRecording = parentContext.recording != null ? parentContext.recording
+					: parentContext.parentRecording;
+		}
+		else {
+			context.request = new DeferredRequest(getParentSpan(intervalRecording));
+			context.root = true;
+		}
+		if (isRemote(intervalRecording.getEvent())) {
+			Span parentSpan;
+			synchronized (context.request) {
+				materialize(context.request);
+				parentSpan = context.parentRecording != null ? context.parentRecording.span
+						: context.request.parentSpan;
+			}
+			if (parentSpan != null) {
+				push(context, null, parentSpan, false);
+			}
+		}
+	}
+
+	@Override
+	public void onStart(IntervalRecording intervalRecording) {
+		DeferredContext context = getDeferredContext(intervalRecording);
+		DeferredRequest request = context.request;
+		DeferredRecording recording = new DeferredRecording(request, intervalRecording, context.parentRecording,
+				toMicros(intervalRecording.getStartWallTime()));
+		synchronized (request) {
+			if (request.discarded) {
+				return;
+			}
+			if (!reserve(request)) {
+				return;
+			}
+			request.recordings.add(recording);
+			context.recording = recording;
+			if (request.materialized) {
+				startSpan(request, recording);
+			}
+		}
+		if (recording.span != null) {
+			// the span of the recording takes over from the one of its parent
+			pop(context, false);
+		}
+		push(context, recording, recording.span, false);
+	}
+
+	@Override
+	public void onStop(IntervalRecording intervalRecording) {
+		DeferredContext context = getDeferredContext(intervalRecording);
+		pop(context, false);
+		stop(intervalRecording, context);
+	}
+
+	private void stop(IntervalRecording intervalRecording, DeferredContext context) {
+		DeferredRequest request = context.request;
+		DeferredRecording recording = context.recording;
+		if (recording == null) {
+			// over the limit
+			return;
+		}
+		Span span;
+		synchronized (request) {
+			recording.stopMicros = toMicros(
+					intervalRecording.getStartWallTime() + intervalRecording.getDuration().toNanos());
+			if (context.root && !request.materialized && (intervalRecording.getError() != null
+					|| intervalRecording.getDuration().toNanos() >= this.latencyThresholdNanos)) {
+				materialize(request);
+				return;
+			}
+			if (context.root && !request.materialized) {
+				// fast and successful, nothing to report
+				request.discarded = true;
+				request.recordings.clear();
+				return;
+			}
+			span = recording.span;
+		}
+		if (span != null) {
+			// the request was already materialized when this recording started
+			end(recording, context.root ? request.dropped : 0);
+		}
+	}
+
+	@Override
+	public void onError(IntervalRecording intervalRecording) {
+		// errors are read from the recordings when the spans are created, only the
+		// restores of this thread are undone
+		pop(getDeferredContext(intervalRecording), true);
+	}
+
+	@Override
+	public void onRestore(IntervalRecording intervalRecording) {
+		DeferredContext context = getDeferredContext(intervalRecording);
+		DeferredRecording recording = context.recording;
+		if (recording != null) {
+			push(context, recording, recording.span, true);
+		}
+	}
+
+	@Override
+	public void recordInstant(InstantRecording instantRecording) {
+		DeferredRecording recording = this.current.get();
+		if (recording == null) {
+			this.tracingInstantRecorder.record(instantRecording);
+			return;
+		}
+		long micros = toMicros(instantRecording.getWallTime());
+		String name = instantRecording.getHighCardinalityName();
+		Span span;
+		DeferredRequest request = recording.request;
+		synchronized (request) {
+			if (!request.materialized) {
+				if (!request.discarded && reserve(request)) {
+					recording.events.add(new DeferredEvent(micros, name));
+				}
+				return;
+			}
+			span = recording.span;
+		}
+		if (span != null && !span.isNoop()) {
+			span.event(micros, name);
+		}
+	}
+
+	/**
+	 * Turns the buffered recordings of the request the given recording belongs to into
+	 * spans, the rest of the request is reported as usual. This needs to be called before
+	 * the context of the recording is propagated to another process.
+	 * @param intervalRecording a recording of the request
+	 * @return the span of the recording or of its closest ancestor that has a span,
+	 * {@code null} if there is none
+	 */
+	@Nullable
+	public Span materialize(IntervalRecording intervalRecording) {
+		DeferredContext context = getDeferredContext(intervalRecording);
+		if (context == null || context.request == null) {
+			return null;
+		}
+		DeferredRequest request = context.request;
+		synchronized (request) {
+			materialize(request);
+			DeferredRecording recording = context.recording != null ? context.recording : context.parentRecording;
+			return recording != null ? recording.span : request.parentSpan;
+		}
+	}
+
+	private void materialize(DeferredRequest request) {
+		if (request.materialized || request.discarded) {
+			return;
+		}
+		request.materialized = true;
+		// parents are started before their children so they come first
+		for (DeferredRecording recording : request.recordings) {
+			startSpan(request, recording);
+			for (DeferredEvent event : recording.events) {
+				recording.span.event(event.micros, event.name);
+			}
+			recording.events.clear();
+			if (recording.stopMicros != 0) {
+				end(recording, recording == request.recordings.get(0) ? request.dropped : 0);
+			}
+		}
+	}
+
+	private void startSpan(DeferredRequest request, DeferredRecording recording) {
+		Span parentSpan = recording.parent != null ? recording.parent.span : request.parentSpan;
+		Span.Builder builder = this.tracer.spanBuilder();
+		if (parentSpan != null) {
+			builder.setParent(parentSpan.context());
+		}
+		recording.span = builder.name(recording.recording.getHighCardinalityName()).start(recording.startMicros);
+	}
+
+	private void end(DeferredRecording recording, long dropped) {
+		Span span = recording.span;
+		this.tracingTagFilter.tagSpan(span, recording.recording.getTags());
+		if (dropped > 0) {
+			span.tag("deferred.dropped", String.valueOf(dropped));
+		}
+		if (recording.recording.getError() != null) {
+			span.error(recording.recording.getError());
+		}
+		span.end(recording.stopMicros);
+	}
+
+	// makes room for a recording or an event in the buffer of the request
+	private boolean reserve(DeferredRequest request) {
+		if (request.buffered >= this.maxRecordingsPerRequest) {
+			request.dropped++;
+			return false;
+		}
+		request.buffered++;
+		return true;
+	}
+
+	/**
+	 * Makes the recording the one whose instant events are buffered on this thread and
+	 * puts the span in scope.
+	 */
+	private void push(DeferredContext context, @Nullable DeferredRecording recording, @Nullable Span span,
+			boolean restore) {
+		DeferredRecording previous = null;
+		if (recording != null) {
+			previous = this.current.get();
+			this.current.set(recording);
+		}
+		CurrentTraceContext.Scope scope = span != null ? this.tracer.currentTraceContext().maybeScope(span.context())
+				: null;
+		synchronized (context) {
+			context.frames.add(new Frame(Thread.currentThread(), recording, previous, scope, restore));
+		}
+	}
+
+	/**
+	 * Undoes the pushes of this thread, most recent first. The ones of other threads are
+	 * left to them.
+	 */
+	private void pop(DeferredContext context, boolean restoresOnly) {
+		Thread thread = Thread.currentThread();
+		synchronized (context) {
+			for (int i = context.frames.size() - 1; i >= 0; i--) {
+				Frame frame = context.frames.get(i);
+				if (frame.thread != thread || (restoresOnly && !frame.restore)) {
+					continue;
+				}
+				context.frames.remove(i);
+				if (frame.scope != null) {
+					frame.scope.close();
+				}
+				if (frame.recording != null && this.current.get() == frame.recording) {
+					if (frame.previous != null) {
+						this.current.set(frame.previous);
+					}
+					else {
+						this.current.remove();
+					}
+				}
+			}
+		}
+	}
+
+	private static boolean isRemote(IntervalEvent event) {
+		return event instanceof IntervalHttpClientEvent || event instanceof IntervalRpcClientEvent
+				|| event instanceof IntervalMessagingProducerEvent;
+	}
+
+	private static long toMicros(long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+
+	private DeferredContext getDeferredContext(IntervalRecording intervalRecording) {
+		return (DeferredContext) intervalRecording.getContext(this);
+	}
+
+	@Override
+	public Tracer getTracer() {
+		return this.tracer;
+	}
+
+	static class DeferredContext extends TracingContext {
+
+		private DeferredRequest request;
+
+		private boolean root;
+
+		// null if the recording was not buffered because of the limit
+		private DeferredRecording recording;
+
+		// closest buffered ancestor
+		private DeferredRecording parentRecording;
+
+		// what the recording put on threads, the parent scope of a remote recording too
+		private final List<Frame> frames = new ArrayList<>(2);
+
+		@Override
+		Span getSpan() {
+			return this.recording != null ? this.recording.span : null;
+		}
+
+	}
+
+	/**
+	 * The buffered recordings of a request tree.
+	 */
+	static class DeferredRequest {
+
+		private final Span parentSpan;
+
+		private final List<DeferredRecording> recordings = new ArrayList<>();
+
+		// recordings and events counted against the limit
+		private int buffered;
+
+		private long dropped;
+
+		private boolean materialized;
+
+		// the root finished without being materialized
+		private boolean discarded;
+
+		DeferredRequest(@Nullable Span parentSpan) {
+			this.parentSpan = parentSpan;
+		}
+
+	}
+
+	static class DeferredRecording {
+
+		private final DeferredRequest request;
+
+		private final IntervalRecording recording;
+
+		private final DeferredRecording parent;
+
+		private final long startMicros;
+
+		private long stopMicros;
+
+		private Span span;
+
+		// instant events recorded before the request was materialized
+		private final List<DeferredEvent> events = new ArrayList<>(0);
+
+		DeferredRecording(DeferredRequest request, IntervalRecording recording, @Nullable DeferredRecording parent,
+				long startMicros) {
+			this.request = request;
+			this.recording = recording;
+			this.parent = parent;
+			this.startMicros = startMicros;
+		}
+
+	}
+
+	/**
+	 * What a start or restore put on a thread, undone by that thread only.
+	 */
+	static class Frame {
+
+		private final Thread thread;
+
+		// null for the parent scope of a remote recording
+		private final DeferredRecording recording;
+
+		// recording whose instant events were buffered on the thread before
+		private final DeferredRecording previous;
+
+		private final CurrentTraceContext.Scope scope;
+
+		private final boolean restore;
+
+		Frame(Thread thread, @Nullable DeferredRecording recording, @Nullable DeferredRecording previous,
+				@Nullable CurrentTraceContext.Scope scope, boolean restore) {
+			this.thread = thread;
+			this.recording = recording;
+			this.previous = previous;
+			this.scope = scope;
+			this.restore = restore;
+		}
+
+	}
+
+	static class DeferredEvent {
+
+		private final long micros;
+
+		private final String name;
+
+		DeferredEvent(long micros, String name) {
+			this.micros = micros;
+			this.name = name;
+		}
+
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.listener;
+
+import java.util.List;
+
+import org.springframework.observability.event.interval.IntervalMessagingBatchConsumerEvent;
+import org.springframework.observability.event.listener.RecordingListener;
+import org.springframework.observability.lang.Nullable;
+import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.TraceContext;
+import org.springframework.observability.tracing.Tracer;
+import org.springframework.observability.tracing.propagation.Propagator;
+import org.springframework.observability.transport.messaging.ConsumerRequest;
+
+/**
+ * {@link RecordingListener} that uses the Tracing API to record processing a batch of
+ * messages as a single span. Instead of continuing the trace of every message, the span
+ * links to the contexts of up to a given number of messages: the contexts are only
+ * extracted when the span is sampled, once it is ended, and the links are recorded as
+ * {@code links.<index>.trace_id} and {@code links.<index>.span_id} tags.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public class MessagingBatchConsumerTracingRecordingListener
+		extends RemoteTracingRecordingListener<IntervalMessagingBatchConsumerEvent> {
+
+	private final Propagator propagator;
+
+	private final String[] traceIdKeys;
+
+	private final String[] spanIdKeys;
+
+	/**
+	 * Creates a new instance of {@link MessagingBatchConsumerTracingRecordingListener}.
+	 * @param tracer tracer
+	 * @param propagator propagator to extract the contexts of the messages with
+	 * @param maxLinks the maximum number of messages to link to
+	 */
+	public MessagingBatchConsumerTracingRecordingListener(Tracer tracer, Propagator propagator, int maxLinks) {
+		this(tracer, propagator, maxLinks, new TracingTagFilter());
+	}
+
+	/**
+	 * Creates a new instance of {@link MessagingBatchConsumerTracingRecordingListener}.
+	 * @param tracer tracer
+	 * @param propagator propagator to extract the contexts of the messages with
+	 * @param maxLinks the maximum number of messages to link to
+	 * @param tracingTagFilter filter to copy the tags of the recordings to the spans with
+	 */
+	public MessagingBatchConsumerTracingRecordingListener(Tracer tracer, Propagator propagator, int maxLinks,
+			TracingTagFilter tracingTagFilter) {
+		super(tracer, tracingTagFilter, IntervalMessagingBatchConsumerEvent.class);
+		this.propagator = propagator;
+		this.traceIdKeys = new String[maxLinks];
+		this.spanIdKeys = new String[maxLinks];
+		for (int i = 0; i < maxLinks; i++) {
+			this.traceIdKeys[i] = "links." + i + ".trace_id";
+			this.spanIdKeys[i] = "links." + i + ".span_id";
+		}
+	}
+
+	@Override
+	Span.Builder spanBuilder(IntervalMessagingBatchConsumerEvent event, @Nullable Span parent) {
+		Span.Builder builder = childOf(parent).kind(Span.Kind.CONSUMER).tag("messaging.operation", "receive")
+				.tag("messaging.batch.size", String.valueOf(event.getBatchSize()));
+		if (event.getChannelName() != null) {
+			builder.tag("messaging.channel_name", event.getChannelName());
+		}
+		return builder;
+	}
+
+	@Override
+	void beforeSpanEnd(IntervalMessagingBatchConsumerEvent event, Span span) {
+		List<? extends ConsumerRequest> requests = event.getRequests();
+		int links = 0;
+		for (int i = 0; i < requests.size() && links < this.traceIdKeys.length; i++) {
+			TraceContext context = this.propagator.extractContext(requests.get(i), ConsumerRequest::header);
+			if (context != null) {
+				span.tag(this.traceIdKeys[links], context.traceId());
+				span.tag(this.spanIdKeys[links], context.spanId());
+				links++;
+			}
+		}
+		span.tag("messaging.batch.links", String.valueOf(links));
+	}
+
+}
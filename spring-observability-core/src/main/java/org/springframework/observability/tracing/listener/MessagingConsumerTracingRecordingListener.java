@@ -0,0 +1,68 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.listener;
+
+import org.springframework.observability.event.interval.IntervalMessagingConsumerEvent;
+import org.springframework.observability.event.listener.RecordingListener;
+import org.springframework.observability.lang.Nullable;
+import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.Tracer;
+import org.springframework.observability.tracing.propagation.Propagator;
+import org.springframework.observability.transport.messaging.ConsumerRequest;
+
+/**
+ * {@link RecordingListener} that uses the Tracing API to record processing a single
+ * message. The consumer span continues the trace whose context was extracted from the
+ * headers of the message.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public class MessagingConsumerTracingRecordingListener
+		extends RemoteTracingRecordingListener<IntervalMessagingConsumerEvent> {
+
+	private final Propagator propagator;
+
+	/**
+	 * Creates a new instance of {@link MessagingConsumerTracingRecordingListener}.
+	 * @param tracer tracer
+	 * @param propagator propagator to extract the context from the messages with
+	 */
+	public MessagingConsumerTracingRecordingListener(Tracer tracer, Propagator propagator) {
+		this(tracer, propagator, new TracingTagFilter());
+	}
+
+	/**
+	 * Creates a new instance of {@link MessagingConsumerTracingRecordingListener}.
+	 * @param tracer tracer
+	 * @param propagator propagator to extract the context from the messages with
+	 * @param tracingTagFilter filter to copy the tags of the recordings to the spans with
+	 */
+	public MessagingConsumerTracingRecordingListener(Tracer tracer, Propagator propagator,
+			TracingTagFilter tracingTagFilter) {
+		super(tracer, tracingTagFilter, IntervalMessagingConsumerEvent.class);
+		this.propagator = propagator;
+	}
+
+	@Override
+	Span.Builder spanBuilder(IntervalMessagingConsumerEvent event, @Nullable Span parent) {
+		return MessagingProducerTracingRecordingListener.tagRequest(
+				this.propagator.extract(event.getRequest(), ConsumerRequest::header).kind(Span.Kind.CONSUMER),
+				event.getRequest());
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.listener;
+
+import org.springframework.observability.event.interval.IntervalMessagingProducerEvent;
+import org.springframework.observability.event.listener.RecordingListener;
+import org.springframework.observability.lang.Nullable;
+import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.Tracer;
+import org.springframework.observability.tracing.propagation.Propagator;
+import org.springframework.observability.transport.messaging.MessagingRequest;
+import org.springframework.observability.transport.messaging.ProducerRequest;
+
+/**
+ * {@link RecordingListener} that uses the Tracing API to record sending messages. The
+ * context of the producer span is injected into the headers of the message.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public class MessagingProducerTracingRecordingListener
+		extends RemoteTracingRecordingListener<IntervalMessagingProducerEvent> {
+
+	private final Propagator propagator;
+
+	/**
+	 * Creates a new instance of {@link MessagingProducerTracingRecordingListener}.
+	 * @param tracer tracer
+	 * @param propagator propagator to inject the context into the messages with
+	 */
+	public MessagingProducerTracingRecordingListener(Tracer tracer, Propagator propagator) {
+		this(tracer, propagator, new TracingTagFilter());
+	}
+
+	/**
+	 * Creates a new instance of {@link MessagingProducerTracingRecordingListener}.
+	 * @param tracer tracer
+	 * @param propagator propagator to inject the context into the messages with
+	 * @param tracingTagFilter filter to copy the tags of the recordings to the spans with
+	 */
+	public MessagingProducerTracingRecordingListener(Tracer tracer, Propagator propagator,
+			TracingTagFilter tracingTagFilter) {
+		super(tracer, tracingTagFilter, IntervalMessagingProducerEvent.class);
+		this.propagator = propagator;
+	}
+
+	@Override
+	Span.Builder spanBuilder(IntervalMessagingProducerEvent event, @Nullable Span parent) {
+		return tagRequest(childOf(parent).kind(Span.Kind.PRODUCER), event.getRequest());
+	}
+
+	@Override
+	void onSpanStarted(IntervalMessagingProducerEvent event, Span span) {
+		this.propagator.inject(span.context(), event.getRequest(), ProducerRequest::header);
+	}
+
+	static Span.Builder tagRequest(Span.Builder builder, MessagingRequest request) {
+		builder.tag("messaging.operation", request.operation());
+		if (request.channelKind() != null) {
+			builder.tag("messaging.channel_kind", request.channelKind());
+		}
+		if (request.channelName() != null) {
+			builder.tag("messaging.channel_name", request.channelName());
+		}
+		return builder;
+	}
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.listener;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.observability.event.Recording;
+import org.springframework.observability.event.instant.InstantRecording;
+import org.springframework.observability.event.interval.IntervalEvent;
+import org.springframework.observability.event.interval.IntervalRecording;
+import org.springframework.observability.lang.Nullable;
+import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.Tracer;
+
+/**
+ * Base class of the listeners that record remote interactions, like messaging and RPC,
+ * with spans created from a {@link Span.Builder} so that their kind and parent can be
+ * set.
+ *
+ * @param <E> event type
+ */
+abstract class RemoteTracingRecordingListener<E extends IntervalEvent> implements TracingRecordingListener {
+
+	private final Tracer tracer;
+
+	private final TracingTagFilter tracingTagFilter;
+
+	private final TracingInstantRecorder tracingInstantRecorder;
+
+	private final Class<E> eventType;
+
+	RemoteTracingRecordingListener(Tracer tracer, TracingTagFilter tracingTagFilter, Class<E> eventType) {
+		this.tracer = tracer;
+		this.tracingTagFilter = tracingTagFilter;
+		this.tracingInstantRecorder = new TracingInstantRecorder(tracer);
+		this.eventType = eventType;
+	}
+
+	@Override
+	public boolean isApplicable(Recording<?, ?> recording) {
+		return this.eventType.isInstance(recording.getEvent());
+	}
+
+	@Override
+	public void onCreate(IntervalRecording intervalRecording) {
+		Span span = getParentSpan(intervalRecording);
+		intervalRecording.getContext(this).setSpanAndScope(span, () -> {
+		});
+	}
+
+	@Override
+	public void onStart(IntervalRecording intervalRecording) {
+		E event = this.eventType.cast(intervalRecording.getEvent());
+		Span span = spanBuilder(event, intervalRecording.getContext(this).getSpan()).name(event.getLowCardinalityName())
+				.start(TimeUnit.NANOSECONDS.toMicros(intervalRecording.getStartWallTime()));
+		onSpanStarted(event, span);
+		setSpanAndScope(intervalRecording, span);
+	}
+
+	/**
+	 * Creates the builder of the span of the given event.
+	 * @param event event to record
+	 * @param parent span of the enclosing recording or the current span
+	 * @return span builder
+	 */
+	abstract Span.Builder spanBuilder(E event, @Nullable Span parent);
+
+	/**
+	 * Called after the span of the event was started.
+	 * @param event recorded event
+	 * @param span started span
+	 */
+	void onSpanStarted(E event, Span span) {
+	}
+
+	/**
+	 * Called before a sampled span of the event is ended.
+	 * @param event recorded event
+	 * @param span span to end
+	 */
+	void beforeSpanEnd(E event, Span span) {
+	}
+
+	Span.Builder childOf(@Nullable Span parent) {
+		Span.Builder builder = this.tracer.spanBuilder();
+		return parent != null ? builder.setParent(parent.context()) : builder;
+	}
+
+	@Override
+	public void onStop(IntervalRecording intervalRecording) {
+		Span span = intervalRecording.getContext(this).getSpan();
+		if (!span.isNoop()) {
+			span.name(intervalRecording.getHighCardinalityName());
+			this.tracingTagFilter.tagSpan(span, intervalRecording.getTags());
+			beforeSpanEnd(this.eventType.cast(intervalRecording.getEvent()), span);
+		}
+		cleanup(intervalRecording);
+		span.end(TimeUnit.NANOSECONDS
+				.toMicros(intervalRecording.getStartWallTime() + intervalRecording.getDuration().toNanos()));
+	}
+
+	@Override
+	public void onError(IntervalRecording intervalRecording) {
+		Span span = intervalRecording.getContext(this).getSpan();
+		span.error(intervalRecording.getError());
+	}
+
+	@Override
+	public void recordInstant(InstantRecording instantRecording) {
+		this.tracingInstantRecorder.record(instantRecording);
+	}
+
+	@Override
+	public Tracer getTracer() {
+		return this.tracer;
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.listener;
+
+import org.springframework.observability.event.interval.IntervalRpcClientEvent;
+import org.springframework.observability.event.listener.RecordingListener;
+import org.springframework.observability.lang.Nullable;
+import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.Tracer;
+import org.springframework.observability.tracing.propagation.BinaryPropagator;
+
+/**
+ * {@link RecordingListener} that uses the Tracing API to record RPC calls on the client
+ * side. The context of the client span is injected into the binary metadata of the call.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public class RpcClientTracingRecordingListener extends RpcTracingRecordingListener<IntervalRpcClientEvent> {
+
+	/**
+	 * Creates a new instance of {@link RpcClientTracingRecordingListener}.
+	 * @param tracer tracer
+	 * @param propagator propagator to inject the context into the calls with
+	 */
+	public RpcClientTracingRecordingListener(Tracer tracer, BinaryPropagator propagator) {
+		this(tracer, propagator, new TracingTagFilter());
+	}
+
+	/**
+	 * Creates a new instance of {@link RpcClientTracingRecordingListener}.
+	 * @param tracer tracer
+	 * @param propagator propagator to inject the context into the calls with
+	 * @param tracingTagFilter filter to copy the tags of the recordings to the spans with
+	 */
+	public RpcClientTracingRecordingListener(Tracer tracer, BinaryPropagator propagator,
+			TracingTagFilter tracingTagFilter) {
+		super(tracer, propagator, tracingTagFilter, IntervalRpcClientEvent.class);
+	}
+
+	@Override
+	Span.Builder spanBuilder(IntervalRpcClientEvent event, @Nullable Span parent) {
+		return tagRequest(childOf(parent).kind(Span.Kind.CLIENT), event.getRequest());
+	}
+
+	@Override
+	void onSpanStarted(IntervalRpcClientEvent event, Span span) {
+		event.getRequest().binaryMetadata(getPropagator().field(), getPropagator().inject(span.context()));
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.listener;
+
+import org.springframework.observability.event.interval.IntervalRpcServerEvent;
+import org.springframework.observability.event.listener.RecordingListener;
+import org.springframework.observability.lang.Nullable;
+import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.TraceContext;
+import org.springframework.observability.tracing.Tracer;
+import org.springframework.observability.tracing.propagation.BinaryPropagator;
+
+/**
+ * {@link RecordingListener} that uses the Tracing API to record RPC calls on the server
+ * side. The server span continues the trace whose context was extracted from the binary
+ * metadata of the call.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public class RpcServerTracingRecordingListener extends RpcTracingRecordingListener<IntervalRpcServerEvent> {
+
+	/**
+	 * Creates a new instance of {@link RpcServerTracingRecordingListener}.
+	 * @param tracer tracer
+	 * @param propagator propagator to extract the context from the calls with
+	 */
+	public RpcServerTracingRecordingListener(Tracer tracer, BinaryPropagator propagator) {
+		this(tracer, propagator, new TracingTagFilter());
+	}
+
+	/**
+	 * Creates a new instance of {@link RpcServerTracingRecordingListener}.
+	 * @param tracer tracer
+	 * @param propagator propagator to extract the context from the calls with
+	 * @param tracingTagFilter filter to copy the tags of the recordings to the spans with
+	 */
+	public RpcServerTracingRecordingListener(Tracer tracer, BinaryPropagator propagator,
+			TracingTagFilter tracingTagFilter) {
+		super(tracer, propagator, tracingTagFilter, IntervalRpcServerEvent.class);
+	}
+
+	@Override
+	Span.Builder spanBuilder(IntervalRpcServerEvent event, @Nullable Span parent) {
+		TraceContext extracted = getPropagator().extract(event.getRequest().binaryMetadata(getPropagator().field()));
+		Span.Builder builder = extracted != null ? getTracer().spanBuilder().setParent(extracted) : childOf(parent);
+		return tagRequest(builder.kind(Span.Kind.SERVER), event.getRequest());
+	}
+
+}
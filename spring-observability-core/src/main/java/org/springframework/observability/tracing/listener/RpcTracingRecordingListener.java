@@ -0,0 +1,63 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.listener;
+
+import org.springframework.observability.event.interval.IntervalRpcEvent;
+import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.Tracer;
+import org.springframework.observability.tracing.propagation.BinaryPropagator;
+import org.springframework.observability.transport.rpc.RpcRequest;
+import org.springframework.observability.transport.rpc.RpcResponse;
+
+/**
+ * Base class of the listeners that record RPC calls.
+ *
+ * @param <E> event type
+ */
+abstract class RpcTracingRecordingListener<E extends IntervalRpcEvent<?>> extends RemoteTracingRecordingListener<E> {
+
+	private final BinaryPropagator propagator;
+
+	RpcTracingRecordingListener(Tracer tracer, BinaryPropagator propagator, TracingTagFilter tracingTagFilter,
+			Class<E> eventType) {
+		super(tracer, tracingTagFilter, eventType);
+		this.propagator = propagator;
+	}
+
+	BinaryPropagator getPropagator() {
+		return this.propagator;
+	}
+
+	static Span.Builder tagRequest(Span.Builder builder, RpcRequest request) {
+		return builder.tag("rpc.service", request.service()).tag("rpc.method", request.method());
+	}
+
+	@Override
+	void beforeSpanEnd(E event, Span span) {
+		RpcResponse response = event.getResponse();
+		if (response == null) {
+			return;
+		}
+		if (response.errorCode() != null) {
+			span.tag("rpc.error_code", response.errorCode());
+		}
+		if (response.error() != null) {
+			span.error(response.error());
+		}
+	}
+
+}
@@ -32,7 +32,7 @@ class TracingInstantRecorder {
 
 	void record(InstantRecording instantRecording) {
 		Span span = this.tracer.currentSpan();
-		if (span != null) {
+		if (span != null && !span.isNoop()) {
 			span.event(TimeUnit.NANOSECONDS.toMicros(instantRecording.getWallTime()),
 					instantRecording.getHighCardinalityName());
 		}
@@ -18,6 +18,7 @@ package org.springframework.observability.tracing.listener;
 
 import org.springframework.observability.event.interval.IntervalRecording;
 import org.springframework.observability.event.listener.RecordingListener;
+import org.springframework.observability.lang.Nullable;
 import org.springframework.observability.tracing.CurrentTraceContext;
 import org.springframework.observability.tracing.Span;
 import org.springframework.observability.tracing.Tracer;
@@ -32,12 +33,31 @@ public interface TracingRecordingListener extends RecordingListener<TracingRecor
 
 	@Override
 	default void onCreate(IntervalRecording intervalRecording) {
-		Span span = getTracer().currentSpan();
+		Span span = getParentSpan(intervalRecording);
 		if (span != null) {
 			setSpanAndScope(intervalRecording, span);
 		}
 	}
 
+	/**
+	 * Returns the span that the span of the given recording should be a child of. If the
+	 * recording has a parent that this listener created a span for, that span is used,
+	 * otherwise the current span of the tracer.
+	 * @param intervalRecording recording to find the parent span for
+	 * @return parent span or {@code null} if there is none
+	 */
+	@Nullable
+	default Span getParentSpan(IntervalRecording intervalRecording) {
+		IntervalRecording parent = intervalRecording.getParent();
+		if (parent != null) {
+			TracingContext parentContext = parent.getContext(this);
+			if (parentContext != null && parentContext.getSpan() != null) {
+				return parentContext.getSpan();
+			}
+		}
+		return getTracer().currentSpan();
+	}
+
 	/**
 	 * Sets span and a scope for that span in context.
 	 * @param intervalRecording recording with context to mutate
@@ -89,6 +109,8 @@ public interface TracingRecordingListener extends RecordingListener<TracingRecor
 
 		private CurrentTraceContext.Scope scope;
 
+		private String spanName;
+
 		/**
 		 * Returns the span.
 		 * @return span
@@ -131,6 +153,22 @@ public interface TracingRecordingListener extends RecordingListener<TracingRecor
 			setScope(scope);
 		}
 
+		/**
+		 * Returns the name the span was last named with.
+		 * @return span name
+		 */
+		String getSpanName() {
+			return this.spanName;
+		}
+
+		/**
+		 * Sets the name the span was last named with.
+		 * @param spanName span name to set
+		 */
+		void setSpanName(String spanName) {
+			this.spanName = spanName;
+		}
+
 	}
 
 }
@@ -16,19 +16,293 @@
 
 package org.springframework.observability.tracing.listener;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.springframework.observability.event.tag.Tag;
+import org.springframework.observability.lang.Nullable;
 import org.springframework.observability.tracing.Span;
 
-class TracingTagFilter {
+/**
+ * Copies the tags of a recording to a span through a pipeline that is compiled once: keys
+ * can be allowed, denied or renamed, values can be truncated and error values can be
+ * normalized. The configured keys are placed in an open-addressed table whose hash seed
+ * is chosen to avoid collisions, so the rule of a tag is found with a single probe and
+ * the tags are processed in one pass, without intermediate collections.
+ *
+ * <p>
+ * By default, all tags are copied except {@code error=none}.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public class TracingTagFilter {
+
+	private static final String ERROR_KEY = "error";
+
+	/**
+	 * Rule of error keys that are not configured, the key is kept as is.
+	 */
+	private static final Rule ERROR_RULE = new Rule(Action.ALLOW, null, true);
+
+	private static final int MAX_SEED_ATTEMPTS = 64;
+
+	private final String[] keys;
+
+	private final Rule[] rules;
 
-	void tagSpan(Span span, Iterable<Tag> tags) {
-		// TODO: This is the default behaviour in Boot
-		tags.forEach(tag -> {
-			if (tag.getKey().equalsIgnoreCase("error") && tag.getValue().equalsIgnoreCase("none")) {
-				return;
+	private final int mask;
+
+	private final int seed;
+
+	private final boolean allowUnlisted;
+
+	private final int maxValueLength;
+
+	private final String errorValue;
+
+	/**
+	 * Creates a new instance of {@link TracingTagFilter} that copies all tags except
+	 * {@code error=none}.
+	 */
+	public TracingTagFilter() {
+		this(new Builder());
+	}
+
+	private TracingTagFilter(Builder builder) {
+		Map<String, Rule> rules = new LinkedHashMap<>(builder.rules);
+		rules.replaceAll((key, rule) -> isErrorKey(key) ? new Rule(rule.action, rule.targetKey, true) : rule);
+		int size = Integer.highestOneBit(Math.max(rules.size(), 1) * 2 - 1) << 1;
+		int seed = findSeed(rules.keySet().toArray(new String[0]), size);
+		while (seed == 0 && size < rules.size() * 8) {
+			size <<= 1;
+			seed = findSeed(rules.keySet().toArray(new String[0]), size);
+		}
+		// no collision-free seed for this table size, linear probing resolves collisions
+		this.seed = seed != 0 ? seed : 1;
+		this.mask = size - 1;
+		this.keys = new String[size];
+		this.rules = new Rule[size];
+		rules.forEach((key, rule) -> {
+			int index = index(key);
+			while (this.keys[index] != null) {
+				index = (index + 1) & this.mask;
 			}
-			span.tag(tag.getKey(), tag.getValue());
+			this.keys[index] = key;
+			this.rules[index] = rule;
 		});
+		this.allowUnlisted = builder.allowUnlisted;
+		this.maxValueLength = builder.maxValueLength;
+		this.errorValue = builder.errorValue;
+	}
+
+	/**
+	 * Creates a builder to configure the tag pipeline.
+	 * @return builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	private static int findSeed(String[] keys, int size) {
+		int mask = size - 1;
+		boolean[] taken = new boolean[size];
+		for (int attempt = 0; attempt < MAX_SEED_ATTEMPTS; attempt++) {
+			int seed = 0x9E3779B9 + attempt * 0x632BE5AB;
+			Arrays.fill(taken, false);
+			boolean collision = false;
+			for (String key : keys) {
+				int index = spread(key.hashCode() * seed) & mask;
+				if (taken[index]) {
+					collision = true;
+					break;
+				}
+				taken[index] = true;
+			}
+			if (!collision) {
+				return seed;
+			}
+		}
+		return 0;
+	}
+
+	private static boolean isErrorKey(String key) {
+		return key.length() == ERROR_KEY.length() && key.regionMatches(true, 0, ERROR_KEY, 0, ERROR_KEY.length());
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	private int index(String key) {
+		return spread(key.hashCode() * this.seed) & this.mask;
+	}
+
+	@Nullable
+	private Rule rule(String key) {
+		int index = index(key);
+		String candidate;
+		while ((candidate = this.keys[index]) != null) {
+			if (candidate.equals(key)) {
+				return this.rules[index];
+			}
+			index = (index + 1) & this.mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Tags the span with the given tags, after applying the configured rules.
+	 * @param span span to tag
+	 * @param tags tags of the recording
+	 */
+	public void tagSpan(Span span, Iterable<Tag> tags) {
+		if (span.isNoop()) {
+			// tag values might be computed lazily, don't compute them for nothing
+			return;
+		}
+		for (Tag tag : tags) {
+			String key = tag.getKey();
+			Rule rule = rule(key);
+			if (rule == null && isErrorKey(key)) {
+				rule = ERROR_RULE;
+			}
+			if (rule == null) {
+				if (this.allowUnlisted) {
+					span.tag(key, truncate(tag.getValue()));
+				}
+				continue;
+			}
+			if (rule.action == Action.DENY) {
+				continue;
+			}
+			String value = tag.getValue();
+			if (rule.error) {
+				// TODO: This is the default behaviour in Boot
+				if (value.equalsIgnoreCase("none")) {
+					continue;
+				}
+				if (this.errorValue != null) {
+					value = this.errorValue;
+				}
+			}
+			span.tag(rule.targetKey != null ? rule.targetKey : key, truncate(value));
+		}
+	}
+
+	private String truncate(String value) {
+		return this.maxValueLength > 0 && value.length() > this.maxValueLength ? value.substring(0, this.maxValueLength)
+				: value;
+	}
+
+	private enum Action {
+
+		ALLOW, DENY
+
+	}
+
+	private static final class Rule {
+
+		private final Action action;
+
+		@Nullable
+		private final String targetKey;
+
+		private final boolean error;
+
+		private Rule(Action action, @Nullable String targetKey, boolean error) {
+			this.action = action;
+			this.targetKey = targetKey;
+			this.error = error;
+		}
+
+	}
+
+	/**
+	 * Builder for {@link TracingTagFilter}.
+	 */
+	public static final class Builder {
+
+		private final Map<String, Rule> rules = new LinkedHashMap<>();
+
+		private boolean allowUnlisted = true;
+
+		private int maxValueLength;
+
+		private String errorValue;
+
+		private Builder() {
+		}
+
+		/**
+		 * Only the given keys (and the ones that are renamed) are copied to the span,
+		 * error tags are always copied.
+		 * @param keys tag keys to copy
+		 * @return this
+		 */
+		public Builder allow(String... keys) {
+			this.allowUnlisted = false;
+			for (String key : keys) {
+				this.rules.putIfAbsent(key, new Rule(Action.ALLOW, key, false));
+			}
+			return this;
+		}
+
+		/**
+		 * The given keys are not copied to the span.
+		 * @param keys tag keys to drop
+		 * @return this
+		 */
+		public Builder deny(String... keys) {
+			for (String key : keys) {
+				this.rules.put(key, new Rule(Action.DENY, key, false));
+			}
+			return this;
+		}
+
+		/**
+		 * Copies the tag with the given key to the span under a different key.
+		 * @param key tag key of the recording
+		 * @param newKey tag key on the span
+		 * @return this
+		 */
+		public Builder rename(String key, String newKey) {
+			this.rules.put(key, new Rule(Action.ALLOW, newKey, false));
+			return this;
+		}
+
+		/**
+		 * Values longer than the given length are truncated.
+		 * @param maxValueLength maximum length of tag values, non-positive values mean no
+		 * limit
+		 * @return this
+		 */
+		public Builder maxValueLength(int maxValueLength) {
+			this.maxValueLength = maxValueLength;
+			return this;
+		}
+
+		/**
+		 * Replaces the value of error tags (other than {@code none}, those are always
+		 * dropped) with the given value, e.g. with {@code true} if the backend expects a
+		 * boolean.
+		 * @param errorValue normalized error value
+		 * @return this
+		 */
+		public Builder normalizeErrorValues(String errorValue) {
+			this.errorValue = errorValue;
+			return this;
+		}
+
+		/**
+		 * Compiles the pipeline.
+		 * @return tag filter
+		 */
+		public TracingTagFilter build() {
+			return new TracingTagFilter(this);
+		}
+
 	}
 
 }
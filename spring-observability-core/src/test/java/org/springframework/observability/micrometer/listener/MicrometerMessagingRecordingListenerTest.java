@@ -0,0 +1,104 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.micrometer.listener;
+
+import java.util.Collections;
+import java.util.List;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.observability.event.interval.IntervalEvent;
+import org.springframework.observability.event.interval.IntervalMessagingBatchConsumerEvent;
+import org.springframework.observability.event.interval.IntervalMessagingProducerEvent;
+import org.springframework.observability.event.interval.IntervalRecording;
+import org.springframework.observability.event.interval.SimpleIntervalEvent;
+import org.springframework.observability.event.interval.SimpleIntervalRecording;
+import org.springframework.observability.event.listener.composite.AllMatchingCompositeRecordingListener;
+import org.springframework.observability.test.InMemoryBroker;
+import org.springframework.observability.time.MockClock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MicrometerMessagingRecordingListenerTest {
+
+	private static final MockClock CLOCK = new MockClock();
+
+	private final MeterRegistry registry = new SimpleMeterRegistry();
+
+	private final MicrometerMessagingRecordingListener listener = new MicrometerMessagingRecordingListener(registry);
+
+	private final InMemoryBroker broker = new InMemoryBroker();
+
+	@Test
+	void onStopShouldRegisterTimerTaggedWithTheChannel() {
+		IntervalMessagingProducerEvent event = new IntervalMessagingProducerEvent(broker.message("orders")) {
+			@Override
+			public String getLowCardinalityName() {
+				return "messaging.send";
+			}
+		};
+
+		record(event);
+
+		Timer timer = registry.find("messaging.send").tag("messaging.operation", "send")
+				.tag("messaging.channel", "orders").tag("error", "none").timer();
+		assertThat(timer).isNotNull();
+		assertThat(timer.count()).isEqualTo(1);
+	}
+
+	@Test
+	void onStopShouldRecordTheBatchSizeOnce() {
+		for (int i = 0; i < 3; i++) {
+			broker.send(broker.message("orders"));
+		}
+		List<InMemoryBroker.IncomingMessage> batch = broker.poll("orders", 500);
+		IntervalMessagingBatchConsumerEvent event = new IntervalMessagingBatchConsumerEvent("orders", batch) {
+			@Override
+			public String getLowCardinalityName() {
+				return "messaging.receive";
+			}
+		};
+
+		record(event);
+
+		DistributionSummary batchSize = registry.find("messaging.receive.batch.size").tag("messaging.channel", "orders")
+				.summary();
+		assertThat(batchSize).isNotNull();
+		assertThat(batchSize.count()).isEqualTo(1);
+		assertThat(batchSize.totalAmount()).isEqualTo(3);
+		assertThat(registry.find("messaging.receive").tag("messaging.operation", "receive").timer().count())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void shouldOnlyBeApplicableForMessagingEvents() {
+		assertThat(listener.isApplicable(new SimpleIntervalRecording(new SimpleIntervalEvent(),
+				new AllMatchingCompositeRecordingListener(Collections.singletonList(listener)), CLOCK))).isFalse();
+	}
+
+	private void record(IntervalEvent event) {
+		IntervalRecording recording = new SimpleIntervalRecording(event,
+				new AllMatchingCompositeRecordingListener(Collections.singletonList(listener)), CLOCK).start();
+		CLOCK.addSeconds(1);
+		recording.stop();
+	}
+
+}
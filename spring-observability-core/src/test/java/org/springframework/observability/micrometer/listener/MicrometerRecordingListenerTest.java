@@ -21,26 +21,37 @@ import java.time.Duration;
 import java.util.Collections;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionTimer;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.observability.event.EventDescriptor;
 import org.springframework.observability.event.instant.InstantEvent;
 import org.springframework.observability.event.instant.InstantRecording;
 import org.springframework.observability.event.instant.SimpleInstantRecording;
+import org.springframework.observability.event.interval.BatchRecording;
 import org.springframework.observability.event.interval.IntervalEvent;
+import org.springframework.observability.event.interval.IntervalHttpServerEvent;
 import org.springframework.observability.event.interval.IntervalRecording;
+import org.springframework.observability.event.interval.SimpleBatchRecording;
 import org.springframework.observability.event.interval.SimpleIntervalRecording;
 import org.springframework.observability.event.listener.RecordingListener;
 import org.springframework.observability.event.listener.composite.AllMatchingCompositeRecordingListener;
 import org.springframework.observability.event.listener.composite.CompositeContext;
 import org.springframework.observability.event.tag.Tag;
 import org.springframework.observability.time.MockClock;
+import org.springframework.observability.transport.http.HttpServerRequest;
+import org.springframework.observability.transport.http.PathTemplatizer;
 
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
 import static org.springframework.observability.event.tag.Cardinality.HIGH;
 import static org.springframework.observability.event.tag.Cardinality.LOW;
 import static org.springframework.observability.micrometer.listener.MicrometerRecordingListenerTest.TestInstantEvent.INSTANT_EVENT;
@@ -68,6 +79,11 @@ public class MicrometerRecordingListenerTest {
 		registry.forEachMeter(registry::remove);
 	}
 
+	@AfterEach
+	void clearDescriptors() {
+		EventDescriptor.clear();
+	}
+
 	@Test
 	void onStopShouldRegisterTimer() {
 		intervalRecording.start().tag(Tag.of("foo", "bar", LOW)).tag(Tag.of("userId", "12345", HIGH));
@@ -86,6 +102,133 @@ public class MicrometerRecordingListenerTest {
 		assertThat(timer).as("High cardinality tags should not be added").isNull();
 	}
 
+	@Test
+	void onStopShouldNotComputeLazyHighCardinalityValues() {
+		intervalRecording.start().tag("foo", () -> "bar", LOW).tag("userId", () -> {
+			throw new AssertionError("High cardinality values should not be computed");
+		}, HIGH).highCardinalityName(() -> {
+			throw new AssertionError("High cardinality names should not be computed");
+		});
+		intervalRecording.stop();
+
+		assertThat(registry.find(intervalRecording.getEvent().getLowCardinalityName()).tag("foo", "bar").timer())
+				.isNotNull();
+	}
+
+	@Test
+	void onStopShouldReuseTheTimerOfDescribedEvents() {
+		for (int i = 0; i < 2; i++) {
+			IntervalRecording recording = new SimpleIntervalRecording(DescribedIntervalEvent.DESCRIBED, listener, CLOCK)
+					.start();
+			CLOCK.addSeconds(1);
+			recording.stop();
+		}
+		new SimpleIntervalRecording(DescribedIntervalEvent.DESCRIBED, listener, CLOCK).start().tag("foo", "bar").stop();
+
+		assertThat(registry.getMeters()).hasSize(2);
+		assertThat(registry.find("described-interval-event").tag("error", "none").tagKeys().timers())
+				.extracting(Timer::count).containsExactlyInAnyOrder(2L, 1L);
+	}
+
+	@Test
+	void onStopShouldNotMixUpTheTimersOfEventsSharingADescriptor() {
+		EventDescriptor descriptor = EventDescriptor.builder("shared-descriptor").register();
+		for (String name : new String[] { "first", "second", "first" }) {
+			IntervalEvent event = new IntervalEvent() {
+				@Override
+				public String getLowCardinalityName() {
+					return name;
+				}
+
+				@Override
+				public EventDescriptor getDescriptor() {
+					return descriptor;
+				}
+			};
+			new SimpleIntervalRecording(event, listener, CLOCK).start().stop();
+		}
+
+		assertThat(registry.find("first").timer().count()).isEqualTo(2);
+		assertThat(registry.find("second").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void onStopShouldCacheTheTimersOfDescribedEventsPerTagValues() {
+		for (String value : new String[] { "bar", "baz", "bar" }) {
+			new SimpleIntervalRecording(DescribedIntervalEvent.DESCRIBED, listener, CLOCK).start().tag("foo", value)
+					.stop();
+		}
+		new SimpleIntervalRecording(DescribedIntervalEvent.DESCRIBED, listener, CLOCK).start().error(new IOException())
+				.stop();
+
+		assertThat(registry.find("described-interval-event").tag("foo", "bar").timer().count()).isEqualTo(2);
+		assertThat(registry.find("described-interval-event").tag("foo", "baz").timer().count()).isEqualTo(1);
+		assertThat(registry.find("described-interval-event").tag("error", "IOException").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void onStopShouldTagHttpEventsWithTheTemplatedUri() {
+		MicrometerRecordingListener listener = new MicrometerRecordingListener(registry, new PathTemplatizer());
+		for (String path : new String[] { "/users/42?page=2", "/orders/7", "/users/43" }) {
+			HttpServerRequest request = mock(HttpServerRequest.class);
+			given(request.path()).willReturn(path);
+			IntervalHttpServerEvent event = new IntervalHttpServerEvent(request) {
+				@Override
+				public String getLowCardinalityName() {
+					return getDescriptor().getName();
+				}
+			};
+			new SimpleIntervalRecording(event,
+					new AllMatchingCompositeRecordingListener(Collections.singletonList(listener)), CLOCK).start()
+							.stop();
+		}
+
+		assertThat(registry.find("http.server.requests").tag("uri", "/users/{id}").timer().count()).isEqualTo(2);
+		assertThat(registry.find("http.server.requests").tag("uri", "/orders/{id}").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void onStopShouldRecordTheBatchSummary() {
+		BatchRecording batchRecording = new SimpleBatchRecording(INTERVAL_EVENT, listener, CLOCK);
+		batchRecording.start().tag("foo", "bar");
+		batchRecording.recordItem(10).recordItem(20).recordFailedItem(30);
+
+		batchRecording.stop();
+
+		String name = INTERVAL_EVENT.getLowCardinalityName();
+		DistributionSummary items = registry.find(name + ".items").tag("foo", "bar").summary();
+		assertThat(items).isNotNull();
+		assertThat(items.count()).isEqualTo(1);
+		assertThat(items.totalAmount()).isEqualTo(3);
+		assertThat(registry.find(name + ".items.failed").tag("foo", "bar").counter().count()).isEqualTo(1);
+		assertThat(registry.find(name).tag("foo", "bar").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void onStopShouldRecordTheItemDurationsOfTheBatch() {
+		for (int i = 0; i < 2; i++) {
+			BatchRecording batchRecording = new SimpleBatchRecording(INTERVAL_EVENT, listener, CLOCK);
+			batchRecording.start().tag("foo", "bar");
+			batchRecording.recordItem(Duration.ofMillis(2).toNanos()).recordItem(Duration.ofMillis(3).toNanos())
+					.recordItem(Duration.ofMillis(4).toNanos()).recordFailedItem(Duration.ofMillis(700).toNanos());
+			batchRecording.stop();
+		}
+
+		String name = INTERVAL_EVENT.getLowCardinalityName();
+		FunctionTimer items = registry.find(name + ".item").tag("foo", "bar").functionTimer();
+		assertThat(items).isNotNull();
+		assertThat(items.count()).isEqualTo(8);
+		assertThat(items.totalTime(NANOSECONDS)).isEqualTo(Duration.ofMillis(1418).toNanos());
+		assertThat(registry.find(name + ".item.max").tag("foo", "bar").timeGauge().value(NANOSECONDS))
+				.isEqualTo(Duration.ofMillis(700).toNanos());
+		assertThat(registry.find(name + ".item.histogram").tag("le", "0.001").functionCounter().count()).isZero();
+		assertThat(registry.find(name + ".item.histogram").tag("le", "0.005").functionCounter().count()).isEqualTo(6);
+		assertThat(registry.find(name + ".item.histogram").tag("le", "0.5").functionCounter().count()).isEqualTo(6);
+		assertThat(registry.find(name + ".item.histogram").tag("le", "1").functionCounter().count()).isEqualTo(8);
+		assertThat(registry.find(name + ".item.histogram").tag("le", "+Inf").functionCounter().count()).isEqualTo(8);
+		assertThat(registry.find(name + ".items").tag("foo", "bar").summary().count()).isEqualTo(2);
+	}
+
 	@Test
 	void recordShouldRegisterCounter() {
 		instantRecording.tag(Tag.of("foo", "bar", LOW)).tag(Tag.of("userId", "12345", HIGH)).recordInstant();
@@ -98,6 +241,18 @@ public class MicrometerRecordingListenerTest {
 		assertThat(counter.count()).isEqualTo(1);
 	}
 
+	@Test
+	void aggregatedRecordShouldIncrementCounterByCount() {
+		instantRecording.tag(Tag.of("foo", "bar", LOW));
+
+		listener.recordInstants(instantRecording, 42);
+
+		Counter counter = registry.find(instantRecording.getEvent().getLowCardinalityName()).tag("foo", "bar")
+				.counter();
+		assertThat(counter).isNotNull();
+		assertThat(counter.count()).isEqualTo(42);
+	}
+
 	@Test
 	void onStartOrOnErrorShouldNotDoAnything() {
 		intervalRecording.start().error(new IOException());
@@ -129,6 +284,34 @@ public class MicrometerRecordingListenerTest {
 
 	}
 
+	enum DescribedIntervalEvent implements IntervalEvent {
+
+		DESCRIBED(EventDescriptor.builder("described-interval-event").description("Described interval event")
+				.lowCardinalityTagKeys("foo").register());
+
+		private final EventDescriptor descriptor;
+
+		DescribedIntervalEvent(EventDescriptor descriptor) {
+			this.descriptor = descriptor;
+		}
+
+		@Override
+		public String getLowCardinalityName() {
+			return this.descriptor.getName();
+		}
+
+		@Override
+		public String getDescription() {
+			return this.descriptor.getDescription();
+		}
+
+		@Override
+		public EventDescriptor getDescriptor() {
+			return this.descriptor;
+		}
+
+	}
+
 	enum TestInstantEvent implements InstantEvent {
 
 		INSTANT_EVENT("test-instant-event", "Test event to be able to record instant events");
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.micrometer.listener;
+
+import java.util.Collections;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.observability.event.interval.IntervalRecording;
+import org.springframework.observability.event.interval.IntervalRpcClientEvent;
+import org.springframework.observability.event.interval.SimpleIntervalRecording;
+import org.springframework.observability.event.listener.composite.AllMatchingCompositeRecordingListener;
+import org.springframework.observability.test.TestRpcRequest;
+import org.springframework.observability.time.MockClock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MicrometerRpcRecordingListenerTest {
+
+	private static final MockClock CLOCK = new MockClock();
+
+	private final MeterRegistry registry = new SimpleMeterRegistry();
+
+	private final MicrometerRpcRecordingListener listener = new MicrometerRpcRecordingListener(registry);
+
+	@Test
+	void onStopShouldRegisterTimerTaggedWithServiceAndMethod() {
+		IntervalRpcClientEvent event = new IntervalRpcClientEvent(
+				new TestRpcRequest("helloworld.Greeter", "SayHello")) {
+			@Override
+			public String getLowCardinalityName() {
+				return "rpc.client";
+			}
+		};
+		IntervalRecording recording = new SimpleIntervalRecording(event,
+				new AllMatchingCompositeRecordingListener(Collections.singletonList(listener)), CLOCK).start();
+		CLOCK.addSeconds(1);
+
+		recording.stop();
+
+		Timer timer = registry.find("rpc.client").tag("rpc.service", "helloworld.Greeter").tag("rpc.method", "SayHello")
+				.tag("rpc.error_code", "none").tag("error", "none").timer();
+		assertThat(timer).isNotNull();
+		assertThat(timer.count()).isEqualTo(1);
+		assertThat(listener.isApplicable(recording)).isTrue();
+	}
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.TraceContext;
+import org.springframework.observability.tracing.Tracer;
+import org.springframework.observability.tracing.propagation.Propagator;
+
+/**
+ * {@link Propagator} that propagates the trace and span ids in two headers and counts how
+ * many times contexts were extracted.
+ */
+public class HeaderPropagator implements Propagator {
+
+	/**
+	 * Header of the trace id.
+	 */
+	public static final String TRACE_ID = "x-trace-id";
+
+	/**
+	 * Header of the span id.
+	 */
+	public static final String SPAN_ID = "x-span-id";
+
+	private final Tracer tracer;
+
+	/**
+	 * Number of times a context was extracted.
+	 */
+	public int extractions;
+
+	/**
+	 * @param tracer tracer to create span builders with
+	 */
+	public HeaderPropagator(Tracer tracer) {
+		this.tracer = tracer;
+	}
+
+	@Override
+	public List<String> fields() {
+		return Arrays.asList(TRACE_ID, SPAN_ID);
+	}
+
+	@Override
+	public <C> void inject(TraceContext context, C carrier, Setter<C> setter) {
+		setter.set(carrier, TRACE_ID, context.traceId());
+		setter.set(carrier, SPAN_ID, context.spanId());
+	}
+
+	@Override
+	public <C> Span.Builder extract(C carrier, Getter<C> getter) {
+		TraceContext context = extractContext(carrier, getter);
+		return context != null ? this.tracer.spanBuilder().setParent(context) : this.tracer.spanBuilder();
+	}
+
+	@Override
+	public <C> TraceContext extractContext(C carrier, Getter<C> getter) {
+		this.extractions++;
+		String traceId = getter.get(carrier, TRACE_ID);
+		String spanId = getter.get(carrier, SPAN_ID);
+		if (traceId == null || spanId == null) {
+			return null;
+		}
+		return new TraceContext() {
+			@Override
+			public String traceId() {
+				return traceId;
+			}
+
+			@Override
+			public String parentId() {
+				return null;
+			}
+
+			@Override
+			public String spanId() {
+				return spanId;
+			}
+
+			@Override
+			public Boolean sampled() {
+				return true;
+			}
+		};
+	}
+
+}
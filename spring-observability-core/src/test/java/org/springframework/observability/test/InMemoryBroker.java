@@ -0,0 +1,155 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.observability.transport.messaging.ConsumerRequest;
+import org.springframework.observability.transport.messaging.ProducerRequest;
+
+/**
+ * Stand-in for a message broker: messages sent to a topic are kept in memory until they
+ * are polled.
+ */
+public class InMemoryBroker {
+
+	private final Map<String, List<Map<String, String>>> topics = new HashMap<>();
+
+	/**
+	 * Creates a message to send to the given topic.
+	 * @param topic topic name
+	 * @return message
+	 */
+	public OutgoingMessage message(String topic) {
+		return new OutgoingMessage(topic);
+	}
+
+	/**
+	 * Sends the message.
+	 * @param message message to send
+	 */
+	public void send(OutgoingMessage message) {
+		this.topics.computeIfAbsent(message.topic, key -> new ArrayList<>()).add(new LinkedHashMap<>(message.headers));
+	}
+
+	/**
+	 * Receives and removes up to the given number of messages of the topic.
+	 * @param topic topic name
+	 * @param max maximum number of messages
+	 * @return received messages
+	 */
+	public List<IncomingMessage> poll(String topic, int max) {
+		List<Map<String, String>> messages = this.topics.getOrDefault(topic, new ArrayList<>());
+		List<IncomingMessage> polled = new ArrayList<>();
+		while (!messages.isEmpty() && polled.size() < max) {
+			polled.add(new IncomingMessage(topic, messages.remove(0)));
+		}
+		return polled;
+	}
+
+	/**
+	 * A message about to be sent.
+	 */
+	public static final class OutgoingMessage implements ProducerRequest {
+
+		private final String topic;
+
+		private final Map<String, String> headers = new LinkedHashMap<>();
+
+		private OutgoingMessage(String topic) {
+			this.topic = topic;
+		}
+
+		@Override
+		public String channelKind() {
+			return "topic";
+		}
+
+		@Override
+		public String channelName() {
+			return this.topic;
+		}
+
+		@Override
+		public String header(String name) {
+			return this.headers.get(name);
+		}
+
+		@Override
+		public void header(String name, String value) {
+			this.headers.put(name, value);
+		}
+
+		@Override
+		public Collection<String> headerNames() {
+			return this.headers.keySet();
+		}
+
+		@Override
+		public Object unwrap() {
+			return this.headers;
+		}
+
+	}
+
+	/**
+	 * A received message.
+	 */
+	public static final class IncomingMessage implements ConsumerRequest {
+
+		private final String topic;
+
+		private final Map<String, String> headers;
+
+		private IncomingMessage(String topic, Map<String, String> headers) {
+			this.topic = topic;
+			this.headers = headers;
+		}
+
+		@Override
+		public String channelKind() {
+			return "topic";
+		}
+
+		@Override
+		public String channelName() {
+			return this.topic;
+		}
+
+		@Override
+		public String header(String name) {
+			return this.headers.get(name);
+		}
+
+		@Override
+		public Collection<String> headerNames() {
+			return this.headers.keySet();
+		}
+
+		@Override
+		public Object unwrap() {
+			return this.headers;
+		}
+
+	}
+
+}
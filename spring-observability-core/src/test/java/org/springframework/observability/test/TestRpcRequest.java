@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.test;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.observability.transport.Kind;
+import org.springframework.observability.transport.rpc.RpcClientRequest;
+import org.springframework.observability.transport.rpc.RpcServerRequest;
+
+/**
+ * RPC call whose binary metadata is kept in memory, the same instance can be used as the
+ * client and the server side of the call.
+ */
+public class TestRpcRequest implements RpcClientRequest, RpcServerRequest {
+
+	private final Map<String, byte[]> metadata = new LinkedHashMap<>();
+
+	private final String service;
+
+	private final String method;
+
+	/**
+	 * @param service RPC service
+	 * @param method RPC method
+	 */
+	public TestRpcRequest(String service, String method) {
+		this.service = service;
+		this.method = method;
+	}
+
+	@Override
+	public String service() {
+		return this.service;
+	}
+
+	@Override
+	public String method() {
+		return this.method;
+	}
+
+	@Override
+	public byte[] binaryMetadata(String key) {
+		return this.metadata.get(key);
+	}
+
+	@Override
+	public void binaryMetadata(String key, byte[] value) {
+		this.metadata.put(key, value);
+	}
+
+	@Override
+	public Collection<String> headerNames() {
+		return this.metadata.keySet();
+	}
+
+	@Override
+	public Kind kind() {
+		return Kind.CLIENT;
+	}
+
+	@Override
+	public Object unwrap() {
+		return this.metadata;
+	}
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.listener;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.observability.event.interval.IntervalEvent;
+import org.springframework.observability.event.interval.IntervalRecording;
+import org.springframework.observability.event.interval.SimpleIntervalRecording;
+import org.springframework.observability.event.listener.composite.AllMatchingCompositeRecordingListener;
+import org.springframework.observability.time.MockClock;
+import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.test.simple.SimpleSpan;
+import org.springframework.observability.tracing.test.simple.SimpleTracer;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class CompactingTracingRecordingListenerTests {
+
+	private final MockClock clock = new MockClock();
+
+	private final SimpleTracer tracer = new SimpleTracer();
+
+	private final CompactingTracingRecordingListener listener = new CompactingTracingRecordingListener(this.tracer,
+			Duration.ofMillis(100));
+
+	private final AllMatchingCompositeRecordingListener composite = new AllMatchingCompositeRecordingListener(
+			Collections.singletonList(this.listener));
+
+	@Test
+	void should_fold_repeated_siblings_into_one_span() {
+		IntervalRecording parent = recording(TestEvent.REQUEST, null).start();
+		recordChild(parent, 2, null);
+		then(this.tracer.spans).hasSize(2);
+		then(this.tracer.getLastSpan().tags).doesNotContainKey("compacted.folded");
+		then(this.tracer.getLastSpan().ended).isTrue();
+		recordChild(parent, 4, null);
+		recordChild(parent, 5, null);
+		recordChild(parent, 3, new IOException("boom"));
+		then(this.tracer.spans).hasSize(2);
+
+		parent.stop();
+
+		then(this.tracer.spans).hasSize(3);
+		SimpleSpan compacted = this.tracer.getLastSpan();
+		then(compacted.name).isEqualTo(TestEvent.QUERY.getLowCardinalityName());
+		then(compacted.tags).containsEntry("compacted.folded", "3").containsEntry("compacted.duration.total", "12000us")
+				.containsEntry("compacted.duration.min", "3000us").containsEntry("compacted.duration.max", "5000us")
+				.containsEntry("compacted.errors", "1").containsEntry("table", "users");
+		then(compacted.throwable).isInstanceOf(IOException.class);
+		then(compacted.ended).isTrue();
+	}
+
+	@Test
+	void should_not_compact_a_single_repetition() {
+		IntervalRecording parent = recording(TestEvent.REQUEST, null).start();
+		recordChild(parent, 2, null);
+		recordChild(parent, 3, new IOException("boom"));
+
+		parent.stop();
+
+		then(this.tracer.spans).hasSize(3);
+		SimpleSpan repeated = this.tracer.getLastSpan();
+		then(repeated.name).isEqualTo(TestEvent.QUERY.getLowCardinalityName());
+		then(repeated.tags).doesNotContainKey("compacted.folded").containsEntry("table", "users");
+		then(repeated.throwable).isInstanceOf(IOException.class);
+		then(repeated.ended).isTrue();
+	}
+
+	@Test
+	void should_keep_outliers_as_their_own_span() {
+		IntervalRecording parent = recording(TestEvent.REQUEST, null).start();
+		recordChild(parent, 2, null);
+		recordChild(parent, 2, null);
+		recordChild(parent, 2, null);
+		recordChild(parent, 150, null);
+		then(this.tracer.spans).hasSize(3);
+		then(this.tracer.getLastSpan().name).isEqualTo(TestEvent.QUERY.getLowCardinalityName());
+		then(this.tracer.getLastSpan().tags).doesNotContainKey("compacted.folded");
+
+		parent.stop();
+
+		then(this.tracer.spans).hasSize(4);
+		then(this.tracer.getLastSpan().tags).containsEntry("compacted.folded", "2");
+	}
+
+	@Test
+	void should_give_a_span_to_recordings_with_children() {
+		IntervalRecording parent = recording(TestEvent.REQUEST, null).start();
+		IntervalRecording child = recording(TestEvent.QUERY, parent).start();
+		Span parentSpan = child.getContext(this.listener).getSpan();
+
+		IntervalRecording grandChild = recording(TestEvent.QUERY, child);
+
+		Span childSpan = child.getContext(this.listener).getSpan();
+		then(childSpan).isNotSameAs(parentSpan);
+		then(grandChild.getContext(this.listener).getSpan()).isSameAs(childSpan);
+		grandChild.start().stop();
+		child.stop();
+		then(((SimpleSpan) childSpan).ended).isTrue();
+		then(this.tracer.getLastSpan().ended).isTrue();
+		then(this.tracer.getLastSpan().tags).doesNotContainKey("compacted.folded");
+	}
+
+	private void recordChild(IntervalRecording parent, long millis, Throwable error) {
+		IntervalRecording child = recording(TestEvent.QUERY, parent).tag("table", "users").start();
+		this.clock.add(Duration.ofMillis(millis));
+		if (error != null) {
+			child.error(error);
+		}
+		child.stop();
+	}
+
+	private IntervalRecording recording(TestEvent event, IntervalRecording parent) {
+		return new SimpleIntervalRecording(event, parent, this.composite, this.clock, () -> {
+		});
+	}
+
+	enum TestEvent implements IntervalEvent {
+
+		REQUEST, QUERY;
+
+		@Override
+		public String getLowCardinalityName() {
+			return name().toLowerCase();
+		}
+
+	}
+
+}
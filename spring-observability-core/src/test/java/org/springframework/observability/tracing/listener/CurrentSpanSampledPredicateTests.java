@@ -0,0 +1,64 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.listener;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+
+import org.springframework.observability.event.instant.InstantRecording;
+import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.TraceContext;
+import org.springframework.observability.tracing.Tracer;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class CurrentSpanSampledPredicateTests {
+
+	Tracer tracer = BDDMockito.mock(Tracer.class);
+
+	CurrentSpanSampledPredicate predicate = new CurrentSpanSampledPredicate(this.tracer);
+
+	InstantRecording recording = BDDMockito.mock(InstantRecording.class);
+
+	@Test
+	void should_match_when_the_current_span_is_sampled() {
+		currentSpan(true);
+
+		then(this.predicate.test(this.recording)).isTrue();
+	}
+
+	@Test
+	void should_not_match_when_the_current_span_is_not_sampled() {
+		currentSpan(false);
+
+		then(this.predicate.test(this.recording)).isFalse();
+	}
+
+	@Test
+	void should_not_match_without_a_current_span() {
+		then(this.predicate.test(this.recording)).isFalse();
+	}
+
+	private void currentSpan(boolean sampled) {
+		Span span = BDDMockito.mock(Span.class);
+		TraceContext context = BDDMockito.mock(TraceContext.class);
+		BDDMockito.given(context.sampled()).willReturn(sampled);
+		BDDMockito.given(span.context()).willReturn(context);
+		BDDMockito.given(this.tracer.currentSpan()).willReturn(span);
+	}
+
+}
@@ -25,17 +25,21 @@ import org.junit.jupiter.api.Test;
 import org.springframework.observability.event.instant.InstantEvent;
 import org.springframework.observability.event.instant.InstantRecording;
 import org.springframework.observability.event.instant.SimpleInstantRecording;
+import org.springframework.observability.event.interval.BatchRecording;
 import org.springframework.observability.event.interval.IntervalEvent;
 import org.springframework.observability.event.interval.IntervalRecording;
+import org.springframework.observability.event.interval.SimpleBatchRecording;
 import org.springframework.observability.event.interval.SimpleIntervalRecording;
 import org.springframework.observability.event.listener.composite.AllMatchingCompositeRecordingListener;
 import org.springframework.observability.event.tag.Tag;
 import org.springframework.observability.time.MockClock;
+import org.springframework.observability.tracing.Span;
 import org.springframework.observability.tracing.test.simple.SimpleSpan;
 import org.springframework.observability.tracing.test.simple.SimpleSpan.Event;
 import org.springframework.observability.tracing.test.simple.SimpleTracer;
 
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.observability.event.tag.Cardinality.HIGH;
 import static org.springframework.observability.event.tag.Cardinality.LOW;
@@ -83,6 +87,59 @@ class DefaultTracingRecordingListenerTests {
 		assertThat(tracer.currentTraceContext().scopeClosed).isTrue();
 	}
 
+	@Test
+	void onStopShouldComputeLazyHighCardinalityValues() {
+		intervalRecording.start().tag("userId", () -> "12345", HIGH).highCardinalityName(() -> "lazy-name");
+
+		intervalRecording.stop();
+
+		SimpleSpan onlySpan = tracer.getOnlySpan();
+		assertThat(onlySpan.name).isEqualTo("lazy-name");
+		assertThat(onlySpan.tags).containsEntry("userId", "12345");
+	}
+
+	@Test
+	void onStopShouldTagTheSpanThroughTheTagFilter() {
+		DefaultTracingRecordingListener listener = new DefaultTracingRecordingListener(tracer,
+				TracingTagFilter.builder().deny("userId").rename("foo", "baz").build());
+		IntervalRecording intervalRecording = new SimpleIntervalRecording(INTERVAL_EVENT,
+				new AllMatchingCompositeRecordingListener(Collections.singletonList(listener)), CLOCK);
+		intervalRecording.start().tag(Tag.of("foo", "bar", LOW)).tag(Tag.of("userId", "12345", HIGH));
+
+		intervalRecording.stop();
+
+		assertThat(tracer.getOnlySpan().tags).hasSize(1).containsEntry("baz", "bar");
+	}
+
+	@Test
+	void onCreateShouldUseTheSpanOfTheParentRecording() {
+		AllMatchingCompositeRecordingListener composite = new AllMatchingCompositeRecordingListener(
+				Collections.singletonList(listener));
+		intervalRecording.start();
+		Span parentSpan = tracer.getLastSpan();
+		tracer.nextSpan().start();
+
+		IntervalRecording child = new SimpleIntervalRecording(INTERVAL_EVENT, intervalRecording, composite, CLOCK,
+				() -> {
+				});
+
+		assertThat(child.getContext(listener).getSpan()).isSameAs(parentSpan);
+	}
+
+	@Test
+	void onStopShouldTagTheSpanWithTheBatchSummary() {
+		BatchRecording batchRecording = new SimpleBatchRecording(INTERVAL_EVENT,
+				new AllMatchingCompositeRecordingListener(Collections.singletonList(listener)), CLOCK);
+		batchRecording.start();
+		batchRecording.recordItem(MILLISECONDS.toNanos(2)).recordFailedItem(MILLISECONDS.toNanos(3));
+
+		batchRecording.stop();
+
+		assertThat(tracer.getOnlySpan().tags).containsEntry("batch.items", "2").containsEntry("batch.items.failed", "1")
+				.containsEntry("batch.item.duration.total", "5000us").containsEntry("batch.item.duration.max", "3000us")
+				.containsEntry("batch.item.duration.histogram", "le 5000us=2");
+	}
+
 	@Test
 	void onErrorShouldAddTheErrorToTheSpan() {
 		Throwable error = new IOException("simulated");
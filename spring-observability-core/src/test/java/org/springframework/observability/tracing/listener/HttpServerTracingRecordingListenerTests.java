@@ -31,6 +31,7 @@ import org.springframework.observability.tracing.test.simple.SimpleSpan;
 import org.springframework.observability.tracing.test.simple.SimpleTracer;
 import org.springframework.observability.transport.http.HttpServerRequest;
 import org.springframework.observability.transport.http.HttpServerResponse;
+import org.springframework.observability.transport.http.PathTemplatizer;
 
 import static org.assertj.core.api.BDDAssertions.then;
 
@@ -91,6 +92,22 @@ class HttpServerTracingRecordingListenerTests {
 		then(this.simpleTracer.getOnlySpan()).isSameAs(span);
 	}
 
+	@Test
+	void should_name_span_by_templated_path_when_there_is_no_route() {
+		HttpServerTracingRecordingListener listener = new HttpServerTracingRecordingListener(this.simpleTracer,
+				this.simpleHttpServerHandler, new TracingTagFilter(), new PathTemplatizer());
+		HttpServerRequest request = BDDMockito.mock(HttpServerRequest.class);
+		BDDMockito.given(request.method()).willReturn("GET");
+		BDDMockito.given(request.path()).willReturn("/users/42");
+
+		then(listener.getSpanName(new IntervalHttpServerEvent(request) {
+			@Override
+			public String getLowCardinalityName() {
+				return "name";
+			}
+		})).isEqualTo("GET /users/{id}");
+	}
+
 	private IntervalEvent event() {
 		return new IntervalEvent() {
 			@Override
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.listener;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class HttpSpanNamesTests {
+
+	@Test
+	void should_return_the_same_name_for_the_same_method_and_route() {
+		HttpSpanNames spanNames = new HttpSpanNames();
+
+		String name = spanNames.name("GET", "/users/{id}");
+
+		then(name).isEqualTo("GET /users/{id}");
+		then(spanNames.name("GET", "/users/{id}")).isSameAs(name);
+		then(spanNames.name("POST", "/users/{id}")).isEqualTo("POST /users/{id}");
+		then(spanNames.size()).isEqualTo(2);
+	}
+
+	@Test
+	void should_stop_caching_names_above_the_limit() {
+		HttpSpanNames spanNames = new HttpSpanNames(2);
+
+		spanNames.name("GET", "/1");
+		spanNames.name("GET", "/2");
+		String name = spanNames.name("GET", "/3");
+
+		then(name).isEqualTo("GET /3");
+		then(spanNames.name("GET", "/3")).isNotSameAs(name).isEqualTo(name);
+		then(spanNames.size()).isEqualTo(2);
+	}
+
+	@Test
+	void should_reuse_status_code_strings() {
+		then(HttpSpanNames.statusCode(404)).isEqualTo("404").isSameAs(HttpSpanNames.statusCode(404));
+		then(HttpSpanNames.statusCode(600)).isEqualTo("600");
+		then(HttpSpanNames.statusCode(-1)).isEqualTo("-1");
+	}
+
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.listener;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.observability.event.instant.SimpleInstantRecording;
+import org.springframework.observability.event.interval.IntervalEvent;
+import org.springframework.observability.event.interval.IntervalHttpClientEvent;
+import org.springframework.observability.event.interval.IntervalRecording;
+import org.springframework.observability.event.interval.SimpleIntervalRecording;
+import org.springframework.observability.event.listener.composite.AllMatchingCompositeRecordingListener;
+import org.springframework.observability.time.MockClock;
+import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.test.simple.SimpleSpan;
+import org.springframework.observability.tracing.test.simple.SimpleTracer;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.assertj.core.api.BDDAssertions.then;
+
+class LatencyTriggeredTracingRecordingListenerTests {
+
+	private final MockClock clock = new MockClock();
+
+	private final SimpleTracer tracer = new SimpleTracer();
+
+	private final LatencyTriggeredTracingRecordingListener listener = new LatencyTriggeredTracingRecordingListener(
+			this.tracer, Duration.ofMillis(500), 4);
+
+	private final AllMatchingCompositeRecordingListener composite = new AllMatchingCompositeRecordingListener(
+			Collections.singletonList(this.listener));
+
+	@Test
+	void should_drop_fast_and_successful_requests() {
+		IntervalRecording root = recording(TestEvent.REQUEST, null).start();
+		recording(TestEvent.QUERY, root).start().stop();
+		this.clock.add(Duration.ofMillis(100));
+
+		root.stop();
+
+		then(this.tracer.spans).isEmpty();
+	}
+
+	@Test
+	void should_report_slow_requests_with_their_original_timestamps() {
+		IntervalRecording root = recording(TestEvent.REQUEST, null).start();
+		long rootStart = this.clock.wallTimeIn(MICROSECONDS);
+		IntervalRecording query = recording(TestEvent.QUERY, root).tag("table", "users").start();
+		this.clock.add(Duration.ofMillis(600));
+		query.stop();
+
+		root.stop();
+
+		then(this.tracer.spans).hasSize(2);
+		SimpleSpan rootSpan = this.tracer.spans.getFirst();
+		then(rootSpan.name).isEqualTo("request");
+		then(rootSpan.startMicros).isEqualTo(rootStart);
+		then(rootSpan.endMicros).isEqualTo(rootStart + 600_000);
+		then(this.tracer.getLastSpan().name).isEqualTo("query");
+		then(this.tracer.getLastSpan().tags).containsEntry("table", "users");
+		then(this.tracer.getLastSpan().ended).isTrue();
+	}
+
+	@Test
+	void should_report_failed_requests() {
+		IntervalRecording root = recording(TestEvent.REQUEST, null).start();
+		root.error(new IOException("boom"));
+
+		root.stop();
+
+		then(this.tracer.getOnlySpan().throwable).isInstanceOf(IOException.class);
+	}
+
+	@Test
+	void should_bound_the_number_of_buffered_recordings() {
+		IntervalRecording root = recording(TestEvent.REQUEST, null).start();
+		for (int i = 0; i < 5; i++) {
+			recording(TestEvent.QUERY, root).start().stop();
+		}
+		this.clock.add(Duration.ofSeconds(1));
+
+		root.stop();
+
+		then(this.tracer.spans).hasSize(4);
+		then(this.tracer.spans.getFirst().tags).containsEntry("deferred.dropped", "2");
+	}
+
+	@Test
+	void should_materialize_on_demand_and_report_the_rest_of_the_request() {
+		IntervalRecording root = recording(TestEvent.REQUEST, null).start();
+		IntervalRecording client = recording(TestEvent.QUERY, root).start();
+
+		Span span = this.listener.materialize(client);
+
+		then(this.tracer.spans).hasSize(2);
+		then(span).isSameAs(this.tracer.getLastSpan());
+		then(((SimpleSpan) span).ended).isFalse();
+		client.stop();
+		IntervalRecording afterwards = recording(TestEvent.QUERY, root).start();
+		afterwards.stop();
+		root.stop();
+		then(this.tracer.spans).hasSize(3).allMatch(simpleSpan -> simpleSpan.ended);
+	}
+
+	@Test
+	void should_drop_the_instant_events_of_fast_requests_instead_of_adding_them_to_the_current_span() {
+		SimpleSpan outer = this.tracer.nextSpan();
+		IntervalRecording root = recording(TestEvent.REQUEST, null).start();
+		instant("cache.miss");
+
+		root.stop();
+
+		then(this.tracer.spans).containsExactly(outer);
+		then(outer.events).isEmpty();
+	}
+
+	@Test
+	void should_report_the_instant_events_of_slow_requests_on_their_spans() {
+		IntervalRecording root = recording(TestEvent.REQUEST, null).start();
+		IntervalRecording query = recording(TestEvent.QUERY, root).start();
+		long eventMicros = this.clock.wallTimeIn(MICROSECONDS);
+		instant("cache.miss");
+		query.stop();
+		instant("retry");
+		this.clock.add(Duration.ofSeconds(1));
+
+		root.stop();
+
+		then(this.tracer.spans).hasSize(2);
+		then(this.tracer.spans.getFirst().eventNames()).containsExactly("retry");
+		then(this.tracer.getLastSpan().eventNames()).containsExactly("cache.miss");
+		then(this.tracer.getLastSpan().events.get(0).timestamp).isEqualTo(eventMicros);
+	}
+
+	@Test
+	void should_materialize_the_request_before_a_client_recording_is_created() {
+		IntervalRecording root = recording(TestEvent.REQUEST, null).start();
+
+		IntervalRecording client = new SimpleIntervalRecording(clientEvent(), root, this.composite, this.clock, () -> {
+		});
+
+		then(this.tracer.spans).hasSize(1);
+		then(this.tracer.spans.getFirst().name).isEqualTo("request");
+		then(this.tracer.currentTraceContext().scopeClosed).isFalse();
+		client.start().stop();
+		then(this.tracer.currentTraceContext().scopeClosed).isTrue();
+		root.stop();
+		then(this.tracer.spans).hasSize(2).allMatch(simpleSpan -> simpleSpan.ended);
+	}
+
+	@Test
+	void should_close_the_parent_scope_on_the_thread_that_opened_it() throws Exception {
+		IntervalRecording root = recording(TestEvent.REQUEST, null).start();
+		IntervalRecording client = new SimpleIntervalRecording(clientEvent(), root, this.composite, this.clock, () -> {
+		});
+
+		client.start();
+
+		then(this.tracer.currentTraceContext().scopeClosed).isTrue();
+		this.tracer.currentTraceContext().scopeClosed = false;
+		Thread thread = new Thread(client::stop);
+		thread.start();
+		thread.join();
+		then(this.tracer.currentTraceContext().scopeClosed).as("scopes of this thread are not closed by another one")
+				.isFalse();
+		then(this.tracer.spans.getLast().ended).isTrue();
+	}
+
+	@Test
+	void should_stop_buffering_the_instant_events_of_a_restored_recording_once_it_stopped() {
+		SimpleSpan outer = this.tracer.nextSpan();
+		IntervalRecording root = recording(TestEvent.REQUEST, null).start();
+		root.restore();
+
+		root.stop();
+		instant("after");
+
+		then(outer.eventNames()).containsExactly("after");
+	}
+
+	@Test
+	void should_undo_a_restore_when_an_error_is_signalled() throws Exception {
+		SimpleSpan outer = this.tracer.nextSpan();
+		IntervalRecording root = recording(TestEvent.REQUEST, null).start();
+		Thread thread = new Thread(() -> {
+			root.restore();
+			instant("restored");
+			root.error(new IOException("boom"));
+			instant("after");
+		});
+
+		thread.start();
+		thread.join();
+		root.stop();
+
+		then(outer.eventNames()).containsExactly("after");
+		then(this.tracer.getLastSpan().eventNames()).containsExactly("restored");
+	}
+
+	private void instant(String name) {
+		new SimpleInstantRecording(() -> name, this.composite, this.clock).recordInstant();
+	}
+
+	private IntervalHttpClientEvent clientEvent() {
+		return new IntervalHttpClientEvent(null) {
+			@Override
+			public String getLowCardinalityName() {
+				return "client";
+			}
+		};
+	}
+
+	private IntervalRecording recording(TestEvent event, IntervalRecording parent) {
+		return new SimpleIntervalRecording(event, parent, this.composite, this.clock, () -> {
+		});
+	}
+
+	enum TestEvent implements IntervalEvent {
+
+		REQUEST, QUERY;
+
+		@Override
+		public String getLowCardinalityName() {
+			return name().toLowerCase();
+		}
+
+	}
+
+}
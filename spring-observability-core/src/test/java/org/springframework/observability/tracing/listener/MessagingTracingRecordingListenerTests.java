@@ -0,0 +1,158 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.listener;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.observability.event.interval.IntervalEvent;
+import org.springframework.observability.event.interval.IntervalMessagingBatchConsumerEvent;
+import org.springframework.observability.event.interval.IntervalMessagingConsumerEvent;
+import org.springframework.observability.event.interval.IntervalMessagingProducerEvent;
+import org.springframework.observability.event.interval.IntervalRecording;
+import org.springframework.observability.event.interval.SimpleIntervalRecording;
+import org.springframework.observability.event.listener.RecordingListener;
+import org.springframework.observability.event.listener.composite.AllMatchingCompositeRecordingListener;
+import org.springframework.observability.test.HeaderPropagator;
+import org.springframework.observability.test.InMemoryBroker;
+import org.springframework.observability.time.MockClock;
+import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.test.simple.SimpleSpan;
+import org.springframework.observability.tracing.test.simple.SimpleTracer;
+import org.springframework.observability.transport.messaging.ConsumerRequest;
+import org.springframework.observability.transport.messaging.ProducerRequest;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class MessagingTracingRecordingListenerTests {
+
+	private static final MockClock CLOCK = new MockClock();
+
+	SimpleTracer tracer = new SimpleTracer();
+
+	HeaderPropagator propagator = new HeaderPropagator(this.tracer);
+
+	InMemoryBroker broker = new InMemoryBroker();
+
+	@Test
+	void should_record_a_producer_span_and_inject_its_context_into_the_message() {
+		MessagingProducerTracingRecordingListener listener = new MessagingProducerTracingRecordingListener(this.tracer,
+				this.propagator);
+		InMemoryBroker.OutgoingMessage message = this.broker.message("orders");
+
+		recording(producerEvent(message), listener).start().stop();
+		this.broker.send(message);
+
+		SimpleSpan span = this.tracer.getOnlySpan();
+		then(span.spanKind).isEqualTo(Span.Kind.PRODUCER);
+		then(span.name).isEqualTo("send");
+		then(span.ended).isTrue();
+		then(span.tags).containsEntry("messaging.operation", "send").containsEntry("messaging.channel_kind", "topic")
+				.containsEntry("messaging.channel_name", "orders");
+		then(message.headerNames()).contains(HeaderPropagator.TRACE_ID, HeaderPropagator.SPAN_ID);
+	}
+
+	@Test
+	void should_record_a_consumer_span_from_the_extracted_context() {
+		MessagingConsumerTracingRecordingListener listener = new MessagingConsumerTracingRecordingListener(this.tracer,
+				this.propagator);
+		this.broker.send(upstreamMessage(0));
+		ConsumerRequest message = this.broker.poll("orders", 1).get(0);
+
+		recording(consumerEvent(message), listener).start().stop();
+
+		SimpleSpan span = this.tracer.getOnlySpan();
+		then(span.spanKind).isEqualTo(Span.Kind.CONSUMER);
+		then(span.tags).containsEntry("messaging.operation", "receive").containsEntry("messaging.channel_name",
+				"orders");
+		then(span.context().traceId()).isEqualTo(message.header(HeaderPropagator.TRACE_ID)).isEqualTo("trace-0");
+		then(span.context().parentId()).isEqualTo(message.header(HeaderPropagator.SPAN_ID)).isEqualTo("span-0");
+		then(this.propagator.extractions).isEqualTo(1);
+	}
+
+	@Test
+	void should_record_a_single_span_for_a_batch_linking_to_the_first_messages() {
+		MessagingBatchConsumerTracingRecordingListener listener = new MessagingBatchConsumerTracingRecordingListener(
+				this.tracer, this.propagator, 3);
+		for (int i = 0; i < 5; i++) {
+			this.broker.send(upstreamMessage(i));
+		}
+		List<InMemoryBroker.IncomingMessage> batch = this.broker.poll("orders", 500);
+
+		IntervalRecording recording = recording(batchEvent(batch), listener).start();
+		then(this.propagator.extractions).as("contexts are extracted when the span ends").isZero();
+		recording.stop();
+
+		SimpleSpan span = this.tracer.getOnlySpan();
+		then(span.spanKind).isEqualTo(Span.Kind.CONSUMER);
+		then(span.tags).containsEntry("messaging.batch.size", "5").containsEntry("messaging.batch.links", "3")
+				.containsEntry("links.0.trace_id", "trace-0").containsEntry("links.0.span_id", "span-0")
+				.containsEntry("links.2.trace_id", "trace-2").doesNotContainKey("links.3.trace_id");
+		then(this.propagator.extractions).isEqualTo(3);
+	}
+
+	@Test
+	void should_only_be_applicable_for_its_events() {
+		MessagingProducerTracingRecordingListener listener = new MessagingProducerTracingRecordingListener(this.tracer,
+				this.propagator);
+
+		then(listener.isApplicable(recording(producerEvent(this.broker.message("orders")), listener))).isTrue();
+		then(listener.isApplicable(recording(batchEvent(Collections.emptyList()), listener))).isFalse();
+	}
+
+	private InMemoryBroker.OutgoingMessage upstreamMessage(int index) {
+		InMemoryBroker.OutgoingMessage message = this.broker.message("orders");
+		message.header(HeaderPropagator.TRACE_ID, "trace-" + index);
+		message.header(HeaderPropagator.SPAN_ID, "span-" + index);
+		return message;
+	}
+
+	private IntervalRecording recording(IntervalEvent event, RecordingListener<?> listener) {
+		return new SimpleIntervalRecording(event,
+				new AllMatchingCompositeRecordingListener(Collections.singletonList(listener)), CLOCK);
+	}
+
+	private IntervalMessagingProducerEvent producerEvent(ProducerRequest request) {
+		return new IntervalMessagingProducerEvent(request) {
+			@Override
+			public String getLowCardinalityName() {
+				return "send";
+			}
+		};
+	}
+
+	private IntervalMessagingConsumerEvent consumerEvent(ConsumerRequest request) {
+		return new IntervalMessagingConsumerEvent(request) {
+			@Override
+			public String getLowCardinalityName() {
+				return "receive";
+			}
+		};
+	}
+
+	private IntervalMessagingBatchConsumerEvent batchEvent(List<? extends ConsumerRequest> requests) {
+		return new IntervalMessagingBatchConsumerEvent("orders", requests) {
+			@Override
+			public String getLowCardinalityName() {
+				return "receive-batch";
+			}
+		};
+	}
+
+}
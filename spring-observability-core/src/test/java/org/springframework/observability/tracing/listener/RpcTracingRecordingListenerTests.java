@@ -0,0 +1,151 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.listener;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.observability.event.interval.IntervalEvent;
+import org.springframework.observability.event.interval.IntervalRecording;
+import org.springframework.observability.event.interval.IntervalRpcClientEvent;
+import org.springframework.observability.event.interval.IntervalRpcServerEvent;
+import org.springframework.observability.event.interval.SimpleIntervalRecording;
+import org.springframework.observability.event.listener.RecordingListener;
+import org.springframework.observability.event.listener.composite.AllMatchingCompositeRecordingListener;
+import org.springframework.observability.test.TestRpcRequest;
+import org.springframework.observability.time.MockClock;
+import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.TraceContext;
+import org.springframework.observability.tracing.propagation.BinaryPropagator;
+import org.springframework.observability.tracing.test.simple.NoOpTraceContext;
+import org.springframework.observability.tracing.test.simple.SimpleSpan;
+import org.springframework.observability.tracing.test.simple.SimpleTracer;
+import org.springframework.observability.transport.Kind;
+import org.springframework.observability.transport.rpc.RpcResponse;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class RpcTracingRecordingListenerTests {
+
+	private static final MockClock CLOCK = new MockClock();
+
+	SimpleTracer tracer = new SimpleTracer();
+
+	TestBinaryPropagator propagator = new TestBinaryPropagator();
+
+	TestRpcRequest request = new TestRpcRequest("helloworld.Greeter", "SayHello");
+
+	@Test
+	void should_record_a_client_span_and_inject_its_context_into_the_metadata() {
+		RpcClientTracingRecordingListener listener = new RpcClientTracingRecordingListener(this.tracer,
+				this.propagator);
+
+		recording(new IntervalRpcClientEvent(this.request) {
+			@Override
+			public String getLowCardinalityName() {
+				return "rpc.client";
+			}
+		}, listener).start().stop();
+
+		SimpleSpan span = this.tracer.getOnlySpan();
+		then(span.spanKind).isEqualTo(Span.Kind.CLIENT);
+		then(span.ended).isTrue();
+		then(span.tags).containsEntry("rpc.service", "helloworld.Greeter").containsEntry("rpc.method", "SayHello");
+		then(this.request.binaryMetadata("grpc-trace-bin")).hasSize(BinaryPropagator.BINARY_LENGTH);
+	}
+
+	@Test
+	void should_record_a_server_span_continuing_the_extracted_context_and_tag_the_error_code() {
+		RpcServerTracingRecordingListener listener = new RpcServerTracingRecordingListener(this.tracer,
+				this.propagator);
+		this.request.binaryMetadata("grpc-trace-bin", new byte[BinaryPropagator.BINARY_LENGTH]);
+		IntervalRpcServerEvent event = new IntervalRpcServerEvent(this.request) {
+			@Override
+			public String getLowCardinalityName() {
+				return "rpc.server";
+			}
+		};
+		IntervalRecording recording = recording(event, listener).start();
+
+		event.setResponse(response("UNAVAILABLE"));
+		recording.stop();
+
+		SimpleSpan span = this.tracer.getOnlySpan();
+		then(span.spanKind).isEqualTo(Span.Kind.SERVER);
+		then(span.tags).containsEntry("rpc.error_code", "UNAVAILABLE");
+		then(this.propagator.extracted).isEqualTo(1);
+	}
+
+	private IntervalRecording recording(IntervalEvent event, RecordingListener<?> listener) {
+		return new SimpleIntervalRecording(event,
+				new AllMatchingCompositeRecordingListener(Collections.singletonList(listener)), CLOCK);
+	}
+
+	private RpcResponse response(String errorCode) {
+		return new RpcResponse() {
+			@Override
+			public TestRpcRequest request() {
+				return RpcTracingRecordingListenerTests.this.request;
+			}
+
+			@Override
+			public String errorCode() {
+				return errorCode;
+			}
+
+			@Override
+			public Collection<String> headerNames() {
+				return Collections.emptyList();
+			}
+
+			@Override
+			public Throwable error() {
+				return null;
+			}
+
+			@Override
+			public Object unwrap() {
+				return null;
+			}
+
+			@Override
+			public Kind kind() {
+				return Kind.SERVER;
+			}
+		};
+	}
+
+	static class TestBinaryPropagator implements BinaryPropagator {
+
+		int extracted;
+
+		@Override
+		public void inject(TraceContext context, byte[] destination, int offset) {
+			destination[offset] = 0;
+		}
+
+		@Override
+		public TraceContext extract(byte[] source, int offset, int length) {
+			this.extracted++;
+			return new NoOpTraceContext();
+		}
+
+	}
+
+}
@@ -39,4 +39,61 @@ class TracingTagFilterTests {
 		then(span.tags).containsEntry("foo", "foo2").containsEntry("bar", "bar2").doesNotContainEntry("error", "none");
 	}
 
+	@Test
+	void shouldApplyTheConfiguredRules() {
+		TracingTagFilter tracingTagFilter = TracingTagFilter.builder().allow("foo", "long").deny("secret")
+				.rename("bar", "baz").maxValueLength(3).normalizeErrorValues("true").build();
+		SimpleSpan span = new SimpleSpan();
+
+		tracingTagFilter.tagSpan(span,
+				Arrays.asList(Tag.of("foo", "foo2", Cardinality.LOW), Tag.of("bar", "bar2", Cardinality.HIGH),
+						Tag.of("secret", "s3cr3t", Cardinality.HIGH), Tag.of("other", "other2", Cardinality.LOW),
+						Tag.of("error", "boom", Cardinality.LOW)));
+
+		then(span.tags).hasSize(3).containsEntry("foo", "foo").containsEntry("baz", "bar").containsEntry("error",
+				"tru");
+	}
+
+	@Test
+	void shouldDropErrorNoneAndDeniedKeysWhenUnlistedKeysAreAllowed() {
+		TracingTagFilter tracingTagFilter = TracingTagFilter.builder().deny("secret").build();
+		SimpleSpan span = new SimpleSpan();
+
+		tracingTagFilter.tagSpan(span, Arrays.asList(Tag.of("secret", "s3cr3t", Cardinality.HIGH),
+				Tag.of("ERROR", "None", Cardinality.LOW), Tag.of("other", "other2", Cardinality.LOW)));
+
+		then(span.tags).hasSize(1).containsEntry("other", "other2");
+	}
+
+	@Test
+	void shouldMatchErrorKeysIgnoringCase() {
+		TracingTagFilter tracingTagFilter = TracingTagFilter.builder().allow("foo").build();
+		SimpleSpan span = new SimpleSpan();
+
+		tracingTagFilter.tagSpan(span, Arrays.asList(Tag.of("eRRor", "none", Cardinality.LOW),
+				Tag.of("errOR", "boom", Cardinality.LOW), Tag.of("errors", "boom", Cardinality.LOW)));
+
+		then(span.tags).hasSize(1).containsEntry("errOR", "boom");
+	}
+
+	@Test
+	void shouldFindEveryConfiguredKey() {
+		TracingTagFilter.Builder builder = TracingTagFilter.builder();
+		for (int i = 0; i < 100; i++) {
+			builder.rename("key" + i, "renamed" + i);
+		}
+		// "Aa" and "BB" have the same hash code
+		TracingTagFilter tracingTagFilter = builder.rename("Aa", "aa").rename("BB", "bb").build();
+		SimpleSpan span = new SimpleSpan();
+
+		for (int i = 0; i < 100; i++) {
+			tracingTagFilter.tagSpan(span, Arrays.asList(Tag.of("key" + i, "value", Cardinality.LOW)));
+		}
+		tracingTagFilter.tagSpan(span,
+				Arrays.asList(Tag.of("Aa", "1", Cardinality.LOW), Tag.of("BB", "2", Cardinality.LOW)));
+
+		then(span.tags).hasSize(102).containsEntry("renamed0", "value").containsEntry("renamed99", "value")
+				.containsEntry("aa", "1").containsEntry("bb", "2");
+	}
+
 }
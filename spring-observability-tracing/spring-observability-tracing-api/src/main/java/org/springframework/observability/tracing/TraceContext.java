@@ -17,6 +17,7 @@
 package org.springframework.observability.tracing;
 
 import org.springframework.lang.Nullable;
+import org.springframework.observability.tracing.internal.EncodingUtils;
 
 /**
  * Contains trace and span data.
@@ -45,6 +46,39 @@ public interface TraceContext {
 	 */
 	String spanId();
 
+	/**
+	 * Upper 64 bits of a 128-bit trace id. Implementations backed by numeric ids should
+	 * override this to avoid parsing {@link #traceId()}.
+	 * @return upper 64 bits of the trace id or {@code 0} for a 64-bit trace id
+	 */
+	default long traceIdHigh() {
+		return EncodingUtils.highBitsFromBase16String(traceId());
+	}
+
+	/**
+	 * Lower 64 bits of the trace id.
+	 * @return lower 64 bits of the trace id
+	 */
+	default long traceIdLow() {
+		return EncodingUtils.lowBitsFromBase16String(traceId());
+	}
+
+	/**
+	 * Parent span id as a number.
+	 * @return parent span id or {@code 0} if one is not set
+	 */
+	default long parentIdLong() {
+		return EncodingUtils.lowBitsFromBase16String(parentId());
+	}
+
+	/**
+	 * Span id as a number.
+	 * @return span id
+	 */
+	default long spanIdLong() {
+		return EncodingUtils.lowBitsFromBase16String(spanId());
+	}
+
 	/**
 	 * @return {@code true} when sampled, {@code false} when not sampled and {@code null}
 	 * when sampling decision should be deferred
@@ -21,6 +21,7 @@ import java.util.Map;
 
 import org.springframework.lang.Nullable;
 import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.internal.EncodingUtils;
 
 /**
  * This API is inspired by OpenZipkin Brave (from {code MutableSpan}).
@@ -70,6 +71,20 @@ public interface FinishedSpan {
 	@Nullable
 	String getParentId();
 
+	/**
+	 * @return span's span id as a number
+	 */
+	default long getSpanIdLong() {
+		return EncodingUtils.lowBitsFromBase16String(getSpanId());
+	}
+
+	/**
+	 * @return span's parent id as a number or {@code 0} if not set
+	 */
+	default long getParentIdLong() {
+		return EncodingUtils.lowBitsFromBase16String(getParentId());
+	}
+
 	/**
 	 * @return span's remote ip
 	 */
@@ -94,6 +109,20 @@ public interface FinishedSpan {
 	 */
 	String getTraceId();
 
+	/**
+	 * @return upper 64 bits of span's trace id or {@code 0} for a 64-bit trace id
+	 */
+	default long getTraceIdHigh() {
+		return EncodingUtils.highBitsFromBase16String(getTraceId());
+	}
+
+	/**
+	 * @return lower 64 bits of span's trace id
+	 */
+	default long getTraceIdLow() {
+		return EncodingUtils.lowBitsFromBase16String(getTraceId());
+	}
+
 	/**
 	 * @return corresponding error or {@code null} if one was not thrown
 	 */
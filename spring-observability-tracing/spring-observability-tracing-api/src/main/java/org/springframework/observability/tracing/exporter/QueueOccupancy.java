@@ -0,0 +1,35 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.exporter;
+
+/**
+ * Published by reporters that buffer spans before exporting them, so that samplers can
+ * back off before the buffer overflows and spans get dropped.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface QueueOccupancy {
+
+	/**
+	 * Returns how full the queue of spans waiting to be exported is.
+	 * @return occupancy between {@code 0} (empty) and {@code 1} (full)
+	 */
+	double occupancy();
+
+}
@@ -18,16 +18,21 @@ package org.springframework.observability.tracing.internal;
 
 import java.util.Arrays;
 
-import org.springframework.util.Assert;
+import org.springframework.lang.Nullable;
 
 /**
  * Adopted from OpenTelemetry API.
  *
+ * Lower-hex codec for trace and span ids. Decoding reads two characters at a time through
+ * a pair lookup table and encoding writes two characters per byte, so neither direction
+ * creates intermediate strings. Invalid input is detected without building messages up
+ * front.
+ *
  * @since 1.0.0
  */
 public final class EncodingUtils {
 
-	private static final ThreadLocal<char[]> charBuffer = new ThreadLocal();
+	private static final ThreadLocal<char[]> charBuffer = new ThreadLocal<>();
 
 	private EncodingUtils() {
 	}
@@ -38,14 +43,24 @@ public final class EncodingUtils {
 
 	static final int LONG_BASE16 = BYTE_BASE16 * LONG_BYTES;
 
+	static final int TRACE_ID_BASE16 = 2 * LONG_BASE16;
+
 	private static final String ALPHABET = "0123456789abcdef";
 
 	private static final int ASCII_CHARACTERS = 128;
 
 	private static final char[] ENCODING = buildEncodingArray();
 
+	private static final byte[] BYTE_ENCODING = buildByteEncodingArray();
+
 	private static final byte[] DECODING = buildDecodingArray();
 
+	/**
+	 * Decoded value of every pair of ASCII characters, indexed by {@code hi << 7 | lo},
+	 * or {@code -1} if either character is not lower-hex.
+	 */
+	private static final short[] PAIR_DECODING = buildPairDecodingArray();
+
 	private static char[] buildEncodingArray() {
 		char[] encoding = new char[512];
 		for (int i = 0; i < 256; ++i) {
@@ -55,6 +70,14 @@ public final class EncodingUtils {
 		return encoding;
 	}
 
+	private static byte[] buildByteEncodingArray() {
+		byte[] encoding = new byte[512];
+		for (int i = 0; i < 512; ++i) {
+			encoding[i] = (byte) ENCODING[i];
+		}
+		return encoding;
+	}
+
 	private static byte[] buildDecodingArray() {
 		byte[] decoding = new byte[ASCII_CHARACTERS];
 		Arrays.fill(decoding, (byte) -1);
@@ -65,6 +88,17 @@ public final class EncodingUtils {
 		return decoding;
 	}
 
+	private static short[] buildPairDecodingArray() {
+		short[] decoding = new short[ASCII_CHARACTERS * ASCII_CHARACTERS];
+		Arrays.fill(decoding, (short) -1);
+		for (int hi = 0; hi < ALPHABET.length(); hi++) {
+			for (int lo = 0; lo < ALPHABET.length(); lo++) {
+				decoding[ALPHABET.charAt(hi) << 7 | ALPHABET.charAt(lo)] = (short) (hi << 4 | lo);
+			}
+		}
+		return decoding;
+	}
+
 	/**
 	 * Returns the {@code long} value.
 	 * @param chars the base8 or base16 representation of the {@code long}.
@@ -74,12 +108,46 @@ public final class EncodingUtils {
 		if (chars == null || chars.length() == 0) {
 			return new long[] { 0 };
 		}
-		if (chars.length() == 32) {
-			long high = HexCodec.lenientLowerHexToUnsignedLong(chars, 0, 16);
-			long low = HexCodec.lenientLowerHexToUnsignedLong(chars, 16, 32);
+		if (chars.length() == TRACE_ID_BASE16) {
+			long high = lenientLongFromBase16String(chars, 0, LONG_BASE16);
+			long low = lenientLongFromBase16String(chars, LONG_BASE16, TRACE_ID_BASE16);
 			return new long[] { high, low };
 		}
-		return new long[] { HexCodec.lenientLowerHexToUnsignedLong(chars, 0, 16) };
+		return new long[] { lenientLongFromBase16String(chars, 0, Math.min(LONG_BASE16, chars.length())) };
+	}
+
+	/**
+	 * Returns the high 64 bits of a 128-bit base16 id, that is its first 16 of 32
+	 * characters. No intermediate strings are created.
+	 * @param chars the base16 representation of the id, may be {@code null}
+	 * @return high bits of the id or {@code 0} if the id is not 32 characters long or not
+	 * lower-hex
+	 */
+	public static long highBitsFromBase16String(@Nullable CharSequence chars) {
+		if (chars == null || chars.length() != TRACE_ID_BASE16) {
+			return 0L;
+		}
+		return lenientLongFromBase16String(chars, 0, LONG_BASE16);
+	}
+
+	/**
+	 * Returns the low 64 bits of a base16 id of up to 16 or of 32 characters, that is its
+	 * last (up to) 16 characters. No intermediate strings are created.
+	 * @param chars the base16 representation of the id, may be {@code null}
+	 * @return low bits of the id or {@code 0} if the id is missing, of any other length
+	 * or not lower-hex
+	 */
+	public static long lowBitsFromBase16String(@Nullable CharSequence chars) {
+		if (chars == null || chars.length() == 0) {
+			return 0L;
+		}
+		if (chars.length() <= LONG_BASE16) {
+			return lenientLongFromBase16String(chars, 0, chars.length());
+		}
+		if (chars.length() != TRACE_ID_BASE16) {
+			return 0L;
+		}
+		return lenientLongFromBase16String(chars, LONG_BASE16, TRACE_ID_BASE16);
 	}
 
 	/**
@@ -93,20 +161,53 @@ public final class EncodingUtils {
 	}
 
 	/**
-	 * Returns the {@code long} value whose base16 representation is stored in the first
-	 * 16 chars of {@code chars} starting from the {@code offset}.
+	 * Returns the {@code long} value whose base16 representation is stored in the 16
+	 * chars of {@code chars} starting from the {@code offset}. Lets callers parse a
+	 * region of a header without taking a substring.
 	 * @param chars the base16 representation of the {@code long}.
+	 * @param offset the starting offset in the {@code CharSequence}.
+	 * @return long value from string
+	 * @throws IllegalArgumentException if the region is too short or not lower-hex
 	 */
-	static long longFromBase16String(CharSequence chars, int offset) {
-		Assert.isTrue(chars.length() >= offset + LONG_BASE16, "chars too small");
-		return (decodeByte(chars.charAt(offset), chars.charAt(offset + 1)) & 0xFFL) << 56
-				| (decodeByte(chars.charAt(offset + 2), chars.charAt(offset + 3)) & 0xFFL) << 48
-				| (decodeByte(chars.charAt(offset + 4), chars.charAt(offset + 5)) & 0xFFL) << 40
-				| (decodeByte(chars.charAt(offset + 6), chars.charAt(offset + 7)) & 0xFFL) << 32
-				| (decodeByte(chars.charAt(offset + 8), chars.charAt(offset + 9)) & 0xFFL) << 24
-				| (decodeByte(chars.charAt(offset + 10), chars.charAt(offset + 11)) & 0xFFL) << 16
-				| (decodeByte(chars.charAt(offset + 12), chars.charAt(offset + 13)) & 0xFFL) << 8
-				| (decodeByte(chars.charAt(offset + 14), chars.charAt(offset + 15)) & 0xFFL);
+	public static long longFromBase16String(CharSequence chars, int offset) {
+		if (chars.length() < offset + LONG_BASE16) {
+			throw new IllegalArgumentException("chars too small");
+		}
+		long result = 0L;
+		for (int i = offset; i < offset + LONG_BASE16; i += BYTE_BASE16) {
+			result = result << 8 | decodePair(chars, i);
+		}
+		return result;
+	}
+
+	/**
+	 * Parses a lower-hex region of up to 16 characters into an unsigned {@code long}.
+	 * Unlike {@link #longFromBase16String(CharSequence, int)} the region may have an odd
+	 * length.
+	 * @param chars the sequence containing the lower-hex id
+	 * @param beginIndex the inclusive begin index
+	 * @param endIndex the exclusive end index
+	 * @return parsed value or {@code 0} if the region contains a non lower-hex character
+	 */
+	public static long lenientLongFromBase16String(CharSequence chars, int beginIndex, int endIndex) {
+		long result = 0L;
+		int pos = beginIndex;
+		if (((endIndex - beginIndex) & 1) != 0) {
+			char c = chars.charAt(pos++);
+			if (c >= ASCII_CHARACTERS || DECODING[c] < 0) {
+				return 0L;
+			}
+			result = DECODING[c];
+		}
+		while (pos < endIndex) {
+			int decoded = pairOrInvalid(chars.charAt(pos), chars.charAt(pos + 1));
+			if (decoded < 0) {
+				return 0L;
+			}
+			result = result << 8 | decoded;
+			pos += BYTE_BASE16;
+		}
+		return result;
 	}
 
 	/**
@@ -119,15 +220,30 @@ public final class EncodingUtils {
 	 * according to this encoding.
 	 */
 	public static byte byteFromBase16String(CharSequence chars, int offset) {
-		Assert.isTrue(chars.length() >= offset + 2, "chars too small");
-		return decodeByte(chars.charAt(offset), chars.charAt(offset + 1));
+		if (chars.length() < offset + BYTE_BASE16) {
+			throw new IllegalArgumentException("chars too small");
+		}
+		return (byte) decodePair(chars, offset);
 	}
 
-	private static byte decodeByte(char hi, char lo) {
-		Assert.isTrue(lo < ASCII_CHARACTERS && DECODING[lo] != -1, "invalid character " + lo);
-		Assert.isTrue(hi < ASCII_CHARACTERS && DECODING[hi] != -1, "invalid character " + hi);
-		int decoded = DECODING[hi] << 4 | DECODING[lo];
-		return (byte) decoded;
+	private static int decodePair(CharSequence chars, int offset) {
+		int decoded = pairOrInvalid(chars.charAt(offset), chars.charAt(offset + 1));
+		if (decoded < 0) {
+			throw invalidCharacters(chars, offset);
+		}
+		return decoded;
+	}
+
+	private static int pairOrInvalid(char hi, char lo) {
+		if ((hi | lo) >= ASCII_CHARACTERS) {
+			return -1;
+		}
+		return PAIR_DECODING[hi << 7 | lo];
+	}
+
+	private static IllegalArgumentException invalidCharacters(CharSequence chars, int offset) {
+		return new IllegalArgumentException(
+				"invalid character in [" + chars.charAt(offset) + chars.charAt(offset + 1) + "]");
 	}
 
 	/**
@@ -136,10 +252,20 @@ public final class EncodingUtils {
 	 * @return {@code true} if valid base16 string
 	 */
 	public static boolean isValidBase16String(CharSequence value) {
-		for (int i = 0; i < value.length(); i++) {
-			char b = value.charAt(i);
-			// 48..57 && 97..102 are valid
-			if (!isDigit(b) && !isLowercaseHexCharacter(b)) {
+		return isValidBase16String(value, 0, value.length());
+	}
+
+	/**
+	 * Checks if a region of a sequence is valid base16.
+	 * @param value to check
+	 * @param beginIndex the inclusive begin index
+	 * @param endIndex the exclusive end index
+	 * @return {@code true} if the region only contains lower-hex characters
+	 */
+	public static boolean isValidBase16String(CharSequence value, int beginIndex, int endIndex) {
+		for (int i = beginIndex; i < endIndex; i++) {
+			char c = value.charAt(i);
+			if (c >= ASCII_CHARACTERS || DECODING[c] < 0) {
 				return false;
 			}
 		}
@@ -162,15 +288,39 @@ public final class EncodingUtils {
 	 * @return string representation of the long
 	 */
 	public static String fromLongs(long idHigh, long idLow) {
+		char[] chars = getTemporaryBuffer();
 		if (idHigh == 0L) {
-			return HexCodec.toLowerHex(idLow);
-		}
-		else {
-			char[] chars = getTemporaryBuffer();
-			longToBase16String(idHigh, chars, 0);
-			longToBase16String(idLow, chars, 16);
-			return new String(chars);
+			longToBase16String(idLow, chars, 0);
+			return new String(chars, 0, LONG_BASE16);
 		}
+		longToBase16String(idHigh, chars, 0);
+		longToBase16String(idLow, chars, LONG_BASE16);
+		return new String(chars, 0, TRACE_ID_BASE16);
+	}
+
+	/**
+	 * Writes a 128-bit id as 32 lower-hex characters.
+	 * @param idHigh upper 64 bits
+	 * @param idLow lower 64 bits
+	 * @param dest destination array
+	 * @param destOffset offset
+	 */
+	public static void toBase16(long idHigh, long idLow, char[] dest, int destOffset) {
+		longToBase16String(idHigh, dest, destOffset);
+		longToBase16String(idLow, dest, destOffset + LONG_BASE16);
+	}
+
+	/**
+	 * Writes a 128-bit id as 32 lower-hex ASCII bytes, e.g. straight into a header
+	 * buffer.
+	 * @param idHigh upper 64 bits
+	 * @param idLow lower 64 bits
+	 * @param dest destination array
+	 * @param destOffset offset
+	 */
+	public static void toBase16(long idHigh, long idLow, byte[] dest, int destOffset) {
+		longToBase16(idHigh, dest, destOffset);
+		longToBase16(idLow, dest, destOffset + LONG_BASE16);
 	}
 
 	/**
@@ -180,14 +330,25 @@ public final class EncodingUtils {
 	 * @param destOffset offset
 	 */
 	public static void longToBase16String(long value, char[] dest, int destOffset) {
-		byteToBase16((byte) ((int) (value >> 56 & 255L)), dest, destOffset);
-		byteToBase16((byte) ((int) (value >> 48 & 255L)), dest, destOffset + 2);
-		byteToBase16((byte) ((int) (value >> 40 & 255L)), dest, destOffset + 4);
-		byteToBase16((byte) ((int) (value >> 32 & 255L)), dest, destOffset + 6);
-		byteToBase16((byte) ((int) (value >> 24 & 255L)), dest, destOffset + 8);
-		byteToBase16((byte) ((int) (value >> 16 & 255L)), dest, destOffset + 10);
-		byteToBase16((byte) ((int) (value >> 8 & 255L)), dest, destOffset + 12);
-		byteToBase16((byte) ((int) (value & 255L)), dest, destOffset + 14);
+		for (int shift = 56, i = destOffset; shift >= 0; shift -= 8, i += BYTE_BASE16) {
+			int b = (int) (value >>> shift) & 0xFF;
+			dest[i] = ENCODING[b];
+			dest[i + 1] = ENCODING[b | 0x100];
+		}
+	}
+
+	/**
+	 * Converts the long to 16 lower-hex ASCII bytes.
+	 * @param value value to convert
+	 * @param dest destination array
+	 * @param destOffset offset
+	 */
+	public static void longToBase16(long value, byte[] dest, int destOffset) {
+		for (int shift = 56, i = destOffset; shift >= 0; shift -= 8, i += BYTE_BASE16) {
+			int b = (int) (value >>> shift) & 0xFF;
+			dest[i] = BYTE_ENCODING[b];
+			dest[i + 1] = BYTE_ENCODING[b | 0x100];
+		}
 	}
 
 	/**
@@ -205,130 +366,10 @@ public final class EncodingUtils {
 	private static char[] getTemporaryBuffer() {
 		char[] chars = charBuffer.get();
 		if (chars == null) {
-			chars = new char[32];
+			chars = new char[TRACE_ID_BASE16];
 			charBuffer.set(chars);
 		}
 		return chars;
 	}
 
-	private static boolean isLowercaseHexCharacter(char b) {
-		return 97 <= b && b <= 102;
-	}
-
-	private static boolean isDigit(char b) {
-		return 48 <= b && b <= 57;
-	}
-
-}
-
-// taken from brave.internal.codec.HexCodec
-final class HexCodec {
-
-	private HexCodec() {
-		throw new IllegalStateException("Can't instantiate a utility class");
-	}
-
-	/**
-	 * Parses a 16 character lower-hex string with no prefix into an unsigned long,
-	 * starting at the specified index.
-	 *
-	 * This reads a trace context a sequence potentially larger than the format. The
-	 * use-case is reducing garbage, by re-using the input {@code value} across multiple
-	 * parse operations.
-	 * @param value the sequence that contains a lower-hex encoded unsigned long.
-	 * @param beginIndex the inclusive begin index: {@linkplain CharSequence#charAt(int)
-	 * index} of the first lower-hex character representing the unsigned long.
-	 */
-	static long lowerHexToUnsignedLong(CharSequence value, int beginIndex) {
-		int endIndex = Math.min(beginIndex + 16, value.length());
-		long result = lenientLowerHexToUnsignedLong(value, beginIndex, endIndex);
-		if (result == 0) {
-			throw isntLowerHexLong(value);
-		}
-		return result;
-	}
-
-	/**
-	 * Like {@link #lowerHexToUnsignedLong(CharSequence, int)}, but returns zero on
-	 * invalid input.
-	 * @param value the sequence that contains a lower-hex encoded unsigned long.
-	 * @param beginIndex the inclusive begin index: {@linkplain CharSequence#charAt(int)
-	 * index} of the first lower-hex character representing the unsigned long.
-	 * @param endIndex the exclusive end index: {@linkplain CharSequence#charAt(int)
-	 * index} after the last lower-hex character representing the unsigned long.
-	 */
-	static long lenientLowerHexToUnsignedLong(CharSequence value, int beginIndex, int endIndex) {
-		long result = 0;
-		int pos = beginIndex;
-		while (pos < endIndex) {
-			char c = value.charAt(pos++);
-			result <<= 4;
-			if (c >= '0' && c <= '9') {
-				result |= c - '0';
-			}
-			else if (c >= 'a' && c <= 'f') {
-				result |= c - 'a' + 10;
-			}
-			else {
-				return 0;
-			}
-		}
-		return result;
-	}
-
-	static NumberFormatException isntLowerHexLong(CharSequence lowerHex) {
-		throw new NumberFormatException(lowerHex + " should be a 1 to 32 character lower-hex string with no prefix");
-	}
-
-	/** Inspired by {@code okio.Buffer.writeLong}. */
-	static String toLowerHex(long v) {
-		char[] data = RecyclableBuffers.parseBuffer();
-		writeHexLong(data, 0, v);
-		return new String(data, 0, 16);
-	}
-
-	/** Inspired by {@code okio.Buffer.writeLong}. */
-	static void writeHexLong(char[] data, int pos, long v) {
-		writeHexByte(data, pos + 0, (byte) ((v >>> 56L) & 0xff));
-		writeHexByte(data, pos + 2, (byte) ((v >>> 48L) & 0xff));
-		writeHexByte(data, pos + 4, (byte) ((v >>> 40L) & 0xff));
-		writeHexByte(data, pos + 6, (byte) ((v >>> 32L) & 0xff));
-		writeHexByte(data, pos + 8, (byte) ((v >>> 24L) & 0xff));
-		writeHexByte(data, pos + 10, (byte) ((v >>> 16L) & 0xff));
-		writeHexByte(data, pos + 12, (byte) ((v >>> 8L) & 0xff));
-		writeHexByte(data, pos + 14, (byte) (v & 0xff));
-	}
-
-	static final char[] HEX_DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
-
-	static void writeHexByte(char[] data, int pos, byte b) {
-		data[pos + 0] = HEX_DIGITS[(b >> 4) & 0xf];
-		data[pos + 1] = HEX_DIGITS[b & 0xf];
-	}
-
-}
-
-// taken from brave
-final class RecyclableBuffers {
-
-	private RecyclableBuffers() {
-		throw new IllegalStateException("Can't instantiate a utility class");
-	}
-
-	private static final ThreadLocal<char[]> PARSE_BUFFER = new ThreadLocal<>();
-
-	/**
-	 * Returns a {@link ThreadLocal} reused {@code char[]} for use when decoding bytes
-	 * into an ID hex string. The buffer should be immediately copied into a
-	 * {@link String} after decoding within the same method.
-	 */
-	static char[] parseBuffer() {
-		char[] idBuffer = PARSE_BUFFER.get();
-		if (idBuffer == null) {
-			idBuffer = new char[32 + 1 + 16 + 3 + 16]; // traceid128-spanid-1-parentid
-			PARSE_BUFFER.set(idBuffer);
-		}
-		return idBuffer;
-	}
-
 }
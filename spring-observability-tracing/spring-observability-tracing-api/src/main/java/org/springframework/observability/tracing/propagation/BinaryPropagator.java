@@ -0,0 +1,87 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.propagation;
+
+import org.springframework.lang.Nullable;
+import org.springframework.observability.tracing.TraceContext;
+
+/**
+ * Injects and extracts the trace context as raw bytes, for carriers with binary metadata
+ * such as gRPC. The W3C binary trace context format is used: a version byte followed by
+ * the 16 bytes trace id, the 8 bytes span id and the trace options, each prefixed by
+ * their field id, {@value #BINARY_LENGTH} bytes in total.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public interface BinaryPropagator {
+
+	/**
+	 * Length of the binary format.
+	 */
+	int BINARY_LENGTH = 29;
+
+	/**
+	 * Returns the key of the metadata entry that carries the context.
+	 * @return metadata key
+	 */
+	default String field() {
+		return "grpc-trace-bin";
+	}
+
+	/**
+	 * Writes the context to the given array.
+	 * @param context context to inject
+	 * @param destination array to write to
+	 * @param offset position to start writing from, there must be at least
+	 * {@value #BINARY_LENGTH} bytes after it
+	 */
+	void inject(TraceContext context, byte[] destination, int offset);
+
+	/**
+	 * Writes the context to a new array.
+	 * @param context context to inject
+	 * @return the binary representation of the context
+	 */
+	default byte[] inject(TraceContext context) {
+		byte[] bytes = new byte[BINARY_LENGTH];
+		inject(context, bytes, 0);
+		return bytes;
+	}
+
+	/**
+	 * Reads a context from the given array.
+	 * @param source array to read from
+	 * @param offset position to start reading from
+	 * @param length number of bytes that can be read
+	 * @return the extracted context or {@code null} if the bytes don't contain a valid
+	 * context
+	 */
+	@Nullable
+	TraceContext extract(byte[] source, int offset, int length);
+
+	/**
+	 * Reads a context from the given array.
+	 * @param source array to read from, can be {@code null}
+	 * @return the extracted context or {@code null} if there's no valid context
+	 */
+	@Nullable
+	default TraceContext extract(@Nullable byte[] source) {
+		return source != null ? extract(source, 0, source.length) : null;
+	}
+
+}
@@ -69,6 +69,20 @@ public interface Propagator {
 	 */
 	<C> Span.Builder extract(C carrier, Getter<C> getter);
 
+	/**
+	 * Extracts only the upstream context without creating a span builder, e.g. to link a
+	 * span to the contexts of the messages of a batch.
+	 * @param carrier holds propagation fields. For example, an incoming message.
+	 * @param getter invoked for each propagation key to get.
+	 * @param <C> carrier of propagation fields, such as a message.
+	 * @return the extracted context or {@code null} if the carrier contains none or the
+	 * implementation doesn't support it.
+	 */
+	@Nullable
+	default <C> TraceContext extractContext(C carrier, Getter<C> getter) {
+		return null;
+	}
+
 	/**
 	 * Class that allows a {@code TextMapPropagator} to set propagated fields into a
 	 * carrier.
@@ -16,6 +16,9 @@
 
 package org.springframework.observability.tracing.internal;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
 import org.assertj.core.api.BDDAssertions;
 import org.junit.jupiter.api.Test;
 
@@ -40,4 +43,87 @@ class EncodingUtilsTests {
 		BDDAssertions.then(fromLong).isEqualTo("596e1787feb110407c6239a5ad0a4287");
 	}
 
+	@Test
+	void should_split_ids_into_high_and_low_bits() {
+		BDDAssertions.then(EncodingUtils.highBitsFromBase16String("596e1787feb110407c6239a5ad0a4287"))
+				.isEqualTo(0x596e1787feb11040L);
+		BDDAssertions.then(EncodingUtils.lowBitsFromBase16String("596e1787feb110407c6239a5ad0a4287"))
+				.isEqualTo(0x7c6239a5ad0a4287L);
+		BDDAssertions.then(EncodingUtils.highBitsFromBase16String("7c6239a5ad0a4287")).isZero();
+		BDDAssertions.then(EncodingUtils.lowBitsFromBase16String("a")).isEqualTo(10L);
+	}
+
+	@Test
+	void should_return_zero_for_ids_that_are_neither_64_nor_128_bit() {
+		String tooLong = "ff" + "596e1787feb110407c6239a5ad0a4287";
+
+		BDDAssertions.then(EncodingUtils.highBitsFromBase16String(tooLong)).isZero();
+		BDDAssertions.then(EncodingUtils.lowBitsFromBase16String(tooLong)).isZero();
+		BDDAssertions.then(EncodingUtils.highBitsFromBase16String("1" + "7c6239a5ad0a4287")).isZero();
+		BDDAssertions.then(EncodingUtils.lowBitsFromBase16String("1" + "7c6239a5ad0a4287")).isZero();
+	}
+
+	@Test
+	void should_return_zero_for_missing_or_invalid_ids() {
+		BDDAssertions.then(EncodingUtils.lowBitsFromBase16String(null)).isZero();
+		BDDAssertions.then(EncodingUtils.lowBitsFromBase16String("")).isZero();
+		BDDAssertions.then(EncodingUtils.highBitsFromBase16String(null)).isZero();
+		BDDAssertions.then(EncodingUtils.lowBitsFromBase16String("not-hex")).isZero();
+	}
+
+	@Test
+	void should_round_trip_random_ids_like_long_to_hex_string() {
+		Random random = new Random(42);
+		char[] chars = new char[32];
+		for (int i = 0; i < 1000; i++) {
+			long high = random.nextLong();
+			long low = random.nextLong();
+			String expected = String.format("%016x%016x", high, low);
+
+			EncodingUtils.toBase16(high, low, chars, 0);
+
+			BDDAssertions.then(new String(chars)).isEqualTo(expected);
+			BDDAssertions.then(EncodingUtils.fromLongs(high, low)).isEqualTo(expected);
+			BDDAssertions.then(EncodingUtils.longFromBase16String(expected, 0)).isEqualTo(high);
+			BDDAssertions.then(EncodingUtils.longFromBase16String(expected, 16)).isEqualTo(low);
+		}
+	}
+
+	@Test
+	void should_encode_ids_into_ascii_bytes() {
+		byte[] bytes = new byte[34];
+
+		EncodingUtils.toBase16(0x596e1787feb11040L, 0x7c6239a5ad0a4287L, bytes, 1);
+
+		BDDAssertions.then(new String(bytes, 1, 32, StandardCharsets.US_ASCII))
+				.isEqualTo("596e1787feb110407c6239a5ad0a4287");
+		BDDAssertions.then(bytes[0]).isZero();
+		BDDAssertions.then(bytes[33]).isZero();
+	}
+
+	@Test
+	void should_parse_a_region_of_a_header() {
+		String traceparent = "00-596e1787feb110407c6239a5ad0a4287-7c6239a5ad0a4287-01";
+
+		BDDAssertions.then(EncodingUtils.longFromBase16String(traceparent, 3)).isEqualTo(0x596e1787feb11040L);
+		BDDAssertions.then(EncodingUtils.longFromBase16String(traceparent, 36)).isEqualTo(0x7c6239a5ad0a4287L);
+		BDDAssertions.then(EncodingUtils.byteFromBase16String(traceparent, 53)).isEqualTo((byte) 1);
+		BDDAssertions.then(EncodingUtils.isValidBase16String(traceparent, 3, 35)).isTrue();
+		BDDAssertions.then(EncodingUtils.isValidBase16String(traceparent, 0, 3)).isFalse();
+	}
+
+	@Test
+	void should_reject_invalid_characters() {
+		BDDAssertions.thenThrownBy(() -> EncodingUtils.longFromBase16String("7c6239a5ad0a428G"))
+				.isInstanceOf(IllegalArgumentException.class);
+		BDDAssertions.thenThrownBy(() -> EncodingUtils.longFromBase16String("7C6239A5AD0A4287"))
+				.isInstanceOf(IllegalArgumentException.class);
+		BDDAssertions.thenThrownBy(() -> EncodingUtils.byteFromBase16String("0\u00e9", 0))
+				.isInstanceOf(IllegalArgumentException.class);
+		BDDAssertions.thenThrownBy(() -> EncodingUtils.longFromBase16String("7c62", 0))
+				.isInstanceOf(IllegalArgumentException.class);
+		BDDAssertions.then(EncodingUtils.lenientLongFromBase16String("abc", 0, 3)).isEqualTo(0xabcL);
+		BDDAssertions.then(EncodingUtils.lenientLongFromBase16String("a-c", 0, 3)).isZero();
+	}
+
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.brave.bridge;
+
+import org.springframework.observability.tracing.TraceContext;
+import org.springframework.observability.tracing.propagation.BinaryPropagator;
+
+/**
+ * Brave implementation of a {@link BinaryPropagator}. Brave contexts are written from and
+ * read into their numeric ids directly, without going through hex strings.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public class BraveBinaryPropagator implements BinaryPropagator {
+
+	private static final byte VERSION = 0;
+
+	private static final byte TRACE_ID_FIELD = 0;
+
+	private static final byte SPAN_ID_FIELD = 1;
+
+	private static final byte TRACE_OPTIONS_FIELD = 2;
+
+	private static final byte SAMPLED = 1;
+
+	@Override
+	public void inject(TraceContext context, byte[] destination, int offset) {
+		destination[offset] = VERSION;
+		destination[offset + 1] = TRACE_ID_FIELD;
+		writeLong(context.traceIdHigh(), destination, offset + 2);
+		writeLong(context.traceIdLow(), destination, offset + 10);
+		destination[offset + 18] = SPAN_ID_FIELD;
+		writeLong(context.spanIdLong(), destination, offset + 19);
+		destination[offset + 27] = TRACE_OPTIONS_FIELD;
+		destination[offset + 28] = Boolean.TRUE.equals(context.sampled()) ? SAMPLED : 0;
+	}
+
+	@Override
+	public TraceContext extract(byte[] source, int offset, int length) {
+		if (length < BINARY_LENGTH || source.length - offset < BINARY_LENGTH || source[offset] != VERSION
+				|| source[offset + 1] != TRACE_ID_FIELD || source[offset + 18] != SPAN_ID_FIELD
+				|| source[offset + 27] != TRACE_OPTIONS_FIELD) {
+			return null;
+		}
+		long traceIdHigh = readLong(source, offset + 2);
+		long traceId = readLong(source, offset + 10);
+		long spanId = readLong(source, offset + 19);
+		if ((traceIdHigh == 0L && traceId == 0L) || spanId == 0L) {
+			return null;
+		}
+		boolean sampled = (source[offset + 28] & SAMPLED) != 0;
+		return BraveTraceContext.fromBrave(brave.propagation.TraceContext.newBuilder().traceIdHigh(traceIdHigh)
+				.traceId(traceId).spanId(spanId).sampled(sampled).build());
+	}
+
+	private static void writeLong(long value, byte[] destination, int offset) {
+		for (int i = 7; i >= 0; i--) {
+			destination[offset + i] = (byte) value;
+			value >>>= 8;
+		}
+	}
+
+	private static long readLong(byte[] source, int offset) {
+		long value = 0L;
+		for (int i = 0; i < 8; i++) {
+			value = (value << 8) | (source[offset + i] & 0xFFL);
+		}
+		return value;
+	}
+
+}
@@ -69,12 +69,12 @@ public class BraveCurrentTraceContext implements CurrentTraceContext {
 
 	@Override
 	public Scope newScope(TraceContext context) {
-		return new BraveScope(this.delegate.newScope(BraveTraceContext.toBrave(context)));
+		return BraveScope.fromBrave(this.delegate.newScope(BraveTraceContext.toBrave(context)));
 	}
 
 	@Override
 	public Scope maybeScope(TraceContext context) {
-		return new BraveScope(this.delegate.maybeScope(BraveTraceContext.toBrave(context)));
+		return BraveScope.fromBrave(this.delegate.maybeScope(BraveTraceContext.toBrave(context)));
 	}
 
 	@Override
@@ -101,12 +101,25 @@ public class BraveCurrentTraceContext implements CurrentTraceContext {
 
 class BraveScope implements CurrentTraceContext.Scope {
 
+	/**
+	 * Shared wrapper of Brave's no-op scope, returned e.g. when the context is already in
+	 * scope.
+	 */
+	static final BraveScope NOOP = new BraveScope(brave.propagation.CurrentTraceContext.Scope.NOOP);
+
 	private final brave.propagation.CurrentTraceContext.Scope delegate;
 
 	BraveScope(brave.propagation.CurrentTraceContext.Scope delegate) {
 		this.delegate = delegate;
 	}
 
+	static BraveScope fromBrave(brave.propagation.CurrentTraceContext.Scope delegate) {
+		if (delegate == brave.propagation.CurrentTraceContext.Scope.NOOP) {
+			return NOOP;
+		}
+		return new BraveScope(delegate);
+	}
+
 	@Override
 	public void close() {
 		this.delegate.close();
@@ -24,6 +24,7 @@ import javax.servlet.ServletRequest;
 
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.observability.transport.Kind;
+import org.springframework.observability.transport.http.HeaderSnapshot;
 import org.springframework.observability.transport.http.HttpServerRequest;
 import org.springframework.util.ClassUtils;
 
@@ -53,63 +54,7 @@ class BraveHttpServerRequest implements HttpServerRequest {
 		if (request instanceof BraveHttpServerRequest) {
 			return ((BraveHttpServerRequest) request).delegate;
 		}
-		return new brave.http.HttpServerRequest() {
-
-			@Override
-			public Object unwrap() {
-				return request.unwrap();
-			}
-
-			@Override
-			public String method() {
-				return request.method();
-			}
-
-			@Override
-			public String path() {
-				return request.path();
-			}
-
-			@Override
-			public String url() {
-				return request.url();
-			}
-
-			@Override
-			public String header(String name) {
-				return request.header(name);
-			}
-
-			@Override
-			public boolean parseClientIpAndPort(brave.Span span) {
-				boolean clientIpAndPortParsed = super.parseClientIpAndPort(span);
-				if (clientIpAndPortParsed) {
-					return true;
-				}
-				return resolveFromInetAddress(span);
-			}
-
-			private boolean resolveFromInetAddress(brave.Span span) {
-				Object delegate = request.unwrap();
-				if (SERVER_HTTP_REQUEST_PRESENT && delegate instanceof ServerHttpRequest) {
-					InetSocketAddress addr = ((ServerHttpRequest) delegate).getRemoteAddress();
-					if (addr == null) {
-						return false;
-					}
-					return span.remoteIpAndPort(addr.getAddress().getHostAddress(), addr.getPort());
-				}
-				else if (SERVLET_REQUEST_PRESENT && delegate instanceof ServletRequest) {
-					ServletRequest servletRequest = (ServletRequest) delegate;
-					String addr = servletRequest.getRemoteAddr();
-					if (addr == null) {
-						return false;
-					}
-					return span.remoteIpAndPort(addr, servletRequest.getRemotePort());
-				}
-				return false;
-			}
-
-		};
+		return new ServerRequestAdapter(request);
 	}
 
 	@Override
@@ -153,4 +98,82 @@ class BraveHttpServerRequest implements HttpServerRequest {
 		return this.delegate.header(name);
 	}
 
+	@Override
+	public HeaderSnapshot headerSnapshot(HeaderSnapshot.Schema schema) {
+		// Brave requests can't list their header names
+		HeaderSnapshot snapshot = schema.newSnapshot();
+		for (String name : schema.getNames()) {
+			snapshot.put(name, this.delegate.header(name));
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Adapts a {@link HttpServerRequest} to Brave, keeps the original request so that
+	 * propagation can read its headers at once.
+	 */
+	static final class ServerRequestAdapter extends brave.http.HttpServerRequest {
+
+		final HttpServerRequest request;
+
+		ServerRequestAdapter(HttpServerRequest request) {
+			this.request = request;
+		}
+
+		@Override
+		public Object unwrap() {
+			return this.request.unwrap();
+		}
+
+		@Override
+		public String method() {
+			return this.request.method();
+		}
+
+		@Override
+		public String path() {
+			return this.request.path();
+		}
+
+		@Override
+		public String url() {
+			return this.request.url();
+		}
+
+		@Override
+		public String header(String name) {
+			return this.request.header(name);
+		}
+
+		@Override
+		public boolean parseClientIpAndPort(brave.Span span) {
+			boolean clientIpAndPortParsed = super.parseClientIpAndPort(span);
+			if (clientIpAndPortParsed) {
+				return true;
+			}
+			return resolveFromInetAddress(span);
+		}
+
+		private boolean resolveFromInetAddress(brave.Span span) {
+			Object delegate = this.request.unwrap();
+			if (SERVER_HTTP_REQUEST_PRESENT && delegate instanceof ServerHttpRequest) {
+				InetSocketAddress addr = ((ServerHttpRequest) delegate).getRemoteAddress();
+				if (addr == null) {
+					return false;
+				}
+				return span.remoteIpAndPort(addr.getAddress().getHostAddress(), addr.getPort());
+			}
+			else if (SERVLET_REQUEST_PRESENT && delegate instanceof ServletRequest) {
+				ServletRequest servletRequest = (ServletRequest) delegate;
+				String addr = servletRequest.getRemoteAddr();
+				if (addr == null) {
+					return false;
+				}
+				return span.remoteIpAndPort(addr, servletRequest.getRemotePort());
+			}
+			return false;
+		}
+
+	}
+
 }
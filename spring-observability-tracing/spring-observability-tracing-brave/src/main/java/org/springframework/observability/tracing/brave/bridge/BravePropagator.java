@@ -16,7 +16,11 @@
 
 package org.springframework.observability.tracing.brave.bridge;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import brave.Tracing;
 import brave.propagation.SamplingFlags;
@@ -27,15 +31,37 @@ import org.springframework.observability.tracing.TraceContext;
 import org.springframework.observability.tracing.propagation.Propagator;
 
 /**
- * Brave implementation of a {@link Propagator}.
+ * Brave implementation of a {@link Propagator}. The Brave injector and extractor of a
+ * stateless setter or getter, e.g. a non-capturing lambda, are built once per class and
+ * cached. Setters and getters with state, e.g. lambdas capturing a carrier, get new ones
+ * on every call, so no carrier is kept by the cache.
  *
  * @author Marcin Grzejszczak
  * @since 1.0.0
  */
 public class BravePropagator implements Propagator {
 
+	private static final ClassValue<Boolean> STATELESS = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			for (Class<?> current = type; current != null
+					&& current != Object.class; current = current.getSuperclass()) {
+				for (Field field : current.getDeclaredFields()) {
+					if (!Modifier.isStatic(field.getModifiers())) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+	};
+
 	private final Tracing tracing;
 
+	private final Map<Class<?>, brave.propagation.TraceContext.Injector<?>> injectors = new ConcurrentHashMap<>();
+
+	private final Map<Class<?>, brave.propagation.TraceContext.Extractor<?>> extractors = new ConcurrentHashMap<>();
+
 	/**
 	 * @param tracing Brave tracing
 	 */
@@ -50,12 +76,12 @@ public class BravePropagator implements Propagator {
 
 	@Override
 	public <C> void inject(TraceContext traceContext, C carrier, Setter<C> setter) {
-		this.tracing.propagation().injector(setter::set).inject(BraveTraceContext.toBrave(traceContext), carrier);
+		injector(setter).inject(BraveTraceContext.toBrave(traceContext), carrier);
 	}
 
 	@Override
 	public <C> Span.Builder extract(C carrier, Getter<C> getter) {
-		TraceContextOrSamplingFlags extract = this.tracing.propagation().extractor(getter::get).extract(carrier);
+		TraceContextOrSamplingFlags extract = extractor(getter).extract(carrier);
 		if (extract.samplingFlags() == SamplingFlags.EMPTY) {
 			this.tracing.tracer().nextSpan();
 			return new BraveSpanBuilder(this.tracing.tracer());
@@ -63,4 +89,28 @@ public class BravePropagator implements Propagator {
 		return BraveSpanBuilder.toBuilder(this.tracing.tracer(), extract);
 	}
 
+	@Override
+	public <C> TraceContext extractContext(C carrier, Getter<C> getter) {
+		brave.propagation.TraceContext context = extractor(getter).extract(carrier).context();
+		return context != null ? BraveTraceContext.fromBrave(context) : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <C> brave.propagation.TraceContext.Injector<C> injector(Setter<C> setter) {
+		if (!STATELESS.get(setter.getClass())) {
+			return this.tracing.propagation().injector(setter::set);
+		}
+		return (brave.propagation.TraceContext.Injector<C>) this.injectors.computeIfAbsent(setter.getClass(),
+				type -> this.tracing.propagation().injector(setter::set));
+	}
+
+	@SuppressWarnings("unchecked")
+	private <C> brave.propagation.TraceContext.Extractor<C> extractor(Getter<C> getter) {
+		if (!STATELESS.get(getter.getClass())) {
+			return this.tracing.propagation().extractor(getter::get);
+		}
+		return (brave.propagation.TraceContext.Extractor<C>) this.extractors.computeIfAbsent(getter.getClass(),
+				type -> this.tracing.propagation().extractor(getter::get));
+	}
+
 }
@@ -31,6 +31,8 @@ class BraveScopedSpan implements ScopedSpan {
 
 	final brave.ScopedSpan span;
 
+	private TraceContext context;
+
 	BraveScopedSpan(brave.ScopedSpan span) {
 		this.span = span;
 	}
@@ -42,7 +44,12 @@ class BraveScopedSpan implements ScopedSpan {
 
 	@Override
 	public TraceContext context() {
-		return new BraveTraceContext(this.span.context());
+		TraceContext context = this.context;
+		if (context == null) {
+			context = new BraveTraceContext(this.span.context());
+			this.context = context;
+		}
+		return context;
 	}
 
 	@Override
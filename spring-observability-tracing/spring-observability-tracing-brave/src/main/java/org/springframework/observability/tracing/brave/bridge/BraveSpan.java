@@ -32,6 +32,8 @@ public class BraveSpan implements Span {
 
 	final brave.Span delegate;
 
+	private TraceContext context;
+
 	/**
 	 * @param delegate Brave delegate
 	 */
@@ -67,7 +69,12 @@ public class BraveSpan implements Span {
 		if (this.delegate == null) {
 			return null;
 		}
-		return new BraveTraceContext(this.delegate.context());
+		TraceContext context = this.context;
+		if (context == null) {
+			context = new BraveTraceContext(this.delegate.context());
+			this.context = context;
+		}
+		return context;
 	}
 
 	@Override
@@ -75,6 +75,26 @@ public class BraveTraceContext implements TraceContext {
 		return this.traceContext.spanIdString();
 	}
 
+	@Override
+	public long traceIdHigh() {
+		return this.traceContext.traceIdHigh();
+	}
+
+	@Override
+	public long traceIdLow() {
+		return this.traceContext.traceId();
+	}
+
+	@Override
+	public long parentIdLong() {
+		return this.traceContext.parentIdAsLong();
+	}
+
+	@Override
+	public long spanIdLong() {
+		return this.traceContext.spanId();
+	}
+
 	@Override
 	public Boolean sampled() {
 		return this.traceContext.sampled();
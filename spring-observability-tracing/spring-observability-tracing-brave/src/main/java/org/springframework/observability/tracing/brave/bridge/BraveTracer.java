@@ -43,6 +43,8 @@ public class BraveTracer implements Tracer {
 
 	private final BraveBaggageManager braveBaggageManager;
 
+	private final BraveCurrentTraceContext braveCurrentTraceContext;
+
 	/**
 	 * @param tracer Brave delegate
 	 * @param currentTraceContext Brave current trace context
@@ -53,6 +55,7 @@ public class BraveTracer implements Tracer {
 		this.tracer = tracer;
 		this.currentTraceContext = currentTraceContext;
 		this.braveBaggageManager = braveBaggageManager;
+		this.braveCurrentTraceContext = new BraveCurrentTraceContext(currentTraceContext);
 	}
 
 	@Override
@@ -109,7 +112,7 @@ public class BraveTracer implements Tracer {
 
 	@Override
 	public CurrentTraceContext currentTraceContext() {
-		return new BraveCurrentTraceContext(this.currentTraceContext);
+		return this.braveCurrentTraceContext;
 	}
 
 	@Override
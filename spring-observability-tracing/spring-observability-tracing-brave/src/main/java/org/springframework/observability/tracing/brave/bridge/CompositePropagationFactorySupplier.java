@@ -17,11 +17,11 @@
 package org.springframework.observability.tracing.brave.bridge;
 
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import brave.internal.propagation.StringPropagationAdapter;
 import brave.propagation.B3Propagation;
@@ -34,6 +34,8 @@ import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.observability.tracing.brave.propagation.PropagationFactorySupplier;
 import org.springframework.observability.tracing.brave.propagation.PropagationType;
+import org.springframework.observability.transport.http.HeaderSnapshot;
+import org.springframework.observability.transport.http.HttpServerRequest;
 
 /**
  * Merges various propagation factories into a composite.
@@ -70,12 +72,25 @@ public class CompositePropagationFactorySupplier implements PropagationFactorySu
 
 }
 
+/**
+ * Formats are extracted in the configured order, the first one found wins.
+ */
 class CompositePropagationFactory extends Propagation.Factory implements Propagation<String> {
 
 	private final Map<PropagationType, Map.Entry<Propagation.Factory, Propagation<String>>> mapping = new HashMap<>();
 
 	private final List<PropagationType> types;
 
+	private final List<Map.Entry<Propagation.Factory, Propagation<String>>> entries;
+
+	private volatile List<String> keys;
+
+	private volatile Boolean supportsJoin;
+
+	private volatile Boolean requires128BitTraceId;
+
+	private volatile HeaderSnapshot.Schema headerSchema;
+
 	CompositePropagationFactory(BeanFactory beanFactory, BraveBaggageManager braveBaggageManager,
 			List<String> localFields, List<PropagationType> types) {
 		this.types = types;
@@ -92,6 +107,14 @@ class CompositePropagationFactory extends Propagation.Factory implements Propaga
 				beanFactory.getBeanProvider(Factory.class));
 		this.mapping.put(PropagationType.CUSTOM,
 				new AbstractMap.SimpleEntry<>(lazyPropagationFactory, lazyPropagationFactory.get()));
+		List<Map.Entry<Propagation.Factory, Propagation<String>>> entries = new ArrayList<>(types.size());
+		for (PropagationType type : types) {
+			Map.Entry<Propagation.Factory, Propagation<String>> entry = this.mapping.get(type);
+			if (entry != null) {
+				entries.add(entry);
+			}
+		}
+		this.entries = entries;
 	}
 
 	private Factory b3Factory() {
@@ -100,37 +123,61 @@ class CompositePropagationFactory extends Propagation.Factory implements Propaga
 
 	@Override
 	public List<String> keys() {
-		return this.types.stream().map(this.mapping::get).flatMap(p -> p.getValue().keys().stream())
-				.collect(Collectors.toList());
+		// resolved lazily as a custom propagation is only looked up on first use
+		List<String> keys = this.keys;
+		if (keys == null) {
+			keys = new ArrayList<>();
+			for (Map.Entry<Factory, Propagation<String>> entry : this.entries) {
+				keys.addAll(entry.getValue().keys());
+			}
+			keys = Collections.unmodifiableList(keys);
+			this.keys = keys;
+		}
+		return keys;
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public <R> TraceContext.Injector<R> injector(Setter<R, String> setter) {
+		TraceContext.Injector<R>[] delegates = new TraceContext.Injector[this.entries.size()];
+		for (int i = 0; i < delegates.length; i++) {
+			delegates[i] = this.entries.get(i).getValue().injector(setter);
+		}
 		return (traceContext, request) -> {
-			this.types.stream().map(this.mapping::get)
-					.forEach(p -> p.getValue().injector(setter).inject(traceContext, request));
+			for (TraceContext.Injector<R> delegate : delegates) {
+				delegate.inject(traceContext, request);
+			}
 		};
 	}
 
 	@Override
 	public <R> TraceContext.Extractor<R> extractor(Getter<R, String> getter) {
-		return request -> {
-			for (PropagationType type : this.types) {
-				Map.Entry<Factory, Propagation<String>> entry = this.mapping.get(type);
-				if (entry == null) {
-					continue;
-				}
-				Propagation<String> propagator = entry.getValue();
-				if (propagator == null || propagator == NoOpPropagation.INSTANCE) {
-					continue;
-				}
-				TraceContextOrSamplingFlags extract = propagator.extractor(getter).extract(request);
-				if (extract != TraceContextOrSamplingFlags.EMPTY) {
-					return extract;
-				}
+		return new CompositeExtractor<>(this, getter);
+	}
+
+	private List<Propagation<String>> extractingPropagations() {
+		List<Propagation<String>> propagations = new ArrayList<>(this.entries.size());
+		for (Map.Entry<Factory, Propagation<String>> entry : this.entries) {
+			Propagation<String> propagator = entry.getValue();
+			if (propagator != null && propagator != NoOpPropagation.INSTANCE) {
+				propagations.add(propagator);
 			}
-			return TraceContextOrSamplingFlags.EMPTY;
-		};
+		}
+		return propagations;
+	}
+
+	private HeaderSnapshot.Schema headerSchema() {
+		HeaderSnapshot.Schema headerSchema = this.headerSchema;
+		if (headerSchema == null) {
+			List<String> keys = new ArrayList<>(keys());
+			if (this.types.contains(PropagationType.W3C)) {
+				// baggage is read by the W3C format but not listed in its keys
+				keys.add(W3CBaggagePropagator.FIELD);
+			}
+			headerSchema = HeaderSnapshot.Schema.of(keys);
+			this.headerSchema = headerSchema;
+		}
+		return headerSchema;
 	}
 
 	@Override
@@ -140,21 +187,27 @@ class CompositePropagationFactory extends Propagation.Factory implements Propaga
 
 	@Override
 	public boolean supportsJoin() {
-		return this.types.stream().map(this.mapping::get).allMatch(e -> e.getKey().supportsJoin());
+		Boolean supportsJoin = this.supportsJoin;
+		if (supportsJoin == null) {
+			supportsJoin = this.entries.stream().allMatch(e -> e.getKey().supportsJoin());
+			this.supportsJoin = supportsJoin;
+		}
+		return supportsJoin;
 	}
 
 	@Override
 	public boolean requires128BitTraceId() {
-		return this.types.stream().map(this.mapping::get).allMatch(e -> e.getKey().requires128BitTraceId());
+		Boolean requires128BitTraceId = this.requires128BitTraceId;
+		if (requires128BitTraceId == null) {
+			requires128BitTraceId = this.entries.stream().allMatch(e -> e.getKey().requires128BitTraceId());
+			this.requires128BitTraceId = requires128BitTraceId;
+		}
+		return requires128BitTraceId;
 	}
 
 	@Override
 	public TraceContext decorate(TraceContext context) {
-		for (PropagationType type : this.types) {
-			Map.Entry<Factory, Propagation<String>> entry = this.mapping.get(type);
-			if (entry == null) {
-				continue;
-			}
+		for (Map.Entry<Factory, Propagation<String>> entry : this.entries) {
 			TraceContext decorate = entry.getKey().decorate(context);
 			if (decorate != context) {
 				return decorate;
@@ -163,6 +216,108 @@ class CompositePropagationFactory extends Propagation.Factory implements Propaga
 		return super.decorate(context);
 	}
 
+	/**
+	 * Extractors of all formats for one getter. HTTP server requests are read through a
+	 * per-request {@link SnapshotCarrier}, so their extractors can be built once too.
+	 */
+	private static final class CompositeExtractor<R> implements TraceContext.Extractor<R> {
+
+		private final TraceContext.Extractor<R>[] extractors;
+
+		private final TraceContext.Extractor<SnapshotCarrier<R>>[] snapshotExtractors;
+
+		private final SnapshotGetter<R> snapshotGetter;
+
+		private final HeaderSnapshot.Schema schema;
+
+		@SuppressWarnings("unchecked")
+		private CompositeExtractor(CompositePropagationFactory factory, Getter<R, String> getter) {
+			this.schema = factory.headerSchema();
+			List<Propagation<String>> propagations = factory.extractingPropagations();
+			this.extractors = new TraceContext.Extractor[propagations.size()];
+			this.snapshotExtractors = new TraceContext.Extractor[propagations.size()];
+			this.snapshotGetter = new SnapshotGetter<>(this.schema, getter);
+			for (int i = 0; i < propagations.size(); i++) {
+				this.extractors[i] = propagations.get(i).extractor(getter);
+				this.snapshotExtractors[i] = propagations.get(i).extractor(this.snapshotGetter);
+			}
+		}
+
+		@Override
+		public TraceContextOrSamplingFlags extract(R request) {
+			if (request instanceof BraveHttpServerRequest.ServerRequestAdapter) {
+				SnapshotCarrier<R> carrier = new SnapshotCarrier<>(request,
+						((BraveHttpServerRequest.ServerRequestAdapter) request).request, this.schema);
+				return extract(this.snapshotExtractors, carrier);
+			}
+			return extract(this.extractors, request);
+		}
+
+		private static <C> TraceContextOrSamplingFlags extract(TraceContext.Extractor<C>[] extractors, C carrier) {
+			for (TraceContext.Extractor<C> extractor : extractors) {
+				TraceContextOrSamplingFlags extract = extractor.extract(carrier);
+				if (extract != TraceContextOrSamplingFlags.EMPTY) {
+					return extract;
+				}
+			}
+			return TraceContextOrSamplingFlags.EMPTY;
+		}
+
+	}
+
+	/**
+	 * Carries a request together with the header snapshot that is taken on first access.
+	 */
+	private static final class SnapshotCarrier<R> {
+
+		private final R carrier;
+
+		private final HttpServerRequest request;
+
+		private final HeaderSnapshot.Schema schema;
+
+		private HeaderSnapshot snapshot;
+
+		private SnapshotCarrier(R carrier, HttpServerRequest request, HeaderSnapshot.Schema schema) {
+			this.carrier = carrier;
+			this.request = request;
+			this.schema = schema;
+		}
+
+		private HeaderSnapshot snapshot() {
+			if (this.snapshot == null) {
+				this.snapshot = this.request.headerSnapshot(this.schema);
+			}
+			return this.snapshot;
+		}
+
+	}
+
+	/**
+	 * Reads the propagation headers of the request at once on first access, instead of
+	 * going to the request for every header each of the formats asks for.
+	 */
+	private static final class SnapshotGetter<R> implements Getter<SnapshotCarrier<R>, String> {
+
+		private final HeaderSnapshot.Schema schema;
+
+		private final Getter<R, String> delegate;
+
+		private SnapshotGetter(HeaderSnapshot.Schema schema, Getter<R, String> delegate) {
+			this.schema = schema;
+			this.delegate = delegate;
+		}
+
+		@Override
+		public String get(SnapshotCarrier<R> carrier, String key) {
+			if (!this.schema.contains(key)) {
+				return this.delegate.get(carrier.carrier, key);
+			}
+			return carrier.snapshot().get(key);
+		}
+
+	}
+
 	@SuppressWarnings("unchecked")
 	private static final class LazyPropagationFactory extends Propagation.Factory {
 
@@ -23,6 +23,7 @@ import brave.handler.MutableSpan;
 import brave.handler.SpanHandler;
 import brave.propagation.TraceContext;
 
+import org.springframework.observability.tracing.exporter.FinishedSpan;
 import org.springframework.observability.tracing.exporter.SpanFilter;
 import org.springframework.observability.tracing.exporter.SpanReporter;
 
@@ -52,7 +53,9 @@ public class CompositeSpanHandler extends SpanHandler {
 		if (cause != Cause.FINISHED) {
 			return true;
 		}
-		boolean shouldProcess = shouldProcess(span);
+		// one view of the span is shared by all filters and reporters
+		FinishedSpan finishedSpan = BraveFinishedSpan.fromBrave(span);
+		boolean shouldProcess = shouldProcess(finishedSpan);
 		if (!shouldProcess) {
 			return false;
 		}
@@ -60,13 +63,15 @@ public class CompositeSpanHandler extends SpanHandler {
 		if (!shouldProcess) {
 			return false;
 		}
-		this.reporters.forEach(r -> r.report(BraveFinishedSpan.fromBrave(span)));
+		for (SpanReporter reporter : this.reporters) {
+			reporter.report(finishedSpan);
+		}
 		return true;
 	}
 
-	private boolean shouldProcess(MutableSpan span) {
+	private boolean shouldProcess(FinishedSpan span) {
 		for (SpanFilter exporter : this.filters) {
-			if (!exporter.isExportable(BraveFinishedSpan.fromBrave(span))) {
+			if (!exporter.isExportable(span)) {
 				return false;
 			}
 		}
@@ -0,0 +1,501 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.brave.bridge;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+
+import org.springframework.observability.time.Clock;
+import org.springframework.util.Assert;
+
+/**
+ * Decides whether to keep a trace after its spans finished. Finished spans are buffered
+ * per local trace (the spans sharing a local root in this process) and when the local
+ * root finishes, or the trace times out, the whole local trace is either forwarded to the
+ * delegate, usually a {@link CompositeSpanHandler}, or discarded. Traces containing an
+ * error or a span slower than the latency threshold are always kept, the others with the
+ * given probability. Spans finishing after their local root follow the decision made for
+ * it.
+ *
+ * <p>
+ * This handler only sees the spans Brave hands to span handlers, i.e. the ones sampled by
+ * the head sampler. Unless the tracing is built with
+ * {@code Tracing.Builder.alwaysSampleLocal()}, the spans of unsampled traces never reach
+ * it and their errors or slow spans can't be kept. In that case the delegate has to
+ * report spans that are not sampled remotely too.
+ *
+ * <p>
+ * The buffer is bounded by an estimate of the memory held by the buffered spans. When it
+ * is exceeded, the oldest local traces are decided early with the spans seen so far. The
+ * usage of the buffer and the outcome of the decisions can be read with the getters of
+ * this handler, e.g. to register them as gauges.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public final class TailSamplingSpanHandler extends SpanHandler {
+
+	private static final int SPAN_OVERHEAD_BYTES = 256;
+
+	private static final int ENTRY_OVERHEAD_BYTES = 48;
+
+	private static final int MAX_DECISIONS = 10_000;
+
+	private final SpanHandler delegate;
+
+	private final long latencyThresholdMicros;
+
+	private final long keepThreshold;
+
+	private final long maxBufferedBytes;
+
+	private final long timeoutNanos;
+
+	private final Clock clock;
+
+	private final ConcurrentHashMap<Long, PendingTrace> pending = new ConcurrentHashMap<>();
+
+	/**
+	 * Buffered traces in the order they were created, possibly containing traces that
+	 * were decided in the meantime.
+	 */
+	private final Queue<PendingTrace> created = new ConcurrentLinkedQueue<>();
+
+	private final ConcurrentHashMap<Long, Boolean> decisions = new ConcurrentHashMap<>();
+
+	private final Queue<Long> decisionOrder = new ConcurrentLinkedQueue<>();
+
+	private final ReentrantLock evicting = new ReentrantLock();
+
+	private final LongAdder bufferedBytes = new LongAdder();
+
+	private final LongAdder keptTraces = new LongAdder();
+
+	private final LongAdder droppedTraces = new LongAdder();
+
+	private final LongAdder evictedTraces = new LongAdder();
+
+	private TailSamplingSpanHandler(Builder builder) {
+		this.delegate = builder.delegate;
+		this.latencyThresholdMicros = builder.latencyThreshold.toNanos() / 1000L;
+		this.keepThreshold = builder.keepProbability >= 1.0f ? Long.MAX_VALUE
+				: (long) (builder.keepProbability * 0x1p63);
+		this.maxBufferedBytes = builder.maxBufferedBytes;
+		this.timeoutNanos = builder.timeout.toNanos();
+		this.clock = builder.clock;
+	}
+
+	/**
+	 * Creates a builder of a handler forwarding the kept traces to the given delegate.
+	 * @param delegate handler of the kept spans
+	 * @return builder
+	 */
+	public static Builder builder(SpanHandler delegate) {
+		return new Builder(delegate);
+	}
+
+	@Override
+	public boolean begin(TraceContext context, MutableSpan span, TraceContext parent) {
+		return this.delegate.begin(context, span, parent);
+	}
+
+	@Override
+	public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+		long localRootId = context.localRootId();
+		if (cause == Cause.ABANDONED || localRootId == 0L) {
+			return this.delegate.end(context, span, cause);
+		}
+		long now = this.clock.monotonicTime();
+		Boolean decision = this.decisions.get(localRootId);
+		List<PendingTrace> decided = Collections.emptyList();
+		if (decision == null) {
+			PendingTrace trace = pending(localRootId, context.traceId(), now);
+			synchronized (trace) {
+				if (trace.decided) {
+					decision = trace.keep;
+				}
+				else {
+					decision = this.decisions.get(localRootId);
+					if (decision != null) {
+						// decided after the first lookup, the trace was created too late
+						trace.keep = decision;
+						trace.decided = true;
+						this.pending.remove(localRootId, trace);
+					}
+					else {
+						trace.add(context, span, cause);
+						this.bufferedBytes.add(trace.lastSize);
+						if (context.isLocalRoot()) {
+							decide(trace);
+							decided = Collections.singletonList(trace);
+						}
+					}
+				}
+			}
+		}
+		if (Boolean.TRUE.equals(decision)) {
+			this.delegate.end(context, span, cause);
+		}
+		forward(decided);
+		forward(evict(now));
+		return true;
+	}
+
+	@Override
+	public boolean handlesAbandoned() {
+		return this.delegate.handlesAbandoned();
+	}
+
+	/**
+	 * Decides all buffered traces with the spans seen so far, e.g. on shutdown.
+	 */
+	public void flush() {
+		List<PendingTrace> decided = new ArrayList<>();
+		for (PendingTrace trace : this.pending.values()) {
+			synchronized (trace) {
+				if (!trace.decided) {
+					decide(trace);
+					decided.add(trace);
+				}
+			}
+		}
+		forward(decided);
+	}
+
+	/**
+	 * Returns the estimated number of bytes held by the buffered spans.
+	 * @return buffered bytes
+	 */
+	public long getBufferedBytes() {
+		return this.bufferedBytes.sum();
+	}
+
+	/**
+	 * Returns the number of local traces waiting for a decision.
+	 * @return buffered traces
+	 */
+	public int getBufferedTraces() {
+		return this.pending.size();
+	}
+
+	/**
+	 * Returns the number of local traces forwarded to the delegate.
+	 * @return kept traces
+	 */
+	public long getKeptTraces() {
+		return this.keptTraces.sum();
+	}
+
+	/**
+	 * Returns the number of discarded local traces.
+	 * @return dropped traces
+	 */
+	public long getDroppedTraces() {
+		return this.droppedTraces.sum();
+	}
+
+	/**
+	 * Returns the number of local traces decided early because they timed out or the
+	 * buffer was full.
+	 * @return evicted traces
+	 */
+	public long getEvictedTraces() {
+		return this.evictedTraces.sum();
+	}
+
+	private PendingTrace pending(long localRootId, long traceId, long now) {
+		PendingTrace trace = this.pending.get(localRootId);
+		if (trace != null) {
+			return trace;
+		}
+		return this.pending.computeIfAbsent(localRootId, id -> {
+			PendingTrace created = new PendingTrace(id, traceId, now);
+			this.created.add(created);
+			return created;
+		});
+	}
+
+	/**
+	 * Decides the timed out traces and the oldest ones while the buffer is over its
+	 * budget. Only one thread scans the buffer at a time, the others skip it.
+	 */
+	private List<PendingTrace> evict(long now) {
+		if (!shouldEvict(this.created.peek(), now) || !this.evicting.tryLock()) {
+			return Collections.emptyList();
+		}
+		List<PendingTrace> decided = Collections.emptyList();
+		try {
+			PendingTrace oldest = this.created.peek();
+			while (shouldEvict(oldest, now)) {
+				this.created.poll();
+				synchronized (oldest) {
+					if (!oldest.decided) {
+						this.evictedTraces.increment();
+						decide(oldest);
+						if (decided.isEmpty()) {
+							decided = new ArrayList<>();
+						}
+						decided.add(oldest);
+					}
+				}
+				oldest = this.created.peek();
+			}
+		}
+		finally {
+			this.evicting.unlock();
+		}
+		return decided;
+	}
+
+	private boolean shouldEvict(PendingTrace oldest, long now) {
+		return oldest != null && (oldest.decided || now - oldest.created >= this.timeoutNanos
+				|| this.bufferedBytes.sum() > this.maxBufferedBytes);
+	}
+
+	/**
+	 * Must be called holding the lock of the trace.
+	 */
+	private void decide(PendingTrace trace) {
+		this.bufferedBytes.add(-trace.size);
+		trace.keep = trace.interesting || (trace.traceId & Long.MAX_VALUE) < this.keepThreshold;
+		if (trace.keep) {
+			this.keptTraces.increment();
+		}
+		else {
+			this.droppedTraces.increment();
+		}
+		if (this.decisions.put(trace.localRootId, trace.keep) == null) {
+			this.decisionOrder.add(trace.localRootId);
+			if (this.decisions.size() > MAX_DECISIONS) {
+				Long eldest = this.decisionOrder.poll();
+				if (eldest != null) {
+					this.decisions.remove(eldest);
+				}
+			}
+		}
+		// the decision is visible before the trace leaves the buffer
+		trace.decided = true;
+		this.pending.remove(trace.localRootId, trace);
+	}
+
+	private void forward(List<PendingTrace> decided) {
+		for (PendingTrace trace : decided) {
+			if (trace.keep) {
+				for (int i = 0; i < trace.count; i++) {
+					this.delegate.end(trace.contexts[i], trace.spans[i], trace.causes[i]);
+				}
+			}
+			trace.release();
+		}
+	}
+
+	private boolean isInteresting(MutableSpan span) {
+		if (span.error() != null || span.tag("error") != null) {
+			return true;
+		}
+		long start = span.startTimestamp();
+		long finish = span.finishTimestamp();
+		return start != 0L && finish != 0L && finish - start >= this.latencyThresholdMicros;
+	}
+
+	private static long estimateSize(MutableSpan span) {
+		long chars = length(span.name()) + length(span.remoteServiceName()) + length(span.localServiceName());
+		for (int i = 0; i < span.tagCount(); i++) {
+			chars += length(span.tagKeyAt(i)) + length(span.tagValueAt(i));
+		}
+		for (int i = 0; i < span.annotationCount(); i++) {
+			chars += length(span.annotationValueAt(i));
+		}
+		return SPAN_OVERHEAD_BYTES + (span.tagCount() + span.annotationCount()) * ENTRY_OVERHEAD_BYTES + chars * 2;
+	}
+
+	private static int length(String value) {
+		return value != null ? value.length() : 0;
+	}
+
+	@Override
+	public String toString() {
+		return "TailSamplingSpanHandler{delegate=" + this.delegate + '}';
+	}
+
+	/**
+	 * Configures a {@link TailSamplingSpanHandler}.
+	 */
+	public static final class Builder {
+
+		private final SpanHandler delegate;
+
+		private Duration latencyThreshold = Duration.ofSeconds(1);
+
+		private float keepProbability = 0.1f;
+
+		private long maxBufferedBytes = 16 * 1024 * 1024;
+
+		private Duration timeout = Duration.ofSeconds(30);
+
+		private Clock clock = Clock.SYSTEM;
+
+		private Builder(SpanHandler delegate) {
+			Assert.notNull(delegate, "delegate must not be null");
+			this.delegate = delegate;
+		}
+
+		/**
+		 * Sets the latency over which a trace is always kept. Defaults to one second.
+		 * @param latencyThreshold latency threshold
+		 * @return this
+		 */
+		public Builder latencyThreshold(Duration latencyThreshold) {
+			Assert.notNull(latencyThreshold, "latencyThreshold must not be null");
+			this.latencyThreshold = latencyThreshold;
+			return this;
+		}
+
+		/**
+		 * Sets the probability of keeping a trace without errors or slow spans. Defaults
+		 * to {@code 0.1}.
+		 * @param keepProbability probability between {@code 0} and {@code 1}
+		 * @return this
+		 */
+		public Builder keepProbability(float keepProbability) {
+			Assert.isTrue(keepProbability >= 0.0f && keepProbability <= 1.0f,
+					"keepProbability should be between 0 and 1");
+			this.keepProbability = keepProbability;
+			return this;
+		}
+
+		/**
+		 * Sets the estimated number of bytes the buffered spans may hold. Defaults to
+		 * 16MB.
+		 * @param maxBufferedBytes maximum number of buffered bytes
+		 * @return this
+		 */
+		public Builder maxBufferedBytes(long maxBufferedBytes) {
+			Assert.isTrue(maxBufferedBytes >= 0, "maxBufferedBytes should not be negative");
+			this.maxBufferedBytes = maxBufferedBytes;
+			return this;
+		}
+
+		/**
+		 * Sets how long a local trace waits for its local root. Defaults to 30 seconds.
+		 * @param timeout timeout
+		 * @return this
+		 */
+		public Builder timeout(Duration timeout) {
+			Assert.notNull(timeout, "timeout must not be null");
+			this.timeout = timeout;
+			return this;
+		}
+
+		/**
+		 * Sets the clock measuring the timeouts.
+		 * @param clock clock
+		 * @return this
+		 */
+		public Builder clock(Clock clock) {
+			Assert.notNull(clock, "clock must not be null");
+			this.clock = clock;
+			return this;
+		}
+
+		/**
+		 * Builds the handler.
+		 * @return tail sampling span handler
+		 */
+		public TailSamplingSpanHandler build() {
+			return new TailSamplingSpanHandler(this);
+		}
+
+	}
+
+	/**
+	 * Spans of a local trace waiting for a decision, kept in parallel arrays.
+	 */
+	private final class PendingTrace {
+
+		private final long localRootId;
+
+		private final long traceId;
+
+		private final long created;
+
+		private TraceContext[] contexts = new TraceContext[4];
+
+		private MutableSpan[] spans = new MutableSpan[4];
+
+		private Cause[] causes = new Cause[4];
+
+		private int count;
+
+		private long size;
+
+		private long lastSize;
+
+		private boolean interesting;
+
+		private boolean keep;
+
+		private volatile boolean decided;
+
+		PendingTrace(long localRootId, long traceId, long created) {
+			this.localRootId = localRootId;
+			this.traceId = traceId;
+			this.created = created;
+		}
+
+		void add(TraceContext context, MutableSpan span, Cause cause) {
+			if (this.count == this.spans.length) {
+				int length = this.count * 2;
+				this.contexts = Arrays.copyOf(this.contexts, length);
+				this.spans = Arrays.copyOf(this.spans, length);
+				this.causes = Arrays.copyOf(this.causes, length);
+			}
+			this.contexts[this.count] = context;
+			this.spans[this.count] = span;
+			this.causes[this.count] = cause;
+			this.count++;
+			this.lastSize = estimateSize(span);
+			this.size += this.lastSize;
+			this.interesting |= isInteresting(span);
+		}
+
+		/**
+		 * Drops the spans once forwarded, the trace may stay queued until it gets to the
+		 * head of the creation order.
+		 */
+		void release() {
+			this.contexts = null;
+			this.spans = null;
+			this.causes = null;
+			this.count = 0;
+		}
+
+	}
+
+}
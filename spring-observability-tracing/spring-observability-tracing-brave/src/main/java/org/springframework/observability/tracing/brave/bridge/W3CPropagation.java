@@ -16,7 +16,7 @@
 
 package org.springframework.observability.tracing.brave.bridge;
 
-import java.util.AbstractMap;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -25,7 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 import brave.baggage.BaggageField;
 import brave.internal.baggage.BaggageFields;
@@ -91,28 +91,7 @@ class W3CPropagation extends Propagation.Factory implements Propagation<String>
 
 	private static final int TRACEPARENT_HEADER_SIZE = TRACE_OPTION_OFFSET + TRACE_OPTION_HEX_SIZE;
 
-	private static final String INVALID_TRACE_ID = "00000000000000000000000000000000";
-
-	private static final String INVALID_SPAN_ID = "0000000000000000";
-
-	// private static final char TRACESTATE_ENTRY_DELIMITER = ',';
-
-	private static final Set<String> VALID_VERSIONS;
-
-	private static final String VERSION_00 = "00";
-
-	static {
-		// A valid version is 1 byte representing an 8-bit unsigned integer, version ff is
-		// invalid.
-		VALID_VERSIONS = new HashSet<>();
-		for (int i = 0; i < 255; i++) {
-			String version = Long.toHexString(i);
-			if (version.length() < 2) {
-				version = '0' + version;
-			}
-			VALID_VERSIONS.add(version);
-		}
-	}
+	private static final int INVALID_VERSION = 0xff;
 
 	private final W3CBaggagePropagator baggagePropagator;
 
@@ -120,22 +99,14 @@ class W3CPropagation extends Propagation.Factory implements Propagation<String>
 		this.baggagePropagator = new W3CBaggagePropagator(braveBaggageManager, localFields);
 	}
 
-	private static boolean isTraceIdValid(CharSequence traceId) {
-		return (traceId.length() == TRACE_ID_HEX_SIZE) && !INVALID_TRACE_ID.contentEquals(traceId)
-				&& EncodingUtils.isValidBase16String(traceId);
-	}
-
-	private static boolean isSpanIdValid(String spanId) {
-		return (spanId.length() == SPAN_ID_HEX_SIZE) && !INVALID_SPAN_ID.equals(spanId)
-				&& EncodingUtils.isValidBase16String(spanId);
-	}
-
-	private static TraceContext extractContextFromTraceParent(String traceparent) {
-		// TODO(bdrutu): Do we need to verify that version is hex and that
-		// for the version the length is the expected one?
-		boolean isValid = (traceparent.length() == TRACEPARENT_HEADER_SIZE
-				|| (traceparent.length() > TRACEPARENT_HEADER_SIZE
-						&& traceparent.charAt(TRACEPARENT_HEADER_SIZE) == TRACEPARENT_DELIMITER))
+	/**
+	 * Parses the {@code traceparent} header in place: every field is validated and
+	 * decoded by its index, so no substrings are taken.
+	 */
+	private static TraceContext extractContextFromTraceParent(CharSequence traceparent) {
+		int length = traceparent.length();
+		boolean isValid = (length == TRACEPARENT_HEADER_SIZE || (length > TRACEPARENT_HEADER_SIZE
+				&& traceparent.charAt(TRACEPARENT_HEADER_SIZE) == TRACEPARENT_DELIMITER))
 				&& traceparent.charAt(TRACE_ID_OFFSET - 1) == TRACEPARENT_DELIMITER
 				&& traceparent.charAt(SPAN_ID_OFFSET - 1) == TRACEPARENT_DELIMITER
 				&& traceparent.charAt(TRACE_OPTION_OFFSET - 1) == TRACEPARENT_DELIMITER;
@@ -145,27 +116,31 @@ class W3CPropagation extends Propagation.Factory implements Propagation<String>
 		}
 
 		try {
-			String version = traceparent.substring(0, 2);
-			if (!VALID_VERSIONS.contains(version)) {
+			// the version is one hex encoded byte, ff is not a valid version
+			if (!EncodingUtils.isValidBase16String(traceparent, 0, VERSION_SIZE)) {
 				return null;
 			}
-			if (version.equals(VERSION_00) && traceparent.length() > TRACEPARENT_HEADER_SIZE) {
+			int version = EncodingUtils.byteFromBase16String(traceparent, 0) & 0xFF;
+			if (version == INVALID_VERSION) {
 				return null;
 			}
-
-			String traceId = traceparent.substring(TRACE_ID_OFFSET, TRACE_ID_OFFSET + TRACE_ID_HEX_SIZE);
-			String spanId = traceparent.substring(SPAN_ID_OFFSET, SPAN_ID_OFFSET + SPAN_ID_HEX_SIZE);
-			if (isTraceIdValid(traceId) && isSpanIdValid(spanId)) {
-				String traceIdHigh = traceId.substring(0, traceId.length() / 2);
-				String traceIdLow = traceId.substring(traceId.length() / 2);
-				byte isSampled = TraceFlags.byteFromHex(traceparent, TRACE_OPTION_OFFSET);
-				return TraceContext.newBuilder().shared(true)
-						.traceIdHigh(EncodingUtils.longFromBase16String(traceIdHigh))
-						.traceId(EncodingUtils.longFromBase16String(traceIdLow))
-						.spanId(EncodingUtils.longFromBase16String(spanId)).sampled(isSampled == TraceFlags.IS_SAMPLED)
-						.build();
+			if (version == 0 && length > TRACEPARENT_HEADER_SIZE) {
+				return null;
 			}
-			return null;
+			if (!EncodingUtils.isValidBase16String(traceparent, TRACE_ID_OFFSET, TRACE_ID_OFFSET + TRACE_ID_HEX_SIZE)
+					|| !EncodingUtils.isValidBase16String(traceparent, SPAN_ID_OFFSET,
+							SPAN_ID_OFFSET + SPAN_ID_HEX_SIZE)) {
+				return null;
+			}
+			long traceIdHigh = EncodingUtils.longFromBase16String(traceparent, TRACE_ID_OFFSET);
+			long traceIdLow = EncodingUtils.longFromBase16String(traceparent, TRACE_ID_OFFSET + LONG_BASE16);
+			long spanId = EncodingUtils.longFromBase16String(traceparent, SPAN_ID_OFFSET);
+			if ((traceIdHigh == 0L && traceIdLow == 0L) || spanId == 0L) {
+				return null;
+			}
+			byte isSampled = TraceFlags.byteFromHex(traceparent, TRACE_OPTION_OFFSET);
+			return TraceContext.newBuilder().shared(true).traceIdHigh(traceIdHigh).traceId(traceIdLow).spanId(spanId)
+					.sampled(isSampled == TraceFlags.IS_SAMPLED).build();
 		}
 		catch (IllegalArgumentException e) {
 			log.info("Unparseable traceparent header. Returning INVALID span context.");
@@ -192,37 +167,21 @@ class W3CPropagation extends Propagation.Factory implements Propagation<String>
 			chars[0] = VERSION.charAt(0);
 			chars[1] = VERSION.charAt(1);
 			chars[2] = TRACEPARENT_DELIMITER;
-			String traceId = padLeftWithZeros(context.traceIdString(), TRACE_ID_HEX_SIZE);
-			for (int i = 0; i < traceId.length(); i++) {
-				chars[TRACE_ID_OFFSET + i] = traceId.charAt(i);
-			}
+			EncodingUtils.toBase16(context.traceIdHigh(), context.traceId(), chars, TRACE_ID_OFFSET);
 			chars[SPAN_ID_OFFSET - 1] = TRACEPARENT_DELIMITER;
-			String spanId = context.spanIdString();
-			for (int i = 0; i < spanId.length(); i++) {
-				chars[SPAN_ID_OFFSET + i] = spanId.charAt(i);
-			}
+			EncodingUtils.longToBase16String(context.spanId(), chars, SPAN_ID_OFFSET);
 			chars[TRACE_OPTION_OFFSET - 1] = TRACEPARENT_DELIMITER;
 			copyTraceFlagsHexTo(chars, TRACE_OPTION_OFFSET, context);
 			setter.put(carrier, TRACE_PARENT, new String(chars, 0, TRACEPARENT_HEADER_SIZE));
+			W3CTraceState traceState = context.findExtra(W3CTraceState.class);
+			if (traceState != null && !traceState.isEmpty()) {
+				setter.put(carrier, TRACE_STATE, traceState.toString());
+			}
 			// Add baggage
 			this.baggagePropagator.injector(setter).inject(context, carrier);
 		};
 	}
 
-	private String padLeftWithZeros(String string, int length) {
-		if (string.length() >= length) {
-			return string;
-		}
-		else {
-			StringBuilder sb = new StringBuilder(length);
-			for (int i = string.length(); i < length; i++) {
-				sb.append('0');
-			}
-
-			return sb.append(string).toString();
-		}
-	}
-
 	void copyTraceFlagsHexTo(char[] dest, int destOffset, TraceContext context) {
 		dest[destOffset] = '0';
 		dest[destOffset + 1] = Boolean.TRUE.equals(context.sampled()) ? '1' : '0';
@@ -254,41 +213,51 @@ class W3CPropagation extends Propagation.Factory implements Propagation<String>
 	}
 
 	TraceContextOrSamplingFlags context(TraceContext contextFromParentHeader, String traceStateHeader) {
-		if (traceStateHeader == null || traceStateHeader.isEmpty()) {
-			return TraceContextOrSamplingFlags.create(contextFromParentHeader);
-		}
-		try {
-			return TraceContextOrSamplingFlags
-					.create(TraceContext.newBuilder().traceId(contextFromParentHeader.traceId())
-							.traceIdHigh(contextFromParentHeader.traceIdHigh()).spanId(contextFromParentHeader.spanId())
-							.sampled(contextFromParentHeader.sampled()).shared(true).build());
-		}
-		catch (IllegalArgumentException e) {
-			log.info("Unparseable tracestate header. Returning span context without state.");
+		W3CTraceState traceState = W3CTraceState.fromHeader(traceStateHeader);
+		if (traceState == null) {
 			return TraceContextOrSamplingFlags.create(contextFromParentHeader);
 		}
+		// the state stays unparsed until a vendor entry is read or changed
+		return TraceContextOrSamplingFlags.create(contextFromParentHeader.toBuilder().addExtra(traceState).build());
 	}
 
 }
 
 /**
  * Taken from OpenTelemetry API.
+ *
+ * The {@code baggage} header is read and written in a single pass over its characters.
+ * Extraction trims optional white space, drops entry metadata and percent-decodes values.
+ * Brave field factories are cached per distinct set of keys, and the encoded header is
+ * reused as long as the propagated values don't change.
  */
 class W3CBaggagePropagator {
 
 	private static final LogAccessor log = new LogAccessor(W3CBaggagePropagator.class);
 
-	private static final String FIELD = "baggage";
+	static final String FIELD = "baggage";
 
 	private static final List<String> FIELDS = singletonList(FIELD);
 
+	private static final int MAX_CACHED_FACTORIES = 128;
+
+	private static final char ENTRY_DELIMITER = ',';
+
+	private static final char KEY_VALUE_DELIMITER = '=';
+
+	private static final char METADATA_DELIMITER = ';';
+
+	private static final char PERCENT = '%';
+
 	private final BraveBaggageManager braveBaggageManager;
 
-	private final List<String> localFields;
+	private final Set<String> localFields;
+
+	private final Map<List<String>, FieldsFactory> factories = new ConcurrentHashMap<>();
 
 	W3CBaggagePropagator(BraveBaggageManager braveBaggageManager, List<String> localFields) {
 		this.braveBaggageManager = braveBaggageManager;
-		this.localFields = localFields;
+		this.localFields = new HashSet<>(localFields);
 	}
 
 	public List<String> keys() {
@@ -298,29 +267,48 @@ class W3CBaggagePropagator {
 	public <R> TraceContext.Injector<R> injector(Propagation.Setter<R, String> setter) {
 		return (context, carrier) -> {
 			BaggageFields extra = context.findExtra(BaggageFields.class);
-			if (extra == null || extra.getAllFields().isEmpty()) {
+			if (extra == null) {
 				return;
 			}
-			StringBuilder headerContent = new StringBuilder();
-			// We ignore local keys - they won't get propagated
-			String[] strings = this.localFields.toArray(new String[0]);
-			Map<String, String> filtered = extra.toMapFilteringFieldNames(strings);
-			for (Map.Entry<String, String> entry : filtered.entrySet()) {
-				headerContent.append(entry.getKey()).append("=").append(entry.getValue());
-				// TODO: [OTEL] No metadata support
-				// String metadataValue = entry.getEntryMetadata().getValue();
-				// if (metadataValue != null && !metadataValue.isEmpty()) {
-				// headerContent.append(";").append(metadataValue);
-				// }
-				headerContent.append(",");
+			List<BaggageField> fields = extra.getAllFields();
+			if (fields.isEmpty()) {
+				return;
 			}
-			if (headerContent.length() > 0) {
-				headerContent.setLength(headerContent.length() - 1);
-				setter.put(carrier, FIELD, headerContent.toString());
+			String header = encode(extra, fields);
+			if (header != null) {
+				setter.put(carrier, FIELD, header);
 			}
 		};
 	}
 
+	/**
+	 * Returns the header for the propagated (non-local) values, or {@code null} if there
+	 * are none.
+	 */
+	private String encode(BaggageFields extra, List<BaggageField> fields) {
+		StringBuilder header = null;
+		for (int i = 0; i < fields.size(); i++) {
+			BaggageField field = fields.get(i);
+			if (this.localFields.contains(field.name())) {
+				continue;
+			}
+			String value = extra.getValue(field);
+			if (value == null) {
+				continue;
+			}
+			if (header == null) {
+				header = new StringBuilder();
+			}
+			else {
+				header.append(ENTRY_DELIMITER);
+			}
+			// TODO: [OTEL] No metadata support, a value may carry its own metadata
+			header.append(field.name()).append(KEY_VALUE_DELIMITER);
+			appendEncoded(header, value);
+		}
+		return header != null ? header.toString() : null;
+	}
+
 	<R> TraceContextOrSamplingFlags contextWithBaggage(R carrier, TraceContextOrSamplingFlags context,
 			Propagation.Getter<R, String> getter) {
 		String baggageHeader = getter.get(carrier, FIELD);
@@ -330,46 +318,210 @@ class W3CBaggagePropagator {
 		if (baggageHeader.isEmpty()) {
 			return context;
 		}
-		TraceContextOrSamplingFlags.Builder builder = context.toBuilder();
-		List<AbstractMap.SimpleEntry<BaggageField, String>> pairs = addBaggageToContext(baggageHeader, builder);
-		TraceContextOrSamplingFlags built = builder.build();
-		pairs.forEach(e -> {
-			BaggageField baggage = e.getKey();
-			baggage.updateValue(built, e.getValue());
-		});
+		List<String> names = new ArrayList<>();
+		List<String> values = new ArrayList<>();
+		parse(baggageHeader, names, values);
+		if (names.isEmpty()) {
+			return context;
+		}
+		FieldsFactory factory = factory(names);
+		if (factory == null) {
+			return context;
+		}
+		TraceContextOrSamplingFlags built = context.toBuilder().addExtra(factory.factory.create()).build();
+		for (int i = 0; i < factory.fields.size(); i++) {
+			BaggageField field = factory.fields.get(i);
+			if (field != null) {
+				field.updateValue(built, values.get(i));
+			}
+		}
 		return built;
 	}
 
-	List<AbstractMap.SimpleEntry<BaggageField, String>> addBaggageToContext(String baggageHeader,
-			TraceContextOrSamplingFlags.Builder builder) {
-		List<AbstractMap.SimpleEntry<BaggageField, String>> pairs = new ArrayList<>();
-		String[] entries = baggageHeader.split(",");
-		for (String entry : entries) {
-			int beginningOfMetadata = entry.indexOf(";");
-			if (beginningOfMetadata > 0) {
-				entry = entry.substring(0, beginningOfMetadata);
+	/**
+	 * Scans the header once. Entries are separated by {@code ,}, each entry is
+	 * {@code key OWS = OWS value OWS [; metadata]}. Malformed entries are skipped and a
+	 * repeated key keeps its last value.
+	 */
+	static void parse(String header, List<String> names, List<String> values) {
+		int length = header.length();
+		int entryStart = 0;
+		int keyValueDelimiter = -1;
+		int metadataDelimiter = -1;
+		for (int i = 0; i <= length; i++) {
+			char c = i < length ? header.charAt(i) : ENTRY_DELIMITER;
+			if (c == KEY_VALUE_DELIMITER && keyValueDelimiter < 0 && metadataDelimiter < 0) {
+				keyValueDelimiter = i;
 			}
-			String[] keyAndValue = entry.split("=");
-			for (int i = 0; i < keyAndValue.length; i += 2) {
-				try {
-					String key = keyAndValue[i].trim();
-					String value = keyAndValue[i + 1].trim();
-					BaggageInScope baggage = this.braveBaggageManager.createBaggage(key);
-					BaggageField field = ((BraveBaggageInScope) baggage).unwrap();
-					pairs.add(new AbstractMap.SimpleEntry<>(field, value));
-				}
-				catch (Exception e) {
-					log.debug(e, () -> "Exception occurred while trying to parse baggage with key value ["
-							+ Arrays.toString(keyAndValue) + "]. Will ignore that entry.");
-				}
+			else if (c == METADATA_DELIMITER && metadataDelimiter < 0) {
+				metadataDelimiter = i;
+			}
+			else if (c == ENTRY_DELIMITER) {
+				addEntry(header, entryStart, keyValueDelimiter, metadataDelimiter < 0 ? i : metadataDelimiter, names,
+						values);
+				entryStart = i + 1;
+				keyValueDelimiter = -1;
+				metadataDelimiter = -1;
 			}
 		}
+	}
+
+	private static void addEntry(String header, int start, int keyValueDelimiter, int end, List<String> names,
+			List<String> values) {
+		if (keyValueDelimiter < 0) {
+			if (trimStart(header, start, end) < trimEnd(header, start, end)) {
+				log.debug(() -> "Baggage entry [" + header.substring(start, end)
+						+ "] has no key value delimiter. Will ignore that entry.");
+			}
+			return;
+		}
+		int keyStart = trimStart(header, start, keyValueDelimiter);
+		int keyEnd = trimEnd(header, keyStart, keyValueDelimiter);
+		if (keyStart == keyEnd) {
+			log.debug(() -> "Baggage entry [" + header.substring(start, end) + "] has no key. Will ignore that entry.");
+			return;
+		}
+		int valueStart = trimStart(header, keyValueDelimiter + 1, end);
+		int valueEnd = trimEnd(header, valueStart, end);
+		String key = header.substring(keyStart, keyEnd);
+		String value = decode(header, valueStart, valueEnd);
+		int existing = names.indexOf(key);
+		if (existing >= 0) {
+			values.set(existing, value);
+		}
+		else {
+			names.add(key);
+			values.add(value);
+		}
+	}
+
+	private FieldsFactory factory(List<String> names) {
+		FieldsFactory factory = this.factories.get(names);
+		if (factory != null) {
+			return factory;
+		}
+		// aligned with the names, null for the entries that are skipped
+		List<BaggageField> fields = new ArrayList<>(names.size());
+		List<BaggageField> created = new ArrayList<>(names.size());
+		for (String name : names) {
+			BaggageField field = null;
+			try {
+				BaggageInScope baggage = this.braveBaggageManager.createBaggage(name);
+				field = ((BraveBaggageInScope) baggage).unwrap();
+				created.add(field);
+			}
+			catch (Exception e) {
+				log.debug(e, () -> "Exception occurred while trying to create baggage with key [" + name
+						+ "]. Will ignore that entry.");
+			}
+			fields.add(field);
+		}
+		if (created.isEmpty()) {
+			return null;
+		}
 		// TODO: [OTEL] Magic number for max dynamic entries
-		builder.addExtra(BaggageFields
-				.newFactory(pairs.stream().map(AbstractMap.SimpleEntry::getKey).collect(Collectors.toList()),
-						pairs.size() * 2)
-				.create());
-		return pairs;
+		factory = new FieldsFactory(fields, BaggageFields.newFactory(created, created.size() * 2));
+		if (this.factories.size() < MAX_CACHED_FACTORIES) {
+			this.factories.putIfAbsent(names, factory);
+		}
+		return factory;
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t';
+	}
+
+	private static int trimStart(String header, int start, int end) {
+		while (start < end && isWhitespace(header.charAt(start))) {
+			start++;
+		}
+		return start;
+	}
+
+	private static int trimEnd(String header, int start, int end) {
+		while (end > start && isWhitespace(header.charAt(end - 1))) {
+			end--;
+		}
+		return end;
+	}
+
+	/**
+	 * Percent-decodes the given region as UTF-8. Invalid escapes are kept as they are.
+	 */
+	static String decode(String header, int start, int end) {
+		int percent = header.indexOf(PERCENT, start);
+		if (percent < 0 || percent >= end) {
+			return header.substring(start, end);
+		}
+		byte[] bytes = new byte[(end - start) * 3];
+		int length = 0;
+		for (int i = start; i < end; i++) {
+			char c = header.charAt(i);
+			int hi = c == PERCENT && i + 2 < end ? Character.digit(header.charAt(i + 1), 16) : -1;
+			int lo = hi >= 0 ? Character.digit(header.charAt(i + 2), 16) : -1;
+			if (lo >= 0) {
+				bytes[length++] = (byte) (hi << 4 | lo);
+				i += 2;
+			}
+			else if (c < 0x80) {
+				bytes[length++] = (byte) c;
+			}
+			else {
+				// a surrogate pair is encoded as one code point
+				int codePoint = header.codePointAt(i);
+				int chars = Character.charCount(codePoint);
+				byte[] encoded = header.substring(i, Math.min(i + chars, end)).getBytes(StandardCharsets.UTF_8);
+				System.arraycopy(encoded, 0, bytes, length, encoded.length);
+				length += encoded.length;
+				i += chars - 1;
+			}
+		}
+		return new String(bytes, 0, length, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Appends the value, percent-encoding characters that would break the header: the
+	 * entry delimiter, {@code %}, control characters and non-ASCII characters.
+	 */
+	static void appendEncoded(StringBuilder header, String value) {
+		int i = 0;
+		while (i < value.length() && !needsEncoding(value.charAt(i))) {
+			i++;
+		}
+		if (i == value.length()) {
+			header.append(value);
+			return;
+		}
+		header.append(value, 0, i);
+		byte[] bytes = value.substring(i).getBytes(StandardCharsets.UTF_8);
+		char[] hex = new char[2];
+		for (byte b : bytes) {
+			char c = (char) (b & 0xFF);
+			if (needsEncoding(c)) {
+				EncodingUtils.byteToBase16(b, hex, 0);
+				header.append(PERCENT).append(Character.toUpperCase(hex[0])).append(Character.toUpperCase(hex[1]));
+			}
+			else {
+				header.append(c);
+			}
+		}
+	}
+
+	private static boolean needsEncoding(char c) {
+		return c <= 0x20 && c != ' ' || c >= 0x7F || c == ENTRY_DELIMITER || c == PERCENT || c == '"' || c == '\\';
+	}
+
+	private static final class FieldsFactory {
+
+		final List<BaggageField> fields;
+
+		final BaggageFields.Factory factory;
+
+		FieldsFactory(List<BaggageField> fields, BaggageFields.Factory factory) {
+			this.fields = fields;
+			this.factory = factory;
+		}
+
 	}
 
 }
@@ -0,0 +1,372 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.brave.bridge;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.lang.Nullable;
+import org.springframework.observability.tracing.TraceContext;
+
+/**
+ * The W3C {@code tracestate} of a trace, carried as an extra of the Brave trace context.
+ * The header is kept as the opaque string it was received as and is only parsed when a
+ * vendor entry is read or changed, so a request that just passes it on never parses it.
+ * An unmodified state is propagated exactly as received.
+ *
+ * The state is immutable since Brave shares the extras of a context with all its child
+ * contexts. {@link #put(String, String)} and {@link #remove(String)} return a new state
+ * that is installed on a copy of a context with {@link #applyTo(TraceContext)}, so
+ * changing the entry of one outgoing call doesn't change what the parent and the sibling
+ * calls of the same trace send.
+ *
+ * The W3C limits are enforced: a state with more than {@value #MAX_ENTRIES} entries is
+ * discarded, and a state longer than {@value #MAX_LENGTH} characters is truncated by
+ * dropping entries longer than 128 characters first and then the oldest entries.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public final class W3CTraceState {
+
+	static final int MAX_ENTRIES = 32;
+
+	static final int MAX_LENGTH = 512;
+
+	private static final int MAX_KEY_LENGTH = 256;
+
+	private static final int MAX_VALUE_LENGTH = 256;
+
+	private static final int LARGE_ENTRY_LENGTH = 128;
+
+	// "k=v" entries joined by commas, shorter headers can't exceed MAX_ENTRIES
+	private static final int MIN_LENGTH_OVER_MAX_ENTRIES = (MAX_ENTRIES + 1) * 4 - 1;
+
+	private static final char ENTRY_DELIMITER = ',';
+
+	private static final char KEY_VALUE_DELIMITER = '=';
+
+	@Nullable
+	private String header;
+
+	@Nullable
+	private List<String> keys;
+
+	@Nullable
+	private List<String> values;
+
+	private W3CTraceState(String header) {
+		this.header = header;
+	}
+
+	private W3CTraceState(List<String> keys, List<String> values) {
+		this.keys = keys;
+		this.values = values;
+	}
+
+	/**
+	 * Creates the state from a received {@code tracestate} header. Only headers long
+	 * enough to break the W3C limits are looked at here.
+	 * @param header received header
+	 * @return trace state or {@code null} if the header is missing or empty
+	 */
+	@Nullable
+	static W3CTraceState fromHeader(@Nullable String header) {
+		if (header == null || header.isEmpty()) {
+			return null;
+		}
+		W3CTraceState state = new W3CTraceState(header);
+		if (header.length() > MAX_LENGTH
+				|| (header.length() >= MIN_LENGTH_OVER_MAX_ENTRIES && countEntries(header) > MAX_ENTRIES)) {
+			state.parse();
+		}
+		return state;
+	}
+
+	/**
+	 * Returns the trace state of the given context.
+	 * @param context trace context
+	 * @return trace state or {@code null} if the context carries none
+	 */
+	@Nullable
+	public static W3CTraceState find(TraceContext context) {
+		if (!(context instanceof BraveTraceContext)) {
+			return null;
+		}
+		return BraveTraceContext.toBrave(context).findExtra(W3CTraceState.class);
+	}
+
+	/**
+	 * Returns the value of a vendor entry.
+	 * @param key vendor key
+	 * @return value or {@code null} if there is no such entry
+	 */
+	@Nullable
+	public synchronized String get(String key) {
+		parse();
+		int index = this.keys.indexOf(key);
+		return index >= 0 ? this.values.get(index) : null;
+	}
+
+	/**
+	 * Returns a state with the vendor entry added or updated and moved to the front, as
+	 * the W3C specification requires for the entry of the vendor that modified the trace.
+	 * @param key vendor key, lowercase letters, digits and {@code _-*}{@code /@}
+	 * @param value printable ASCII without {@code ,} and {@code =}
+	 * @return the new state or this one if the entry is already the first one
+	 * @throws IllegalArgumentException if the key or value is invalid
+	 */
+	public synchronized W3CTraceState put(String key, String value) {
+		if (!isValidKey(key)) {
+			throw new IllegalArgumentException("Invalid tracestate key [" + key + "]");
+		}
+		if (!isValidValue(value)) {
+			throw new IllegalArgumentException("Invalid tracestate value [" + value + "]");
+		}
+		parse();
+		int index = this.keys.indexOf(key);
+		if (index == 0 && this.values.get(0).equals(value)) {
+			return this;
+		}
+		W3CTraceState state = copy();
+		if (index >= 0) {
+			state.keys.remove(index);
+			state.values.remove(index);
+		}
+		state.keys.add(0, key);
+		state.values.add(0, value);
+		state.truncate();
+		return state;
+	}
+
+	/**
+	 * Returns a state without the given vendor entry.
+	 * @param key vendor key
+	 * @return the new state or this one if there is no such entry
+	 */
+	public synchronized W3CTraceState remove(String key) {
+		parse();
+		int index = this.keys.indexOf(key);
+		if (index < 0) {
+			return this;
+		}
+		W3CTraceState state = copy();
+		state.keys.remove(index);
+		state.values.remove(index);
+		return state;
+	}
+
+	/**
+	 * Returns a copy of the given context that carries this state instead of the one of
+	 * the context. Use it as the parent of the spans that should propagate this state.
+	 * @param context trace context
+	 * @return context with this state
+	 */
+	public TraceContext applyTo(TraceContext context) {
+		brave.propagation.TraceContext braveContext = BraveTraceContext.toBrave(context);
+		if (braveContext.findExtra(W3CTraceState.class) == this) {
+			return context;
+		}
+		brave.propagation.TraceContext.Builder builder = braveContext.toBuilder().clearExtra();
+		for (Object extra : braveContext.extra()) {
+			if (!(extra instanceof W3CTraceState)) {
+				builder.addExtra(extra);
+			}
+		}
+		return BraveTraceContext.fromBrave(builder.addExtra(this).build());
+	}
+
+	/**
+	 * Returns whether there are no entries to propagate.
+	 * @return {@code true} if the header would be empty
+	 */
+	public synchronized boolean isEmpty() {
+		return toString().isEmpty();
+	}
+
+	/**
+	 * Returns the {@code tracestate} header. That is the received header when nothing was
+	 * changed.
+	 * @return header value
+	 */
+	@Override
+	public synchronized String toString() {
+		if (this.header == null) {
+			StringBuilder builder = new StringBuilder();
+			for (int i = 0; i < this.keys.size(); i++) {
+				if (i > 0) {
+					builder.append(ENTRY_DELIMITER);
+				}
+				builder.append(this.keys.get(i)).append(KEY_VALUE_DELIMITER).append(this.values.get(i));
+			}
+			this.header = builder.toString();
+		}
+		return this.header;
+	}
+
+	private W3CTraceState copy() {
+		return new W3CTraceState(new ArrayList<>(this.keys), new ArrayList<>(this.values));
+	}
+
+	private void parse() {
+		if (this.keys != null) {
+			return;
+		}
+		this.keys = new ArrayList<>();
+		this.values = new ArrayList<>();
+		String header = this.header;
+		int length = header.length();
+		int start = 0;
+		while (start <= length) {
+			int end = header.indexOf(ENTRY_DELIMITER, start);
+			if (end < 0) {
+				end = length;
+			}
+			if (!parseEntry(header, start, end)) {
+				discard();
+				return;
+			}
+			start = end + 1;
+		}
+		if (this.keys.size() > MAX_ENTRIES) {
+			discard();
+			return;
+		}
+		if (length > MAX_LENGTH) {
+			this.header = null;
+			truncate();
+		}
+	}
+
+	private boolean parseEntry(String header, int start, int end) {
+		while (start < end && isWhitespace(header.charAt(start))) {
+			start++;
+		}
+		while (end > start && isWhitespace(header.charAt(end - 1))) {
+			end--;
+		}
+		if (start == end) {
+			// empty list members are allowed
+			return true;
+		}
+		int delimiter = header.indexOf(KEY_VALUE_DELIMITER, start);
+		if (delimiter < 0 || delimiter >= end) {
+			return false;
+		}
+		String key = header.substring(start, delimiter);
+		String value = header.substring(delimiter + 1, end);
+		if (!isValidKey(key) || !isValidValue(value) || this.keys.contains(key)) {
+			return false;
+		}
+		this.keys.add(key);
+		this.values.add(value);
+		return true;
+	}
+
+	private void discard() {
+		this.keys.clear();
+		this.values.clear();
+		this.header = "";
+	}
+
+	private void truncate() {
+		while (this.keys.size() > MAX_ENTRIES) {
+			removeLast();
+		}
+		int length = encodedLength();
+		while (length > MAX_LENGTH) {
+			int index = lastLargeEntry();
+			if (index < 0) {
+				index = this.keys.size() - 1;
+			}
+			length -= entryLength(index) + (this.keys.size() > 1 ? 1 : 0);
+			this.keys.remove(index);
+			this.values.remove(index);
+		}
+	}
+
+	private void removeLast() {
+		this.keys.remove(this.keys.size() - 1);
+		this.values.remove(this.values.size() - 1);
+	}
+
+	private int lastLargeEntry() {
+		for (int i = this.keys.size() - 1; i >= 0; i--) {
+			if (entryLength(i) > LARGE_ENTRY_LENGTH) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private int encodedLength() {
+		int length = Math.max(0, this.keys.size() - 1);
+		for (int i = 0; i < this.keys.size(); i++) {
+			length += entryLength(i);
+		}
+		return length;
+	}
+
+	private int entryLength(int index) {
+		return this.keys.get(index).length() + 1 + this.values.get(index).length();
+	}
+
+	private static int countEntries(String header) {
+		int count = 1;
+		for (int i = header.indexOf(ENTRY_DELIMITER); i >= 0; i = header.indexOf(ENTRY_DELIMITER, i + 1)) {
+			count++;
+		}
+		return count;
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t';
+	}
+
+	private static boolean isValidKey(String key) {
+		if (key == null || key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+			return false;
+		}
+		char first = key.charAt(0);
+		if (!((first >= 'a' && first <= 'z') || (first >= '0' && first <= '9'))) {
+			return false;
+		}
+		for (int i = 1; i < key.length(); i++) {
+			char c = key.charAt(i);
+			if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '-' || c == '*' || c == '/'
+					|| c == '@')) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isValidValue(String value) {
+		if (value == null || value.isEmpty() || value.length() > MAX_VALUE_LENGTH
+				|| value.charAt(value.length() - 1) == ' ') {
+			return false;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < 0x20 || c > 0x7E || c == ENTRY_DELIMITER || c == KEY_VALUE_DELIMITER) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.brave.sampler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.lang.Nullable;
+import org.springframework.observability.time.Clock;
+import org.springframework.observability.tracing.SamplerFunction;
+import org.springframework.observability.transport.http.HttpRequest;
+import org.springframework.observability.transport.http.PathTemplatizer;
+import org.springframework.util.Assert;
+
+/**
+ * Samples new traces aiming at a given number of traces per second for each endpoint.
+ * Requests are counted per endpoint on striped counters, and at the end of every window
+ * the probability of the endpoint is re-tuned from the observed request rate, so busy
+ * endpoints are sampled less during traffic peaks while quiet ones keep being sampled. A
+ * floor guarantees a minimum number of sampled traces per window for rare endpoints.
+ * Before its rate is known, during its first window, an endpoint is sampled until the
+ * targeted number of traces for the window is reached.
+ *
+ * <p>
+ * An endpoint is the HTTP method with the route of the request or, when the
+ * instrumentation doesn't know the route, the path turned into a template by a
+ * {@link PathTemplatizer}. Endpoints over the configured maximum share one state. The
+ * current state of the endpoints can be read with {@link #getEndpoints()}, e.g. to
+ * register it as gauges.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public final class AdaptiveHttpSampler implements SamplerFunction<HttpRequest> {
+
+	/**
+	 * Name of the endpoint shared by the endpoints over the maximum.
+	 */
+	public static final String OTHER_ENDPOINT = "other";
+
+	private final double tracesPerSecond;
+
+	private final int minTracesPerWindow;
+
+	private final long windowNanos;
+
+	private final long firstWindowTraces;
+
+	private final int maxEndpoints;
+
+	private final Clock clock;
+
+	private final PathTemplatizer pathTemplatizer;
+
+	/**
+	 * Endpoints by HTTP method and then by route or path template, an empty template
+	 * standing for requests without a path.
+	 */
+	private final Map<String, Map<String, Endpoint>> endpoints = new ConcurrentHashMap<>();
+
+	private final AtomicInteger endpointCount = new AtomicInteger();
+
+	private final Endpoint other;
+
+	private AdaptiveHttpSampler(Builder builder) {
+		this.tracesPerSecond = builder.tracesPerSecond;
+		this.minTracesPerWindow = builder.minTracesPerWindow;
+		this.windowNanos = builder.window.toNanos();
+		this.firstWindowTraces = Math.max(this.minTracesPerWindow,
+				(long) Math.ceil(this.tracesPerSecond * this.windowNanos / 1e9));
+		this.maxEndpoints = builder.maxEndpoints;
+		this.clock = builder.clock;
+		this.pathTemplatizer = builder.pathTemplatizer;
+		this.other = new Endpoint(OTHER_ENDPOINT, this.clock.monotonicTime());
+	}
+
+	/**
+	 * Creates a builder of a sampler targeting the given number of traces per second for
+	 * each endpoint.
+	 * @param tracesPerSecond targeted number of traces per second and endpoint
+	 * @return builder
+	 */
+	public static Builder builder(int tracesPerSecond) {
+		return new Builder(tracesPerSecond);
+	}
+
+	@Override
+	@Nullable
+	public Boolean trySample(@Nullable HttpRequest request) {
+		if (request == null) {
+			return null;
+		}
+		long now = this.clock.monotonicTime();
+		return endpoint(request, now).isSampled(now);
+	}
+
+	private Endpoint endpoint(HttpRequest request, long now) {
+		String route = request.route();
+		String method = request.method() != null ? request.method() : "";
+		String template = route != null && !route.isEmpty() ? route : this.pathTemplatizer.templatize(request.path());
+		String key = template != null ? template : "";
+		Map<String, Endpoint> templates = this.endpoints.get(method);
+		Endpoint endpoint = templates != null ? templates.get(key) : null;
+		if (endpoint != null) {
+			return endpoint;
+		}
+		if (this.endpointCount.get() >= this.maxEndpoints) {
+			return this.other;
+		}
+		if (templates == null) {
+			templates = this.endpoints.computeIfAbsent(method, m -> new ConcurrentHashMap<>());
+		}
+		return templates.computeIfAbsent(key, t -> {
+			this.endpointCount.incrementAndGet();
+			return new Endpoint(template != null ? method + " " + template : method, now);
+		});
+	}
+
+	/**
+	 * Returns the current state of the endpoints seen so far.
+	 * @return state of the endpoints
+	 */
+	public List<EndpointState> getEndpoints() {
+		List<EndpointState> states = new ArrayList<>(this.endpointCount.get() + 1);
+		this.endpoints.values()
+				.forEach(templates -> templates.values().forEach(endpoint -> states.add(endpoint.state())));
+		if (this.endpointCount.get() >= this.maxEndpoints) {
+			states.add(this.other.state());
+		}
+		return states;
+	}
+
+	/**
+	 * Configures an {@link AdaptiveHttpSampler}.
+	 */
+	public static final class Builder {
+
+		private final int tracesPerSecond;
+
+		private int minTracesPerWindow = 1;
+
+		private Duration window = Duration.ofSeconds(1);
+
+		private int maxEndpoints = 500;
+
+		private Clock clock = Clock.SYSTEM;
+
+		private PathTemplatizer pathTemplatizer = new PathTemplatizer();
+
+		private Builder(int tracesPerSecond) {
+			Assert.isTrue(tracesPerSecond > 0, "tracesPerSecond should be positive");
+			this.tracesPerSecond = tracesPerSecond;
+		}
+
+		/**
+		 * Sets the minimum number of traces sampled per window for each endpoint.
+		 * Defaults to {@code 1}.
+		 * @param minTracesPerWindow minimum number of traces per window
+		 * @return this
+		 */
+		public Builder minTracesPerWindow(int minTracesPerWindow) {
+			Assert.isTrue(minTracesPerWindow >= 0, "minTracesPerWindow should not be negative");
+			this.minTracesPerWindow = minTracesPerWindow;
+			return this;
+		}
+
+		/**
+		 * Sets how often the probabilities are re-tuned. Defaults to one second.
+		 * @param window re-tuning window
+		 * @return this
+		 */
+		public Builder window(Duration window) {
+			Assert.isTrue(window != null && !window.isNegative() && !window.isZero(), "window should be positive");
+			this.window = window;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum number of endpoints tracked separately. Defaults to
+		 * {@code 500}.
+		 * @param maxEndpoints maximum number of endpoints
+		 * @return this
+		 */
+		public Builder maxEndpoints(int maxEndpoints) {
+			Assert.isTrue(maxEndpoints > 0, "maxEndpoints should be positive");
+			this.maxEndpoints = maxEndpoints;
+			return this;
+		}
+
+		/**
+		 * Sets the clock that measures the windows.
+		 * @param clock clock
+		 * @return this
+		 */
+		public Builder clock(Clock clock) {
+			Assert.notNull(clock, "clock must not be null");
+			this.clock = clock;
+			return this;
+		}
+
+		/**
+		 * Sets the templatizer of paths of requests without a route.
+		 * @param pathTemplatizer path templatizer
+		 * @return this
+		 */
+		public Builder pathTemplatizer(PathTemplatizer pathTemplatizer) {
+			Assert.notNull(pathTemplatizer, "pathTemplatizer must not be null");
+			this.pathTemplatizer = pathTemplatizer;
+			return this;
+		}
+
+		/**
+		 * Builds the sampler.
+		 * @return sampler function
+		 */
+		public AdaptiveHttpSampler build() {
+			return new AdaptiveHttpSampler(this);
+		}
+
+	}
+
+	/**
+	 * State of an endpoint as of the last re-tuning.
+	 */
+	public static final class EndpointState {
+
+		private final String endpoint;
+
+		private final double requestsPerSecond;
+
+		private final float probability;
+
+		EndpointState(String endpoint, double requestsPerSecond, float probability) {
+			this.endpoint = endpoint;
+			this.requestsPerSecond = requestsPerSecond;
+			this.probability = probability;
+		}
+
+		/**
+		 * Returns the name of the endpoint, the HTTP method followed by the route or path
+		 * template.
+		 * @return endpoint
+		 */
+		public String getEndpoint() {
+			return this.endpoint;
+		}
+
+		/**
+		 * Returns the request rate observed in the last window, or {@code -1} before the
+		 * first window ended.
+		 * @return requests per second
+		 */
+		public double getRequestsPerSecond() {
+			return this.requestsPerSecond;
+		}
+
+		/**
+		 * Returns the probability the endpoint is sampled with.
+		 * @return probability
+		 */
+		public float getProbability() {
+			return this.probability;
+		}
+
+		@Override
+		public String toString() {
+			return "EndpointState{endpoint='" + this.endpoint + "', requestsPerSecond=" + this.requestsPerSecond
+					+ ", probability=" + this.probability + '}';
+		}
+
+	}
+
+	private final class Endpoint {
+
+		private final String name;
+
+		private final LongAdder requests = new LongAdder();
+
+		private final LongAdder sampledInWindow = new LongAdder();
+
+		// set once the floor (or the cap of the first window) is met, the sampled traces
+		// are
+		// no longer counted then
+		private volatile boolean floorReached;
+
+		// set once the first window ended and the probability follows the request rate
+		private volatile boolean tuned;
+
+		private final AtomicLong windowStart;
+
+		private final ProbabilityBasedSampler sampler = new ProbabilityBasedSampler(() -> 1.0f);
+
+		private volatile double requestsPerSecond = -1;
+
+		Endpoint(String name, long now) {
+			this.name = name;
+			this.windowStart = new AtomicLong(now);
+		}
+
+		boolean isSampled(long now) {
+			retuneIfWindowEnded(now);
+			this.requests.increment();
+			if (!this.tuned) {
+				return isSampledInFirstWindow();
+			}
+			boolean sampled = this.sampler.isSampled(ThreadLocalRandom.current().nextLong());
+			if (this.floorReached) {
+				return sampled;
+			}
+			if (this.sampledInWindow.sum() >= AdaptiveHttpSampler.this.minTracesPerWindow) {
+				this.floorReached = true;
+				return sampled;
+			}
+			// sampled either way, unsampled requests are taken to meet the floor
+			this.sampledInWindow.increment();
+			return true;
+		}
+
+		/**
+		 * No rate is known yet, traces are admitted until the target of the window is
+		 * reached.
+		 */
+		private boolean isSampledInFirstWindow() {
+			if (this.floorReached) {
+				return false;
+			}
+			if (this.sampledInWindow.sum() >= AdaptiveHttpSampler.this.firstWindowTraces) {
+				this.floorReached = true;
+				return false;
+			}
+			this.sampledInWindow.increment();
+			return true;
+		}
+
+		private void retuneIfWindowEnded(long now) {
+			long start = this.windowStart.get();
+			long elapsed = now - start;
+			if (elapsed < AdaptiveHttpSampler.this.windowNanos || !this.windowStart.compareAndSet(start, now)) {
+				return;
+			}
+			double requestsPerSecond = this.requests.sumThenReset() * 1e9 / elapsed;
+			double target = AdaptiveHttpSampler.this.tracesPerSecond;
+			this.sampler.setProbability(requestsPerSecond <= target ? 1.0f : (float) (target / requestsPerSecond));
+			this.sampledInWindow.reset();
+			this.floorReached = false;
+			this.requestsPerSecond = requestsPerSecond;
+			this.tuned = true;
+		}
+
+		EndpointState state() {
+			return new EndpointState(this.name, this.requestsPerSecond, this.sampler.getProbability());
+		}
+
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.brave.sampler;
+
+import brave.sampler.Sampler;
+
+import org.springframework.observability.tracing.exporter.QueueOccupancy;
+import org.springframework.util.Assert;
+
+/**
+ * Decorates a {@link Sampler} to lower the sampling probability as the queue of a
+ * reporter fills up, so spans that could not be exported are not created in the first
+ * place. Below the low watermark the delegate decides alone, above the high watermark
+ * nothing is sampled and in between the decisions of the delegate are thinned out
+ * linearly. As the queue drains, the probability rises again.
+ *
+ * <p>
+ * Thinning is decided from a mixed hash of the trace id rather than from its raw bits, so
+ * it does not correlate with delegates that decide from the trace id bits, such as the
+ * {@link ProbabilityBasedSampler}.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public class BackpressureAwareSampler extends Sampler {
+
+	private static final double HASH_RANGE = 0x1p53;
+
+	private final Sampler delegate;
+
+	private final QueueOccupancy queueOccupancy;
+
+	private final double lowWatermark;
+
+	private final double highWatermark;
+
+	/**
+	 * Creates a sampler that starts backing off at half occupancy and stops sampling at
+	 * 95% occupancy.
+	 * @param delegate sampler deciding when the queue has room
+	 * @param queueOccupancy occupancy of the reporter queue
+	 */
+	public BackpressureAwareSampler(Sampler delegate, QueueOccupancy queueOccupancy) {
+		this(delegate, queueOccupancy, 0.5, 0.95);
+	}
+
+	/**
+	 * @param delegate sampler deciding when the queue has room
+	 * @param queueOccupancy occupancy of the reporter queue
+	 * @param lowWatermark occupancy above which the probability is lowered
+	 * @param highWatermark occupancy above which nothing is sampled
+	 */
+	public BackpressureAwareSampler(Sampler delegate, QueueOccupancy queueOccupancy, double lowWatermark,
+			double highWatermark) {
+		Assert.notNull(delegate, "delegate must not be null");
+		Assert.notNull(queueOccupancy, "queueOccupancy must not be null");
+		Assert.isTrue(0 <= lowWatermark && lowWatermark < highWatermark && highWatermark <= 1,
+				"watermarks should satisfy 0 <= lowWatermark < highWatermark <= 1");
+		this.delegate = delegate;
+		this.queueOccupancy = queueOccupancy;
+		this.lowWatermark = lowWatermark;
+		this.highWatermark = highWatermark;
+	}
+
+	/**
+	 * Returns the fraction of the decisions of the delegate that are kept at the current
+	 * occupancy.
+	 * @return factor between {@code 0} and {@code 1}
+	 */
+	public double getBackoffFactor() {
+		double occupancy = this.queueOccupancy.occupancy();
+		if (occupancy <= this.lowWatermark) {
+			return 1.0;
+		}
+		if (occupancy >= this.highWatermark) {
+			return 0.0;
+		}
+		return (this.highWatermark - occupancy) / (this.highWatermark - this.lowWatermark);
+	}
+
+	@Override
+	public boolean isSampled(long traceId) {
+		if (!this.delegate.isSampled(traceId)) {
+			return false;
+		}
+		double factor = getBackoffFactor();
+		if (factor == 1.0) {
+			return true;
+		}
+		return ((traceId * 0x9E3779B97F4A7C15L) >>> 11) < factor * HASH_RANGE;
+	}
+
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.brave.sampler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import brave.sampler.Sampler;
+
+import org.springframework.lang.Nullable;
+import org.springframework.observability.time.Clock;
+import org.springframework.observability.tracing.SamplerFunction;
+import org.springframework.observability.transport.http.HttpRequest;
+import org.springframework.util.Assert;
+
+/**
+ * Samples new traces by declarative rules, each mapping an HTTP method and a path pattern
+ * to a probability or to a rate limit. The first declared rule that matches a request
+ * decides, requests that match no rule defer the decision.
+ *
+ * <p>
+ * Path patterns consist of {@code /} separated segments. A segment is either a literal,
+ * {@code *} or a {@code {variable}} matching exactly one segment, or a trailing
+ * {@code **} matching any remaining segments. The patterns are compiled into a segment
+ * trie, so a request is matched in one walk over its path without allocating. Each rate
+ * limited rule has its own lock-free token bucket.
+ *
+ * <p>
+ * The compiled rules are an immutable snapshot that {@link #setRules(Builder)} swaps
+ * atomically, so rules can be reloaded while requests are being sampled.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+public final class HttpRuleSampler implements SamplerFunction<HttpRequest> {
+
+	private final Clock clock;
+
+	private volatile Rules rules;
+
+	private HttpRuleSampler(Builder builder) {
+		this.clock = builder.clock;
+		this.rules = new Rules(builder.rules, this.clock);
+	}
+
+	/**
+	 * Creates a builder to declare the rules.
+	 * @return builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Replaces the rules with the ones declared in the given builder. Rate limits of the
+	 * new rules start with full buckets.
+	 * @param builder builder with the new rules
+	 */
+	public void setRules(Builder builder) {
+		this.rules = new Rules(builder.rules, this.clock);
+	}
+
+	@Override
+	@Nullable
+	public Boolean trySample(@Nullable HttpRequest request) {
+		if (request == null) {
+			return null;
+		}
+		String path = request.path();
+		if (path == null) {
+			return null;
+		}
+		Sampler sampler = this.rules.match(request.method(), path);
+		if (sampler == null) {
+			return null;
+		}
+		return sampler.isSampled(ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * Declares the rules of an {@link HttpRuleSampler}, in the order of precedence.
+	 */
+	public static final class Builder {
+
+		private final List<Rule> rules = new ArrayList<>();
+
+		private Clock clock = Clock.SYSTEM;
+
+		private Builder() {
+		}
+
+		/**
+		 * Samples the matching requests with the given probability.
+		 * @param method HTTP method or {@code null} for any method
+		 * @param pathPattern path pattern
+		 * @param probability probability between {@code 0} and {@code 1}
+		 * @return this
+		 */
+		public Builder probability(@Nullable String method, String pathPattern, float probability) {
+			this.rules.add(new Rule(method, pathPattern, probability, -1));
+			return this;
+		}
+
+		/**
+		 * Samples up to the given number of matching requests per second.
+		 * @param method HTTP method or {@code null} for any method
+		 * @param pathPattern path pattern
+		 * @param tracesPerSecond maximum number of sampled traces per second
+		 * @return this
+		 */
+		public Builder rateLimit(@Nullable String method, String pathPattern, int tracesPerSecond) {
+			Assert.isTrue(tracesPerSecond >= 0, "tracesPerSecond should not be negative");
+			this.rules.add(new Rule(method, pathPattern, -1.0f, tracesPerSecond));
+			return this;
+		}
+
+		/**
+		 * Sets the clock used to refill the rate limits.
+		 * @param clock clock
+		 * @return this
+		 */
+		public Builder clock(Clock clock) {
+			Assert.notNull(clock, "clock must not be null");
+			this.clock = clock;
+			return this;
+		}
+
+		/**
+		 * Compiles the declared rules.
+		 * @return sampler function
+		 */
+		public HttpRuleSampler build() {
+			return new HttpRuleSampler(this);
+		}
+
+	}
+
+	private static final class Rule {
+
+		private final String method;
+
+		private final String[] segments;
+
+		private final float probability;
+
+		private final int tracesPerSecond;
+
+		Rule(@Nullable String method, String pathPattern, float probability, int tracesPerSecond) {
+			Assert.hasText(pathPattern, "pathPattern must not be empty");
+			this.method = method;
+			this.segments = segments(pathPattern);
+			this.probability = probability;
+			this.tracesPerSecond = tracesPerSecond;
+		}
+
+		private static String[] segments(String pathPattern) {
+			String[] segments = Arrays.stream(pathPattern.split("/")).filter(segment -> !segment.isEmpty())
+					.toArray(String[]::new);
+			for (int i = 0; i < segments.length; i++) {
+				String segment = segments[i];
+				if (segment.equals("**")) {
+					Assert.isTrue(i == segments.length - 1,
+							() -> "** is only supported as the last segment of " + pathPattern);
+				}
+				else if (segment.startsWith("{") && segment.endsWith("}")) {
+					segments[i] = "*";
+				}
+				else {
+					Assert.isTrue(segment.equals("*") || segment.indexOf('*') < 0,
+							() -> "partial wildcards are not supported in " + pathPattern);
+				}
+			}
+			return segments;
+		}
+
+		Sampler newSampler(Clock clock) {
+			if (this.tracesPerSecond >= 0) {
+				return new TokenBucketSampler(this.tracesPerSecond, clock);
+			}
+			return new ProbabilityBasedSampler(() -> this.probability);
+		}
+
+		boolean matchesMethod(String method) {
+			return this.method == null || this.method.equals(method);
+		}
+
+	}
+
+	/**
+	 * Immutable snapshot of compiled rules.
+	 */
+	private static final class Rules {
+
+		private final Rule[] rules;
+
+		private final Sampler[] samplers;
+
+		private final Node root = new Node();
+
+		Rules(List<Rule> rules, Clock clock) {
+			this.rules = rules.toArray(new Rule[0]);
+			this.samplers = new Sampler[this.rules.length];
+			for (int i = 0; i < this.rules.length; i++) {
+				this.samplers[i] = this.rules[i].newSampler(clock);
+				this.root.add(this.rules[i].segments, 0, i);
+			}
+		}
+
+		@Nullable
+		Sampler match(String method, String path) {
+			int index = this.root.match(this, method, path, 0, Integer.MAX_VALUE);
+			return index != Integer.MAX_VALUE ? this.samplers[index] : null;
+		}
+
+		/**
+		 * Returns the lowest rule index of the given ones whose method matches.
+		 */
+		int first(int[] candidates, String method, int best) {
+			for (int candidate : candidates) {
+				if (candidate >= best) {
+					return best;
+				}
+				if (this.rules[candidate].matchesMethod(method)) {
+					return candidate;
+				}
+			}
+			return best;
+		}
+
+	}
+
+	/**
+	 * Node of the segment trie. Rule indices are kept in ascending order, so the first
+	 * matching one has the highest precedence.
+	 */
+	private static final class Node {
+
+		private static final int[] NO_RULES = new int[0];
+
+		private String[] literals = new String[0];
+
+		private Node[] children = new Node[0];
+
+		private Node wildcard;
+
+		private int[] terminalRules = NO_RULES;
+
+		private int[] remainderRules = NO_RULES;
+
+		private int minRule = Integer.MAX_VALUE;
+
+		void add(String[] segments, int position, int rule) {
+			this.minRule = Math.min(this.minRule, rule);
+			if (position == segments.length) {
+				this.terminalRules = append(this.terminalRules, rule);
+				return;
+			}
+			String segment = segments[position];
+			if (segment.equals("**")) {
+				this.remainderRules = append(this.remainderRules, rule);
+				return;
+			}
+			child(segment).add(segments, position + 1, rule);
+		}
+
+		private Node child(String segment) {
+			if (segment.equals("*")) {
+				if (this.wildcard == null) {
+					this.wildcard = new Node();
+				}
+				return this.wildcard;
+			}
+			for (int i = 0; i < this.literals.length; i++) {
+				if (this.literals[i].equals(segment)) {
+					return this.children[i];
+				}
+			}
+			Node child = new Node();
+			this.literals = Arrays.copyOf(this.literals, this.literals.length + 1);
+			this.literals[this.literals.length - 1] = segment;
+			this.children = Arrays.copyOf(this.children, this.children.length + 1);
+			this.children[this.children.length - 1] = child;
+			return child;
+		}
+
+		private static int[] append(int[] rules, int rule) {
+			int[] result = Arrays.copyOf(rules, rules.length + 1);
+			result[rules.length] = rule;
+			return result;
+		}
+
+		/**
+		 * Returns the index of the highest precedence rule below this node that matches
+		 * the path from the given position, or {@code best} if there is none with a
+		 * higher precedence.
+		 */
+		int match(Rules rules, String method, String path, int position, int best) {
+			if (this.minRule >= best) {
+				return best;
+			}
+			best = rules.first(this.remainderRules, method, best);
+			int length = path.length();
+			int start = position;
+			while (start < length && path.charAt(start) == '/') {
+				start++;
+			}
+			if (start == length) {
+				return rules.first(this.terminalRules, method, best);
+			}
+			int end = path.indexOf('/', start);
+			if (end < 0) {
+				end = length;
+			}
+			int segmentLength = end - start;
+			for (int i = 0; i < this.literals.length; i++) {
+				String literal = this.literals[i];
+				if (literal.length() == segmentLength && path.regionMatches(start, literal, 0, segmentLength)) {
+					best = this.children[i].match(rules, method, path, end, best);
+					break;
+				}
+			}
+			if (this.wildcard != null) {
+				best = this.wildcard.match(rules, method, path, end, best);
+			}
+			return best;
+		}
+
+	}
+
+}
@@ -16,96 +16,137 @@
 
 package org.springframework.observability.tracing.brave.sampler;
 
-import java.util.BitSet;
-import java.util.Random;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import brave.sampler.Sampler;
 
+import org.springframework.core.log.LogAccessor;
 import org.springframework.util.Assert;
 
 /**
- * This sampler is appropriate for low-traffic instrumentation (ex servers that each
- * receive less than 100K requests), or those who do not provision random trace ids. It
- * not appropriate for collectors as the sampling decision isn't idempotent (consistent
- * based on trace id).
- *
- * Implementation
+ * Samples a given fraction of traces, deciding from the bits of the trace id. The lower
+ * 63 bits of the id are compared with a threshold derived from the probability, so the
+ * decision is lock-free and consistent for the same trace id across services that use the
+ * same probability. This requires trace ids with random low bits, which is the case for
+ * ids generated by Brave.
  *
  * <p>
- * Taken from CountingTraceIdSampler class from Zipkin project.
+ * The probability supplier is read on every decision, so a refreshable property is
+ * applied as soon as it changes; the threshold is only recomputed when the returned value
+ * differs from the last one. A value out of the {@code [0, 1]} range is logged once and
+ * ignored, the last valid probability is kept. The probability can also be changed via
+ * {@link #setProbability(float)}. Any rate down to 0.0001% (0.000001) is supported.
  * </p>
  *
- * This counts to see how many out of 100 traces should be retained. This means that it is
- * accurate in units of 100 traces.
- *
  * @author Marcin Grzejszczak
  * @author Adrian Cole
  * @since 1.0.0
  */
 public class ProbabilityBasedSampler extends Sampler {
 
-	private final AtomicInteger counter = new AtomicInteger(0);
+	private static final LogAccessor log = new LogAccessor(ProbabilityBasedSampler.class);
+
+	private static final double TRACE_ID_RANGE = 0x1p63;
+
+	private volatile Supplier<Float> probability;
 
-	private final BitSet sampleDecisions;
+	private volatile Threshold threshold;
 
-	private final Supplier<Float> probability;
+	// bits of the last invalid value returned by the supplier, to log it only once
+	private volatile int lastInvalidBits;
 
 	/**
 	 * @param probability supplier of probability
 	 */
 	public ProbabilityBasedSampler(Supplier<Float> probability) {
 		Assert.notNull(probability, "probability property is required for ProbabilityBasedSampler");
+		Float initial = probability.get();
+		Assert.isTrue(initial != null && isValid(initial),
+				() -> "probability should be between 0 and 1 but was " + initial);
+		this.threshold = new Threshold(initial);
 		this.probability = probability;
-		int outOf100 = (int) (probability.get() * 100.0f);
-		this.sampleDecisions = randomBitSet(100, outOf100, new Random());
 	}
 
 	/**
-	 * Reservoir sampling algorithm borrowed from Stack Overflow.
-	 *
-	 * https://stackoverflow.com/questions/12817946/generate-a-random-bitset-with-n-1s
-	 * @param size size of the bit set
-	 * @param cardinality cardinality of the bit set
-	 * @param rnd random generator
-	 * @return a random bitset
+	 * Returns the current sampling probability.
+	 * @return probability between {@code 0} and {@code 1}
 	 */
-	static BitSet randomBitSet(int size, int cardinality, Random rnd) {
-		BitSet result = new BitSet(size);
-		int[] chosen = new int[cardinality];
-		int i;
-		for (i = 0; i < cardinality; ++i) {
-			chosen[i] = i;
-			result.set(i);
+	public float getProbability() {
+		return threshold().probability;
+	}
+
+	/**
+	 * Changes the sampling probability, replacing the supplier passed to the constructor.
+	 * Subsequent decisions use the new value.
+	 * @param probability probability between {@code 0} and {@code 1}
+	 */
+	public void setProbability(float probability) {
+		Assert.isTrue(isValid(probability), () -> "probability should be between 0 and 1 but was " + probability);
+		Threshold threshold = new Threshold(probability);
+		this.probability = () -> probability;
+		this.threshold = threshold;
+	}
+
+	private Threshold threshold() {
+		Float probability = this.probability.get();
+		Threshold threshold = this.threshold;
+		if (probability == null) {
+			return threshold;
 		}
-		for (; i < size; ++i) {
-			int j = rnd.nextInt(i + 1);
-			if (j < cardinality) {
-				result.clear(chosen[j]);
-				result.set(i);
-				chosen[j] = i;
+		int bits = Float.floatToIntBits(probability);
+		if (bits == Float.floatToIntBits(threshold.probability)) {
+			return threshold;
+		}
+		if (!isValid(probability)) {
+			if (bits != this.lastInvalidBits) {
+				this.lastInvalidBits = bits;
+				log.warn(() -> "Ignoring the probability [" + probability + "] that is not between 0 and 1, keeping ["
+						+ this.threshold.probability + "]");
 			}
+			return threshold;
 		}
-		return result;
+		threshold = new Threshold(probability);
+		this.threshold = threshold;
+		return threshold;
+	}
+
+	private static boolean isValid(float probability) {
+		return probability >= 0.0f && probability <= 1.0f;
 	}
 
 	@Override
 	public boolean isSampled(long traceId) {
-		if (this.probability.get() == 0) {
-			return false;
-		}
-		else if (this.probability.get() == 1.0f) {
+		long threshold = threshold().value;
+		if (threshold == Long.MAX_VALUE) {
 			return true;
 		}
-		synchronized (this) {
-			final int i = this.counter.getAndIncrement();
-			boolean result = this.sampleDecisions.get(i);
-			if (i == 99) {
-				this.counter.set(0);
+		return (traceId & Long.MAX_VALUE) < threshold;
+	}
+
+	/**
+	 * Threshold of the lower 63 bits of the trace id for a probability.
+	 */
+	private static final class Threshold {
+
+		private final float probability;
+
+		private final long value;
+
+		private Threshold(float probability) {
+			this.probability = probability;
+			this.value = value(probability);
+		}
+
+		private static long value(float probability) {
+			if (probability == 0.0f) {
+				return 0L;
+			}
+			if (probability == 1.0f) {
+				return Long.MAX_VALUE;
 			}
-			return result;
+			return (long) (probability * TRACE_ID_RANGE);
 		}
+
 	}
 
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.brave.sampler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import brave.sampler.Sampler;
+
+import org.springframework.observability.time.Clock;
+
+/**
+ * Lock-free token bucket that samples up to a given number of traces per second. The
+ * bucket holds one second worth of tokens and is refilled continuously. Instead of a
+ * token count, the time at which the bucket would be full again is kept in a single
+ * {@link AtomicLong} (generic cell rate algorithm), so a decision is one CAS.
+ *
+ * @author Marcin Grzejszczak
+ * @since 1.0.0
+ */
+final class TokenBucketSampler extends Sampler {
+
+	private static final long CAPACITY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private final Clock clock;
+
+	private final long intervalNanos;
+
+	private final AtomicLong theoreticalArrival;
+
+	TokenBucketSampler(int tracesPerSecond, Clock clock) {
+		this.clock = clock;
+		this.intervalNanos = tracesPerSecond > 0 ? (CAPACITY_NANOS + tracesPerSecond - 1) / tracesPerSecond : 0L;
+		this.theoreticalArrival = new AtomicLong(clock.monotonicTime());
+	}
+
+	@Override
+	public boolean isSampled(long traceId) {
+		if (this.intervalNanos == 0L) {
+			return false;
+		}
+		long now = this.clock.monotonicTime();
+		for (;;) {
+			long arrival = this.theoreticalArrival.get();
+			long next = (arrival - now > 0 ? arrival : now) + this.intervalNanos;
+			if (next - now > CAPACITY_NANOS) {
+				return false;
+			}
+			if (this.theoreticalArrival.compareAndSet(arrival, next)) {
+				return true;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.brave.bridge;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.observability.tracing.TraceContext;
+import org.springframework.observability.tracing.propagation.BinaryPropagator;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class BraveBinaryPropagatorTests {
+
+	BraveBinaryPropagator propagator = new BraveBinaryPropagator();
+
+	TraceContext context = BraveTraceContext
+			.fromBrave(brave.propagation.TraceContext.newBuilder().traceIdHigh(0x0af7651916cd43ddL)
+					.traceId(0x8448eb211c80319cL).spanId(0xb7ad6b7169203331L).sampled(true).build());
+
+	@Test
+	void should_write_the_w3c_binary_format() {
+		byte[] bytes = this.propagator.inject(this.context);
+
+		then(bytes).hasSize(BinaryPropagator.BINARY_LENGTH);
+		then(bytes).containsExactly(0, 0, 0x0a, 0xf7, 0x65, 0x19, 0x16, 0xcd, 0x43, 0xdd, 0x84, 0x48, 0xeb, 0x21, 0x1c,
+				0x80, 0x31, 0x9c, 1, 0xb7, 0xad, 0x6b, 0x71, 0x69, 0x20, 0x33, 0x31, 2, 1);
+	}
+
+	@Test
+	void should_extract_the_injected_context() {
+		byte[] bytes = new byte[BinaryPropagator.BINARY_LENGTH + 3];
+		this.propagator.inject(this.context, bytes, 3);
+
+		TraceContext extracted = this.propagator.extract(bytes, 3, BinaryPropagator.BINARY_LENGTH);
+
+		then(extracted).isNotNull();
+		then(extracted.traceId()).isEqualTo("0af7651916cd43dd8448eb211c80319c");
+		then(extracted.spanId()).isEqualTo("b7ad6b7169203331");
+		then(extracted.sampled()).isTrue();
+	}
+
+	@Test
+	void should_inject_contexts_of_other_implementations_from_their_ids() {
+		TraceContext other = new TraceContext() {
+			@Override
+			public String traceId() {
+				return "0af7651916cd43dd8448eb211c80319c";
+			}
+
+			@Override
+			public String parentId() {
+				return null;
+			}
+
+			@Override
+			public String spanId() {
+				return "b7ad6b7169203331";
+			}
+
+			@Override
+			public Boolean sampled() {
+				return true;
+			}
+		};
+
+		then(this.propagator.inject(other)).containsExactly(this.propagator.inject(this.context));
+	}
+
+	@Test
+	void should_not_extract_invalid_contexts() {
+		byte[] bytes = this.propagator.inject(this.context);
+
+		then(this.propagator.extract(null)).isNull();
+		then(this.propagator.extract(bytes, 0, BinaryPropagator.BINARY_LENGTH - 1)).isNull();
+		bytes[0] = 1;
+		then(this.propagator.extract(bytes)).as("unknown version").isNull();
+		then(this.propagator.extract(new byte[BinaryPropagator.BINARY_LENGTH])).as("invalid ids").isNull();
+	}
+
+}
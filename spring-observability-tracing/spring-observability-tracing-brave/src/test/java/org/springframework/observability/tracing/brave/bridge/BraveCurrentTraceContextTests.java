@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.brave.bridge;
+
+import brave.Tracing;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.observability.tracing.CurrentTraceContext;
+import org.springframework.observability.tracing.Span;
+import org.springframework.observability.tracing.TraceContext;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class BraveCurrentTraceContextTests {
+
+	ThreadLocalCurrentTraceContext braveCurrentTraceContext = ThreadLocalCurrentTraceContext.newBuilder().build();
+
+	Tracing tracing = Tracing.newBuilder().currentTraceContext(this.braveCurrentTraceContext).build();
+
+	BraveTracer tracer = new BraveTracer(this.tracing.tracer(), this.braveCurrentTraceContext,
+			new BraveBaggageManager());
+
+	@AfterEach
+	void close() {
+		this.tracing.close();
+	}
+
+	@Test
+	void should_reuse_the_current_trace_context() {
+		CurrentTraceContext currentTraceContext = this.tracer.currentTraceContext();
+		Span span = this.tracer.nextSpan().start();
+
+		try (CurrentTraceContext.Scope scope = currentTraceContext.newScope(span.context())) {
+			TraceContext context = currentTraceContext.context();
+
+			then(this.tracer.currentTraceContext()).isSameAs(currentTraceContext);
+			then(currentTraceContext.context()).isEqualTo(context).isEqualTo(span.context());
+			then(span.context()).isSameAs(span.context());
+		}
+		finally {
+			span.end();
+		}
+		then(currentTraceContext.context()).isNull();
+	}
+
+	@Test
+	void should_wrap_a_new_current_context() {
+		CurrentTraceContext currentTraceContext = this.tracer.currentTraceContext();
+		Span first = this.tracer.nextSpan().start();
+		Span second = this.tracer.nextSpan().start();
+
+		try (CurrentTraceContext.Scope scope = currentTraceContext.newScope(first.context())) {
+			then(currentTraceContext.context()).isEqualTo(first.context());
+		}
+		try (CurrentTraceContext.Scope scope = currentTraceContext.newScope(second.context())) {
+			then(currentTraceContext.context()).isEqualTo(second.context());
+		}
+	}
+
+	@Test
+	void should_share_the_noop_scope_when_the_context_is_already_current() {
+		CurrentTraceContext currentTraceContext = this.tracer.currentTraceContext();
+		Span span = this.tracer.nextSpan().start();
+
+		try (CurrentTraceContext.Scope scope = currentTraceContext.newScope(span.context())) {
+			then(scope).isNotSameAs(BraveScope.NOOP);
+			then(currentTraceContext.maybeScope(span.context())).isSameAs(BraveScope.NOOP);
+			then(currentTraceContext.maybeScope(span.context())).isSameAs(BraveScope.NOOP);
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.brave.bridge;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import brave.Tracing;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.observability.tracing.TraceContext;
+import org.springframework.observability.tracing.propagation.Propagator;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class BravePropagatorTests {
+
+	Tracing tracing = Tracing.newBuilder().build();
+
+	BravePropagator propagator = new BravePropagator(this.tracing);
+
+	@AfterEach
+	void close() {
+		this.tracing.close();
+	}
+
+	@Test
+	void should_extract_the_injected_context() {
+		brave.Span span = this.tracing.tracer().nextSpan();
+		Map<String, String> carrier = new HashMap<>();
+		this.propagator.inject(BraveTraceContext.fromBrave(span.context()), carrier, Map::put);
+
+		TraceContext context = this.propagator.extractContext(carrier, Map::get);
+
+		then(context).isNotNull();
+		then(context.traceId()).isEqualTo(span.context().traceIdString());
+		then(context.spanId()).isEqualTo(span.context().spanIdString());
+	}
+
+	@Test
+	void should_build_the_brave_injector_and_extractor_once_per_stateless_setter_and_getter() {
+		AtomicInteger injectors = new AtomicInteger();
+		AtomicInteger extractors = new AtomicInteger();
+		Tracing tracing = Tracing.newBuilder().propagationFactory(new CustomTracePropagation() {
+			@Override
+			public <R> brave.propagation.TraceContext.Injector<R> injector(Setter<R, String> setter) {
+				injectors.incrementAndGet();
+				return super.injector(setter);
+			}
+
+			@Override
+			public <R> brave.propagation.TraceContext.Extractor<R> extractor(Getter<R, String> getter) {
+				extractors.incrementAndGet();
+				return super.extractor(getter);
+			}
+		}).build();
+		BravePropagator propagator = new BravePropagator(tracing);
+		Propagator.Setter<Map<String, String>> setter = Map::put;
+		TraceContext context = BraveTraceContext.fromBrave(tracing.tracer().nextSpan().context());
+
+		try {
+			for (int i = 0; i < 3; i++) {
+				Map<String, String> carrier = new HashMap<>();
+				propagator.inject(context, carrier, setter);
+				then(propagator.extractContext(carrier, Map::get)).isNotNull();
+			}
+			then(injectors).hasValue(1);
+			then(extractors).hasValue(1);
+
+			for (int i = 0; i < 2; i++) {
+				Map<String, String> headers = new HashMap<>();
+				propagator.inject(context, headers, setter);
+				Propagator.Getter<Object> capturing = (carrier, key) -> headers.get(key);
+				then(propagator.extractContext(new Object(), capturing)).isNotNull();
+			}
+		}
+		finally {
+			tracing.close();
+		}
+
+		then(injectors).hasValue(1);
+		then(extractors).as("getters capturing state are not cached").hasValue(3);
+	}
+
+	@Test
+	void should_return_null_when_there_is_no_context_to_extract() {
+		then(this.propagator.extractContext(new HashMap<String, String>(), Map::get)).isNull();
+	}
+
+}
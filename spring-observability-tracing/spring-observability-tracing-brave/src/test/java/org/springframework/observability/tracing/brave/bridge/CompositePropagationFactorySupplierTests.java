@@ -16,8 +16,12 @@
 
 package org.springframework.observability.tracing.brave.bridge;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -32,6 +36,7 @@ import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.factory.support.StaticListableBeanFactory;
 import org.springframework.observability.tracing.brave.propagation.PropagationType;
+import org.springframework.observability.transport.http.HttpServerRequest;
 import org.springframework.util.StringUtils;
 
 class CompositePropagationFactorySupplierTests {
@@ -46,6 +51,82 @@ class CompositePropagationFactorySupplierTests {
 		BDDAssertions.then(supplier.get().get().keys()).containsExactly(CustomTraceExtractor.CUSTOM_TRACE_HEADER);
 	}
 
+	@Test
+	void should_only_read_the_propagation_headers_present_on_the_request() {
+		Map<String, String> headers = new LinkedHashMap<>();
+		headers.put("accept", "*/*");
+		headers.put("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+		List<String> readHeaders = new ArrayList<>();
+		HttpServerRequest request = new HttpServerRequest() {
+			@Override
+			public String method() {
+				return "GET";
+			}
+
+			@Override
+			public String path() {
+				return "/";
+			}
+
+			@Override
+			public String url() {
+				return "/";
+			}
+
+			@Override
+			public String header(String name) {
+				readHeaders.add(name);
+				return headers.get(name);
+			}
+
+			@Override
+			public Collection<String> headerNames() {
+				return headers.keySet();
+			}
+
+			@Override
+			public Object unwrap() {
+				return this;
+			}
+		};
+		CompositePropagationFactory factory = new CompositePropagationFactory(
+				new StaticListableBeanFactory(Collections.emptyMap()), new BraveBaggageManager(),
+				Collections.emptyList(), Arrays.asList(PropagationType.B3, PropagationType.W3C));
+
+		TraceContextOrSamplingFlags extracted = factory.extractor(brave.http.HttpServerRequest::header)
+				.extract(new BraveHttpServerRequest.ServerRequestAdapter(request));
+
+		BDDAssertions.then(extracted.context().traceIdString()).isEqualTo("0af7651916cd43dd8448eb211c80319c");
+		BDDAssertions.then(readHeaders).containsExactly("traceparent");
+	}
+
+	@Test
+	void should_list_the_keys_of_all_formats() {
+		CompositePropagationFactory factory = new CompositePropagationFactory(
+				new StaticListableBeanFactory(Collections.emptyMap()), new BraveBaggageManager(),
+				Collections.emptyList(), Arrays.asList(PropagationType.B3, PropagationType.W3C));
+
+		BDDAssertions.then(factory.keys()).containsExactly("b3", "X-B3-TraceId", "X-B3-SpanId", "X-B3-ParentSpanId",
+				"X-B3-Sampled", "X-B3-Flags", "traceparent", "tracestate");
+	}
+
+	@Test
+	void should_pick_the_format_with_the_highest_precedence_regardless_of_earlier_requests() {
+		CompositePropagationFactory factory = new CompositePropagationFactory(new StaticListableBeanFactory(beans()),
+				new BraveBaggageManager(), Collections.emptyList(),
+				Arrays.asList(PropagationType.CUSTOM, PropagationType.W3C));
+		TraceContext.Extractor<Map<String, String>> extractor = factory.extractor(Map::get);
+		Map<String, String> both = new HashMap<>();
+		both.put("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+		both.put(CustomTraceExtractor.CUSTOM_TRACE_HEADER, "1111111111111111:2222222222222222");
+
+		BDDAssertions.then(extractor.extract(
+				Collections.singletonMap("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01"))
+				.context()).isNotNull();
+
+		BDDAssertions.then(extractor.extract(both).context().traceIdString()).isEqualTo("1111111111111111");
+	}
+
 	// TODO: Migrate to Map.of
 	private Map<String, Object> beans() {
 		Map<String, Object> beans = new HashMap<>();
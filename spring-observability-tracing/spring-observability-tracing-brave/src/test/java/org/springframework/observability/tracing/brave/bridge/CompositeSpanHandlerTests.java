@@ -0,0 +1,65 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.brave.bridge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.observability.tracing.exporter.FinishedSpan;
+import org.springframework.observability.tracing.exporter.SpanFilter;
+import org.springframework.observability.tracing.exporter.SpanReporter;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class CompositeSpanHandlerTests {
+
+	TraceContext context = TraceContext.newBuilder().traceId(1L).spanId(2L).build();
+
+	@Test
+	void should_pass_a_single_view_of_the_span_to_all_filters_and_reporters() {
+		List<FinishedSpan> seen = new ArrayList<>();
+		SpanFilter filter = span -> seen.add(span);
+		SpanReporter reporter = seen::add;
+		CompositeSpanHandler handler = new CompositeSpanHandler(Arrays.asList(filter, filter),
+				Arrays.asList(reporter, reporter));
+
+		boolean processed = handler.end(this.context, new MutableSpan(), SpanHandler.Cause.FINISHED);
+
+		then(processed).isTrue();
+		then(seen).hasSize(4);
+		then(seen).allSatisfy(span -> then(span).isSameAs(seen.get(0)));
+	}
+
+	@Test
+	void should_not_report_filtered_out_spans() {
+		List<FinishedSpan> reported = new ArrayList<>();
+		CompositeSpanHandler handler = new CompositeSpanHandler(Arrays.asList(span -> false),
+				Arrays.asList(reported::add));
+
+		boolean processed = handler.end(this.context, new MutableSpan(), SpanHandler.Cause.FINISHED);
+
+		then(processed).isFalse();
+		then(reported).isEmpty();
+	}
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.brave.bridge;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import brave.Span;
+import brave.Tracer;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import brave.sampler.Sampler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.observability.time.MockClock;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class TailSamplingSpanHandlerTests {
+
+	List<String> reported = new ArrayList<>();
+
+	SpanHandler reporter = new SpanHandler() {
+		@Override
+		public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+			TailSamplingSpanHandlerTests.this.reported.add(span.name());
+			return true;
+		}
+	};
+
+	MockClock clock = new MockClock();
+
+	Tracing tracing;
+
+	@AfterEach
+	void close() {
+		if (this.tracing != null) {
+			this.tracing.close();
+		}
+	}
+
+	@Test
+	void should_keep_traces_with_errors_once_the_local_root_finishes() {
+		Tracer tracer = tracer(TailSamplingSpanHandler.builder(this.reporter).keepProbability(0f).build());
+		Span root = tracer.newTrace().name("root").start();
+
+		tracer.newChild(root.context()).name("child").error(new IllegalStateException()).start().finish();
+		then(this.reported).isEmpty();
+		root.finish();
+
+		then(this.reported).containsExactly("child", "root");
+	}
+
+	@Test
+	void should_keep_traces_with_errors_not_sampled_by_the_head_sampler_when_sampling_locally() {
+		this.tracing = Tracing.newBuilder().sampler(Sampler.NEVER_SAMPLE).alwaysSampleLocal()
+				.addSpanHandler(TailSamplingSpanHandler.builder(this.reporter).keepProbability(0f).build()).build();
+		Tracer tracer = this.tracing.tracer();
+		Span root = tracer.newTrace().name("root").start();
+
+		tracer.newChild(root.context()).name("child").error(new IllegalStateException()).start().finish();
+		root.finish();
+
+		then(root.context().sampled()).isFalse();
+		then(this.reported).containsExactly("child", "root");
+	}
+
+	@Test
+	void should_keep_slow_traces() {
+		Tracer tracer = tracer(TailSamplingSpanHandler.builder(this.reporter).keepProbability(0f)
+				.latencyThreshold(Duration.ofMillis(1)).build());
+		Span root = tracer.newTrace().name("root").start(1_000L);
+
+		root.finish(3_000L);
+
+		then(this.reported).containsExactly("root");
+	}
+
+	@Test
+	void should_sample_the_remaining_traces_with_the_keep_probability() {
+		Tracer dropping = tracer(TailSamplingSpanHandler.builder(this.reporter).keepProbability(0f).build());
+		dropping.newTrace().name("dropped").start().finish();
+		this.tracing.close();
+
+		Tracer keeping = tracer(TailSamplingSpanHandler.builder(this.reporter).keepProbability(1f).build());
+		keeping.newTrace().name("kept").start().finish();
+
+		then(this.reported).containsExactly("kept");
+	}
+
+	@Test
+	void should_apply_the_decision_to_spans_finishing_after_the_local_root() {
+		Tracer tracer = tracer(TailSamplingSpanHandler.builder(this.reporter).keepProbability(0f).build());
+		Span root = tracer.newTrace().name("root").start();
+		Span late = tracer.newChild(root.context()).name("late").start();
+		tracer.newChild(root.context()).name("failed").error(new IllegalStateException()).start().finish();
+		root.finish();
+
+		late.finish();
+
+		then(this.reported).containsExactly("failed", "root", "late");
+	}
+
+	@Test
+	void should_decide_timed_out_traces() {
+		TailSamplingSpanHandler handler = TailSamplingSpanHandler.builder(this.reporter).keepProbability(0f)
+				.timeout(Duration.ofSeconds(5)).clock(this.clock).build();
+		Tracer tracer = tracer(handler);
+		Span root = tracer.newTrace().name("root").start();
+		tracer.newChild(root.context()).name("failed").error(new IllegalStateException()).start().finish();
+		then(handler.getBufferedTraces()).isEqualTo(1);
+		then(handler.getBufferedBytes()).isPositive();
+
+		this.clock.addSeconds(5);
+		tracer.newTrace().name("other").start().finish();
+
+		then(this.reported).containsExactly("failed");
+		then(handler.getEvictedTraces()).isEqualTo(1);
+		then(handler.getKeptTraces()).isEqualTo(1);
+		then(handler.getDroppedTraces()).isEqualTo(1);
+		then(handler.getBufferedTraces()).isZero();
+		then(handler.getBufferedBytes()).isZero();
+	}
+
+	@Test
+	void should_evict_the_oldest_traces_when_over_the_memory_budget() {
+		TailSamplingSpanHandler handler = TailSamplingSpanHandler.builder(this.reporter).keepProbability(0f)
+				.maxBufferedBytes(400).build();
+		Tracer tracer = tracer(handler);
+		Span first = tracer.newTrace().name("first").start();
+		tracer.newChild(first.context()).name("first-failed").error(new IllegalStateException()).start().finish();
+		Span second = tracer.newTrace().name("second").start();
+
+		tracer.newChild(second.context()).name("second-child").start().finish();
+
+		then(this.reported).containsExactly("first-failed");
+		then(handler.getEvictedTraces()).isEqualTo(1);
+		then(handler.getBufferedTraces()).isEqualTo(1);
+	}
+
+	@Test
+	void should_decide_all_buffered_traces_on_flush() {
+		TailSamplingSpanHandler handler = TailSamplingSpanHandler.builder(this.reporter).keepProbability(1f).build();
+		Tracer tracer = tracer(handler);
+		Span root = tracer.newTrace().name("root").start();
+		tracer.newChild(root.context()).name("child").start().finish();
+
+		handler.flush();
+
+		then(this.reported).containsExactly("child");
+		then(handler.getBufferedTraces()).isZero();
+	}
+
+	private Tracer tracer(TailSamplingSpanHandler handler) {
+		this.tracing = Tracing.newBuilder().addSpanHandler(handler).build();
+		return this.tracing.tracer();
+	}
+
+}
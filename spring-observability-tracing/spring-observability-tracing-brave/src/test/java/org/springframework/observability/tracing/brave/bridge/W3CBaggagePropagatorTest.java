@@ -20,6 +20,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import brave.baggage.BaggageField;
 import brave.internal.baggage.BaggageFields;
@@ -29,8 +30,11 @@ import brave.propagation.TraceContextOrSamplingFlags;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.observability.tracing.BaggageInScope;
+
 import static java.util.Collections.singletonMap;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
 /**
  * Test taken from OpenTelemetry.
@@ -120,6 +124,84 @@ class W3CBaggagePropagatorTest {
 				.containsEntry("key3", "value3");
 	}
 
+	@Test
+	void extract_percentEncodedValues() {
+		TraceContextOrSamplingFlags context = context();
+		Map<String, String> carrier = new HashMap<>();
+		carrier.put("baggage", "key1=a%2Cb%25c,key2=caf%C3%A9,key3=100%,key4=%zz");
+
+		TraceContextOrSamplingFlags contextWithBaggage = propagator.contextWithBaggage(carrier, context, Map::get);
+
+		Map<String, String> baggageEntries = BaggageField.getAllValues(contextWithBaggage);
+		assertThat(baggageEntries).hasSize(4).containsEntry("key1", "a,b%c").containsEntry("key2", "caf\u00e9")
+				.containsEntry("key3", "100%").containsEntry("key4", "%zz");
+	}
+
+	@Test
+	void extract_keepsSurrogatePairsOfUnencodedValues() {
+		TraceContextOrSamplingFlags context = context();
+		Map<String, String> carrier = new HashMap<>();
+		carrier.put("baggage", "key=a%2C\ud83d\ude00b\u00e9");
+
+		TraceContextOrSamplingFlags contextWithBaggage = propagator.contextWithBaggage(carrier, context, Map::get);
+
+		assertThat(BaggageField.getAllValues(contextWithBaggage)).containsEntry("key", "a,\ud83d\ude00b\u00e9");
+	}
+
+	@Test
+	void extract_skipsOnlyTheEntriesWhoseBaggageCantBeCreated() {
+		W3CBaggagePropagator propagator = new W3CBaggagePropagator(new BraveBaggageManager() {
+			@Override
+			public BaggageInScope createBaggage(String name) {
+				if (name.equals("broken")) {
+					throw new IllegalStateException("boom");
+				}
+				return super.createBaggage(name);
+			}
+		}, Collections.emptyList());
+		Map<String, String> carrier = new HashMap<>();
+		carrier.put("baggage", "key1=value1,broken=value,key2=value2");
+
+		TraceContextOrSamplingFlags contextWithBaggage = propagator.contextWithBaggage(carrier, context(), Map::get);
+
+		assertThat(BaggageField.getAllValues(contextWithBaggage)).hasSize(2).containsEntry("key1", "value1")
+				.containsEntry("key2", "value2");
+	}
+
+	@Test
+	void extract_skipsEntriesWithoutKeyOrDelimiter() {
+		TraceContextOrSamplingFlags context = context();
+		Map<String, String> carrier = new HashMap<>();
+		carrier.put("baggage", ",,=value, novalue ;meta=data,key=value,");
+
+		TraceContextOrSamplingFlags contextWithBaggage = propagator.contextWithBaggage(carrier, context, Map::get);
+
+		Map<String, String> baggageEntries = BaggageField.getAllValues(contextWithBaggage);
+		assertThat(baggageEntries).hasSize(1).containsEntry("key", "value");
+	}
+
+	@Test
+	void extract_reusesFieldsForTheSameKeys() {
+		AtomicInteger created = new AtomicInteger();
+		W3CBaggagePropagator propagator = new W3CBaggagePropagator(new BraveBaggageManager() {
+			@Override
+			public BaggageInScope createBaggage(String name) {
+				created.incrementAndGet();
+				return super.createBaggage(name);
+			}
+		}, Collections.emptyList());
+		Map<String, String> carrier = new HashMap<>();
+		carrier.put("baggage", "key1=value1,key2=value2");
+		TraceContextOrSamplingFlags first = propagator.contextWithBaggage(carrier, context(), Map::get);
+		carrier.put("baggage", "key1=other1, key2=other2");
+
+		TraceContextOrSamplingFlags second = propagator.contextWithBaggage(carrier, context(), Map::get);
+
+		assertThat(BaggageField.getAllValues(first)).containsEntry("key1", "value1").containsEntry("key2", "value2");
+		assertThat(BaggageField.getAllValues(second)).containsEntry("key1", "other1").containsEntry("key2", "other2");
+		assertThat(created).hasValue(2);
+	}
+
 	/**
 	 * It would be cool if we could replace this with a fuzzer to generate tons of crud
 	 * data, to make sure we don't blow up with it.
@@ -167,4 +249,48 @@ class W3CBaggagePropagatorTest {
 				singletonMap("baggage", "nometa=nometa-value,meta=meta-value;somemetadata; someother=foo"));
 	}
 
+	@Test
+	void inject_skipsLocalFieldsAndEncodesValues() {
+		W3CBaggagePropagator propagator = new W3CBaggagePropagator(new BraveBaggageManager(),
+				Collections.singletonList("local"));
+		TraceContextOrSamplingFlags.Builder builder = context().toBuilder();
+		BaggageField local = BaggageField.create("local");
+		BaggageField remote = BaggageField.create("remote");
+		builder.addExtra(BaggageFields.newFactory(Arrays.asList(local, remote), 10).create());
+		TraceContextOrSamplingFlags context = builder.build();
+		local.updateValue(context, "local-value");
+		remote.updateValue(context, "a,b%c\u00e9");
+		Map<String, String> carrier = new HashMap<>();
+
+		propagator.injector((Propagation.Setter<Map<String, String>, String>) Map::put).inject(context.context(),
+				carrier);
+
+		assertThat(carrier).containsExactly(entry("baggage", "remote=a%2Cb%25c%C3%A9"));
+		assertThat(propagator.contextWithBaggage(carrier, context(), Map::get).context())
+				.satisfies(c -> assertThat(BaggageField.getAllValues(c)).containsEntry("remote", "a,b%c\u00e9"));
+	}
+
+	@Test
+	void inject_encodesTheCurrentValues() {
+		TraceContextOrSamplingFlags.Builder builder = context().toBuilder();
+		BaggageField field = BaggageField.create("key");
+		builder.addExtra(BaggageFields.newFactory(Collections.singletonList(field), 10).create());
+		TraceContextOrSamplingFlags context = builder.build();
+		field.updateValue(context, "value");
+		Map<String, String> first = new HashMap<>();
+		Map<String, String> second = new HashMap<>();
+		Map<String, String> third = new HashMap<>();
+		TraceContext.Injector<Map<String, String>> injector = propagator
+				.injector((Propagation.Setter<Map<String, String>, String>) Map::put);
+
+		injector.inject(context.context(), first);
+		injector.inject(context.context(), second);
+		field.updateValue(context, "other");
+		injector.inject(context.context(), third);
+
+		assertThat(first).containsExactly(entry("baggage", "key=value"));
+		assertThat(second).isEqualTo(first);
+		assertThat(third).containsExactly(entry("baggage", "key=other"));
+	}
+
 }
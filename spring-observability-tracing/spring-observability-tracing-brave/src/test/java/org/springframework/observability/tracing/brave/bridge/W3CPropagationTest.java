@@ -21,6 +21,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Random;
 
 import brave.propagation.Propagation;
 import brave.propagation.TraceContext;
@@ -274,6 +275,78 @@ class W3CPropagationTest {
 				.isEqualTo(sharedTraceContext().build());
 	}
 
+	@Test
+	void extract_InvalidVersion_notHex() {
+		Map<String, String> invalidHeaders = new HashMap<>();
+		invalidHeaders.put(TRACE_PARENT, "0g-" + TRACE_ID_BASE16 + "-" + SPAN_ID_BASE16 + "-01");
+		assertThat(w3CPropagation.extractor(getter).extract(invalidHeaders))
+				.isSameAs(TraceContextOrSamplingFlags.EMPTY);
+	}
+
+	@Test
+	void extract_AllZeroIds() {
+		Map<String, String> invalidHeaders = new HashMap<>();
+		invalidHeaders.put(TRACE_PARENT, "00-00000000000000000000000000000000-" + SPAN_ID_BASE16 + "-01");
+		assertThat(w3CPropagation.extractor(getter).extract(invalidHeaders))
+				.isSameAs(TraceContextOrSamplingFlags.EMPTY);
+		invalidHeaders.put(TRACE_PARENT, "00-" + TRACE_ID_BASE16 + "-0000000000000000-01");
+		assertThat(w3CPropagation.extractor(getter).extract(invalidHeaders))
+				.isSameAs(TraceContextOrSamplingFlags.EMPTY);
+	}
+
+	@Test
+	void inject_thenExtract_roundTripsRandomIds() {
+		Random random = new Random(7);
+		for (int i = 0; i < 100; i++) {
+			TraceContext traceContext = TraceContext.newBuilder().traceIdHigh(random.nextLong())
+					.traceId(random.nextLong() | 1L).spanId(random.nextLong() | 1L).sampled(random.nextBoolean())
+					.build();
+			Map<String, String> carrier = new LinkedHashMap<>();
+
+			w3CPropagation.injector((Map<String, String> c, String key, String value) -> c.put(key, value))
+					.inject(traceContext, carrier);
+
+			assertThat(w3CPropagation.extractor(getter).extract(carrier).context())
+					.isEqualTo(traceContext.toBuilder().shared(true).build());
+		}
+	}
+
+	@Test
+	void extract_thenInject_passesTracestateThroughUnchanged() {
+		Map<String, String> carrier = new LinkedHashMap<>();
+		String traceState = "rojo=00f067aa0ba902b7,congo=t61rcWkgMzE";
+		carrier.put(TRACE_PARENT, TRACEPARENT_HEADER_SAMPLED);
+		carrier.put(TRACE_STATE, traceState);
+		TraceContext extracted = w3CPropagation.extractor(getter).extract(carrier).context();
+		Map<String, String> outgoing = new LinkedHashMap<>();
+
+		w3CPropagation.injector((Map<String, String> c, String key, String value) -> c.put(key, value))
+				.inject(extracted, outgoing);
+
+		assertThat(outgoing.get(TRACE_STATE)).isSameAs(traceState);
+	}
+
+	@Test
+	void inject_modifiedTracestate() {
+		Map<String, String> carrier = new LinkedHashMap<>();
+		carrier.put(TRACE_PARENT, TRACEPARENT_HEADER_SAMPLED);
+		carrier.put(TRACE_STATE, "rojo=00f067aa0ba902b7");
+		TraceContext extracted = w3CPropagation.extractor(getter).extract(carrier).context();
+		org.springframework.observability.tracing.TraceContext context = BraveTraceContext.fromBrave(extracted);
+		TraceContext modified = BraveTraceContext
+				.toBrave(W3CTraceState.find(context).put("congo", "t61rcWkgMzE").applyTo(context));
+		Map<String, String> outgoing = new LinkedHashMap<>();
+		Map<String, String> unmodified = new LinkedHashMap<>();
+
+		w3CPropagation.injector((Map<String, String> c, String key, String value) -> c.put(key, value)).inject(modified,
+				outgoing);
+		w3CPropagation.injector((Map<String, String> c, String key, String value) -> c.put(key, value))
+				.inject(extracted, unmodified);
+
+		assertThat(outgoing).containsEntry(TRACE_STATE, "congo=t61rcWkgMzE,rojo=00f067aa0ba902b7");
+		assertThat(unmodified).containsEntry(TRACE_STATE, "rojo=00f067aa0ba902b7");
+	}
+
 	@Test
 	void fieldsList() {
 		assertThat(w3CPropagation.keys()).containsExactly(TRACE_PARENT, TRACE_STATE);
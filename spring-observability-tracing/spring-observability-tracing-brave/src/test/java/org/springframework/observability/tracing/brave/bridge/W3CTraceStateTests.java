@@ -0,0 +1,159 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.brave.bridge;
+
+import java.util.StringJoiner;
+
+import brave.Tracing;
+import brave.propagation.TraceContext;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+
+class W3CTraceStateTests {
+
+	@Test
+	void should_return_the_received_header_when_unchanged() {
+		String header = "rojo=00f067aa0ba902b7, congo=t61rcWkgMzE";
+
+		W3CTraceState traceState = W3CTraceState.fromHeader(header);
+
+		then(traceState.toString()).isSameAs(header);
+		then(traceState.get("congo")).isEqualTo("t61rcWkgMzE");
+		then(traceState.toString()).isSameAs(header);
+	}
+
+	@Test
+	void should_move_the_modified_entry_to_the_front() {
+		W3CTraceState traceState = W3CTraceState.fromHeader("rojo=00f067aa0ba902b7,congo=t61rcWkgMzE");
+
+		W3CTraceState modified = traceState.put("congo", "ucfJifl5GOE").put("tenant@vendor", "value");
+
+		then(modified.toString()).isEqualTo("tenant@vendor=value,congo=ucfJifl5GOE,rojo=00f067aa0ba902b7");
+		then(traceState.toString()).isEqualTo("rojo=00f067aa0ba902b7,congo=t61rcWkgMzE");
+	}
+
+	@Test
+	void should_remove_entries() {
+		W3CTraceState traceState = W3CTraceState.fromHeader("rojo=00f067aa0ba902b7,congo=t61rcWkgMzE");
+
+		W3CTraceState modified = traceState.remove("rojo");
+
+		then(modified.toString()).isEqualTo("congo=t61rcWkgMzE");
+		then(modified.get("rojo")).isNull();
+		then(traceState.get("rojo")).isEqualTo("00f067aa0ba902b7");
+		then(traceState.remove("missing")).isSameAs(traceState);
+	}
+
+	@Test
+	void should_reject_invalid_entries() {
+		W3CTraceState traceState = W3CTraceState.fromHeader("rojo=00f067aa0ba902b7");
+
+		thenThrownBy(() -> traceState.put("Rojo", "value")).isInstanceOf(IllegalArgumentException.class);
+		thenThrownBy(() -> traceState.put("rojo", "a,b")).isInstanceOf(IllegalArgumentException.class);
+		thenThrownBy(() -> traceState.put("rojo", "a=b")).isInstanceOf(IllegalArgumentException.class);
+		thenThrownBy(() -> traceState.put("rojo", "")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void should_discard_an_invalid_header_once_parsed() {
+		W3CTraceState traceState = W3CTraceState.fromHeader("foo=bar;test=test");
+
+		then(traceState.get("foo")).isNull();
+		then(traceState.isEmpty()).isTrue();
+	}
+
+	@Test
+	void should_discard_a_header_with_too_many_entries() {
+		StringJoiner header = new StringJoiner(",");
+		for (int i = 0; i <= W3CTraceState.MAX_ENTRIES; i++) {
+			header.add("k" + i + "=v");
+		}
+
+		W3CTraceState traceState = W3CTraceState.fromHeader(header.toString());
+
+		then(traceState.isEmpty()).isTrue();
+	}
+
+	@Test
+	void should_truncate_a_too_long_header_dropping_large_entries_first() {
+		StringJoiner header = new StringJoiner(",");
+		header.add("large=" + repeat('x', 200));
+		for (int i = 0; i < 30; i++) {
+			header.add("key" + i + "=" + repeat('v', 10));
+		}
+
+		W3CTraceState traceState = W3CTraceState.fromHeader(header.toString());
+
+		then(traceState.toString().length()).isLessThanOrEqualTo(W3CTraceState.MAX_LENGTH);
+		then(traceState.get("large")).isNull();
+		then(traceState.get("key0")).isEqualTo(repeat('v', 10));
+	}
+
+	@Test
+	void should_not_create_a_state_for_a_missing_header() {
+		then(W3CTraceState.fromHeader(null)).isNull();
+		then(W3CTraceState.fromHeader("")).isNull();
+	}
+
+	@Test
+	void should_be_carried_to_child_spans() {
+		W3CTraceState traceState = W3CTraceState.fromHeader("rojo=00f067aa0ba902b7");
+		TraceContext parent = TraceContext.newBuilder().traceId(1L).spanId(2L).sampled(true).addExtra(traceState)
+				.build();
+
+		try (Tracing tracing = Tracing.newBuilder().build()) {
+			brave.Span child = tracing.tracer().newChild(parent);
+
+			then(W3CTraceState.find(BraveTraceContext.fromBrave(child.context()))).isSameAs(traceState);
+		}
+	}
+
+	@Test
+	void should_not_change_the_state_of_the_parent_and_sibling_contexts() {
+		W3CTraceState traceState = W3CTraceState.fromHeader("rojo=00f067aa0ba902b7");
+		TraceContext parent = TraceContext.newBuilder().traceId(1L).spanId(2L).sampled(true).addExtra(traceState)
+				.build();
+
+		try (Tracing tracing = Tracing.newBuilder().build()) {
+			brave.Span child = tracing.tracer().newChild(parent);
+			brave.Span sibling = tracing.tracer().newChild(parent);
+			org.springframework.observability.tracing.TraceContext childContext = BraveTraceContext
+					.fromBrave(child.context());
+
+			W3CTraceState modified = W3CTraceState.find(childContext).put("congo", "t61rcWkgMzE");
+			org.springframework.observability.tracing.TraceContext modifiedContext = modified.applyTo(childContext);
+
+			then(W3CTraceState.find(modifiedContext).toString()).isEqualTo("congo=t61rcWkgMzE,rojo=00f067aa0ba902b7");
+			then(modifiedContext.spanId()).isEqualTo(childContext.spanId());
+			then(W3CTraceState.find(childContext).toString()).isEqualTo("rojo=00f067aa0ba902b7");
+			then(W3CTraceState.find(BraveTraceContext.fromBrave(sibling.context())).toString())
+					.isEqualTo("rojo=00f067aa0ba902b7");
+			then(parent.findExtra(W3CTraceState.class)).isSameAs(traceState);
+		}
+	}
+
+	private static String repeat(char c, int times) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < times; i++) {
+			builder.append(c);
+		}
+		return builder.toString();
+	}
+
+}
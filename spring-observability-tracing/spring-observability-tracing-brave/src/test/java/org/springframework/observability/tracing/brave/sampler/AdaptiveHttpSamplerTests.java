@@ -0,0 +1,129 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.brave.sampler;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.observability.time.MockClock;
+import org.springframework.observability.transport.http.HttpRequest;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class AdaptiveHttpSamplerTests {
+
+	MockClock clock = new MockClock();
+
+	@Test
+	void should_lower_the_probability_of_a_busy_endpoint() {
+		AdaptiveHttpSampler sampler = AdaptiveHttpSampler.builder(10).minTracesPerWindow(0).clock(this.clock).build();
+		HttpRequest request = request("GET", "/orders", null);
+
+		sample(sampler, request, 1000);
+		this.clock.addSeconds(1);
+		int sampled = sample(sampler, request, 1000);
+
+		then(sampler.getEndpoints()).singleElement().satisfies(state -> {
+			then(state.getEndpoint()).isEqualTo("GET /orders");
+			then(state.getRequestsPerSecond()).isEqualTo(1000d);
+			then(state.getProbability()).isEqualTo(0.01f);
+		});
+		then(sampled).isLessThan(100);
+	}
+
+	@Test
+	void should_cap_the_traces_of_a_new_endpoint_at_the_target_during_its_first_window() {
+		AdaptiveHttpSampler sampler = AdaptiveHttpSampler.builder(10).clock(this.clock).build();
+
+		then(sample(sampler, request("GET", "/orders", null), 1000)).isEqualTo(10);
+	}
+
+	@Test
+	void should_cap_the_traces_of_the_shared_endpoint_at_the_target_during_its_first_window() {
+		AdaptiveHttpSampler sampler = AdaptiveHttpSampler.builder(10).maxEndpoints(1).clock(this.clock).build();
+		sampler.trySample(request("GET", "/a", null));
+
+		then(sample(sampler, request("GET", "/b", null), 1000)).isEqualTo(10);
+	}
+
+	@Test
+	void should_keep_sampling_a_quiet_endpoint() {
+		AdaptiveHttpSampler sampler = AdaptiveHttpSampler.builder(10).clock(this.clock).build();
+		HttpRequest request = request("GET", "/rare", null);
+
+		sample(sampler, request, 5);
+		this.clock.addSeconds(1);
+
+		then(sample(sampler, request, 5)).isEqualTo(5);
+		then(sampler.getEndpoints()).singleElement().satisfies(state -> then(state.getProbability()).isEqualTo(1f));
+	}
+
+	@Test
+	void should_guarantee_the_floor_of_sampled_traces() {
+		AdaptiveHttpSampler sampler = AdaptiveHttpSampler.builder(1).minTracesPerWindow(3).clock(this.clock).build();
+		HttpRequest request = request("GET", "/orders", null);
+
+		sample(sampler, request, 10_000);
+		this.clock.addSeconds(1);
+
+		then(sample(sampler, request, 3)).isEqualTo(3);
+	}
+
+	@Test
+	void should_group_requests_by_route_or_path_template() {
+		AdaptiveHttpSampler sampler = AdaptiveHttpSampler.builder(10).clock(this.clock).build();
+
+		sampler.trySample(request("GET", "/users/42", null));
+		sampler.trySample(request("GET", "/users/43", null));
+		sampler.trySample(request("POST", "/items/1", "/items/:id"));
+
+		then(sampler.getEndpoints()).extracting(AdaptiveHttpSampler.EndpointState::getEndpoint)
+				.containsExactlyInAnyOrder("GET /users/{id}", "POST /items/:id");
+	}
+
+	@Test
+	void should_share_the_state_of_endpoints_over_the_maximum() {
+		AdaptiveHttpSampler sampler = AdaptiveHttpSampler.builder(10).maxEndpoints(1).clock(this.clock).build();
+
+		sampler.trySample(request("GET", "/a", null));
+		sampler.trySample(request("GET", "/b", null));
+		sampler.trySample(request("GET", "/c", null));
+
+		then(sampler.getEndpoints()).extracting(AdaptiveHttpSampler.EndpointState::getEndpoint)
+				.containsExactlyInAnyOrder("GET /a", AdaptiveHttpSampler.OTHER_ENDPOINT);
+	}
+
+	private int sample(AdaptiveHttpSampler sampler, HttpRequest request, int times) {
+		int sampled = 0;
+		for (int i = 0; i < times; i++) {
+			if (sampler.trySample(request)) {
+				sampled++;
+			}
+		}
+		return sampled;
+	}
+
+	private HttpRequest request(String method, String path, String route) {
+		HttpRequest request = mock(HttpRequest.class);
+		given(request.method()).willReturn(method);
+		given(request.path()).willReturn(path);
+		given(request.route()).willReturn(route);
+		return request;
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.brave.sampler;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import brave.sampler.Sampler;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.BDDAssertions.then;
+
+class BackpressureAwareSamplerTests {
+
+	AtomicReference<Double> occupancy = new AtomicReference<>(0.0);
+
+	BackpressureAwareSampler sampler = new BackpressureAwareSampler(Sampler.ALWAYS_SAMPLE, this.occupancy::get);
+
+	@Test
+	void should_delegate_while_the_queue_has_room() {
+		then(this.sampler.getBackoffFactor()).isEqualTo(1.0);
+		then(sampledOutOf(1000)).isEqualTo(1000);
+		then(new BackpressureAwareSampler(Sampler.NEVER_SAMPLE, this.occupancy::get).isSampled(1L)).isFalse();
+	}
+
+	@Test
+	void should_lower_the_probability_as_the_queue_fills_up_and_raise_it_as_it_drains() {
+		this.occupancy.set(0.725);
+		then(this.sampler.getBackoffFactor()).isCloseTo(0.5, offset());
+		then(sampledOutOf(10_000)).isBetween(4_700, 5_300);
+
+		this.occupancy.set(0.95);
+		then(sampledOutOf(1000)).isZero();
+
+		this.occupancy.set(0.1);
+		then(sampledOutOf(1000)).isEqualTo(1000);
+	}
+
+	@Test
+	void should_make_the_same_decision_for_the_same_trace_id_at_the_same_occupancy() {
+		this.occupancy.set(0.7);
+		long traceId = new Random().nextLong();
+
+		boolean sampled = this.sampler.isSampled(traceId);
+
+		then(this.sampler.isSampled(traceId)).isEqualTo(sampled);
+	}
+
+	@Test
+	void should_fail_given_invalid_watermarks() {
+		assertThatThrownBy(() -> new BackpressureAwareSampler(Sampler.ALWAYS_SAMPLE, () -> 0, 0.9, 0.5))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private int sampledOutOf(int traces) {
+		Random random = new Random();
+		int sampled = 0;
+		for (int i = 0; i < traces; i++) {
+			if (this.sampler.isSampled(random.nextLong())) {
+				sampled++;
+			}
+		}
+		return sampled;
+	}
+
+	private static Offset<Double> offset() {
+		return Offset.offset(0.0001);
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2013-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.observability.tracing.brave.sampler;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.observability.time.MockClock;
+import org.springframework.observability.transport.http.HttpRequest;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class HttpRuleSamplerTests {
+
+	MockClock clock = new MockClock();
+
+	@Test
+	void should_defer_when_no_rule_matches() {
+		HttpRuleSampler sampler = HttpRuleSampler.builder().probability("GET", "/health", 0f).build();
+
+		then(sampler.trySample(request("GET", "/orders"))).isNull();
+		then(sampler.trySample(request("POST", "/health"))).isNull();
+		then(sampler.trySample(request("GET", null))).isNull();
+		then(sampler.trySample(null)).isNull();
+	}
+
+	@Test
+	void should_match_literal_wildcard_and_variable_segments() {
+		HttpRuleSampler sampler = HttpRuleSampler.builder().probability(null, "/health", 0f)
+				.probability("GET", "/orders/{id}/items/*", 1f).build();
+
+		then(sampler.trySample(request("GET", "/health"))).isFalse();
+		then(sampler.trySample(request("DELETE", "/health/"))).isFalse();
+		then(sampler.trySample(request("GET", "/orders/12/items/3"))).isTrue();
+		then(sampler.trySample(request("GET", "/orders/12/items"))).isNull();
+		then(sampler.trySample(request("GET", "/orders/12/items/3/4"))).isNull();
+	}
+
+	@Test
+	void should_match_remaining_segments() {
+		HttpRuleSampler sampler = HttpRuleSampler.builder().probability(null, "/static/**", 0f).build();
+
+		then(sampler.trySample(request("GET", "/static"))).isFalse();
+		then(sampler.trySample(request("GET", "/static/css/main.css"))).isFalse();
+		then(sampler.trySample(request("GET", "/statics"))).isNull();
+	}
+
+	@Test
+	void should_let_the_first_declared_matching_rule_decide() {
+		HttpRuleSampler sampler = HttpRuleSampler.builder().probability("GET", "/orders/*", 0f)
+				.probability(null, "/orders/special", 1f).probability(null, "/**", 1f).build();
+
+		then(sampler.trySample(request("GET", "/orders/special"))).isFalse();
+		then(sampler.trySample(request("POST", "/orders/special"))).isTrue();
+		then(sampler.trySample(request("POST", "/anything/else"))).isTrue();
+	}
+
+	@Test
+	void should_rate_limit_each_rule_separately() {
+		HttpRuleSampler sampler = HttpRuleSampler.builder().rateLimit(null, "/a", 2).rateLimit(null, "/b", 1)
+				.clock(this.clock).build();
+
+		then(sampler.trySample(request("GET", "/a"))).isTrue();
+		then(sampler.trySample(request("GET", "/a"))).isTrue();
+		then(sampler.trySample(request("GET", "/a"))).isFalse();
+		then(sampler.trySample(request("GET", "/b"))).isTrue();
+		then(sampler.trySample(request("GET", "/b"))).isFalse();
+
+		this.clock.addSeconds(1);
+
+		then(sampler.trySample(request("GET", "/a"))).isTrue();
+		then(sampler.trySample(request("GET", "/b"))).isTrue();
+	}
+
+	@Test
+	void should_swap_the_rules() {
+		HttpRuleSampler sampler = HttpRuleSampler.builder().probability(null, "/orders", 0f).build();
+
+		sampler.setRules(HttpRuleSampler.builder().probability(null, "/orders", 1f));
+
+		then(sampler.trySample(request("GET", "/orders"))).isTrue();
+	}
+
+	@Test
+	void should_reject_unsupported_patterns() {
+		assertThatThrownBy(() -> HttpRuleSampler.builder().probability(null, "/**/orders", 1f))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> HttpRuleSampler.builder().probability(null, "/orders*", 1f))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private HttpRequest request(String method, String path) {
+		HttpRequest request = mock(HttpRequest.class);
+		given(request.method()).willReturn(method);
+		given(request.path()).willReturn(path);
+		return request;
+	}
+
+}
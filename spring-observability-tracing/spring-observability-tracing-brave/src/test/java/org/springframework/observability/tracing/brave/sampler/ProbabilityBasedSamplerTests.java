@@ -17,6 +17,7 @@
 package org.springframework.observability.tracing.brave.sampler;
 
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import brave.sampler.Sampler;
@@ -59,13 +60,89 @@ public class ProbabilityBasedSamplerTests {
 
 	@Test
 	public void should_pass_given_percent_of_samples_with_fractional_element() throws Exception {
-		int numberOfIterations = 1000;
+		int numberOfIterations = 10000;
 		float probability = 0.35f;
 
 		int numberOfSampledElements = countNumberOfSampledElements(numberOfIterations, () -> probability);
 
 		int threshold = (int) (numberOfIterations * probability);
-		then(numberOfSampledElements).isEqualTo(threshold);
+		then(numberOfSampledElements).isBetween(threshold - 300, threshold + 300);
+	}
+
+	@Test
+	public void should_make_the_same_decision_for_the_same_trace_id() {
+		ProbabilityBasedSampler first = new ProbabilityBasedSampler(() -> 0.5f);
+		ProbabilityBasedSampler second = new ProbabilityBasedSampler(() -> 0.5f);
+
+		for (int i = 0; i < 100; i++) {
+			long traceId = RANDOM.nextLong();
+			boolean sampled = first.isSampled(traceId);
+			then(first.isSampled(traceId)).isEqualTo(sampled);
+			then(second.isSampled(traceId)).isEqualTo(sampled);
+		}
+	}
+
+	@Test
+	public void should_sample_by_the_low_63_bits_of_the_trace_id() {
+		ProbabilityBasedSampler sampler = new ProbabilityBasedSampler(() -> 0.5f);
+
+		then(sampler.isSampled(1L)).isTrue();
+		then(sampler.isSampled(Long.MIN_VALUE | 1L)).isTrue();
+		then(sampler.isSampled(Long.MAX_VALUE)).isFalse();
+	}
+
+	@Test
+	public void should_support_very_low_probabilities() {
+		ProbabilityBasedSampler sampler = new ProbabilityBasedSampler(() -> 0.000001f);
+
+		then(sampler.isSampled(1L)).isTrue();
+		then(sampler.isSampled(Long.MAX_VALUE / 100_000)).isFalse();
+	}
+
+	@Test
+	public void should_apply_a_changed_probability() {
+		ProbabilityBasedSampler sampler = new ProbabilityBasedSampler(() -> 0f);
+		then(sampler.isSampled(1L)).isFalse();
+
+		sampler.setProbability(1f);
+
+		then(sampler.getProbability()).isEqualTo(1f);
+		then(sampler.isSampled(Long.MAX_VALUE)).isTrue();
+	}
+
+	@Test
+	public void should_apply_a_changed_value_of_the_probability_supplier() {
+		AtomicReference<Float> probability = new AtomicReference<>(0f);
+		ProbabilityBasedSampler sampler = new ProbabilityBasedSampler(probability::get);
+		then(sampler.isSampled(1L)).isFalse();
+
+		probability.set(1f);
+
+		then(sampler.getProbability()).isEqualTo(1f);
+		then(sampler.isSampled(Long.MAX_VALUE)).isTrue();
+
+		probability.set(0.5f);
+
+		then(sampler.isSampled(1L)).isTrue();
+		then(sampler.isSampled(Long.MAX_VALUE)).isFalse();
+	}
+
+	@Test
+	public void should_keep_the_last_valid_probability_when_the_supplier_returns_an_invalid_one() {
+		AtomicReference<Float> probability = new AtomicReference<>(1f);
+		ProbabilityBasedSampler sampler = new ProbabilityBasedSampler(probability::get);
+
+		for (Float invalid : new Float[] { 1.5f, -0.1f, Float.NaN, null }) {
+			probability.set(invalid);
+
+			then(sampler.isSampled(Long.MAX_VALUE)).isTrue();
+			then(sampler.getProbability()).isEqualTo(1f);
+		}
+	}
+
+	@Test
+	public void should_fail_given_probability_out_of_range() {
+		assertThatThrownBy(() -> new ProbabilityBasedSampler(() -> 1.5f)).isInstanceOf(IllegalArgumentException.class);
 	}
 
 	@Test
@@ -24,6 +24,7 @@ import brave.propagation.TraceContext;
 
 import org.springframework.observability.tracing.brave.bridge.BraveFinishedSpan;
 import org.springframework.observability.tracing.brave.bridge.BraveTraceContext;
+import org.springframework.observability.tracing.exporter.QueueOccupancy;
 
 /**
  * A {@link SpanHandler} that sends spans to Wavefront.
@@ -31,7 +32,7 @@ import org.springframework.observability.tracing.brave.bridge.BraveTraceContext;
  * @author Marcin Grzejszczak
  * @since 1.0.0
  */
-public class WavefrontSleuthBraveSpanHandler extends SpanHandler implements Runnable, Closeable {
+public class WavefrontSleuthBraveSpanHandler extends SpanHandler implements Runnable, Closeable, QueueOccupancy {
 
 	private final WavefrontSleuthSpanHandler spanHandler;
 
@@ -47,6 +48,11 @@ public class WavefrontSleuthBraveSpanHandler extends SpanHandler implements Runn
 		return spanHandler.end(BraveTraceContext.fromBrave(context), BraveFinishedSpan.fromBrave(span));
 	}
 
+	@Override
+	public double occupancy() {
+		return this.spanHandler.occupancy();
+	}
+
 	@Override
 	public void close() {
 		this.spanHandler.close();
@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 
@@ -36,11 +37,13 @@ import com.wavefront.sdk.entities.tracing.SpanLog;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
 
 import org.springframework.observability.tracing.brave.bridge.BraveFinishedSpan;
 import org.springframework.observability.tracing.brave.bridge.BraveTraceContext;
 
 import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.Mockito.mock;
 
 class WavefrontSleuthSpanHandlerTests {
 
@@ -58,6 +61,48 @@ class WavefrontSleuthSpanHandlerTests {
 		thenTagsAreAttached(spanRecord);
 	}
 
+	@Test
+	void should_send_128_bit_trace_ids_and_skip_missing_parents() throws InterruptedException {
+		BlockingDeque<SpanRecord> spanRecordQueue = new LinkedBlockingDeque<>();
+		WavefrontSleuthSpanHandler handler = spanHandler(spanRecordQueue, new SimpleMeterRegistry());
+
+		handler.end(
+				new BraveTraceContext(
+						TraceContext.newBuilder().traceIdHigh(0x10L).traceId(0xabL).spanId(0xcdL).build()),
+				new BraveFinishedSpan(mutableSpan()));
+
+		SpanRecord spanRecord = takeRecord(spanRecordQueue);
+		then(spanRecord.traceId).hasToString("00000000-0000-0010-0000-0000000000ab");
+		then(spanRecord.spanId).hasToString("00000000-0000-0000-0000-0000000000cd");
+		then(spanRecord.parents).isNull();
+	}
+
+	@Test
+	void should_publish_the_occupancy_of_the_span_buffer() throws Exception {
+		CountDownLatch sending = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		WavefrontSender sender = mock(WavefrontSender.class, invocation -> {
+			if (invocation.getMethod().getName().equals("sendSpan")) {
+				sending.countDown();
+				release.await();
+			}
+			return Answers.RETURNS_DEFAULTS.answer(invocation);
+		});
+		WavefrontSleuthSpanHandler handler = new WavefrontSleuthSpanHandler(10, sender, new SimpleMeterRegistry(),
+				"source", applicationTags(), Collections.emptySet());
+		BraveTraceContext context = new BraveTraceContext(TraceContext.newBuilder().traceId(1L).spanId(2L).build());
+		then(handler.occupancy()).isZero();
+
+		handler.end(context, new BraveFinishedSpan(mutableSpan()));
+		then(sending.await(3, TimeUnit.SECONDS)).isTrue();
+		for (int i = 0; i < 5; i++) {
+			handler.end(context, new BraveFinishedSpan(mutableSpan()));
+		}
+
+		then(handler.occupancy()).isEqualTo(0.5);
+		release.countDown();
+	}
+
 	private void thenTagsAreAttached(SpanRecord spanRecord) {
 		then(spanRecord.tags).containsExactlyInAnyOrder(Pair.of("application", "application"),
 				Pair.of("service", "service"), Pair.of("cluster", "cluster"), Pair.of("foo", "bar"),
@@ -41,6 +41,26 @@ public class NoOpTraceContext implements TraceContext {
 		return "";
 	}
 
+	@Override
+	public long traceIdHigh() {
+		return 0L;
+	}
+
+	@Override
+	public long traceIdLow() {
+		return 0L;
+	}
+
+	@Override
+	public long parentIdLong() {
+		return 0L;
+	}
+
+	@Override
+	public long spanIdLong() {
+		return 0L;
+	}
+
 	@Override
 	public Boolean sampled() {
 		return false;
@@ -110,6 +110,11 @@ public class SimpleSpan implements Span {
 	 */
 	public Clock clock = Clock.SYSTEM;
 
+	/**
+	 * Context of the parent span, if set on the span builder.
+	 */
+	public TraceContext parent;
+
 	@Override
 	public boolean isNoop() {
 		return this.noOp;
@@ -117,7 +122,36 @@ public class SimpleSpan implements Span {
 
 	@Override
 	public TraceContext context() {
-		return new NoOpTraceContext();
+		TraceContext parent = this.parent;
+		if (parent == null) {
+			return new NoOpTraceContext();
+		}
+		return new NoOpTraceContext() {
+			@Override
+			public String traceId() {
+				return parent.traceId();
+			}
+
+			@Override
+			public String parentId() {
+				return parent.spanId();
+			}
+
+			@Override
+			public long traceIdHigh() {
+				return parent.traceIdHigh();
+			}
+
+			@Override
+			public long traceIdLow() {
+				return parent.traceIdLow();
+			}
+
+			@Override
+			public long parentIdLong() {
+				return parent.spanIdLong();
+			}
+		};
 	}
 
 	@Override
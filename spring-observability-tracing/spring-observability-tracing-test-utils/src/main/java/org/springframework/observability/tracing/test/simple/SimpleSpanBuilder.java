@@ -72,6 +72,11 @@ public class SimpleSpanBuilder implements Span.Builder {
 	 */
 	public int port;
 
+	/**
+	 * Context of the parent span.
+	 */
+	public TraceContext parent;
+
 	/**
 	 * Simple tracer.
 	 */
@@ -86,11 +91,13 @@ public class SimpleSpanBuilder implements Span.Builder {
 
 	@Override
 	public Span.Builder setParent(TraceContext context) {
+		this.parent = context;
 		return this;
 	}
 
 	@Override
 	public Span.Builder setNoParent() {
+		this.parent = null;
 		return this;
 	}
 
@@ -147,6 +154,7 @@ public class SimpleSpanBuilder implements Span.Builder {
 		span.spanKind = this.spanKind;
 		span.name(this.name);
 		span.remoteIpAndPort(this.ip, this.port);
+		span.parent = this.parent;
 		span.start();
 		simpleTracer.spans.add(span);
 		return span;